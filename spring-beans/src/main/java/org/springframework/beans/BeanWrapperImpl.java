@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.beans;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessControlContext;
 import java.security.AccessController;
@@ -24,10 +25,15 @@ import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.GeneratedAccessor;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -42,6 +48,11 @@ import org.springframework.util.ReflectionUtils;
  * across the application). See the base class
  * {@link PropertyEditorRegistrySupport} for details.
  *
+ * <p>As of Spring 5.2, the getter and setter methods of a frequently accessed
+ * property are invoked through a {@link GeneratedAccessor} rather than reflectively,
+ * as long as no security manager is active.
+ * See {@link #ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME} for configuration.
+ *
  * <p><b>NOTE: As of Spring 2.5, this is - for almost all purposes - an
  * internal class.</b> It is just public in order to allow for access from
  * other framework packages. For standard application access purposes, use the
@@ -62,6 +73,23 @@ import org.springframework.util.ReflectionUtils;
  */
 public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements BeanWrapper {
 
+	/**
+	 * System property that specifies after how many accesses to a bean property
+	 * its getter and setter methods are invoked through a generated accessor:
+	 * {@code spring.beans.accessor-generation-threshold}. A negative value turns
+	 * generated accessors off. The default is 100 accesses, so that no accessors
+	 * are generated for properties that are only set during bean creation.
+	 * @since 5.2
+	 * @see GeneratedAccessor
+	 */
+	public static final String ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME =
+			"spring.beans.accessor-generation-threshold";
+
+	private static final int DEFAULT_ACCESSOR_GENERATION_THRESHOLD = 100;
+
+	private static final int accessorGenerationThreshold = getAccessorGenerationThreshold();
+
+
 	/**
 	 * Cached introspections results for this object, to prevent encountering
 	 * the cost of JavaBeans introspection every time.
@@ -206,17 +234,21 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	 */
 	@Nullable
 	public Object convertForProperty(@Nullable Object value, String propertyName) throws TypeMismatchException {
-		CachedIntrospectionResults cachedIntrospectionResults = getCachedIntrospectionResults();
-		PropertyDescriptor pd = cachedIntrospectionResults.getPropertyDescriptor(propertyName);
+		PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(propertyName);
 		if (pd == null) {
 			throw new InvalidPropertyException(getRootClass(), getNestedPath() + propertyName,
 					"No property '" + propertyName + "' found");
 		}
+		return convertForProperty(propertyName, null, value, typeDescriptor(pd));
+	}
+
+	private TypeDescriptor typeDescriptor(PropertyDescriptor pd) {
+		CachedIntrospectionResults cachedIntrospectionResults = getCachedIntrospectionResults();
 		TypeDescriptor td = cachedIntrospectionResults.getTypeDescriptor(pd);
 		if (td == null) {
 			td = cachedIntrospectionResults.addTypeDescriptor(pd, new TypeDescriptor(property(pd)));
 		}
-		return convertForProperty(propertyName, null, value, td);
+		return td;
 	}
 
 	private Property property(PropertyDescriptor pd) {
@@ -261,6 +293,21 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	}
 
 
+	private static int getAccessorGenerationThreshold() {
+		String threshold = SpringProperties.getProperty(ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME);
+		if (threshold != null) {
+			try {
+				return Integer.parseInt(threshold.trim());
+			}
+			catch (NumberFormatException ex) {
+				LogFactory.getLog(BeanWrapperImpl.class).warn("Ignoring invalid value [" + threshold +
+						"] for system property '" + ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME + "'", ex);
+			}
+		}
+		return DEFAULT_ACCESSOR_GENERATION_THRESHOLD;
+	}
+
+
 	private class BeanPropertyHandler extends PropertyHandler {
 
 		private final PropertyDescriptor pd;
@@ -277,7 +324,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public TypeDescriptor toTypeDescriptor() {
-			return new TypeDescriptor(property(this.pd));
+			return typeDescriptor(this.pd);
 		}
 
 		@Override
@@ -304,6 +351,15 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				GeneratedAccessor accessor = getGeneratedAccessor();
+				if (accessor != null) {
+					try {
+						return accessor.get(getWrappedInstance());
+					}
+					catch (Throwable ex) {
+						throw new InvocationTargetException(ex);
+					}
+				}
 				ReflectionUtils.makeAccessible(readMethod);
 				return readMethod.invoke(getWrappedInstance(), (Object[]) null);
 			}
@@ -328,10 +384,29 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				GeneratedAccessor accessor = getGeneratedAccessor();
+				// Let reflection reject values of the wrong type as usual
+				if (accessor != null && ClassUtils.isAssignableValue(
+						((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodParameter().getParameterType(), value)) {
+					try {
+						accessor.set(getWrappedInstance(), value);
+						return;
+					}
+					catch (Throwable ex) {
+						throw new InvocationTargetException(ex);
+					}
+				}
 				ReflectionUtils.makeAccessible(writeMethod);
 				writeMethod.invoke(getWrappedInstance(), value);
 			}
 		}
+
+		@Nullable
+		private GeneratedAccessor getGeneratedAccessor() {
+			return (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
+					((GenericTypeAwarePropertyDescriptor) this.pd).getGeneratedAccessor(accessorGenerationThreshold) :
+					null);
+		}
 	}
 
 }
@@ -25,6 +25,7 @@ import java.util.Set;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.GeneratedAccessor;
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.MethodParameter;
 import org.springframework.lang.Nullable;
@@ -62,6 +63,13 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
 
 	private final Class<?> propertyEditorClass;
 
+	private volatile int accessCount;
+
+	private volatile boolean accessorResolved;
+
+	@Nullable
+	private volatile GeneratedAccessor generatedAccessor;
+
 
 	public GenericTypeAwarePropertyDescriptor(Class<?> beanClass, String propertyName,
 			@Nullable Method readMethod, @Nullable Method writeMethod, Class<?> propertyEditorClass)
@@ -150,6 +158,31 @@ final class GenericTypeAwarePropertyDescriptor extends PropertyDescriptor {
 		return this.writeMethodParameter;
 	}
 
+	/**
+	 * Return a generated accessor for the read and write methods of this property,
+	 * once this method has been called for the given number of accesses.
+	 * @param generationThreshold the number of accesses after which to generate
+	 * the accessor (a negative value to never generate it)
+	 * @return the generated accessor, or {@code null} if the threshold has not
+	 * been reached or no accessor can be generated for the methods
+	 * @since 5.2
+	 */
+	@Nullable
+	public GeneratedAccessor getGeneratedAccessor(int generationThreshold) {
+		if (this.accessorResolved) {
+			return this.generatedAccessor;
+		}
+		// Not atomic: a few more reflective accesses don't matter
+		if (generationThreshold < 0 || this.accessCount++ < generationThreshold) {
+			return null;
+		}
+		if (this.readMethod != null || this.writeMethod != null) {
+			this.generatedAccessor = GeneratedAccessor.forMethods(this.readMethod, this.writeMethod);
+		}
+		this.accessorResolved = true;
+		return this.generatedAccessor;
+	}
+
 	@Override
 	@Nullable
 	public Class<?> getPropertyType() {
@@ -208,6 +208,27 @@ public class BeanWrapperTests extends AbstractPropertyAccessorTests {
 			.satisfies(ex -> assertThat(ex.getPossibleMatches()).isNull());
 	}
 
+	@Test
+	public void frequentlyAccessedPropertiesBehaveConsistently() {
+		// Exceed the accessor generation threshold
+		for (int i = 0; i < 250; i++) {
+			AccessedBean target = new AccessedBean();
+			BeanWrapper accessor = createAccessor(target);
+			accessor.setPropertyValue("name", "name" + i);
+			accessor.setPropertyValue("age", String.valueOf(i));
+			assertThat(accessor.getPropertyValue("name")).isEqualTo("name" + i);
+			assertThat(accessor.getPropertyValue("age")).isEqualTo(i);
+			assertThat(target.getAge()).isEqualTo(i);
+
+			assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+					accessor.setPropertyValue("failing", "value"))
+				.withCauseInstanceOf(IllegalStateException.class);
+			assertThatExceptionOfType(InvalidPropertyException.class).isThrownBy(() ->
+					accessor.getPropertyValue("failing"))
+				.satisfies(ex -> assertThat(ex.getCause().getCause()).isInstanceOf(IllegalStateException.class));
+		}
+	}
+
 
 	private interface BaseProperty {
 
@@ -314,4 +335,37 @@ public class BeanWrapperTests extends AbstractPropertyAccessorTests {
 		}
 	}
 
+
+
+	public static class AccessedBean {
+
+		private String name;
+
+		private int age;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public Integer getFailing() {
+			throw new IllegalStateException("getter");
+		}
+
+		public void setFailing(Integer failing) {
+			throw new IllegalStateException("setter");
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,12 @@
 
 package org.springframework.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 
@@ -98,6 +103,77 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the value to which this cache maps the specified key, wrapped in
+	 * a {@link CompletableFuture}. This operation must not block the caller,
+	 * but may return a completed future in case of a local cache.
+	 * <p>The default implementation delegates to {@link #get(Object)}.
+	 * Implementations backed by a remote store should override it in order
+	 * to retrieve the value asynchronously.
+	 * @param key the key whose associated value is to be returned
+	 * @return a future completed with the {@link ValueWrapper} for the cached
+	 * value, or with {@code null} if this cache contains no mapping for the key
+	 * @since 5.2
+	 * @see #retrieve(Object, Supplier)
+	 */
+	default CompletableFuture<ValueWrapper> retrieve(Object key) {
+		return CompletableFuture.completedFuture(get(key));
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, wrapped in
+	 * a {@link CompletableFuture}, obtaining that value from the future returned
+	 * by {@code valueLoader} if necessary. The value is cached once that future
+	 * completes successfully. This is the asynchronous counterpart of
+	 * {@link #get(Object, Callable)}, not blocking the caller while the value
+	 * is being loaded.
+	 * <p>If possible, implementations should ensure that the {@code valueLoader}
+	 * is only called once in case of concurrent access on the same key, with all
+	 * callers receiving the result of the same future. The default implementation
+	 * delegates to {@link #get(Object)} and {@link #put(Object, Object)} and does
+	 * not provide this guarantee.
+	 * <p>If the future returned by the {@code valueLoader} completes exceptionally,
+	 * the returned future completes with the same exception and no value is cached.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the supplier of the future for the value to cache
+	 * @return a future completed with the cached or loaded value
+	 * @since 5.2
+	 * @see #retrieve(Object)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper wrapper = get(key);
+		if (wrapper != null) {
+			return CompletableFuture.completedFuture((T) wrapper.get());
+		}
+		return valueLoader.get().thenApply(value -> {
+			put(key, value);
+			return value;
+		});
+	}
+
+	/**
+	 * Return the values to which this cache maps the specified keys.
+	 * <p>The default implementation calls {@link #get(Object)} for each key.
+	 * Implementations backed by a remote store should override it in order
+	 * to retrieve all values at once.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a map from each key that this cache contains a mapping for to the
+	 * {@link ValueWrapper} for its value, in the iteration order of the given keys
+	 * @since 5.2
+	 * @see #get(Object)
+	 */
+	default Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper wrapper = get(key);
+			if (wrapper != null) {
+				result.put(key, wrapper);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -107,6 +183,19 @@ public interface Cache {
 	 */
 	void put(Object key, @Nullable Object value);
 
+	/**
+	 * Associate each of the specified values with its key in this cache.
+	 * <p>The default implementation calls {@link #put(Object, Object)} for each
+	 * entry. Implementations backed by a remote store should override it in
+	 * order to store all values at once.
+	 * @param entries the keys and the values to be associated with them
+	 * @since 5.2
+	 * @see #put(Object, Object)
+	 */
+	default void putAll(Map<?, ?> entries) {
+		entries.forEach(this::put);
+	}
+
 	/**
 	 * Atomically associate the specified value with the specified key in this cache
 	 * if it is not set already.
@@ -142,6 +231,19 @@ public interface Cache {
 	 */
 	void evict(Object key);
 
+	/**
+	 * Evict the mappings for the specified keys from this cache if present.
+	 * <p>The default implementation calls {@link #evict(Object)} for each key.
+	 * Implementations backed by a remote store should override it in order
+	 * to remove all mappings at once.
+	 * @param keys the keys whose mappings are to be removed from the cache
+	 * @since 5.2
+	 * @see #evict(Object)
+	 */
+	default void evictAll(Collection<?> keys) {
+		keys.forEach(this::evict);
+	}
+
 	/**
 	 * Remove all mappings from the cache.
 	 */
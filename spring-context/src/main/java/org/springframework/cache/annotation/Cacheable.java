@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -179,4 +179,29 @@ public @interface Cacheable {
 	 */
 	boolean sync() default false;
 
+	/**
+	 * Cache the entries of the returned map individually, for a method that
+	 * takes a collection of elements and returns a map from each of these
+	 * elements to its value, such as {@code Map<Long, Book> findBooks(Collection<Long> ids)}.
+	 * <p>The cache key of each element is computed by the {@link #keyGenerator()},
+	 * by default the element itself. Entries for elements that are cached already
+	 * are retrieved in bulk, and the method is only invoked with the remaining
+	 * elements, its result then being merged with the cached entries.
+	 * Elements for which the method does not return an entry are not cached.
+	 * This leads to a couple of limitations:
+	 * <ol>
+	 * <li>The method must have a single parameter of type {@code Collection},
+	 * {@code List} or {@code Set}, and a return type of {@code Map}</li>
+	 * <li>Neither {@link #key()} nor {@link #unless()} are supported</li>
+	 * <li>{@link #sync()} is not supported</li>
+	 * <li>No other cache-related operation can be combined</li>
+	 * <li>Only proxy-based caching is supported, since the method needs to be
+	 * invoked with other arguments than the original ones</li>
+	 * </ol>
+	 * @since 5.2
+	 * @see org.springframework.cache.Cache#getAll(java.util.Collection)
+	 * @see org.springframework.cache.Cache#putAll(java.util.Map)
+	 */
+	boolean batch() default false;
+
 }
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.cache.Cache} implementation based on the core JDK
+ * {@code java.util.concurrent} package, with a size limit, optional expiration
+ * and refresh of entries, and loading of each missing value by a single thread.
+ *
+ * <p>Once the size limit is reached, a new entry is only retained if its key
+ * has been requested more often recently than the key of the least recently
+ * used entry, which is evicted in turn. Request frequencies are estimated
+ * with a compact sketch (TinyLFU admission), so that keys that are requested
+ * once do not displace frequently requested ones.
+ *
+ * <p>Cache hits never block: their effect on the eviction order is only
+ * recorded if the eviction lock is available. Concurrent calls to
+ * {@link #get(Object, Callable)} for a missing key invoke the value loader
+ * once, with all callers receiving its result; calls for other keys are not
+ * blocked in the meantime. Once an entry is older than the refresh interval,
+ * the next call to {@link #get(Object, Callable)} for its key reloads the value
+ * asynchronously while still returning the current value. The value loader is
+ * invoked on the configured executor in that case, so it must not depend on the
+ * thread it was passed on (see {@link #BoundedConcurrentCache(String, int,
+ * Duration, Duration, Executor, boolean)}).
+ *
+ * <p>The expiration and refresh times apply to all entries of a cache alike.
+ * Expired entries are not returned. They are removed from the cache when
+ * they are requested, when they reach the end of the eviction order, and when
+ * they are found among the least recently used entries after a write.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see BoundedConcurrentCacheManager
+ */
+public class BoundedConcurrentCache extends AbstractValueAdaptingCache {
+
+	private static final Log logger = LogFactory.getLog(BoundedConcurrentCache.class);
+
+	/** Maximum number of least recently used entries checked for expiration after a write. */
+	private static final int EXPIRATION_CHECK_LIMIT = 8;
+
+
+	private final String name;
+
+	private final int maximumSize;
+
+	private final long expireAfterWriteNanos;
+
+	private final long refreshAfterWriteNanos;
+
+	private final Executor executor;
+
+	private final LongSupplier ticker;
+
+	private final ConcurrentHashMap<Object, Entry> store = new ConcurrentHashMap<>(256);
+
+	private final ConcurrentHashMap<Object, Load> loads = new ConcurrentHashMap<>(16);
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	/** Access order from least to most recently used, guarded by the eviction lock. */
+	private final AccessQueue accessQueue = new AccessQueue();
+
+	/** Guarded by the eviction lock. */
+	private final FrequencySketch sketch = new FrequencySketch();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a new BoundedConcurrentCache with the specified name and size limit,
+	 * without expiration and refresh of entries.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 */
+	public BoundedConcurrentCache(String name, int maximumSize) {
+		this(name, maximumSize, null, null, ForkJoinPool.commonPool(), true);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentCache with the specified settings.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 * @param expireAfterWrite the time after which an entry expires,
+	 * or {@code null} for entries that do not expire (the same for all entries)
+	 * @param refreshAfterWrite the time after which an entry is reloaded on
+	 * access, or {@code null} for entries that are not refreshed; note that
+	 * a refresh invokes the value loader passed to {@link #get(Object, Callable)}
+	 * on the given executor, after that call has returned, without the
+	 * transaction, security context or other thread-bound state of the caller,
+	 * which also applies to the method invocation of a
+	 * {@code @Cacheable(sync = true)} method
+	 * @param executor the executor to reload entries with
+	 * @param allowNullValues whether to accept and convert {@code null}
+	 * values for this cache
+	 */
+	public BoundedConcurrentCache(String name, int maximumSize, @Nullable Duration expireAfterWrite,
+			@Nullable Duration refreshAfterWrite, Executor executor, boolean allowNullValues) {
+
+		this(name, maximumSize, expireAfterWrite, refreshAfterWrite, executor, allowNullValues, System::nanoTime);
+	}
+
+	BoundedConcurrentCache(String name, int maximumSize, @Nullable Duration expireAfterWrite,
+			@Nullable Duration refreshAfterWrite, Executor executor, boolean allowNullValues, LongSupplier ticker) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(maximumSize > 0, "Maximum size must be positive");
+		Assert.isTrue(expireAfterWrite == null || !expireAfterWrite.isNegative() && !expireAfterWrite.isZero(),
+				"Expiration time must be positive");
+		Assert.isTrue(refreshAfterWrite == null || !refreshAfterWrite.isNegative() && !refreshAfterWrite.isZero(),
+				"Refresh time must be positive");
+		Assert.notNull(executor, "Executor must not be null");
+		this.name = name;
+		this.maximumSize = maximumSize;
+		this.expireAfterWriteNanos = (expireAfterWrite != null ? expireAfterWrite.toNanos() : 0);
+		this.refreshAfterWriteNanos = (refreshAfterWrite != null ? refreshAfterWrite.toNanos() : 0);
+		this.executor = executor;
+		this.ticker = ticker;
+	}
+
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the cache itself, since its internal
+	 * store is not meant to be accessed directly.
+	 */
+	@Override
+	public final BoundedConcurrentCache getNativeCache() {
+		return this;
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache.
+	 */
+	public final int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		Entry entry = getEntry(key, this.ticker.getAsLong());
+		return (entry != null ? entry.value : null);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		long now = this.ticker.getAsLong();
+		Entry entry = getEntry(key, now);
+		if (entry != null) {
+			if (this.refreshAfterWriteNanos > 0 && now - entry.writeTime >= this.refreshAfterWriteNanos) {
+				refresh(entry, valueLoader);
+			}
+			return (T) fromStoreValue(entry.value);
+		}
+		return (T) fromStoreValue(load(key, valueLoader));
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		Entry entry = new Entry(key, toStoreValue(value), this.ticker.getAsLong());
+		afterWrite(this.store.put(key, entry), entry);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		long now = this.ticker.getAsLong();
+		Entry entry = new Entry(key, toStoreValue(value), now);
+		while (true) {
+			Entry existing = this.store.putIfAbsent(key, entry);
+			if (existing == null) {
+				afterWrite(null, entry);
+				return null;
+			}
+			if (!isExpired(existing, now)) {
+				recordAccess(existing);
+				return toValueWrapper(existing.value);
+			}
+			if (this.store.replace(key, existing, entry)) {
+				afterWrite(existing, entry);
+				return null;
+			}
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		Entry entry = this.store.remove(key);
+		if (entry != null) {
+			afterRemoval(entry);
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			this.store.clear();
+			this.accessQueue.clear();
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the current number of entries in the cache, which may
+	 * include expired entries that have not been removed yet.
+	 */
+	public int size() {
+		return this.store.size();
+	}
+
+	/**
+	 * Return the number of lookups that were served from the cache.
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that did not find a current entry.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries that were removed from the cache
+	 * in order to stay within its size limit.
+	 */
+	public long evictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "BoundedConcurrentCache '" + this.name + "' [size=" + size() + ", maximumSize=" +
+				this.maximumSize + ", hits=" + hitCount() + ", misses=" + missCount() +
+				", evictions=" + evictionCount() + "]";
+	}
+
+
+	@Nullable
+	private Entry getEntry(Object key, long now) {
+		Entry entry = this.store.get(key);
+		if (entry != null) {
+			if (!isExpired(entry, now)) {
+				this.hitCount.increment();
+				recordAccess(entry);
+				return entry;
+			}
+			if (this.store.remove(key, entry)) {
+				afterRemoval(entry);
+			}
+		}
+		this.missCount.increment();
+		if (this.evictionLock.tryLock()) {
+			try {
+				this.sketch.increment(key);
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+		return null;
+	}
+
+	private boolean isExpired(Entry entry, long now) {
+		return (this.expireAfterWriteNanos > 0 && now - entry.writeTime >= this.expireAfterWriteNanos);
+	}
+
+	private Object load(Object key, Callable<?> valueLoader) {
+		Load load = new Load();
+		Load existing = this.loads.putIfAbsent(key, load);
+		if (existing != null) {
+			return existing.await(key);
+		}
+		try {
+			// Another thread may have completed a load since our lookup
+			Entry entry = this.store.get(key);
+			Object storeValue;
+			if (entry != null && !isExpired(entry, this.ticker.getAsLong())) {
+				storeValue = entry.value;
+			}
+			else {
+				try {
+					storeValue = toStoreValue(valueLoader.call());
+				}
+				catch (Throwable ex) {
+					throw new ValueRetrievalException(key, valueLoader, ex);
+				}
+				entry = new Entry(key, storeValue, this.ticker.getAsLong());
+				afterWrite(this.store.put(key, entry), entry);
+			}
+			load.complete(storeValue);
+			return storeValue;
+		}
+		catch (RuntimeException | Error ex) {
+			load.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.loads.remove(key, load);
+		}
+	}
+
+	private void refresh(Entry entry, Callable<?> valueLoader) {
+		if (!Entry.REFRESHING.compareAndSet(entry, 0, 1)) {
+			return;
+		}
+		try {
+			this.executor.execute(() -> {
+				try {
+					Entry refreshed = new Entry(entry.key, toStoreValue(valueLoader.call()), this.ticker.getAsLong());
+					if (this.store.replace(entry.key, entry, refreshed)) {
+						afterWrite(entry, refreshed);
+					}
+				}
+				catch (Throwable ex) {
+					// Keep the current value and try again on the next access
+					entry.refreshing = 0;
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to refresh entry for key '" + entry.key + "' in cache '" +
+								this.name + "'", ex);
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			entry.refreshing = 0;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh of entry for key '" + entry.key + "' in cache '" +
+						this.name + "' rejected by executor", ex);
+			}
+		}
+	}
+
+	private void recordAccess(Entry entry) {
+		// Lossy: skip recording rather than wait for the lock
+		if (this.evictionLock.tryLock()) {
+			try {
+				this.sketch.increment(entry.key);
+				this.accessQueue.moveToBack(entry);
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void afterWrite(@Nullable Entry previous, Entry entry) {
+		this.evictionLock.lock();
+		try {
+			if (previous != null) {
+				this.accessQueue.unlink(previous);
+			}
+			// The entry may have been replaced or removed concurrently
+			if (this.store.get(entry.key) == entry) {
+				this.sketch.increment(entry.key);
+				this.accessQueue.add(entry);
+				if (previous == null) {
+					this.sketch.ensureCapacity(Math.min(this.accessQueue.size, this.maximumSize));
+				}
+				expireEntries(entry.writeTime);
+				evictEntries(entry);
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void afterRemoval(Entry entry) {
+		this.evictionLock.lock();
+		try {
+			this.accessQueue.unlink(entry);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void expireEntries(long now) {
+		if (this.expireAfterWriteNanos > 0) {
+			for (int i = 0; i < EXPIRATION_CHECK_LIMIT; i++) {
+				Entry eldest = this.accessQueue.first;
+				if (eldest == null || !isExpired(eldest, now)) {
+					break;
+				}
+				this.accessQueue.unlink(eldest);
+				this.store.remove(eldest.key, eldest);
+			}
+		}
+	}
+
+	private void evictEntries(Entry candidate) {
+		while (this.accessQueue.size > this.maximumSize) {
+			Entry victim = this.accessQueue.first;
+			if (victim == null) {
+				break;
+			}
+			// TinyLFU admission: only retain the candidate if it is requested more often
+			if (victim != candidate && candidate.linked &&
+					this.sketch.frequency(candidate.key) <= this.sketch.frequency(victim.key)) {
+				victim = candidate;
+			}
+			this.accessQueue.unlink(victim);
+			if (this.store.remove(victim.key, victim)) {
+				this.evictionCount.increment();
+			}
+		}
+	}
+
+
+	private static final class Entry {
+
+		static final AtomicIntegerFieldUpdater<Entry> REFRESHING =
+				AtomicIntegerFieldUpdater.newUpdater(Entry.class, "refreshing");
+
+		final Object key;
+
+		final Object value;
+
+		final long writeTime;
+
+		volatile int refreshing;
+
+		// The following fields are guarded by the eviction lock
+
+		@Nullable
+		Entry prev;
+
+		@Nullable
+		Entry next;
+
+		boolean linked;
+
+		Entry(Object key, Object value, long writeTime) {
+			this.key = key;
+			this.value = value;
+			this.writeTime = writeTime;
+		}
+	}
+
+
+	/**
+	 * Pending load of a value, awaited by concurrent callers for the same key.
+	 */
+	private static final class Load extends CompletableFuture<Object> {
+
+		private final Thread loadingThread = Thread.currentThread();
+
+		Object await(Object key) {
+			if (this.loadingThread == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of value for key '" + key + "'");
+			}
+			try {
+				return join();
+			}
+			catch (CompletionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw ex;
+			}
+		}
+	}
+
+
+	/**
+	 * Doubly-linked list of cache entries; not thread-safe.
+	 */
+	private static final class AccessQueue {
+
+		@Nullable
+		Entry first;
+
+		@Nullable
+		Entry last;
+
+		int size;
+
+		void add(Entry entry) {
+			if (entry.linked) {
+				return;
+			}
+			entry.prev = this.last;
+			entry.next = null;
+			if (this.last == null) {
+				this.first = entry;
+			}
+			else {
+				this.last.next = entry;
+			}
+			this.last = entry;
+			entry.linked = true;
+			this.size++;
+		}
+
+		void moveToBack(Entry entry) {
+			if (entry.linked && entry != this.last) {
+				unlink(entry);
+				add(entry);
+			}
+		}
+
+		void unlink(Entry entry) {
+			if (!entry.linked) {
+				return;
+			}
+			Entry prev = entry.prev;
+			Entry next = entry.next;
+			if (prev == null) {
+				this.first = next;
+			}
+			else {
+				prev.next = next;
+			}
+			if (next == null) {
+				this.last = prev;
+			}
+			else {
+				next.prev = prev;
+			}
+			entry.prev = null;
+			entry.next = null;
+			entry.linked = false;
+			this.size--;
+		}
+
+		void clear() {
+			Entry entry = this.first;
+			while (entry != null) {
+				Entry next = entry.next;
+				entry.prev = null;
+				entry.next = null;
+				entry.linked = false;
+				entry = next;
+			}
+			this.first = null;
+			this.last = null;
+			this.size = 0;
+		}
+	}
+
+}
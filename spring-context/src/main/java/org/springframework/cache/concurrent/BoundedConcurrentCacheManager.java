@@ -0,0 +1,263 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link CacheManager} implementation that lazily builds {@link BoundedConcurrentCache}
+ * instances for each {@link #getCache} request. Also supports a 'static' mode where
+ * the set of cache names is pre-defined through {@link #setCacheNames}, with no
+ * dynamic creation of further cache regions at runtime.
+ *
+ * <p>Unlike {@link ConcurrentMapCacheManager}, this cache manager bounds the size
+ * of its caches and can expire and refresh their entries, without requiring a
+ * third-party caching library. All caches share the same settings.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see BoundedConcurrentCache
+ */
+public class BoundedConcurrentCacheManager implements CacheManager {
+
+	/**
+	 * The default maximum number of entries per cache.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+
+	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<>(16);
+
+	private boolean dynamic = true;
+
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	@Nullable
+	private Duration expireAfterWrite;
+
+	@Nullable
+	private Duration refreshAfterWrite;
+
+	private Executor executor = ForkJoinPool.commonPool();
+
+	private boolean allowNullValues = true;
+
+
+	/**
+	 * Construct a dynamic BoundedConcurrentCacheManager,
+	 * lazily creating cache instances as they are being requested.
+	 */
+	public BoundedConcurrentCacheManager() {
+	}
+
+	/**
+	 * Construct a static BoundedConcurrentCacheManager,
+	 * managing caches for the specified cache names only.
+	 */
+	public BoundedConcurrentCacheManager(String... cacheNames) {
+		setCacheNames(Arrays.asList(cacheNames));
+	}
+
+
+	/**
+	 * Specify the set of cache names for this CacheManager's 'static' mode.
+	 * <p>The number of caches and their names will be fixed after a call to this method,
+	 * with no creation of further cache regions at runtime.
+	 * <p>Calling this with a {@code null} collection argument resets the
+	 * mode to 'dynamic', allowing for further creation of caches again.
+	 */
+	public void setCacheNames(@Nullable Collection<String> cacheNames) {
+		if (cacheNames != null) {
+			for (String name : cacheNames) {
+				this.cacheMap.put(name, createBoundedConcurrentCache(name));
+			}
+			this.dynamic = false;
+		}
+		else {
+			this.dynamic = true;
+		}
+	}
+
+	/**
+	 * Specify the maximum number of entries per cache.
+	 * <p>Default is {@link #DEFAULT_MAXIMUM_SIZE}.
+	 * <p>Note: A change of the maximum size will reset all existing caches,
+	 * if any, to reconfigure them with the new size limit.
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "Maximum size must be positive");
+		if (maximumSize != this.maximumSize) {
+			this.maximumSize = maximumSize;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries per cache.
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Specify the time after which cache entries expire, counting from
+	 * the time the value was stored.
+	 * <p>The expiration time applies to all entries of all caches; individual
+	 * entries cannot be given a different expiration time.
+	 * <p>Default is none, with entries only being removed for the size limit.
+	 * <p>Note: A change of the expiration time will reset all existing caches,
+	 * if any, to reconfigure them with the new expiration time.
+	 */
+	public void setExpireAfterWrite(@Nullable Duration expireAfterWrite) {
+		if (!ObjectUtils.nullSafeEquals(expireAfterWrite, this.expireAfterWrite)) {
+			this.expireAfterWrite = expireAfterWrite;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the time after which cache entries expire, if any.
+	 */
+	@Nullable
+	public Duration getExpireAfterWrite() {
+		return this.expireAfterWrite;
+	}
+
+	/**
+	 * Specify the time after which a cache entry is reloaded asynchronously
+	 * on its next access through {@link Cache#get(Object, java.util.concurrent.Callable)},
+	 * counting from the time the value was stored. The current value keeps being
+	 * returned until the reloaded value is available.
+	 * <p>This is typically shorter than the {@link #setExpireAfterWrite expiration
+	 * time}, so that frequently accessed entries are reloaded before they expire.
+	 * Default is none.
+	 * <p><b>Note:</b> The value loader passed to {@code get} is invoked on the
+	 * {@link #setExecutor executor}, after the call that triggered the refresh
+	 * has returned. For {@code @Cacheable(sync = true)} methods, this means that
+	 * the method invocation proceeds on another thread, without the transaction,
+	 * security context or any other thread-bound state of the original caller,
+	 * and through the interceptors that follow the cache interceptor once more.
+	 * Only enable refresh for caches whose values can be loaded that way.
+	 * <p>Note: A change of the refresh time will reset all existing caches,
+	 * if any, to reconfigure them with the new refresh time.
+	 * @see #setExecutor
+	 */
+	public void setRefreshAfterWrite(@Nullable Duration refreshAfterWrite) {
+		if (!ObjectUtils.nullSafeEquals(refreshAfterWrite, this.refreshAfterWrite)) {
+			this.refreshAfterWrite = refreshAfterWrite;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the time after which a cache entry is reloaded on access, if any.
+	 */
+	@Nullable
+	public Duration getRefreshAfterWrite() {
+		return this.refreshAfterWrite;
+	}
+
+	/**
+	 * Specify the executor to reload cache entries with.
+	 * <p>Default is the {@link ForkJoinPool#commonPool() common pool}.
+	 * <p>Note: A change of the executor will reset all existing caches,
+	 * if any, to reconfigure them with the new executor.
+	 */
+	public void setExecutor(Executor executor) {
+		Assert.notNull(executor, "Executor must not be null");
+		if (executor != this.executor) {
+			this.executor = executor;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Specify whether to accept and convert {@code null} values for all caches
+	 * in this cache manager.
+	 * <p>Default is "true". An internal holder object will be used to store
+	 * user-level {@code null}s.
+	 * <p>Note: A change of the null-value setting will reset all existing caches,
+	 * if any, to reconfigure them with the new null-value requirement.
+	 */
+	public void setAllowNullValues(boolean allowNullValues) {
+		if (allowNullValues != this.allowNullValues) {
+			this.allowNullValues = allowNullValues;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return whether this cache manager accepts and converts {@code null} values
+	 * for all of its caches.
+	 */
+	public boolean isAllowNullValues() {
+		return this.allowNullValues;
+	}
+
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return Collections.unmodifiableSet(this.cacheMap.keySet());
+	}
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		Cache cache = this.cacheMap.get(name);
+		if (cache == null && this.dynamic) {
+			synchronized (this.cacheMap) {
+				cache = this.cacheMap.get(name);
+				if (cache == null) {
+					cache = createBoundedConcurrentCache(name);
+					this.cacheMap.put(name, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	private void recreateCaches() {
+		for (Map.Entry<String, Cache> entry : this.cacheMap.entrySet()) {
+			entry.setValue(createBoundedConcurrentCache(entry.getKey()));
+		}
+	}
+
+	/**
+	 * Create a new BoundedConcurrentCache instance for the specified cache name.
+	 * @param name the name of the cache
+	 * @return the BoundedConcurrentCache (or a decorator thereof)
+	 */
+	protected Cache createBoundedConcurrentCache(String name) {
+		return new BoundedConcurrentCache(name, this.maximumSize, this.expireAfterWrite,
+				this.refreshAfterWrite, this.executor, this.allowNullValues);
+	}
+
+}
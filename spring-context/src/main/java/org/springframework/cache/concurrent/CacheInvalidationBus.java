@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Strategy interface for propagating cache invalidations between the local
+ * caches of a {@link TwoLevelCacheManager}, typically across several
+ * application instances sharing the same remote cache.
+ *
+ * <p>Implementations may deliver invalidations asynchronously, and are
+ * expected to deliver them to every subscribed listener, including the
+ * listeners registered by the publisher itself.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see LocalCacheInvalidationBus
+ */
+public interface CacheInvalidationBus {
+
+	/**
+	 * Publish an invalidation of the specified cache entry.
+	 * @param origin the identifier of the publisher, allowing listeners
+	 * to ignore their own invalidations
+	 * @param cacheName the name of the cache
+	 * @param key the key of the invalidated entry, or {@code null}
+	 * to invalidate all entries of the cache
+	 */
+	void publish(String origin, String cacheName, @Nullable Object key);
+
+	/**
+	 * Register a listener for the invalidations published on this bus.
+	 * @param listener the listener to register
+	 */
+	void subscribe(CacheInvalidationListener listener);
+
+	/**
+	 * Remove a listener that has been registered for the invalidations
+	 * published on this bus. Does nothing if the listener is not registered.
+	 * @param listener the listener to remove
+	 */
+	void unsubscribe(CacheInvalidationListener listener);
+
+}
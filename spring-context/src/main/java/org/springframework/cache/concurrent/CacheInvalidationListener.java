@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Callback interface for receiving the invalidations published
+ * on a {@link CacheInvalidationBus}.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see CacheInvalidationBus#subscribe
+ */
+@FunctionalInterface
+public interface CacheInvalidationListener {
+
+	/**
+	 * Handle an invalidation of the specified cache entry.
+	 * @param origin the identifier of the publisher of the invalidation
+	 * @param cacheName the name of the cache
+	 * @param key the key of the invalidated entry, or {@code null}
+	 * if all entries of the cache have been invalidated
+	 */
+	void onInvalidation(String origin, String cacheName, @Nullable Object key);
+
+}
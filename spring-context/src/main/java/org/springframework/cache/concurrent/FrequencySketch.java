@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+/**
+ * Probabilistic estimate of how often keys have been accessed recently,
+ * used by {@link BoundedConcurrentCache} to decide whether a new entry is
+ * worth evicting an existing one for (TinyLFU admission).
+ *
+ * <p>This is a count-min sketch with four rows of 4-bit counters, packed
+ * sixteen to a {@code long}. All counters are halved once the number of
+ * recorded accesses reaches ten times the table size, so that the estimates
+ * follow changes in the access pattern.
+ *
+ * <p>Not thread-safe: callers need to synchronize access.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+final class FrequencySketch {
+
+	private static final long[] SEEDS = {
+			0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+	private static final long RESET_MASK = 0x7777777777777777L;
+
+	private static final long ONE_MASK = 0x1111111111111111L;
+
+	private static final int MINIMUM_TABLE_SIZE = 16;
+
+	private static final int MAXIMUM_TABLE_SIZE = 1 << 24;
+
+
+	private long[] table = new long[MINIMUM_TABLE_SIZE];
+
+	private int sampleSize = 10 * MINIMUM_TABLE_SIZE;
+
+	private int additions;
+
+
+	/**
+	 * Grow the sketch for the given number of keys, if necessary.
+	 * <p>Growing the sketch discards all recorded accesses.
+	 * @param capacity the number of keys the sketch should be able to tell apart
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity <= this.table.length || this.table.length >= MAXIMUM_TABLE_SIZE) {
+			return;
+		}
+		int tableSize = Math.min(Integer.highestOneBit(capacity - 1) << 1, MAXIMUM_TABLE_SIZE);
+		this.table = new long[tableSize];
+		this.sampleSize = 10 * tableSize;
+		this.additions = 0;
+	}
+
+	/**
+	 * Return the estimated number of recent accesses to the given key, at most 15.
+	 */
+	public int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int offset = (start + i) << 2;
+			int count = (int) ((this.table[indexOf(hash, i)] >>> offset) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Record an access to the given key.
+	 */
+	public void increment(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), (start + i) << 2);
+		}
+		if (added && ++this.additions == this.sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int index, int offset) {
+		long mask = (0xfL << offset);
+		if ((this.table[index] & mask) != mask) {
+			this.table[index] += (1L << offset);
+			return true;
+		}
+		return false;
+	}
+
+	private void reset() {
+		int oddCounts = 0;
+		for (int i = 0; i < this.table.length; i++) {
+			oddCounts += Long.bitCount(this.table[i] & ONE_MASK);
+			this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+		}
+		this.additions = (this.additions >>> 1) - (oddCounts >>> 2);
+	}
+
+	private int indexOf(int hash, int row) {
+		long index = (hash + SEEDS[row]) * SEEDS[row];
+		index += (index >>> 32);
+		return ((int) index) & (this.table.length - 1);
+	}
+
+	private static int spread(int hash) {
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Simple {@link CacheInvalidationBus} implementation that delivers invalidations
+ * synchronously to the listeners within the same JVM.
+ *
+ * <p>Mainly intended for testing and for several {@link TwoLevelCacheManager}
+ * instances within the same application.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+	private final List<CacheInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+
+	@Override
+	public void publish(String origin, String cacheName, @Nullable Object key) {
+		for (CacheInvalidationListener listener : this.listeners) {
+			listener.onInvalidation(origin, cacheName, key);
+		}
+	}
+
+	@Override
+	public void subscribe(CacheInvalidationListener listener) {
+		Assert.notNull(listener, "CacheInvalidationListener must not be null");
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void unsubscribe(CacheInvalidationListener listener) {
+		this.listeners.remove(listener);
+	}
+
+}
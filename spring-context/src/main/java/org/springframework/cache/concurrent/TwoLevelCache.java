@@ -0,0 +1,400 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Cache} implementation that keeps a local cache in front of a remote
+ * cache, serving repeated lookups from the local cache without a round-trip
+ * to the remote store.
+ *
+ * <p>Lookups that miss the local cache are delegated to the remote cache, with
+ * the retrieved values being stored locally. Write operations are applied to the
+ * remote cache first and to the local cache afterwards, and are announced on the
+ * given {@link CacheInvalidationBus}, allowing other instances to evict the
+ * affected entries from their local caches.
+ *
+ * <p>Note: Since invalidations may arrive with a delay, the local cache may
+ * serve stale values in the meantime. Configure an expiration time for the local
+ * cache in order to bound the staleness in case of lost invalidations.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see TwoLevelCacheManager
+ */
+public class TwoLevelCache implements Cache {
+
+	private final Cache localCache;
+
+	private final Cache remoteCache;
+
+	private final CacheInvalidationBus invalidationBus;
+
+	private final String origin;
+
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	private final LongAdder localHitCount = new LongAdder();
+
+	private final LongAdder remoteHitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+
+	/**
+	 * Create a new TwoLevelCache for the given local and remote caches.
+	 * @param localCache the local cache to serve lookups from
+	 * @param remoteCache the remote cache to delegate to
+	 * @param invalidationBus the bus to publish invalidations on
+	 * @param origin the identifier to publish invalidations with
+	 * @see #evictLocal
+	 */
+	public TwoLevelCache(Cache localCache, Cache remoteCache, CacheInvalidationBus invalidationBus, String origin) {
+		Assert.notNull(localCache, "Local Cache must not be null");
+		Assert.notNull(remoteCache, "Remote Cache must not be null");
+		Assert.notNull(invalidationBus, "CacheInvalidationBus must not be null");
+		Assert.notNull(origin, "Origin must not be null");
+		this.localCache = localCache;
+		this.remoteCache = remoteCache;
+		this.invalidationBus = invalidationBus;
+		this.origin = origin;
+	}
+
+
+	/**
+	 * Return the local cache that lookups are served from.
+	 */
+	public final Cache getLocalCache() {
+		return this.localCache;
+	}
+
+	/**
+	 * Return the remote cache that this cache delegates to.
+	 */
+	public final Cache getRemoteCache() {
+		return this.remoteCache;
+	}
+
+	@Override
+	public final String getName() {
+		return this.remoteCache.getName();
+	}
+
+	@Override
+	public final Object getNativeCache() {
+		return this.remoteCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		ValueWrapper wrapper = this.localCache.get(key);
+		if (wrapper != null) {
+			this.localHitCount.increment();
+			return wrapper;
+		}
+		long invalidations = this.invalidationCount.get();
+		wrapper = this.remoteCache.get(key);
+		if (wrapper != null) {
+			this.remoteHitCount.increment();
+			putLocal(key, wrapper.get(), invalidations);
+		}
+		else {
+			this.missCount.increment();
+		}
+		return wrapper;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = (wrapper != null ? wrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper wrapper = this.localCache.get(key);
+		if (wrapper != null) {
+			this.localHitCount.increment();
+			return (T) wrapper.get();
+		}
+		long invalidations = this.invalidationCount.get();
+		boolean[] loaded = new boolean[1];
+		T value = this.remoteCache.get(key, () -> {
+			loaded[0] = true;
+			return valueLoader.call();
+		});
+		storeRemoteValue(key, value, loaded[0], invalidations);
+		return value;
+	}
+
+	@Override
+	public CompletableFuture<ValueWrapper> retrieve(Object key) {
+		ValueWrapper wrapper = this.localCache.get(key);
+		if (wrapper != null) {
+			this.localHitCount.increment();
+			return CompletableFuture.completedFuture(wrapper);
+		}
+		long invalidations = this.invalidationCount.get();
+		return this.remoteCache.retrieve(key).thenApply(remoteWrapper -> {
+			if (remoteWrapper != null) {
+				this.remoteHitCount.increment();
+				putLocal(key, remoteWrapper.get(), invalidations);
+			}
+			else {
+				this.missCount.increment();
+			}
+			return remoteWrapper;
+		});
+	}
+
+	/**
+	 * This implementation delegates to {@link Cache#retrieve(Object, Supplier)}
+	 * on the remote cache on a local miss, thereby loading a value only once
+	 * for concurrent retrievals of the same key if the remote cache does so.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper wrapper = this.localCache.get(key);
+		if (wrapper != null) {
+			this.localHitCount.increment();
+			return CompletableFuture.completedFuture((T) wrapper.get());
+		}
+		long invalidations = this.invalidationCount.get();
+		AtomicBoolean loaded = new AtomicBoolean();
+		return this.remoteCache.retrieve(key, () -> {
+			loaded.set(true);
+			return valueLoader.get();
+		}).thenApply(value -> {
+			storeRemoteValue(key, value, loaded.get(), invalidations);
+			return value;
+		});
+	}
+
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> localHits = this.localCache.getAll(keys);
+		this.localHitCount.add(localHits.size());
+		if (localHits.size() == keys.size()) {
+			return localHits;
+		}
+		List<Object> missingKeys = new ArrayList<>(keys.size() - localHits.size());
+		for (Object key : keys) {
+			if (!localHits.containsKey(key)) {
+				missingKeys.add(key);
+			}
+		}
+		long invalidations = this.invalidationCount.get();
+		Map<Object, ValueWrapper> remoteHits = this.remoteCache.getAll(missingKeys);
+		this.remoteHitCount.add(remoteHits.size());
+		this.missCount.add(missingKeys.size() - remoteHits.size());
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper wrapper = localHits.get(key);
+			if (wrapper == null) {
+				wrapper = remoteHits.get(key);
+				if (wrapper == null) {
+					continue;
+				}
+				putLocal(key, wrapper.get(), invalidations);
+			}
+			result.put(key, wrapper);
+		}
+		return result;
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.remoteCache.put(key, value);
+		this.invalidationCount.incrementAndGet();
+		this.localCache.put(key, value);
+		this.invalidationBus.publish(this.origin, getName(), key);
+	}
+
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.remoteCache.putAll(entries);
+		this.invalidationCount.incrementAndGet();
+		this.localCache.putAll(entries);
+		for (Object key : entries.keySet()) {
+			this.invalidationBus.publish(this.origin, getName(), key);
+		}
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		ValueWrapper existing = this.remoteCache.putIfAbsent(key, value);
+		this.invalidationCount.incrementAndGet();
+		if (existing != null) {
+			this.localCache.put(key, existing.get());
+		}
+		else {
+			this.localCache.put(key, value);
+			this.invalidationBus.publish(this.origin, getName(), key);
+		}
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.remoteCache.evict(key);
+		evictLocal(key);
+		this.invalidationBus.publish(this.origin, getName(), key);
+	}
+
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.remoteCache.evictAll(keys);
+		this.invalidationCount.incrementAndGet();
+		this.localCache.evictAll(keys);
+		for (Object key : keys) {
+			this.invalidationBus.publish(this.origin, getName(), key);
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.remoteCache.clear();
+		evictLocal(null);
+		this.invalidationBus.publish(this.origin, getName(), null);
+	}
+
+	/**
+	 * Remove the specified entry from the local cache only, typically in
+	 * response to an invalidation received from the {@link CacheInvalidationBus}.
+	 * @param key the key of the entry to remove, or {@code null} to remove
+	 * all entries from the local cache
+	 */
+	public void evictLocal(@Nullable Object key) {
+		this.invalidationCount.incrementAndGet();
+		if (key != null) {
+			this.localCache.evict(key);
+		}
+		else {
+			this.localCache.clear();
+		}
+	}
+
+	/**
+	 * Store a value obtained through the remote cache in the local cache. A value
+	 * loaded on a remote miss is a write, published like {@link #put}, whereas
+	 * a remote hit is stored as in {@link #putLocal}.
+	 */
+	private void storeRemoteValue(Object key, @Nullable Object value, boolean loaded, long invalidations) {
+		if (loaded) {
+			this.missCount.increment();
+			this.invalidationCount.incrementAndGet();
+			this.localCache.put(key, value);
+			this.invalidationBus.publish(this.origin, getName(), key);
+		}
+		else {
+			this.remoteHitCount.increment();
+			putLocal(key, value, invalidations);
+		}
+	}
+
+	/**
+	 * Store a value retrieved from the remote cache in the local cache, unless
+	 * an invalidation happened since the retrieval started: the value may be
+	 * stale in such a case, and is left to a subsequent lookup instead.
+	 */
+	private void putLocal(Object key, @Nullable Object value, long invalidations) {
+		if (this.invalidationCount.get() == invalidations) {
+			this.localCache.put(key, value);
+			if (this.invalidationCount.get() != invalidations) {
+				this.localCache.evict(key);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of lookups that were served from the local cache.
+	 */
+	public long localHitCount() {
+		return this.localHitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that missed the local cache
+	 * but were served from the remote cache.
+	 */
+	public long remoteHitCount() {
+		return this.remoteHitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that missed both caches.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the ratio of all lookups that were served from the local cache,
+	 * or {@code 0} if there were no lookups yet.
+	 */
+	public double localHitRatio() {
+		long localHits = localHitCount();
+		return ratio(localHits, localHits + remoteHitCount() + missCount());
+	}
+
+	/**
+	 * Return the ratio of the lookups missing the local cache that were
+	 * served from the remote cache, or {@code 0} if there were no such lookups yet.
+	 */
+	public double remoteHitRatio() {
+		long remoteHits = remoteHitCount();
+		return ratio(remoteHits, remoteHits + missCount());
+	}
+
+	private static double ratio(long hits, long requests) {
+		return (requests > 0 ? (double) hits / requests : 0);
+	}
+
+	@Override
+	public String toString() {
+		return "TwoLevelCache '" + getName() + "' [localHits=" + localHitCount() +
+				", remoteHits=" + remoteHitCount() + ", misses=" + missCount() + "]";
+	}
+
+}
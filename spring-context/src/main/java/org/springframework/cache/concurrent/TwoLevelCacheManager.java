@@ -0,0 +1,218 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link CacheManager} implementation that puts a local {@link BoundedConcurrentCache}
+ * in front of each cache of a given remote {@link CacheManager}, e.g. a
+ * {@code JCacheCacheManager} backed by a distributed cache provider.
+ *
+ * <p>Repeated lookups are served from the local caches without a round-trip to
+ * the remote store. Writes are propagated as invalidations on the given
+ * {@link CacheInvalidationBus}, evicting the affected entries from the local caches
+ * of all other TwoLevelCacheManager instances subscribed to the same bus.
+ *
+ * <p>The caches are exposed as {@link TwoLevelCache} instances, providing
+ * hit counts and ratios for the local and the remote level.
+ *
+ * <p>The cache manager subscribes to the bus on {@link #afterPropertiesSet()}
+ * and unsubscribes on {@link #destroy()}, which happens automatically when
+ * it is defined as a bean.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see TwoLevelCache
+ * @see LocalCacheInvalidationBus
+ */
+public class TwoLevelCacheManager implements CacheManager, InitializingBean, DisposableBean {
+
+	private final ConcurrentMap<String, TwoLevelCache> cacheMap = new ConcurrentHashMap<>(16);
+
+	private final CacheManager remoteCacheManager;
+
+	private final CacheInvalidationBus invalidationBus;
+
+	private final String origin = UUID.randomUUID().toString();
+
+	private final CacheInvalidationListener invalidationListener = this::onInvalidation;
+
+	private int localMaximumSize = BoundedConcurrentCacheManager.DEFAULT_MAXIMUM_SIZE;
+
+	@Nullable
+	private Duration localExpireAfterWrite;
+
+
+	/**
+	 * Create a new TwoLevelCacheManager for the given remote CacheManager,
+	 * using the given bus for invalidations of its local caches.
+	 * @param remoteCacheManager the CacheManager to obtain the remote caches from
+	 * @param invalidationBus the bus to publish and receive invalidations on
+	 * @see #afterPropertiesSet()
+	 */
+	public TwoLevelCacheManager(CacheManager remoteCacheManager, CacheInvalidationBus invalidationBus) {
+		Assert.notNull(remoteCacheManager, "Remote CacheManager must not be null");
+		Assert.notNull(invalidationBus, "CacheInvalidationBus must not be null");
+		this.remoteCacheManager = remoteCacheManager;
+		this.invalidationBus = invalidationBus;
+	}
+
+
+	/**
+	 * Return the CacheManager that the remote caches are obtained from.
+	 */
+	public CacheManager getRemoteCacheManager() {
+		return this.remoteCacheManager;
+	}
+
+	/**
+	 * Specify the maximum number of entries per local cache.
+	 * <p>Default is {@link BoundedConcurrentCacheManager#DEFAULT_MAXIMUM_SIZE}.
+	 * <p>Note: A change of the maximum size will reset all existing caches,
+	 * if any, to reconfigure them with the new size limit.
+	 */
+	public void setLocalMaximumSize(int localMaximumSize) {
+		Assert.isTrue(localMaximumSize > 0, "Maximum size must be positive");
+		if (localMaximumSize != this.localMaximumSize) {
+			this.localMaximumSize = localMaximumSize;
+			this.cacheMap.clear();
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries per local cache.
+	 */
+	public int getLocalMaximumSize() {
+		return this.localMaximumSize;
+	}
+
+	/**
+	 * Specify the time after which local cache entries expire, counting from
+	 * the time the value was stored locally. This bounds the time that a stale
+	 * value may be served in case of a delayed or lost invalidation.
+	 * <p>Default is none, relying on invalidations only.
+	 * <p>Note: A change of the expiration time will reset all existing caches,
+	 * if any, to reconfigure them with the new expiration time.
+	 */
+	public void setLocalExpireAfterWrite(@Nullable Duration localExpireAfterWrite) {
+		if (!ObjectUtils.nullSafeEquals(localExpireAfterWrite, this.localExpireAfterWrite)) {
+			this.localExpireAfterWrite = localExpireAfterWrite;
+			this.cacheMap.clear();
+		}
+	}
+
+	/**
+	 * Return the time after which local cache entries expire, if any.
+	 */
+	@Nullable
+	public Duration getLocalExpireAfterWrite() {
+		return this.localExpireAfterWrite;
+	}
+
+
+	/**
+	 * Subscribe to the {@link CacheInvalidationBus} for invalidations
+	 * of the local caches.
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		this.invalidationBus.subscribe(this.invalidationListener);
+	}
+
+	/**
+	 * Unsubscribe from the {@link CacheInvalidationBus}.
+	 */
+	@Override
+	public void destroy() {
+		this.invalidationBus.unsubscribe(this.invalidationListener);
+	}
+
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return this.remoteCacheManager.getCacheNames();
+	}
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		TwoLevelCache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			Cache remoteCache = this.remoteCacheManager.getCache(name);
+			if (remoteCache == null) {
+				return null;
+			}
+			synchronized (this.cacheMap) {
+				cache = this.cacheMap.get(name);
+				if (cache == null) {
+					cache = new TwoLevelCache(createLocalCache(name), remoteCache, this.invalidationBus, this.origin);
+					this.cacheMap.put(name, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Create the local cache for the specified cache name.
+	 * @param name the name of the cache
+	 * @return the local cache (a {@link BoundedConcurrentCache} by default)
+	 */
+	protected Cache createLocalCache(String name) {
+		return new BoundedConcurrentCache(name, this.localMaximumSize, this.localExpireAfterWrite,
+				null, Runnable::run, true);
+	}
+
+	/**
+	 * Return the caches obtained so far, keyed by cache name,
+	 * e.g. for exposing their per-level hit ratios.
+	 * @see TwoLevelCache#localHitRatio()
+	 * @see TwoLevelCache#remoteHitRatio()
+	 */
+	public Map<String, TwoLevelCache> getCaches() {
+		return Collections.unmodifiableMap(this.cacheMap);
+	}
+
+	/**
+	 * Evict the invalidated entries from the corresponding local cache,
+	 * unless the invalidation has been published by this cache manager.
+	 */
+	private void onInvalidation(String origin, String cacheName, @Nullable Object key) {
+		if (!this.origin.equals(origin)) {
+			TwoLevelCache cache = this.cacheMap.get(cacheName);
+			if (cache != null) {
+				cache.evictLocal(key);
+			}
+		}
+	}
+
+}
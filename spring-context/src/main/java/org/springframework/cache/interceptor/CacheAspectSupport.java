@@ -21,15 +21,24 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -69,6 +78,15 @@ import org.springframework.util.function.SupplierUtils;
  * used for determining caching operations, a {@link KeyGenerator} will build the
  * cache keys, and a {@link CacheResolver} will resolve the actual cache(s) to use.
  *
+ * <p>As of 5.2, methods returning a {@link CompletableFuture}, or a Reactor
+ * {@code Mono} or {@code Flux}, are cached asynchronously: the value of the future,
+ * the value emitted by the {@code Mono} or the list of values emitted by the
+ * {@code Flux} is cached once available. Cached values for such methods are
+ * looked up through {@link Cache#retrieve(Object)}, without blocking the caller
+ * for a remote cache. With {@code sync} enabled, concurrent
+ * invocations for the same key share a single pending invocation, through
+ * {@link Cache#retrieve(Object, Supplier)}.
+ *
  * <p>Note: A cache aspect is serializable but does not perform any actual caching
  * after deserialization.
  *
@@ -83,6 +101,10 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Flux", CacheAspectSupport.class.getClassLoader());
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
@@ -100,6 +122,9 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	@Nullable
 	private BeanFactory beanFactory;
 
+	@Nullable
+	private final ReactiveCachingHandler reactiveCachingHandler = (reactorPresent ? new ReactiveCachingHandler() : null);
+
 	private boolean initialized = false;
 
 
@@ -300,7 +325,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				Assert.state(operationCacheResolver != null, "No CacheResolver/CacheManager set");
 			}
 			metadata = new CacheOperationMetadata(operation, method, targetClass,
-					operationKeyGenerator, operationCacheResolver);
+					operationKeyGenerator, operationCacheResolver, this.evaluator);
 			this.metadataCache.put(cacheKey, metadata);
 		}
 		return metadata;
@@ -365,11 +390,26 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return invoker.invoke();
 	}
 
+	/**
+	 * Execute the underlying operation with the given arguments rather than the
+	 * original ones, as required for a {@code @Cacheable(batch=true)} miss.
+	 * Exceptions are to be handled as for {@link #invokeOperation(CacheOperationInvoker)}.
+	 * @param invoker the invoker handling the operation being cached
+	 * @param arguments the arguments to invoke the operation with
+	 * @return the result of the invocation
+	 * @since 5.2
+	 * @see ArgumentReplacingInvoker#invoke(Object[])
+	 */
+	protected Object invokeOperation(ArgumentReplacingInvoker invoker, Object[] arguments) {
+		return invoker.invoke(arguments);
+	}
+
 	private Class<?> getTargetClass(Object target) {
 		return AopProxyUtils.ultimateTargetClass(target);
 	}
 
 	@Nullable
+	@SuppressWarnings("unchecked")
 	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
 		// Special handling of synchronized invocation
 		if (contexts.isSynchronized()) {
@@ -377,6 +417,28 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
 				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
 				Cache cache = context.getCaches().iterator().next();
+				if (CompletableFuture.class == method.getReturnType()) {
+					return cache.retrieve(key, () -> {
+						try {
+							return (CompletableFuture<Object>) invokeOperation(invoker);
+						}
+						catch (CacheOperationInvoker.ThrowableWrapper ex) {
+							return failedFuture(ex.getOriginal());
+						}
+					});
+				}
+				if (this.reactiveCachingHandler != null) {
+					// A deferred result may miss the cache on each subscription: invoke a
+					// clone of the invocation every time, if possible, so that it passes
+					// through the remaining interceptors again
+					CacheOperationInvoker repeatableInvoker = (invoker instanceof ArgumentReplacingInvoker ?
+							((ArgumentReplacingInvoker) invoker)::invokeClone : invoker);
+					Object returnValue = this.reactiveCachingHandler.executeSynchronized(
+							() -> invokeOperation(repeatableInvoker), method, cache, key);
+					if (returnValue != ReactiveCachingHandler.NOT_HANDLED) {
+						return returnValue;
+					}
+				}
 				try {
 					return wrapCacheValue(method, cache.get(key, () -> unwrapReturnValue(invokeOperation(invoker))));
 				}
@@ -393,12 +455,52 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 
 
+		// Special handling of batch invocation
+		if (contexts.isBatch()) {
+			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+			if (!(invoker instanceof ArgumentReplacingInvoker)) {
+				throw new IllegalStateException("@Cacheable(batch=true) requires an invoker that is able " +
+						"to replace the method arguments, e.g. the proxy-based CacheInterceptor: '" + method + "'");
+			}
+			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+				return executeBatch((ArgumentReplacingInvoker) invoker, method, context);
+			}
+			else {
+				// No caching required, only call the underlying method
+				return invokeOperation(invoker);
+			}
+		}
+
 		// Process any early evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
 				CacheOperationExpressionEvaluator.NO_RESULT);
 
 		// Check if we have a cached item matching the conditions
-		Cache.ValueWrapper cacheHit = findCachedItem(contexts.get(CacheableOperation.class));
+		Cache.ValueWrapper cacheHit;
+		if (isAsynchronous(method)) {
+			// Look up an asynchronous result without blocking, e.g. in a remote cache
+			CompletableFuture<Cache.ValueWrapper> cacheLookup = retrieveCachedItem(contexts.get(CacheableOperation.class));
+			if (!cacheLookup.isDone() || cacheLookup.isCompletedExceptionally()) {
+				return adaptDeferredResult(method, cacheLookup.thenApply(hit -> {
+					try {
+						return execute(invoker, method, contexts, hit);
+					}
+					catch (CacheOperationInvoker.ThrowableWrapper ex) {
+						throw new CompletionException(ex.getOriginal());
+					}
+				}));
+			}
+			cacheHit = cacheLookup.join();
+		}
+		else {
+			cacheHit = findCachedItem(contexts.get(CacheableOperation.class));
+		}
+		return execute(invoker, method, contexts, cacheHit);
+	}
+
+	@Nullable
+	private Object execute(CacheOperationInvoker invoker, Method method,
+			CacheOperationContexts contexts, @Nullable Cache.ValueWrapper cacheHit) {
 
 		// Collect puts from any @Cacheable miss, if no cached item is found
 		List<CachePutRequest> cachePutRequests = new LinkedList<>();
@@ -418,10 +520,103 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		else {
 			// Invoke the method if we don't have a cache hit
 			returnValue = invokeOperation(invoker);
+			// Put an asynchronous result into the caches, and evict for it, once it is available
+			if (!cachePutRequests.isEmpty() || hasCachePut(contexts) ||
+					!contexts.get(CacheEvictOperation.class).isEmpty()) {
+				Object asyncReturnValue = processAsyncResult(method, returnValue,
+						value -> updateCaches(contexts, cachePutRequests, value));
+				if (asyncReturnValue != null) {
+					return asyncReturnValue;
+				}
+			}
 			cacheValue = unwrapReturnValue(returnValue);
 		}
 
-		// Collect any explicit @CachePuts
+		updateCaches(contexts, cachePutRequests, cacheValue);
+		return returnValue;
+	}
+
+	@Nullable
+	private Object executeBatch(ArgumentReplacingInvoker invoker, Method method, CacheOperationContext context) {
+		Object[] args = context.getArgs();
+		Collection<?> elements = (Collection<?>) args[0];
+		if (elements == null) {
+			return invokeOperation(invoker);
+		}
+
+		// Look up all elements in bulk, cache by cache
+		Map<Object, Object> keys = new LinkedHashMap<>(elements.size());
+		for (Object element : elements) {
+			keys.put(element, generateElementKey(context, element));
+		}
+		Set<Object> missingKeys = new LinkedHashSet<>(keys.values());
+		Map<Object, Cache.ValueWrapper> cacheHits = new LinkedHashMap<>(keys.size());
+		for (Cache cache : context.getCaches()) {
+			if (missingKeys.isEmpty()) {
+				break;
+			}
+			Map<Object, Cache.ValueWrapper> found = doGetAll(cache, missingKeys);
+			cacheHits.putAll(found);
+			missingKeys.removeAll(found.keySet());
+		}
+
+		// Invoke the method for the missing elements only
+		Map<?, ?> loaded = Collections.emptyMap();
+		if (!missingKeys.isEmpty()) {
+			List<Object> missingElements = new ArrayList<>(missingKeys.size());
+			keys.forEach((element, key) -> {
+				if (missingKeys.contains(key)) {
+					missingElements.add(element);
+				}
+			});
+			if (logger.isTraceEnabled()) {
+				logger.trace("No cache entries for " + missingElements.size() + " of " + keys.size() +
+						" elements in cache(s) " + context.getCacheNames());
+			}
+			Object[] missingArgs = args.clone();
+			missingArgs[0] = (method.getParameterTypes()[0].isAssignableFrom(ArrayList.class) ?
+					missingElements : new LinkedHashSet<>(missingElements));
+			Object returnValue = invokeOperation(invoker, missingArgs);
+			if (returnValue != null) {
+				loaded = (Map<?, ?>) returnValue;
+			}
+			Map<Object, Object> entries = new LinkedHashMap<>(loaded.size());
+			for (Object element : missingElements) {
+				if (loaded.containsKey(element)) {
+					entries.put(keys.get(element), loaded.get(element));
+				}
+			}
+			if (!entries.isEmpty()) {
+				for (Cache cache : context.getCaches()) {
+					doPutAll(cache, entries);
+				}
+			}
+		}
+
+		// Merge cached and loaded entries in the order of the given elements
+		Map<Object, Object> result = new LinkedHashMap<>(keys.size());
+		for (Map.Entry<Object, Object> entry : keys.entrySet()) {
+			Object element = entry.getKey();
+			Cache.ValueWrapper cacheHit = cacheHits.get(entry.getValue());
+			if (cacheHit != null) {
+				result.put(element, cacheHit.get());
+			}
+			else if (loaded.containsKey(element)) {
+				result.put(element, loaded.get(element));
+			}
+		}
+		for (Map.Entry<?, ?> entry : loaded.entrySet()) {
+			result.putIfAbsent(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	private void updateCaches(CacheOperationContexts contexts,
+			List<CachePutRequest> cacheableMissRequests, @Nullable Object cacheValue) {
+
+		// Collect any explicit @CachePuts, leaving the given requests untouched
+		// since an asynchronous result may be delivered several times
+		List<CachePutRequest> cachePutRequests = new ArrayList<>(cacheableMissRequests);
 		collectPutRequests(contexts.get(CachePutOperation.class), cacheValue, cachePutRequests);
 
 		// Process any collected put requests, either from @CachePut or a @Cacheable miss
@@ -431,8 +626,6 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		// Process any late evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), false, cacheValue);
-
-		return returnValue;
 	}
 
 	@Nullable
@@ -441,9 +634,72 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				(cacheValue == null || cacheValue.getClass() != Optional.class)) {
 			return Optional.ofNullable(cacheValue);
 		}
+		if (method.getReturnType() == CompletableFuture.class) {
+			return CompletableFuture.completedFuture(cacheValue);
+		}
+		if (this.reactiveCachingHandler != null) {
+			Object returnValue = this.reactiveCachingHandler.wrapCacheValue(method, cacheValue);
+			if (returnValue != ReactiveCachingHandler.NOT_HANDLED) {
+				return returnValue;
+			}
+		}
 		return cacheValue;
 	}
 
+	private boolean isAsynchronous(Method method) {
+		return (method.getReturnType() == CompletableFuture.class ||
+				(this.reactiveCachingHandler != null && this.reactiveCachingHandler.isReactive(method)));
+	}
+
+	/**
+	 * Adapt the given future for a return value, once the cache lookup
+	 * has completed, to the return type of the given method.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Object adaptDeferredResult(Method method, CompletableFuture<Object> returnValue) {
+		if (method.getReturnType() == CompletableFuture.class) {
+			return returnValue.thenCompose(value ->
+					(value != null ? (CompletableFuture<Object>) value : CompletableFuture.completedFuture(null)));
+		}
+		if (this.reactiveCachingHandler != null) {
+			Object asyncReturnValue = this.reactiveCachingHandler.adaptDeferredResult(method, returnValue);
+			if (asyncReturnValue != ReactiveCachingHandler.NOT_HANDLED) {
+				return asyncReturnValue;
+			}
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Process the given return value if it is asynchronous, passing its
+	 * value to the given handler once available.
+	 * @return the return value to use instead of the given one,
+	 * or {@code null} if the given return value is not asynchronous
+	 */
+	@Nullable
+	private Object processAsyncResult(Method method, @Nullable Object returnValue, Consumer<Object> resultHandler) {
+		if (returnValue instanceof CompletableFuture && method.getReturnType() == CompletableFuture.class) {
+			return ((CompletableFuture<?>) returnValue).thenApply(value -> {
+				resultHandler.accept(value);
+				return value;
+			});
+		}
+		if (this.reactiveCachingHandler != null) {
+			Object asyncReturnValue = this.reactiveCachingHandler.processResult(method, returnValue, resultHandler);
+			if (asyncReturnValue != ReactiveCachingHandler.NOT_HANDLED) {
+				return asyncReturnValue;
+			}
+		}
+		return null;
+	}
+
+	private static <T> CompletableFuture<T> failedFuture(Throwable ex) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(ex);
+		return future;
+	}
+
 	@Nullable
 	private Object unwrapReturnValue(Object returnValue) {
 		return ObjectUtils.unwrapOptional(returnValue);
@@ -530,6 +786,59 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return null;
 	}
 
+	/**
+	 * Retrieve a cached item only for {@link CacheableOperation} that passes the
+	 * condition, through {@link Cache#retrieve(Object)}.
+	 * @param contexts the cacheable operations
+	 * @return a future completed with a {@link Cache.ValueWrapper} holding
+	 * the cached item, or with {@code null} if none is found
+	 */
+	private CompletableFuture<Cache.ValueWrapper> retrieveCachedItem(Collection<CacheOperationContext> contexts) {
+		CompletableFuture<Cache.ValueWrapper> cacheHit = CompletableFuture.completedFuture(null);
+		for (CacheOperationContext context : contexts) {
+			cacheHit = orElseRetrieve(cacheHit, () -> {
+				Object result = CacheOperationExpressionEvaluator.NO_RESULT;
+				if (!isConditionPassing(context, result)) {
+					return CompletableFuture.completedFuture(null);
+				}
+				Object key = generateKey(context, result);
+				return retrieveInCaches(context, key).thenApply(cached -> {
+					if (cached == null && logger.isTraceEnabled()) {
+						logger.trace("No cache entry for key '" + key + "' in cache(s) " + context.getCacheNames());
+					}
+					return cached;
+				});
+			});
+		}
+		return cacheHit;
+	}
+
+	private CompletableFuture<Cache.ValueWrapper> retrieveInCaches(CacheOperationContext context, Object key) {
+		CompletableFuture<Cache.ValueWrapper> cacheHit = CompletableFuture.completedFuture(null);
+		for (Cache cache : context.getCaches()) {
+			cacheHit = orElseRetrieve(cacheHit, () -> doRetrieve(cache, key).thenApply(wrapper -> {
+				if (wrapper != null && logger.isTraceEnabled()) {
+					logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
+				}
+				return wrapper;
+			}));
+		}
+		return cacheHit;
+	}
+
+	/**
+	 * Chain the given retrieval to the given cache hit in case of a miss,
+	 * right away if the cache hit is already available.
+	 */
+	private CompletableFuture<Cache.ValueWrapper> orElseRetrieve(CompletableFuture<Cache.ValueWrapper> cacheHit,
+			Supplier<CompletableFuture<Cache.ValueWrapper>> retrieval) {
+
+		if (cacheHit.isDone() && !cacheHit.isCompletedExceptionally()) {
+			return (cacheHit.join() != null ? cacheHit : retrieval.get());
+		}
+		return cacheHit.thenCompose(hit -> (hit != null ? CompletableFuture.completedFuture(hit) : retrieval.get()));
+	}
+
 	/**
 	 * Collect the {@link CachePutRequest} for all {@link CacheOperation} using
 	 * the specified result item.
@@ -583,6 +892,15 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return key;
 	}
 
+	private Object generateElementKey(CacheOperationContext context, Object element) {
+		Object key = context.generateElementKey(element);
+		if (key == null) {
+			throw new IllegalArgumentException("Null key returned for element '" + element +
+					"' of batch cache operation " + context.metadata.operation);
+		}
+		return key;
+	}
+
 
 	private class CacheOperationContexts {
 
@@ -590,6 +908,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final boolean sync;
 
+		private final boolean batch;
+
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
@@ -598,6 +918,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
 			}
 			this.sync = determineSyncFlag(method);
+			this.batch = determineBatchFlag(method);
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
@@ -609,6 +930,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return this.sync;
 		}
 
+		public boolean isBatch() {
+			return this.batch;
+		}
+
 		private boolean determineSyncFlag(Method method) {
 			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
 			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
@@ -644,6 +969,73 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 			return false;
 		}
+
+		private boolean determineBatchFlag(Method method) {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
+				return false;
+			}
+			boolean batchEnabled = false;
+			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+				if (((CacheableOperation) cacheOperationContext.getOperation()).isBatch()) {
+					batchEnabled = true;
+					break;
+				}
+			}
+			if (batchEnabled) {
+				if (this.contexts.size() > 1 || cacheOperationContexts.size() > 1) {
+					throw new IllegalStateException(
+							"@Cacheable(batch=true) cannot be combined with other cache operations on '" + method + "'");
+				}
+				CacheableOperation operation = (CacheableOperation) cacheOperationContexts.get(0).getOperation();
+				if (operation.isSync()) {
+					throw new IllegalStateException(
+							"@Cacheable(batch=true) cannot be combined with sync attribute on '" + operation + "'");
+				}
+				if (StringUtils.hasText(operation.getKey()) || StringUtils.hasText(operation.getUnless())) {
+					throw new IllegalStateException(
+							"@Cacheable(batch=true) does not support key and unless attributes on '" + operation + "'");
+				}
+				Class<?>[] parameterTypes = method.getParameterTypes();
+				if (parameterTypes.length != 1 || !(parameterTypes[0].isAssignableFrom(ArrayList.class) ||
+						parameterTypes[0].isAssignableFrom(LinkedHashSet.class)) ||
+						!method.getReturnType().isAssignableFrom(LinkedHashMap.class)) {
+					throw new IllegalStateException("@Cacheable(batch=true) requires a method with a single " +
+							"Collection, List or Set parameter and a Map return type: '" + method + "'");
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * {@link CacheOperationInvoker} that is also able to invoke the operation
+	 * with arguments other than the original ones, as required for
+	 * {@code @Cacheable(batch=true)} operations, or repeatedly, as required for
+	 * reactive {@code @Cacheable(sync=true)} operations.
+	 * @since 5.2
+	 */
+	protected interface ArgumentReplacingInvoker extends CacheOperationInvoker {
+
+		/**
+		 * Invoke the cache operation on a clone of the original invocation, so
+		 * that it can be invoked once for every cache miss. Wraps any exception
+		 * that is thrown during the invocation in a {@link ThrowableWrapper}.
+		 * @return the result of the operation
+		 * @throws ThrowableWrapper if an error occurred while invoking the operation
+		 */
+		Object invokeClone() throws ThrowableWrapper;
+
+		/**
+		 * Invoke the cache operation with the given arguments. Wraps any exception
+		 * that is thrown during the invocation in a {@link ThrowableWrapper}.
+		 * @param arguments the arguments to use instead of the original arguments
+		 * @return the result of the operation
+		 * @throws ThrowableWrapper if an error occurred while invoking the operation
+		 */
+		Object invoke(Object[] arguments) throws ThrowableWrapper;
 	}
 
 
@@ -665,11 +1057,22 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final KeyGenerator keyGenerator;
 
+		private final KeyGenerator methodKeyGenerator;
+
+		private final int keyArgumentIndex;
+
 		private final CacheResolver cacheResolver;
 
 		public CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
 				KeyGenerator keyGenerator, CacheResolver cacheResolver) {
 
+			this(operation, method, targetClass, keyGenerator, cacheResolver, null);
+		}
+
+		private CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
+				KeyGenerator keyGenerator, CacheResolver cacheResolver,
+				@Nullable CacheOperationExpressionEvaluator evaluator) {
+
 			this.operation = operation;
 			this.method = BridgeMethodResolver.findBridgedMethod(method);
 			this.targetClass = targetClass;
@@ -677,8 +1080,25 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 					AopUtils.getMostSpecificMethod(method, targetClass) : this.method);
 			this.methodKey = new AnnotatedElementKey(this.targetMethod, targetClass);
 			this.keyGenerator = keyGenerator;
+			this.methodKeyGenerator = determineMethodKeyGenerator(keyGenerator, this.method);
+			this.keyArgumentIndex = (evaluator != null && StringUtils.hasText(operation.getKey()) ?
+					evaluator.getKeyArgumentIndex(operation.getKey(), this.targetMethod) : -1);
 			this.cacheResolver = cacheResolver;
 		}
+
+		/**
+		 * Specialize the default {@link SimpleKeyGenerator} for the given method,
+		 * avoiding the generic handling of the parameters for every invocation.
+		 */
+		private static KeyGenerator determineMethodKeyGenerator(KeyGenerator keyGenerator, Method method) {
+			if (keyGenerator.getClass() == SimpleKeyGenerator.class) {
+				KeyGenerator methodKeyGenerator = SimpleKeyGenerator.forMethod(method);
+				if (methodKeyGenerator != null) {
+					return methodKeyGenerator;
+				}
+			}
+			return keyGenerator;
+		}
 	}
 
 
@@ -774,10 +1194,22 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		@Nullable
 		protected Object generateKey(@Nullable Object result) {
 			if (StringUtils.hasText(this.metadata.operation.getKey())) {
+				if (this.metadata.keyArgumentIndex >= 0) {
+					return this.args[this.metadata.keyArgumentIndex];
+				}
 				EvaluationContext evaluationContext = createEvaluationContext(result);
 				return evaluator.key(this.metadata.operation.getKey(), this.metadata.methodKey, evaluationContext);
 			}
-			return this.metadata.keyGenerator.generate(this.target, this.metadata.method, this.args);
+			return this.metadata.methodKeyGenerator.generate(this.target, this.metadata.method, this.args);
+		}
+
+		/**
+		 * Compute the key for the given element of a batch caching operation.
+		 * @since 5.2
+		 */
+		@Nullable
+		protected Object generateElementKey(Object element) {
+			return this.metadata.keyGenerator.generate(this.target, this.metadata.method, element);
 		}
 
 		private EvaluationContext createEvaluationContext(@Nullable Object result) {
@@ -868,4 +1300,85 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 	}
 
+
+
+	/**
+	 * Inner class to avoid a hard dependency on the Reactor API at runtime.
+	 */
+	private static class ReactiveCachingHandler {
+
+		public static final Object NOT_HANDLED = new Object();
+
+		@SuppressWarnings("unchecked")
+		public Object executeSynchronized(Supplier<Object> invocation, Method method, Cache cache, Object key) {
+			Class<?> returnType = method.getReturnType();
+			if (returnType == Mono.class) {
+				return Mono.defer(() -> Mono.fromFuture(cache.retrieve(key, () ->
+						toFuture(invocation, mono -> ((Mono<Object>) mono).toFuture()))));
+			}
+			if (returnType == Flux.class) {
+				return Mono.defer(() -> Mono.fromFuture(cache.retrieve(key, () ->
+						toFuture(invocation, flux -> ((Flux<Object>) flux).collectList().toFuture()))))
+						.flatMapIterable(list -> list);
+			}
+			return NOT_HANDLED;
+		}
+
+		private <T> CompletableFuture<T> toFuture(
+				Supplier<Object> invocation, Function<Object, CompletableFuture<T>> adapter) {
+
+			try {
+				return adapter.apply(invocation.get());
+			}
+			catch (CacheOperationInvoker.ThrowableWrapper ex) {
+				return failedFuture(ex.getOriginal());
+			}
+		}
+
+		public boolean isReactive(Method method) {
+			Class<?> returnType = method.getReturnType();
+			return (returnType == Mono.class || returnType == Flux.class);
+		}
+
+		@SuppressWarnings("unchecked")
+		public Object adaptDeferredResult(Method method, CompletableFuture<Object> returnValue) {
+			Class<?> returnType = method.getReturnType();
+			if (returnType == Mono.class) {
+				return Mono.fromFuture(returnValue).flatMap(mono -> (Mono<Object>) mono);
+			}
+			if (returnType == Flux.class) {
+				return Mono.fromFuture(returnValue).flatMapMany(flux -> (Flux<Object>) flux);
+			}
+			return NOT_HANDLED;
+		}
+
+		@Nullable
+		public Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
+			Class<?> returnType = method.getReturnType();
+			if (returnType == Mono.class) {
+				return Mono.justOrEmpty(cacheValue);
+			}
+			if (returnType == Flux.class) {
+				return (cacheValue instanceof Iterable ? Flux.fromIterable((Iterable<?>) cacheValue) :
+						Mono.justOrEmpty(cacheValue).flux());
+			}
+			return NOT_HANDLED;
+		}
+
+		@Nullable
+		public Object processResult(Method method, @Nullable Object returnValue, Consumer<Object> resultHandler) {
+			if (returnValue instanceof Mono && method.getReturnType() == Mono.class) {
+				return ((Mono<?>) returnValue).doOnSuccess(resultHandler);
+			}
+			if (returnValue instanceof Flux && method.getReturnType() == Flux.class) {
+				Flux<?> flux = (Flux<?>) returnValue;
+				return Flux.defer(() -> {
+					List<Object> values = new ArrayList<>();
+					return flux.doOnNext(values::add).doOnComplete(() -> resultHandler.accept(values));
+				});
+			}
+			return NOT_HANDLED;
+		}
+	}
+
 }
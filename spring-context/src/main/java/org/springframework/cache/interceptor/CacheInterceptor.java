@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
+import org.springframework.aop.ProxyMethodInvocation;
 import org.springframework.lang.Nullable;
 
 /**
@@ -48,14 +49,8 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		Method method = invocation.getMethod();
 
-		CacheOperationInvoker aopAllianceInvoker = () -> {
-			try {
-				return invocation.proceed();
-			}
-			catch (Throwable ex) {
-				throw new CacheOperationInvoker.ThrowableWrapper(ex);
-			}
-		};
+		CacheOperationInvoker aopAllianceInvoker = (invocation instanceof ProxyMethodInvocation ?
+				new ProxyMethodInvocationInvoker((ProxyMethodInvocation) invocation) : () -> proceed(invocation));
 
 		try {
 			return execute(aopAllianceInvoker, invocation.getThis(), method, invocation.getArguments());
@@ -65,4 +60,42 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 		}
 	}
 
+	private static Object proceed(MethodInvocation invocation) {
+		try {
+			return invocation.proceed();
+		}
+		catch (Throwable ex) {
+			throw new CacheOperationInvoker.ThrowableWrapper(ex);
+		}
+	}
+
+
+	/**
+	 * Invoker for a {@link ProxyMethodInvocation}, proceeding on a clone
+	 * of the invocation where necessary.
+	 */
+	private static class ProxyMethodInvocationInvoker implements ArgumentReplacingInvoker {
+
+		private final ProxyMethodInvocation invocation;
+
+		public ProxyMethodInvocationInvoker(ProxyMethodInvocation invocation) {
+			this.invocation = invocation;
+		}
+
+		@Override
+		public Object invoke() {
+			return proceed(this.invocation);
+		}
+
+		@Override
+		public Object invoke(Object[] arguments) {
+			return proceed(this.invocation.invocableClone(arguments));
+		}
+
+		@Override
+		public Object invokeClone() {
+			return proceed(this.invocation.invocableClone());
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,8 @@ import org.springframework.cache.Cache;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.context.expression.SharedExpressionCache;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.lang.Nullable;
@@ -68,6 +70,15 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<>(64);
 
 
+	public CacheOperationExpressionEvaluator() {
+		super(SharedExpressionCache.getSharedInstance());
+	}
+
+	@Override
+	protected Class<?> getRootObjectType() {
+		return CacheExpressionRootObject.class;
+	}
+
 	/**
 	 * Create an {@link EvaluationContext}.
 	 * @param caches the current caches
@@ -87,6 +98,7 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 				caches, method, args, target, targetClass);
 		CacheEvaluationContext evaluationContext = new CacheEvaluationContext(
 				rootObject, targetMethod, args, getParameterNameDiscoverer());
+		applySharedResolvers(evaluationContext);
 		if (result == RESULT_UNAVAILABLE) {
 			evaluationContext.addUnavailableVariable(RESULT_VARIABLE);
 		}
@@ -114,6 +126,40 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 				evalContext, Boolean.class)));
 	}
 
+	/**
+	 * Return the index of the method argument that the given key expression
+	 * refers to, if the expression is nothing but a reference to a method argument
+	 * such as {@code #id} or {@code #p0}: the key is the argument itself then,
+	 * without the need for an evaluation context.
+	 * @param keyExpression the key expression
+	 * @param targetMethod the target method, as used for the evaluation context
+	 * @return the index of the argument, or {@code -1} if the expression needs
+	 * to be evaluated
+	 * @since 5.2
+	 */
+	int getKeyArgumentIndex(String keyExpression, Method targetMethod) {
+		String expression = keyExpression.trim();
+		if (expression.length() < 2 || expression.charAt(0) != '#' || targetMethod.isVarArgs()) {
+			return -1;
+		}
+		String name = expression.substring(1);
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$' ||
+					(i > 0 && c >= '0' && c <= '9'))) {
+				return -1;
+			}
+		}
+		if (RESULT_VARIABLE.equals(name) || "root".equals(name) || "this".equals(name)) {
+			return -1;
+		}
+
+		// Same resolution as for the evaluation of the expression
+		String[] paramNames = getParameterNameDiscoverer().getParameterNames(targetMethod);
+		int paramCount = (paramNames != null ? paramNames.length : targetMethod.getParameterCount());
+		return MethodBasedEvaluationContext.resolveArgumentIndex(name, paramNames, paramCount);
+	}
+
 	/**
 	 * Clear all caches.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,23 @@ public class SimpleKey implements Serializable {
 		this.hashCode = Arrays.deepHashCode(this.params);
 	}
 
+	private SimpleKey(Object[] params, int hashCode) {
+		this.params = params;
+		this.hashCode = hashCode;
+	}
+
+
+	/**
+	 * Create a {@link SimpleKey} for two elements that are known not to be arrays,
+	 * computing the same hash code as {@link Arrays#deepHashCode} without having
+	 * to copy the elements or to check them for nested arrays.
+	 * @since 5.2
+	 */
+	static SimpleKey of(@Nullable Object first, @Nullable Object second) {
+		int hashCode = 31 * (31 + (first != null ? first.hashCode() : 0)) + (second != null ? second.hashCode() : 0);
+		return new SimpleKey(new Object[] {first, second}, hashCode);
+	}
+
 
 	@Override
 	public boolean equals(@Nullable Object other) {
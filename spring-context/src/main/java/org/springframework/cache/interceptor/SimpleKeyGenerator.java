@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Simple key generator. Returns the parameter itself if a single non-null
  * value is given, otherwise returns a {@link SimpleKey} of the parameters.
@@ -57,4 +59,43 @@ public class SimpleKeyGenerator implements KeyGenerator {
 		return new SimpleKey(params);
 	}
 
+	/**
+	 * Return a key generator that produces the same keys as {@link #generateKey}
+	 * for the given method, specialized for its parameter types: methods without
+	 * parameters always share the same key, and parameters that cannot hold an
+	 * array, in particular primitives, do not need to be checked at runtime.
+	 * @param method the method to generate keys for
+	 * @return the specialized key generator, or {@code null} if the method does
+	 * not have a fixed number of up to two parameters
+	 * @since 5.2
+	 */
+	@Nullable
+	static KeyGenerator forMethod(Method method) {
+		if (method.isVarArgs()) {
+			return null;
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		if (parameterTypes.length == 0) {
+			return (target, m, params) -> SimpleKey.EMPTY;
+		}
+		if (parameterTypes.length == 1) {
+			if (parameterTypes[0].isPrimitive()) {
+				return (target, m, params) -> params[0];
+			}
+			if (cannotHoldArray(parameterTypes[0])) {
+				return (target, m, params) -> (params[0] != null ? params[0] : new SimpleKey(params));
+			}
+		}
+		else if (parameterTypes.length == 2 && cannotHoldArray(parameterTypes[0]) &&
+				cannotHoldArray(parameterTypes[1])) {
+			return (target, m, params) -> SimpleKey.of(params[0], params[1]);
+		}
+		return null;
+	}
+
+	private static boolean cannotHoldArray(Class<?> parameterType) {
+		// Arrays are only assignable to Object, Cloneable and Serializable
+		return (!parameterType.isArray() && !parameterType.isAssignableFrom(Object[].class));
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,11 @@
 
 package org.springframework.cache.support;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
 import org.springframework.cache.Cache;
 import org.springframework.lang.Nullable;
 
@@ -28,6 +33,9 @@ import org.springframework.lang.Nullable;
  * {@link NullValue#INSTANCE}, if configured to support {@code null} values
  * (as indicated by {@link #isAllowNullValues()}.
  *
+ * <p>As of 5.2, concurrent calls to {@link #retrieve(Object, Supplier)} for
+ * the same key share a single pending load.
+ *
  * @author Juergen Hoeller
  * @since 4.2.2
  */
@@ -35,6 +43,8 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 
 	private final boolean allowNullValues;
 
+	private final ConcurrentMap<Object, CompletableFuture<Object>> pendingRetrievals = new ConcurrentHashMap<>(16);
+
 
 	/**
 	 * Create an {@code AbstractValueAdaptingCache} with the given setting.
@@ -71,6 +81,59 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 		return (T) value;
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		Object storeValue = lookup(key);
+		if (storeValue != null) {
+			return CompletableFuture.completedFuture((T) fromStoreValue(storeValue));
+		}
+		CompletableFuture<Object> retrieval = new CompletableFuture<>();
+		CompletableFuture<Object> existing = this.pendingRetrievals.putIfAbsent(key, retrieval);
+		if (existing == null) {
+			try {
+				// The value may have been stored since our lookup
+				storeValue = lookup(key);
+				if (storeValue != null) {
+					this.pendingRetrievals.remove(key, retrieval);
+					retrieval.complete(fromStoreValue(storeValue));
+				}
+				else {
+					valueLoader.get().whenComplete((value, ex) -> completeRetrieval(key, retrieval, value, ex));
+				}
+			}
+			catch (RuntimeException | Error ex) {
+				this.pendingRetrievals.remove(key, retrieval);
+				retrieval.completeExceptionally(ex);
+				throw ex;
+			}
+			existing = retrieval;
+		}
+		// Each caller gets its own dependent future, so that none can affect the others
+		return existing.thenApply(value -> (T) value);
+	}
+
+	private void completeRetrieval(Object key, CompletableFuture<Object> retrieval,
+			@Nullable Object value, @Nullable Throwable ex) {
+
+		if (ex == null) {
+			try {
+				put(key, value);
+			}
+			catch (Throwable putEx) {
+				ex = putEx;
+			}
+		}
+		// Store the value first, so that later callers find it rather than a new load
+		this.pendingRetrievals.remove(key, retrieval);
+		if (ex != null) {
+			retrieval.completeExceptionally(ex);
+		}
+		else {
+			retrieval.complete(value);
+		}
+	}
+
 	/**
 	 * Perform an actual lookup in the underlying store.
 	 * @param key the key whose associated value is to be returned
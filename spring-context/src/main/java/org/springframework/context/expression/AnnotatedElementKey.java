@@ -50,6 +50,15 @@ public final class AnnotatedElementKey implements Comparable<AnnotatedElementKey
 	}
 
 
+	AnnotatedElement getElement() {
+		return this.element;
+	}
+
+	@Nullable
+	Class<?> getTargetClass() {
+		return this.targetClass;
+	}
+
 	@Override
 	public boolean equals(@Nullable Object other) {
 		if (this == other) {
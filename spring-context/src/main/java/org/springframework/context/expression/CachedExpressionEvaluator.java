@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,30 +16,83 @@
 
 package org.springframework.context.expression;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 
 /**
  * Shared utility class used to evaluate and cache SpEL expressions that
  * are defined on {@link java.lang.reflect.AnnotatedElement}.
  *
+ * <p>As of 5.2, subclasses may opt in to looking up expressions in a
+ * {@link SharedExpressionCache}, so that an expression that is used on several
+ * elements is parsed and compiled once, as long as it is evaluated against the
+ * same types, on the same target class, and with the same parser.
+ *
  * @author Stephane Nicoll
  * @since 4.2
  * @see AnnotatedElementKey
  */
 public abstract class CachedExpressionEvaluator {
 
+	private static final SpelExpressionParser defaultParser = new SpelExpressionParser();
+
+
 	private final SpelExpressionParser parser;
 
-	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+	@Nullable
+	private final SharedExpressionCache sharedCache;
+
+	private final ParameterNameDiscoverer parameterNameDiscoverer =
+			new CachingParameterNameDiscoverer(new DefaultParameterNameDiscoverer());
+
+	private final List<PropertyAccessor> propertyAccessors =
+			Collections.singletonList(new ReflectivePropertyAccessor());
+
+	private final List<MethodResolver> methodResolvers =
+			Collections.singletonList(new ReflectiveMethodResolver());
+
+
+	/**
+	 * Create a new instance with the specified {@link SpelExpressionParser}
+	 * and {@link SharedExpressionCache}.
+	 * <p>Subclasses that share a cache with evaluators for a different root
+	 * object should override {@link #getRootObjectType()}.
+	 * @since 5.2
+	 */
+	protected CachedExpressionEvaluator(SpelExpressionParser parser, SharedExpressionCache sharedCache) {
+		Assert.notNull(parser, "SpelExpressionParser must not be null");
+		Assert.notNull(sharedCache, "SharedExpressionCache must not be null");
+		this.parser = parser;
+		this.sharedCache = sharedCache;
+	}
 
+	/**
+	 * Create a new instance with a default {@link SpelExpressionParser},
+	 * which is shared with other instances, and the specified
+	 * {@link SharedExpressionCache}.
+	 * @since 5.2
+	 * @see #CachedExpressionEvaluator(SpelExpressionParser, SharedExpressionCache)
+	 */
+	protected CachedExpressionEvaluator(SharedExpressionCache sharedCache) {
+		this(defaultParser, sharedCache);
+	}
 
 	/**
 	 * Create a new instance with the specified {@link SpelExpressionParser}.
@@ -47,13 +100,14 @@ public abstract class CachedExpressionEvaluator {
 	protected CachedExpressionEvaluator(SpelExpressionParser parser) {
 		Assert.notNull(parser, "SpelExpressionParser must not be null");
 		this.parser = parser;
+		this.sharedCache = null;
 	}
 
 	/**
 	 * Create a new instance with a default {@link SpelExpressionParser}.
 	 */
 	protected CachedExpressionEvaluator() {
-		this(new SpelExpressionParser());
+		this(defaultParser);
 	}
 
 
@@ -73,6 +127,40 @@ public abstract class CachedExpressionEvaluator {
 	}
 
 
+	/**
+	 * Return the {@link SharedExpressionCache} to use, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	protected SharedExpressionCache getSharedCache() {
+		return this.sharedCache;
+	}
+
+	/**
+	 * Return the type of the root object that expressions are evaluated
+	 * against, for lookups in the {@link SharedExpressionCache}.
+	 * <p>The default implementation returns {@code Object.class}.
+	 * @since 5.2
+	 */
+	protected Class<?> getRootObjectType() {
+		return Object.class;
+	}
+
+	/**
+	 * Apply the property accessors and method resolvers of this evaluator to
+	 * the given evaluation context, so that the reflective lookups that they
+	 * cache are shared between all the contexts that this evaluator creates
+	 * rather than repeated for each evaluation.
+	 * <p>The accessors and resolvers cannot be changed on the given context.
+	 * @param evaluationContext the context to configure
+	 * @since 5.2
+	 */
+	protected void applySharedResolvers(StandardEvaluationContext evaluationContext) {
+		evaluationContext.setPropertyAccessors(this.propertyAccessors);
+		evaluationContext.setMethodResolvers(this.methodResolvers);
+	}
+
+
 	/**
 	 * Return the {@link Expression} for the specified SpEL value
 	 * <p>Parse the expression if it hasn't been already.
@@ -86,12 +174,40 @@ public abstract class CachedExpressionEvaluator {
 		ExpressionKey expressionKey = createKey(elementKey, expression);
 		Expression expr = cache.get(expressionKey);
 		if (expr == null) {
-			expr = getParser().parseExpression(expression);
+			SharedExpressionCache sharedCache = getSharedCache();
+			expr = (sharedCache != null ?
+					sharedCache.getExpression(getParser(), expression, getContextTypes(elementKey)) :
+					getParser().parseExpression(expression));
 			cache.put(expressionKey, expr);
 		}
 		return expr;
 	}
 
+	/**
+	 * Determine the types that identify what an expression defined on the given
+	 * element is evaluated against, for lookups in the {@link SharedExpressionCache}.
+	 * <p>The default implementation returns the {@link #getRootObjectType()
+	 * root object type} and the target class of the element, since the root
+	 * object typically exposes the target, followed by the return type and the
+	 * parameter types of the method, which determine the types of the variables.
+	 * @param elementKey the element on which the expression is defined
+	 * @since 5.2
+	 */
+	protected Class<?>[] getContextTypes(AnnotatedElementKey elementKey) {
+		Class<?> targetClass = elementKey.getTargetClass();
+		if (!(elementKey.getElement() instanceof Method)) {
+			return new Class<?>[] {getRootObjectType(), (targetClass != null ? targetClass : Object.class)};
+		}
+		Method method = (Method) elementKey.getElement();
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		Class<?>[] contextTypes = new Class<?>[parameterTypes.length + 3];
+		contextTypes[0] = getRootObjectType();
+		contextTypes[1] = (targetClass != null ? targetClass : method.getDeclaringClass());
+		contextTypes[2] = method.getReturnType();
+		System.arraycopy(parameterTypes, 0, contextTypes, 3, parameterTypes.length);
+		return contextTypes;
+	}
+
 	private ExpressionKey createKey(AnnotatedElementKey elementKey, String expression) {
 		return new ExpressionKey(elementKey, expression);
 	}
@@ -146,4 +262,39 @@ public abstract class CachedExpressionEvaluator {
 		}
 	}
 
+
+	/**
+	 * {@link ParameterNameDiscoverer} decorator that caches the parameter names
+	 * of each method, since not all discoverers cache them internally.
+	 */
+	private static class CachingParameterNameDiscoverer implements ParameterNameDiscoverer {
+
+		private static final String[] NO_PARAMETER_NAMES = new String[0];
+
+		private final ParameterNameDiscoverer delegate;
+
+		private final Map<Method, String[]> parameterNamesCache = new ConcurrentReferenceHashMap<>(256);
+
+		public CachingParameterNameDiscoverer(ParameterNameDiscoverer delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		@Nullable
+		public String[] getParameterNames(Method method) {
+			String[] parameterNames = this.parameterNamesCache.get(method);
+			if (parameterNames == null) {
+				parameterNames = this.delegate.getParameterNames(method);
+				this.parameterNamesCache.put(method, (parameterNames != null ? parameterNames : NO_PARAMETER_NAMES));
+			}
+			return (parameterNames != NO_PARAMETER_NAMES ? parameterNames : null);
+		}
+
+		@Override
+		@Nullable
+		public String[] getParameterNames(Constructor<?> ctor) {
+			return this.delegate.getParameterNames(ctor);
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,11 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 
 	private final ParameterNameDiscoverer parameterNameDiscoverer;
 
+	@Nullable
+	private String[] parameterNames;
+
+	private boolean parameterNamesLoaded = false;
+
 	private boolean argumentsLoaded = false;
 
 
@@ -67,6 +72,10 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 		if (variable != null) {
 			return variable;
 		}
+		int index = getArgumentIndex(name);
+		if (index >= 0) {
+			return getArgument(index);
+		}
 		if (!this.argumentsLoaded) {
 			lazyLoadArguments();
 			this.argumentsLoaded = true;
@@ -77,6 +86,11 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 
 	/**
 	 * Load the param information only when needed.
+	 * <p>As of 5.2, a lookup of a method argument by alias or parameter name
+	 * resolves the argument directly, without loading any variables. This
+	 * method is only called on the first lookup of a variable that is neither
+	 * set nor an argument, and still exposes all arguments as variables, for
+	 * subclasses that override it and call {@code super.lazyLoadArguments()}.
 	 */
 	protected void lazyLoadArguments() {
 		// Shortcut if no args need to be loaded
@@ -85,20 +99,10 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 		}
 
 		// Expose indexed variables as well as parameter names (if discoverable)
-		String[] paramNames = this.parameterNameDiscoverer.getParameterNames(this.method);
+		String[] paramNames = getParameterNames();
 		int paramCount = (paramNames != null ? paramNames.length : this.method.getParameterCount());
-		int argsCount = this.arguments.length;
-
 		for (int i = 0; i < paramCount; i++) {
-			Object value = null;
-			if (argsCount > paramCount && i == paramCount - 1) {
-				// Expose remaining arguments as vararg array for last parameter
-				value = Arrays.copyOfRange(this.arguments, i, argsCount);
-			}
-			else if (argsCount > i) {
-				// Actual argument found - otherwise left as null
-				value = this.arguments[i];
-			}
+			Object value = getArgument(i);
 			setVariable("a" + i, value);
 			setVariable("p" + i, value);
 			if (paramNames != null && paramNames[i] != null) {
@@ -107,4 +111,87 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 		}
 	}
 
+	private int getArgumentIndex(String name) {
+		// Shortcut if no args need to be resolved
+		if (ObjectUtils.isEmpty(this.arguments)) {
+			return -1;
+		}
+
+		String[] paramNames = getParameterNames();
+		int paramCount = (paramNames != null ? paramNames.length : this.method.getParameterCount());
+		return resolveArgumentIndex(name, paramNames, paramCount);
+	}
+
+	/**
+	 * Return the index of the argument with the given alias, such as {@code a0}
+	 * or {@code p1}, or parameter name, or {@code -1} if the name does not refer
+	 * to an argument.
+	 * <p>If several parameters match, the last one wins, as if the aliases and
+	 * the parameter name of each argument had been set as variables in turn.
+	 * @param name the variable name to resolve
+	 * @param paramNames the parameter names of the method, if available
+	 * @param paramCount the number of parameters of the method
+	 * @since 5.2
+	 */
+	public static int resolveArgumentIndex(String name, @Nullable String[] paramNames, int paramCount) {
+		int index = -1;
+		if (paramNames != null) {
+			for (int i = 0; i < paramCount; i++) {
+				if (name.equals(paramNames[i])) {
+					index = i;
+				}
+			}
+		}
+		return Math.max(index, parseIndexedAlias(name, paramCount));
+	}
+
+	/**
+	 * Parse an indexed alias such as {@code a0} or {@code p1}, without creating
+	 * the alias names of the arguments.
+	 */
+	private static int parseIndexedAlias(String name, int paramCount) {
+		int length = name.length();
+		if (length < 2 || (name.charAt(0) != 'a' && name.charAt(0) != 'p') ||
+				(length > 2 && name.charAt(1) == '0')) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = 1; i < length; i++) {
+			char c = name.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			index = index * 10 + (c - '0');
+			if (index >= paramCount) {
+				return -1;
+			}
+		}
+		return index;
+	}
+
+	@Nullable
+	private Object getArgument(int index) {
+		String[] paramNames = getParameterNames();
+		int paramCount = (paramNames != null ? paramNames.length : this.method.getParameterCount());
+		int argsCount = this.arguments.length;
+		if (argsCount > paramCount && index == paramCount - 1) {
+			// Expose remaining arguments as vararg array for last parameter
+			return Arrays.copyOfRange(this.arguments, index, argsCount);
+		}
+		// Actual argument found - otherwise left as null
+		return (argsCount > index ? this.arguments[index] : null);
+	}
+
+	/**
+	 * Discover the parameter names only when needed, and only once.
+	 */
+	@Nullable
+	private String[] getParameterNames() {
+		if (!this.parameterNamesLoaded) {
+			this.parameterNames = this.parameterNameDiscoverer.getParameterNames(this.method);
+			this.parameterNamesLoaded = true;
+		}
+		return this.parameterNames;
+	}
+
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.expression;
+
+import java.util.Arrays;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Bounded cache of parsed {@link Expression Expressions} that can be shared
+ * between several components, so that an expression string that is used in
+ * several places is parsed once and, if the parser is configured for it,
+ * compiled once.
+ *
+ * <p>Expressions are shared between lookups that specify the same parser,
+ * expression string and context types. The context types identify the types
+ * that the expression may be evaluated against, typically the type of the root
+ * object and the types of the variables. A compiled expression relies on the
+ * types it was compiled for, so lookups for different types must not share
+ * an expression.
+ *
+ * <p>Least recently used expressions are evicted once the cache limit is
+ * reached, and hit, parse and eviction counts are available for monitoring.
+ * Note that cached expressions hold on to their context types, so a cache that
+ * outlives an application should be {@link #clear() cleared} when the application
+ * is shut down. The {@link #getSharedInstance() shared instance} is cleared along
+ * with Spring's other common caches by {@link #clearSharedInstance()}.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see #getSharedInstance()
+ * @see CachedExpressionEvaluator
+ */
+public class SharedExpressionCache {
+
+	/**
+	 * The default maximum number of expressions in a cache.
+	 */
+	public static final int DEFAULT_CACHE_LIMIT = 1024;
+
+	@Nullable
+	private static volatile SharedExpressionCache sharedInstance;
+
+
+	private final ConcurrentLruCache<ExpressionCacheKey, Expression> cache;
+
+
+	/**
+	 * Create a new cache with the {@link #DEFAULT_CACHE_LIMIT default limit}.
+	 */
+	public SharedExpressionCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a new cache with the given limit.
+	 * @param cacheLimit the maximum number of expressions in the cache
+	 * (0 indicates no caching, always parsing the expression)
+	 */
+	public SharedExpressionCache(int cacheLimit) {
+		this.cache = new ConcurrentLruCache<>(cacheLimit, key -> key.parser.parseExpression(key.expression));
+	}
+
+
+	/**
+	 * Return the {@link Expression} for the given expression string, parsing
+	 * it with the given parser unless it is in the cache already.
+	 * @param parser the parser to use
+	 * @param expression the expression string
+	 * @param contextTypes the types the expression is evaluated against,
+	 * e.g. the type of the root object and the types of the variables
+	 * @return the cached or newly parsed expression
+	 */
+	public Expression getExpression(ExpressionParser parser, String expression, Class<?>... contextTypes) {
+		Assert.notNull(parser, "ExpressionParser must not be null");
+		Assert.notNull(expression, "Expression must not be null");
+		return this.cache.get(new ExpressionCacheKey(parser, expression, contextTypes));
+	}
+
+	/**
+	 * Remove all expressions from the cache.
+	 * <p>The statistics are not reset.
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+	/**
+	 * Return the number of expressions in the cache.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Return the number of lookups that were served from the cache.
+	 */
+	public long hitCount() {
+		return this.cache.hitCount();
+	}
+
+	/**
+	 * Return the number of lookups that required an expression to be parsed.
+	 */
+	public long parseCount() {
+		return this.cache.missCount();
+	}
+
+	/**
+	 * Return the number of expressions that were evicted from the cache in
+	 * order to stay within its limit.
+	 */
+	public long evictionCount() {
+		return this.cache.evictionCount();
+	}
+
+	@Override
+	public String toString() {
+		return "SharedExpressionCache [size=" + size() + ", hits=" + hitCount() +
+				", parses=" + parseCount() + ", evictions=" + evictionCount() + "]";
+	}
+
+
+	/**
+	 * Return a JVM-wide shared instance, lazily building it once needed.
+	 * @return the shared {@code SharedExpressionCache} instance (never {@code null})
+	 */
+	public static SharedExpressionCache getSharedInstance() {
+		SharedExpressionCache cs = sharedInstance;
+		if (cs == null) {
+			synchronized (SharedExpressionCache.class) {
+				cs = sharedInstance;
+				if (cs == null) {
+					cs = new SharedExpressionCache();
+					sharedInstance = cs;
+				}
+			}
+		}
+		return cs;
+	}
+
+	/**
+	 * Clear the JVM-wide shared instance, if it has been built.
+	 * @see org.springframework.context.support.AbstractApplicationContext#resetCommonCaches()
+	 */
+	public static void clearSharedInstance() {
+		SharedExpressionCache cs = sharedInstance;
+		if (cs != null) {
+			cs.clear();
+		}
+	}
+
+
+	private static final class ExpressionCacheKey {
+
+		private final ExpressionParser parser;
+
+		private final String expression;
+
+		private final Class<?>[] contextTypes;
+
+		public ExpressionCacheKey(ExpressionParser parser, String expression, Class<?>[] contextTypes) {
+			this.parser = parser;
+			this.expression = expression;
+			this.contextTypes = contextTypes;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExpressionCacheKey)) {
+				return false;
+			}
+			ExpressionCacheKey otherKey = (ExpressionCacheKey) other;
+			return (this.parser == otherKey.parser && this.expression.equals(otherKey.expression) &&
+					Arrays.equals(this.contextTypes, otherKey.contextTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.expression.hashCode() * 29 + Arrays.hashCode(this.contextTypes));
+		}
+
+		@Override
+		public String toString() {
+			return "\"" + this.expression + "\" for " + Arrays.toString(this.contextTypes);
+		}
+	}
+
+}
@@ -63,6 +63,7 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.ContextStartedEvent;
 import org.springframework.context.event.ContextStoppedEvent;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.expression.SharedExpressionCache;
 import org.springframework.context.expression.StandardBeanExpressionResolver;
 import org.springframework.context.weaving.LoadTimeWeaverAware;
 import org.springframework.context.weaving.LoadTimeWeaverAwareProcessor;
@@ -962,13 +963,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 
 	/**
 	 * Reset Spring's common reflection metadata caches, in particular the
-	 * {@link ReflectionUtils}, {@link AnnotationUtils}, {@link ResolvableType}
-	 * and {@link CachedIntrospectionResults} caches.
+	 * {@link ReflectionUtils}, {@link AnnotationUtils}, {@link ResolvableType},
+	 * {@link CachedIntrospectionResults} and {@link SharedExpressionCache} caches.
 	 *
 	 * @see ReflectionUtils#clearCache()
 	 * @see AnnotationUtils#clearCache()
 	 * @see ResolvableType#clearCache()
 	 * @see CachedIntrospectionResults#clearClassLoader(ClassLoader)
+	 * @see SharedExpressionCache#clearSharedInstance()
 	 * @since 4.2
 	 */
 	protected void resetCommonCaches() {
@@ -976,6 +978,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		AnnotationUtils.clearCache();
 		ResolvableType.clearCache();
 		CachedIntrospectionResults.clearClassLoader(getClassLoader());
+		SharedExpressionCache.clearSharedInstance();
 	}
 
 
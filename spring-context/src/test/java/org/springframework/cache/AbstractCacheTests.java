@@ -16,7 +16,10 @@
 
 package org.springframework.cache;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -98,6 +101,28 @@ public abstract class AbstractCacheTests<T extends Cache> {
 		cache.put(key, value);
 	}
 
+	@Test
+	public void testCacheBatchOperations() {
+		T cache = getCache();
+		String key1 = createRandomKey();
+		String key2 = createRandomKey();
+		String key3 = createRandomKey();
+
+		Map<String, Object> entries = new LinkedHashMap<>();
+		entries.put(key1, "value1");
+		entries.put(key2, "value2");
+		cache.putAll(entries);
+		assertThat(cache.get(key1).get()).isEqualTo("value1");
+
+		Map<Object, Cache.ValueWrapper> found = cache.getAll(Arrays.asList(key3, key2, key1));
+		assertThat(found.keySet()).containsExactly(key2, key1);
+		assertThat(found.get(key2).get()).isEqualTo("value2");
+
+		cache.evictAll(Arrays.asList(key1, key3));
+		assertThat(cache.get(key1)).isNull();
+		assertThat(cache.get(key2).get()).isEqualTo("value2");
+	}
+
 	@Test
 	public void testCacheClear() throws Exception {
 		T cache = getCache();
@@ -16,10 +16,14 @@
 
 package org.springframework.cache;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
@@ -42,4 +46,43 @@ public abstract class AbstractValueAdaptingCacheTests<T extends AbstractValueAda
 			.withMessageContaining("is configured to not allow null values but null was provided");
 	}
 
+	@Test
+	public void testCacheRetrieveSharesPendingLoad() {
+		T cache = getCache();
+		String key = createRandomKey();
+		AtomicInteger counter = new AtomicInteger();
+		CompletableFuture<Object> load = new CompletableFuture<>();
+
+		CompletableFuture<Object> first = cache.retrieve(key, () -> {
+			counter.incrementAndGet();
+			return load;
+		});
+		CompletableFuture<Object> second = cache.retrieve(key, () -> {
+			counter.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		assertThat(first.isDone()).isFalse();
+		assertThat(second.isDone()).isFalse();
+
+		load.complete("value");
+		assertThat(first.join()).isEqualTo("value");
+		assertThat(second.join()).isEqualTo("value");
+		assertThat(counter.get()).isEqualTo(1);
+		assertThat(cache.get(key).get()).isEqualTo("value");
+		assertThat(cache.retrieve(key).join().get()).isEqualTo("value");
+	}
+
+	@Test
+	public void testCacheRetrieveFailureIsNotCached() {
+		T cache = getCache();
+		String key = createRandomKey();
+		CompletableFuture<Object> load = new CompletableFuture<>();
+
+		CompletableFuture<Object> first = cache.retrieve(key, () -> load);
+		load.completeExceptionally(new IllegalStateException("Expected exception"));
+		assertThat(first.isCompletedExceptionally()).isTrue();
+		assertThat(cache.retrieve(key).join()).isNull();
+		assertThat(cache.retrieve(key, () -> CompletableFuture.completedFuture("value")).join()).isEqualTo("value");
+	}
+
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BoundedConcurrentCacheManager}.
+ *
+ * @author Finn Ayers
+ */
+public class BoundedConcurrentCacheManagerTests {
+
+	@Test
+	public void dynamicMode() {
+		BoundedConcurrentCacheManager cm = new BoundedConcurrentCacheManager();
+		Cache cache1 = cm.getCache("c1");
+		assertThat(cache1).isInstanceOf(BoundedConcurrentCache.class);
+		assertThat(cm.getCache("c1")).isSameAs(cache1);
+		assertThat(cm.getCache("c2")).isInstanceOf(BoundedConcurrentCache.class);
+		assertThat(cm.getCacheNames()).containsOnly("c1", "c2");
+
+		cache1.put("key1", "value1");
+		assertThat(cache1.get("key1").get()).isEqualTo("value1");
+		cache1.put("key2", null);
+		assertThat(cache1.get("key2").get()).isNull();
+		cache1.evict("key2");
+		assertThat(cache1.get("key2")).isNull();
+	}
+
+	@Test
+	public void staticMode() {
+		BoundedConcurrentCacheManager cm = new BoundedConcurrentCacheManager("c1", "c2");
+		Cache cache1 = cm.getCache("c1");
+		assertThat(cache1).isInstanceOf(BoundedConcurrentCache.class);
+		assertThat(cm.getCache("c3")).isNull();
+
+		cm.setMaximumSize(5);
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x).isNotSameAs(cache1);
+		assertThat(((BoundedConcurrentCache) cache1x).getMaximumSize()).isEqualTo(5);
+
+		cm.setAllowNullValues(false);
+		assertThat(((BoundedConcurrentCache) cm.getCache("c1")).isAllowNullValues()).isFalse();
+		assertThat(cm.getCache("c3")).isNull();
+	}
+
+}
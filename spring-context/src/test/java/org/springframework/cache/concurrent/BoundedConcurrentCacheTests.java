@@ -0,0 +1,192 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cache.AbstractValueAdaptingCacheTests;
+import org.springframework.cache.Cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link BoundedConcurrentCache}.
+ *
+ * @author Finn Ayers
+ */
+public class BoundedConcurrentCacheTests extends AbstractValueAdaptingCacheTests<BoundedConcurrentCache> {
+
+	private final AtomicLong ticker = new AtomicLong();
+
+	private BoundedConcurrentCache cache;
+
+	private BoundedConcurrentCache cacheNoNull;
+
+
+	@Before
+	public void setUp() {
+		this.cache = new BoundedConcurrentCache(CACHE_NAME, 100);
+		this.cacheNoNull = new BoundedConcurrentCache(CACHE_NAME_NO_NULL, 100, null, null, Runnable::run, false);
+	}
+
+	@Override
+	protected BoundedConcurrentCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected BoundedConcurrentCache getCache(boolean allowNull) {
+		return (allowNull ? this.cache : this.cacheNoNull);
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	public void sizeLimitRetainsFrequentlyRequestedEntries() {
+		BoundedConcurrentCache cache = new BoundedConcurrentCache(CACHE_NAME, 10);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, "value" + i);
+		}
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 10; j++) {
+				cache.get(j);
+			}
+		}
+		for (int i = 10; i < 100; i++) {
+			cache.put(i, "value" + i);
+		}
+
+		assertThat(cache.size()).isEqualTo(10);
+		assertThat(cache.evictionCount()).isEqualTo(90);
+		for (int i = 0; i < 10; i++) {
+			assertThat(cache.get(i).get()).isEqualTo("value" + i);
+		}
+	}
+
+	@Test
+	public void sizeLimitAdmitsEntriesThatBecomeFrequentlyRequested() {
+		BoundedConcurrentCache cache = new BoundedConcurrentCache(CACHE_NAME, 2);
+		cache.put("a", "A");
+		cache.put("b", "B");
+		for (int i = 0; i < 5; i++) {
+			cache.get("c");
+		}
+		cache.put("c", "C");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("c").get()).isEqualTo("C");
+	}
+
+	@Test
+	public void expiredEntriesAreNotReturned() {
+		BoundedConcurrentCache cache = createCache(Duration.ofSeconds(10), null);
+		cache.put("key", "value");
+		this.ticker.addAndGet(TimeUnit.SECONDS.toNanos(9));
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(cache.putIfAbsent("key", "other").get()).isEqualTo("value");
+
+		this.ticker.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(cache.get("key")).isNull();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.putIfAbsent("key", "other")).isNull();
+		assertThat(cache.get("key", () -> "loaded")).isEqualTo("other");
+	}
+
+	@Test
+	public void expiredEntriesAreRemovedAfterWrite() {
+		BoundedConcurrentCache cache = createCache(Duration.ofSeconds(10), null);
+		cache.put("key1", "value1");
+		cache.put("key2", "value2");
+		this.ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		cache.put("key3", "value3");
+
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void entriesAreRefreshedOnAccess() {
+		BoundedConcurrentCache cache = createCache(null, Duration.ofSeconds(10));
+		AtomicInteger counter = new AtomicInteger();
+		assertThat(cache.get("key", counter::incrementAndGet)).isEqualTo(1);
+		this.ticker.addAndGet(TimeUnit.SECONDS.toNanos(9));
+		assertThat(cache.get("key", counter::incrementAndGet)).isEqualTo(1);
+
+		this.ticker.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		// Current value returned while refreshing
+		assertThat(cache.get("key", counter::incrementAndGet)).isEqualTo(1);
+		assertThat(cache.get("key", counter::incrementAndGet)).isEqualTo(2);
+		assertThat(counter.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void failedRefreshKeepsCurrentValue() {
+		BoundedConcurrentCache cache = createCache(null, Duration.ofSeconds(10));
+		cache.put("key", "value");
+		this.ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+		assertThat(cache.get("key", () -> {
+			throw new IllegalStateException("Expected exception");
+		})).isEqualTo("value");
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(cache.get("key", () -> "refreshed")).isEqualTo("value");
+		assertThat(cache.get("key").get()).isEqualTo("refreshed");
+	}
+
+	@Test
+	public void loadDoesNotBlockOtherKeys() throws InterruptedException {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread thread = new Thread(() -> this.cache.get("slow", () -> {
+			loading.countDown();
+			release.await();
+			return "slow";
+		}));
+		thread.start();
+		loading.await();
+
+		assertThat(this.cache.get("fast", () -> "fast")).isEqualTo("fast");
+		release.countDown();
+		thread.join();
+		assertThat(this.cache.get("slow").get()).isEqualTo("slow");
+	}
+
+	@Test
+	public void recursiveLoadIsRejected() {
+		assertThatExceptionOfType(Cache.ValueRetrievalException.class).isThrownBy(() ->
+				this.cache.get("key", () -> this.cache.get("key", () -> "value")))
+			.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	private BoundedConcurrentCache createCache(Duration expireAfterWrite, Duration refreshAfterWrite) {
+		return new BoundedConcurrentCache(CACHE_NAME, 100, expireAfterWrite, refreshAfterWrite,
+				Runnable::run, true, this.ticker::get);
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TwoLevelCacheManager}.
+ *
+ * @author Finn Ayers
+ */
+public class TwoLevelCacheManagerTests {
+
+	private final ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager("c1");
+
+	private final LocalCacheInvalidationBus invalidationBus = new LocalCacheInvalidationBus();
+
+
+	@Test
+	public void cachesFollowRemoteCacheManager() {
+		TwoLevelCacheManager cm = new TwoLevelCacheManager(this.remoteCacheManager, this.invalidationBus);
+		Cache cache1 = cm.getCache("c1");
+		assertThat(cache1).isInstanceOf(TwoLevelCache.class);
+		assertThat(((TwoLevelCache) cache1).getRemoteCache()).isSameAs(this.remoteCacheManager.getCache("c1"));
+		assertThat(((TwoLevelCache) cache1).getLocalCache()).isInstanceOf(BoundedConcurrentCache.class);
+		assertThat(cm.getCache("c1")).isSameAs(cache1);
+		assertThat(cm.getCache("c2")).isNull();
+		assertThat(cm.getCacheNames()).containsOnly("c1");
+		assertThat(cm.getCaches()).containsOnlyKeys("c1");
+
+		cm.setLocalMaximumSize(5);
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x).isNotSameAs(cache1);
+		assertThat(((BoundedConcurrentCache) ((TwoLevelCache) cache1x).getLocalCache()).getMaximumSize()).isEqualTo(5);
+	}
+
+	@Test
+	public void writesInvalidateLocalCachesOfOtherInstances() {
+		TwoLevelCache cache1 = (TwoLevelCache) createCacheManager().getCache("c1");
+		TwoLevelCache cache2 = (TwoLevelCache) createCacheManager().getCache("c1");
+
+		cache1.put("key", "value1");
+		assertThat(cache2.get("key").get()).isEqualTo("value1");
+		assertThat(cache2.get("key").get()).isEqualTo("value1");
+		assertThat(cache2.localHitCount()).isEqualTo(1);
+		assertThat(cache2.remoteHitCount()).isEqualTo(1);
+
+		cache1.put("key", "value2");
+		assertThat(cache1.getLocalCache().get("key").get()).isEqualTo("value2");
+		assertThat(cache2.getLocalCache().get("key")).isNull();
+		assertThat(cache2.get("key").get()).isEqualTo("value2");
+
+		cache1.clear();
+		assertThat(cache2.getLocalCache().get("key")).isNull();
+		assertThat(cache2.get("key")).isNull();
+	}
+
+	@Test
+	public void noInvalidationsAfterDestroy() {
+		TwoLevelCache cache1 = (TwoLevelCache) createCacheManager().getCache("c1");
+		TwoLevelCacheManager cm2 = createCacheManager();
+		TwoLevelCache cache2 = (TwoLevelCache) cm2.getCache("c1");
+
+		cache1.put("key", "value1");
+		assertThat(cache2.get("key").get()).isEqualTo("value1");
+		cm2.destroy();
+		cache1.put("key", "value2");
+		assertThat(cache2.getLocalCache().get("key").get()).isEqualTo("value1");
+	}
+
+
+	private TwoLevelCacheManager createCacheManager() {
+		TwoLevelCacheManager cm = new TwoLevelCacheManager(this.remoteCacheManager, this.invalidationBus);
+		cm.afterPropertiesSet();
+		return cm;
+	}
+
+}
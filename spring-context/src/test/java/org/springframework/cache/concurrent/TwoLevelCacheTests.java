@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cache.AbstractCacheTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TwoLevelCache}.
+ *
+ * @author Finn Ayers
+ */
+public class TwoLevelCacheTests extends AbstractCacheTests<TwoLevelCache> {
+
+	private final List<Object> invalidations = new ArrayList<>();
+
+	private ConcurrentMapCache remoteCache;
+
+	private BoundedConcurrentCache localCache;
+
+	private TwoLevelCache cache;
+
+
+	@Before
+	public void setUp() {
+		LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+		bus.subscribe((origin, cacheName, key) -> this.invalidations.add(key));
+		this.remoteCache = new ConcurrentMapCache(CACHE_NAME);
+		this.localCache = new BoundedConcurrentCache(CACHE_NAME, 100);
+		this.cache = new TwoLevelCache(this.localCache, this.remoteCache, bus, "test");
+	}
+
+	@Override
+	protected TwoLevelCache getCache() {
+		return this.cache;
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.remoteCache.getNativeCache();
+	}
+
+
+	@Test
+	public void remoteHitIsStoredLocally() {
+		this.remoteCache.put("key", "value");
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.get("key", String.class)).isEqualTo("value");
+		assertThat(this.cache.get("missing")).isNull();
+
+		assertThat(this.cache.localHitCount()).isEqualTo(1);
+		assertThat(this.cache.remoteHitCount()).isEqualTo(1);
+		assertThat(this.cache.missCount()).isEqualTo(1);
+		assertThat(this.cache.localHitRatio()).isEqualTo(1.0 / 3);
+		assertThat(this.cache.remoteHitRatio()).isEqualTo(0.5);
+	}
+
+	@Test
+	public void loadedValueIsStoredInBothCaches() {
+		assertThat(this.cache.get("key", () -> "value")).isEqualTo("value");
+		assertThat(this.remoteCache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.get("key", () -> "other")).isEqualTo("value");
+		assertThat(this.cache.missCount()).isEqualTo(1);
+		assertThat(this.cache.localHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void loadedValueIsPublished() {
+		this.cache.get("key", () -> "value");
+		this.cache.get("key", () -> "other");
+		this.cache.evictLocal("key");
+		this.cache.get("key", () -> "other");
+		assertThat(this.invalidations).containsExactly("key");
+	}
+
+	@Test
+	public void retrievedValueIsLoadedOnceAndPublished() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<CompletableFuture<String>> loader = () -> {
+			loads.incrementAndGet();
+			return pending;
+		};
+		CompletableFuture<String> first = this.cache.retrieve("key", loader);
+		CompletableFuture<String> second = this.cache.retrieve("key", loader);
+		pending.complete("value");
+
+		assertThat(first.join()).isEqualTo("value");
+		assertThat(second.join()).isEqualTo("value");
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(this.localCache.get("key").get()).isEqualTo("value");
+		assertThat(this.remoteCache.get("key").get()).isEqualTo("value");
+		assertThat(this.invalidations).containsExactly("key");
+		assertThat(this.cache.retrieve("key").join().get()).isEqualTo("value");
+		assertThat(this.cache.missCount()).isEqualTo(1);
+		assertThat(this.cache.remoteHitCount()).isEqualTo(1);
+		assertThat(this.cache.localHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void getAllRetrievesLocalMissesFromRemoteCache() {
+		this.localCache.put("a", "A");
+		this.remoteCache.put("b", "B");
+		assertThat(this.cache.getAll(Arrays.asList("c", "b", "a")).keySet()).containsExactly("b", "a");
+		assertThat(this.localCache.get("b").get()).isEqualTo("B");
+		assertThat(this.cache.localHitCount()).isEqualTo(1);
+		assertThat(this.cache.remoteHitCount()).isEqualTo(1);
+		assertThat(this.cache.missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void writesArePublished() {
+		this.cache.put("key", "value");
+		this.cache.evict("key");
+		this.cache.clear();
+		assertThat(this.invalidations).containsExactly("key", "key", null);
+	}
+
+	@Test
+	public void evictLocalKeepsRemoteEntry() {
+		this.cache.put("key", "value");
+		this.cache.evictLocal("key");
+		assertThat(this.localCache.get("key")).isNull();
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.remoteHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void valueInvalidatedDuringRetrievalIsNotStoredLocally() {
+		ConcurrentMapCache remoteCache = new ConcurrentMapCache(CACHE_NAME) {
+			@Override
+			public ValueWrapper get(Object key) {
+				ValueWrapper wrapper = super.get(key);
+				cache.evictLocal(key);
+				return wrapper;
+			}
+		};
+		this.cache = new TwoLevelCache(this.localCache, remoteCache, new LocalCacheInvalidationBus(), "test");
+		remoteCache.put("key", "value");
+
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key")).isNull();
+	}
+
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for caching methods with a {@link CompletableFuture}, {@link Mono}
+ * or {@link Flux} return type.
+ *
+ * @author Finn Ayers
+ */
+public class CacheAsyncResultTests {
+
+	private ConfigurableApplicationContext context;
+
+	private AsyncService service;
+
+	private Cache cache;
+
+
+	@Before
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.service = this.context.getBean(AsyncService.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+	}
+
+	@After
+	public void closeContext() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+
+	@Test
+	public void completableFutureValueIsCached() {
+		Long first = this.service.future("key").join();
+		assertThat(this.service.future("key").join()).isEqualTo(first);
+		assertThat(this.cache.get("key").get()).isEqualTo(first);
+		assertThat(this.service.future("other").join()).isNotEqualTo(first);
+	}
+
+	@Test
+	public void monoValueIsCached() {
+		Mono<Long> mono = this.service.mono("key");
+		assertThat(this.cache.get("key")).isNull();
+
+		Long first = mono.block();
+		assertThat(this.cache.get("key").get()).isEqualTo(first);
+		assertThat(this.service.mono("key").block()).isEqualTo(first);
+	}
+
+	@Test
+	public void fluxValuesAreCached() {
+		List<Long> first = this.service.flux("key").collectList().block();
+		assertThat(first).hasSize(2);
+		assertThat(this.cache.get("key").get()).isEqualTo(first);
+		assertThat(this.service.flux("key").collectList().block()).isEqualTo(first);
+	}
+
+	@Test
+	public void fluxValuesAreCachedPerSubscription() {
+		Flux<Long> flux = this.service.flux("key");
+		List<Long> first = flux.collectList().block();
+		this.cache.evict("key");
+		assertThat(flux.collectList().block()).isEqualTo(first);
+		assertThat(this.cache.get("key").get()).isEqualTo(first);
+	}
+
+	@Test
+	public void evictionWithoutPutIsDeferred() {
+		this.cache.put("key", 42L);
+		CompletableFuture<Long> future = this.service.evictFuture("key");
+		assertThat(future.isDone()).isFalse();
+		assertThat(this.cache.get("key").get()).isEqualTo(42L);
+
+		this.service.pending.complete(7L);
+		assertThat(future.join()).isEqualTo(7L);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void evictionKeyIsResolvedAgainstAsyncResult() {
+		this.cache.put(7L, 42L);
+		CompletableFuture<Long> future = this.service.evictResultFuture("key");
+		this.service.pending.complete(7L);
+		assertThat(future.join()).isEqualTo(7L);
+		assertThat(this.cache.get(7L)).isNull();
+	}
+
+	@Test
+	public void syncInvocationsSharePendingResult() {
+		CompletableFuture<Long> first = this.service.syncFuture("key");
+		CompletableFuture<Long> second = this.service.syncFuture("key");
+		assertThat(first.isDone()).isFalse();
+		assertThat(second.isDone()).isFalse();
+
+		this.service.pending.complete(7L);
+		assertThat(first.join()).isEqualTo(7L);
+		assertThat(second.join()).isEqualTo(7L);
+		assertThat(this.service.counter.get()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(7L);
+	}
+
+	@Test
+	public void syncMonoProceedsThroughAllInterceptorsOnEachMiss() {
+		CacheManager cacheManager = new ConcurrentMapCacheManager("testCache");
+		AtomicLong interceptions = new AtomicLong();
+		AsyncService target = new AsyncService();
+		AsyncService proxy = createProxy(target, cacheManager, invocation -> {
+			interceptions.incrementAndGet();
+			return invocation.proceed();
+		});
+
+		Mono<Long> mono = proxy.syncMono("key");
+		assertThat(mono.block()).isEqualTo(1L);
+		cacheManager.getCache("testCache").evict("key");
+		assertThat(mono.block()).isEqualTo(2L);
+		assertThat(interceptions.get()).isEqualTo(2);
+		assertThat(target.invocations.get()).isEqualTo(2);
+		assertThat(cacheManager.getCache("testCache").get("key").get()).isEqualTo(2L);
+	}
+
+	@Test
+	public void syncMonoFailureIsPropagated() {
+		Mono<Long> mono = this.service.syncMonoFailure("key");
+		assertThatIllegalStateException().isThrownBy(mono::block).withMessage("failure");
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void syncFutureFailureIsPropagated() {
+		CompletableFuture<Long> future = this.service.syncFutureFailure("key");
+		assertThatExceptionOfType(CompletionException.class).isThrownBy(future::join)
+				.withCauseExactlyInstanceOf(IllegalStateException.class);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void syncMonoValueIsCached() {
+		Long first = this.service.syncMono("key").block();
+		assertThat(this.service.syncMono("key").block()).isEqualTo(first);
+		assertThat(this.service.invocations.get()).isEqualTo(1);
+		assertThat(this.service.counter.get()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(first);
+	}
+
+	@Test
+	public void syncFluxValuesAreCached() {
+		List<Long> first = this.service.syncFlux("key").collectList().block();
+		assertThat(this.service.syncFlux("key").collectList().block()).isEqualTo(first);
+		assertThat(this.cache.get("key").get()).isEqualTo(first);
+	}
+
+
+	@Test
+	public void futureLookupDoesNotBlock() {
+		CompletableFuture<Cache.ValueWrapper> lookup = new CompletableFuture<>();
+		AsyncService target = new AsyncService();
+		AsyncService proxy = createProxy(target, createCacheManager(lookup));
+
+		CompletableFuture<Long> future = proxy.future("key");
+		assertThat(future.isDone()).isFalse();
+		lookup.complete(new SimpleValueWrapper(42L));
+		assertThat(future.join()).isEqualTo(42L);
+		assertThat(target.counter.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void monoIsInvokedOnceLookupMisses() {
+		CompletableFuture<Cache.ValueWrapper> lookup = new CompletableFuture<>();
+		AsyncService target = new AsyncService();
+		CacheManager cacheManager = createCacheManager(lookup);
+		AsyncService proxy = createProxy(target, cacheManager);
+
+		Mono<Long> mono = proxy.mono("key");
+		assertThat(target.counter.get()).isEqualTo(0);
+		lookup.complete(null);
+		assertThat(mono.block()).isEqualTo(0L);
+		assertThat(target.counter.get()).isEqualTo(1);
+		assertThat(cacheManager.getCache("testCache").get("key").get()).isEqualTo(0L);
+	}
+
+
+	private static CacheManager createCacheManager(CompletableFuture<Cache.ValueWrapper> lookup) {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Collections.singleton(new ConcurrentMapCache("testCache") {
+			@Override
+			public CompletableFuture<ValueWrapper> retrieve(Object key) {
+				return lookup;
+			}
+		}));
+		cacheManager.afterPropertiesSet();
+		return cacheManager;
+	}
+
+	private static AsyncService createProxy(
+			AsyncService target, CacheManager cacheManager, MethodInterceptor... interceptors) {
+
+		CacheInterceptor cacheInterceptor = new CacheInterceptor();
+		cacheInterceptor.setCacheOperationSource(new AnnotationCacheOperationSource());
+		cacheInterceptor.setCacheManager(cacheManager);
+		cacheInterceptor.afterPropertiesSet();
+		cacheInterceptor.afterSingletonsInstantiated();
+
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(cacheInterceptor);
+		for (MethodInterceptor interceptor : interceptors) {
+			proxyFactory.addAdvice(interceptor);
+		}
+		return (AsyncService) proxyFactory.getProxy();
+	}
+
+
+	static class AsyncService {
+
+		final AtomicLong counter = new AtomicLong();
+
+		final AtomicLong invocations = new AtomicLong();
+
+		final CompletableFuture<Long> pending = new CompletableFuture<>();
+
+		@Cacheable("testCache")
+		public CompletableFuture<Long> future(Object arg) {
+			return CompletableFuture.completedFuture(this.counter.getAndIncrement());
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> mono(Object arg) {
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+
+		@Cacheable("testCache")
+		public Flux<Long> flux(Object arg) {
+			long value = this.counter.getAndAdd(2);
+			return Flux.fromIterable(Arrays.asList(value, value + 1));
+		}
+
+		@CacheEvict("testCache")
+		public CompletableFuture<Long> evictFuture(Object arg) {
+			return this.pending;
+		}
+
+		@CacheEvict(cacheNames = "testCache", key = "#result")
+		public CompletableFuture<Long> evictResultFuture(Object arg) {
+			return this.pending;
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public CompletableFuture<Long> syncFuture(Object arg) {
+			this.counter.incrementAndGet();
+			return this.pending;
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> syncMono(Object arg) {
+			this.invocations.incrementAndGet();
+			return Mono.fromSupplier(this.counter::incrementAndGet);
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public CompletableFuture<Long> syncFutureFailure(Object arg) {
+			throw new IllegalStateException("failure");
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> syncMonoFailure(Object arg) {
+			throw new IllegalStateException("failure");
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Flux<Long> syncFlux(Object arg) {
+			long value = this.counter.getAndAdd(2);
+			return Flux.fromIterable(Arrays.asList(value, value + 1));
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Override
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache");
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+}
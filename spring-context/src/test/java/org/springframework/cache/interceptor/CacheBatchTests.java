@@ -0,0 +1,197 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link org.springframework.cache.annotation.Cacheable#batch()}.
+ *
+ * @author Finn Ayers
+ */
+public class CacheBatchTests {
+
+	private ConfigurableApplicationContext context;
+
+	private BatchService service;
+
+	private Cache cache;
+
+
+	@Before
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.service = this.context.getBean(BatchService.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+	}
+
+	@After
+	public void closeContext() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+
+	@Test
+	public void entriesAreCachedIndividually() {
+		Map<Long, String> result = this.service.find(Arrays.asList(1L, 2L));
+		assertThat(result).containsEntry(1L, "value1").containsEntry(2L, "value2");
+		assertThat(this.cache.get(1L).get()).isEqualTo("value1");
+		assertThat(this.cache.get(2L).get()).isEqualTo("value2");
+		assertThat(this.service.invocations).containsExactly(Arrays.asList(1L, 2L));
+	}
+
+	@Test
+	public void methodIsInvokedForMissingElementsOnly() {
+		this.cache.put(2L, "cached2");
+
+		Map<Long, String> result = this.service.find(Arrays.asList(1L, 2L, 3L));
+		assertThat(result.keySet()).containsExactly(1L, 2L, 3L);
+		assertThat(result.get(2L)).isEqualTo("cached2");
+		assertThat(this.service.invocations).containsExactly(Arrays.asList(1L, 3L));
+	}
+
+	@Test
+	public void methodIsNotInvokedForCachedElements() {
+		this.service.find(Arrays.asList(1L, 2L));
+		Map<Long, String> result = this.service.find(Arrays.asList(2L, 1L));
+		assertThat(result.keySet()).containsExactly(2L, 1L);
+		assertThat(this.service.invocations).hasSize(1);
+	}
+
+	@Test
+	public void elementsWithoutEntryAreNotCached() {
+		Map<Long, String> result = this.service.find(Arrays.asList(1L, 0L));
+		assertThat(result).containsOnlyKeys(1L);
+		assertThat(this.cache.get(0L)).isNull();
+	}
+
+	@Test
+	public void setParameter() {
+		this.cache.put(1L, "cached1");
+		Map<Long, String> result = this.service.findSet(new java.util.LinkedHashSet<>(Arrays.asList(1L, 2L)));
+		assertThat(result).containsEntry(1L, "cached1").containsEntry(2L, "value2");
+	}
+
+	@Test
+	public void batchWithInvokerNotReplacingArguments() {
+		CacheInterceptor interceptor = this.context.getBean(CacheInterceptor.class);
+		Method method = ReflectionUtils.findMethod(BatchService.class, "find", Collection.class);
+		assertThatIllegalStateException().isThrownBy(() ->
+				interceptor.execute(() -> null, this.service, method, new Object[] {Arrays.asList(1L, 2L)}))
+			.withMessageContaining("@Cacheable(batch=true) requires an invoker that is able to replace the method arguments");
+	}
+
+	@Test
+	public void batchWithOtherOperation() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.service.findAndEvict(Arrays.asList(1L, 2L)))
+			.withMessageContaining("@Cacheable(batch=true) cannot be combined with other cache operations");
+	}
+
+	@Test
+	public void batchWithUnsupportedSignature() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.service.findList(Arrays.asList(1L, 2L)))
+			.withMessageContaining("@Cacheable(batch=true) requires a method with a single Collection");
+	}
+
+
+	static class BatchService {
+
+		final List<Collection<Long>> invocations = new ArrayList<>();
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public Map<Long, String> find(Collection<Long> ids) {
+			this.invocations.add(new ArrayList<>(ids));
+			return load(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public Map<Long, String> findSet(Set<Long> ids) {
+			this.invocations.add(new ArrayList<>(ids));
+			return load(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		@CacheEvict(cacheNames = "anotherTestCache", allEntries = true)
+		public Map<Long, String> findAndEvict(Collection<Long> ids) {
+			return load(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public List<String> findList(Collection<Long> ids) {
+			return new ArrayList<>(load(ids).values());
+		}
+
+		private Map<Long, String> load(Collection<Long> ids) {
+			Map<Long, String> result = new LinkedHashMap<>();
+			for (Long id : ids) {
+				if (id > 0) {
+					result.put(id, "value" + id);
+				}
+			}
+			return result;
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Override
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache", "anotherTestCache");
+		}
+
+		@Bean
+		public BatchService batchService() {
+			return new BatchService();
+		}
+	}
+
+}
@@ -16,7 +16,11 @@
 
 package org.springframework.cache.interceptor;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Before;
@@ -38,6 +42,7 @@ import org.springframework.context.annotation.Configuration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.BDDMockito.willThrow;
@@ -104,6 +109,17 @@ public class CacheErrorHandlerTests {
 			.withMessage("Test exception on get");
 	}
 
+	@Test
+	public void getAllFail() {
+		UnsupportedOperationException exception = new UnsupportedOperationException("Test exception on get");
+		willThrow(exception).given(this.cache).getAll(anyCollection());
+
+		Map<Long, Object> result = this.simpleService.getAll(Arrays.asList(0L, 1L));
+		verify(this.errorHandler).handleCacheGetError(exception, cache, 0L);
+		verify(this.errorHandler).handleCacheGetError(exception, cache, 1L);
+		verify(this.cache).putAll(result);
+	}
+
 	@Test
 	public void putFail() {
 		UnsupportedOperationException exception = new UnsupportedOperationException("Test exception on put");
@@ -125,6 +141,15 @@ public class CacheErrorHandlerTests {
 			.withMessage("Test exception on put");
 	}
 
+	@Test
+	public void putAllFail() {
+		UnsupportedOperationException exception = new UnsupportedOperationException("Test exception on put");
+		willThrow(exception).given(this.cache).putAll(Collections.singletonMap(0L, 0L));
+
+		this.simpleService.getAll(Collections.singletonList(0L));
+		verify(this.errorHandler).handleCachePutError(exception, cache, 0L, 0L);
+	}
+
 	@Test
 	public void evictFail() {
 		UnsupportedOperationException exception = new UnsupportedOperationException("Test exception on evict");
@@ -208,6 +233,13 @@ public class CacheErrorHandlerTests {
 			return this.counter.getAndIncrement();
 		}
 
+		@Cacheable(batch = true)
+		public Map<Long, Object> getAll(Collection<Long> ids) {
+			Map<Long, Object> result = new LinkedHashMap<>();
+			ids.forEach(id -> result.put(id, this.counter.getAndIncrement()));
+			return result;
+		}
+
 		@CachePut
 		public Object put(long id) {
 			return this.counter.getAndIncrement();
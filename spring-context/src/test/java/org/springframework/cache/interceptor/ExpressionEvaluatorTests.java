@@ -136,6 +136,23 @@ public class ExpressionEvaluatorTests {
 		assertThat(value).isEqualTo(String.class.getName());
 	}
 
+	@Test
+	public void keyArgumentIndex() {
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		assertThat(this.eval.getKeyArgumentIndex("#a", method)).isEqualTo(0);
+		assertThat(this.eval.getKeyArgumentIndex(" #b ", method)).isEqualTo(1);
+		assertThat(this.eval.getKeyArgumentIndex("#p1", method)).isEqualTo(1);
+		assertThat(this.eval.getKeyArgumentIndex("#a0", method)).isEqualTo(0);
+		assertThat(this.eval.getKeyArgumentIndex("#p2", method)).isEqualTo(-1);
+		assertThat(this.eval.getKeyArgumentIndex("#p01", method)).isEqualTo(-1);
+		assertThat(this.eval.getKeyArgumentIndex("#c", method)).isEqualTo(-1);
+		assertThat(this.eval.getKeyArgumentIndex("#a.toString()", method)).isEqualTo(-1);
+		assertThat(this.eval.getKeyArgumentIndex("#result", method)).isEqualTo(-1);
+		assertThat(this.eval.getKeyArgumentIndex("#root.args[0]", method)).isEqualTo(-1);
+		assertThat(this.eval.getKeyArgumentIndex("'a'", method)).isEqualTo(-1);
+	}
+
 	private EvaluationContext createEvaluationContext(Object result) {
 		return createEvaluationContext(result, null);
 	}
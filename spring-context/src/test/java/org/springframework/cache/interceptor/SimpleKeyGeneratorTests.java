@@ -16,13 +16,13 @@
 
 package org.springframework.cache.interceptor;
 
-import org.junit.Test;
-
-import static org.assertj.core.api.Assertions.assertThat;
-
+import java.lang.reflect.Method;
 
+import org.junit.Test;
 
+import org.springframework.util.ReflectionUtils;
 
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Tests for {@link SimpleKeyGenerator} and {@link SimpleKey}.
@@ -114,9 +114,85 @@ public class SimpleKeyGeneratorTests {
 		assertThat(k1).isNotEqualTo(k3);
 	}
 
+	@Test
+	public void methodKeyGeneratorWithoutParameters() {
+		KeyGenerator generator = SimpleKeyGenerator.forMethod(getMethod("none"));
+		assertThat(generator.generate(null, null)).isSameAs(SimpleKey.EMPTY);
+	}
+
+	@Test
+	public void methodKeyGeneratorWithSingleParameter() {
+		KeyGenerator generator = SimpleKeyGenerator.forMethod(getMethod("primitive", long.class));
+		assertThat(generator.generate(null, null, 1L)).isEqualTo(1L);
+
+		generator = SimpleKeyGenerator.forMethod(getMethod("single", String.class));
+		assertThat(generator.generate(null, null, "a")).isEqualTo("a");
+		Object key = generator.generate(null, null, new Object[] {null});
+		assertThat(key).isEqualTo(generateKey(new Object[] {null}));
+		assertThat(key.hashCode()).isEqualTo(generateKey(new Object[] {null}).hashCode());
+	}
+
+	@Test
+	public void methodKeyGeneratorWithTwoParameters() {
+		KeyGenerator generator = SimpleKeyGenerator.forMethod(getMethod("two", String.class, int.class));
+		Object[][] arguments = new Object[][] {{"a", 1}, {"a", 2}, {null, 1}};
+		for (Object[] args : arguments) {
+			Object key = generator.generate(null, null, args);
+			assertThat(key).isEqualTo(generateKey(args));
+			assertThat(generateKey(args)).isEqualTo(key);
+			assertThat(key.hashCode()).isEqualTo(generateKey(args).hashCode());
+		}
+		assertThat(generator.generate(null, null, "a", 1)).isNotEqualTo(generator.generate(null, null, "a", 2));
+	}
+
+	@Test
+	public void methodKeyGeneratorNotAvailableForPotentialArrays() {
+		assertThat(SimpleKeyGenerator.forMethod(getMethod("single", Object.class))).isNull();
+		assertThat(SimpleKeyGenerator.forMethod(getMethod("two", Object.class, int.class))).isNull();
+		assertThat(SimpleKeyGenerator.forMethod(getMethod("array", String[].class))).isNull();
+		assertThat(SimpleKeyGenerator.forMethod(getMethod("varargs", String[].class))).isNull();
+		assertThat(SimpleKeyGenerator.forMethod(getMethod("three", String.class, String.class, String.class))).isNull();
+	}
+
 
 	private Object generateKey(Object[] arguments) {
 		return this.generator.generate(null, null, arguments);
 	}
 
+	private static Method getMethod(String name, Class<?>... parameterTypes) {
+		return ReflectionUtils.findMethod(KeyedMethods.class, name, parameterTypes);
+	}
+
+
+	@SuppressWarnings("unused")
+	private static class KeyedMethods {
+
+		void none() {
+		}
+
+		void primitive(long value) {
+		}
+
+		void single(String value) {
+		}
+
+		void single(Object value) {
+		}
+
+		void two(String value, int index) {
+		}
+
+		void two(Object value, int index) {
+		}
+
+		void three(String first, String second, String third) {
+		}
+
+		void array(String[] values) {
+		}
+
+		void varargs(String... values) {
+		}
+	}
+
 }
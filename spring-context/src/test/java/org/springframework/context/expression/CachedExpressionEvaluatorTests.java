@@ -66,6 +66,34 @@ public class CachedExpressionEvaluatorTests {
 		assertThat(expressionEvaluator.testCache.size()).as("Cached expression should be based on type").isEqualTo(2);
 	}
 
+	@Test
+	public void shareExpressionBetweenMethodsWithSameSignature() {
+		Method method = ReflectionUtils.findMethod(Object.class, "toString");
+		Method otherMethod = ReflectionUtils.findMethod(String.class, "toString");
+		Expression expression = expressionEvaluator.getTestExpression("true", method, getClass());
+		assertThat(expressionEvaluator.getTestExpression("true", otherMethod, getClass())).isSameAs(expression);
+		hasParsedExpression("true");
+		assertThat(expressionEvaluator.testCache.size()).as("Both elements should be in cache").isEqualTo(2);
+	}
+
+	@Test
+	public void doNotShareExpressionBetweenTargetClasses() {
+		Method method = ReflectionUtils.findMethod(Object.class, "toString");
+		Expression expression = expressionEvaluator.getTestExpression("true", method, getClass());
+		assertThat(expressionEvaluator.getTestExpression("true", method, Object.class)).isNotSameAs(expression);
+		verify(expressionEvaluator.getParser(), times(2)).parseExpression("true");
+	}
+
+	@Test
+	public void doNotShareExpressionWithoutSharedCache() {
+		Method method = ReflectionUtils.findMethod(Object.class, "toString");
+		Method otherMethod = ReflectionUtils.findMethod(String.class, "toString");
+		TestExpressionEvaluator evaluator = new TestExpressionEvaluator(TestExpressionEvaluator.mockSpelExpressionParser());
+		Expression expression = evaluator.getTestExpression("true", method, getClass());
+		assertThat(evaluator.getTestExpression("true", otherMethod, getClass())).isNotSameAs(expression);
+		verify(evaluator.getParser(), times(2)).parseExpression("true");
+	}
+
 	private void hasParsedExpression(String expression) {
 		verify(expressionEvaluator.getParser(), times(1)).parseExpression(expression);
 	}
@@ -75,7 +103,11 @@ public class CachedExpressionEvaluatorTests {
 		private final Map<ExpressionKey, Expression> testCache = new ConcurrentHashMap<>();
 
 		public TestExpressionEvaluator() {
-			super(mockSpelExpressionParser());
+			super(mockSpelExpressionParser(), new SharedExpressionCache());
+		}
+
+		public TestExpressionEvaluator(SpelExpressionParser parser) {
+			super(parser);
 		}
 
 		public Expression getTestExpression(String expression, Method method, Class<?> type) {
@@ -17,11 +17,15 @@
 package org.springframework.context.expression;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.lang.Nullable;
 import org.springframework.util.ReflectionUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -125,6 +129,69 @@ public class MethodBasedEvaluationContextTests {
 		assertThat(context.lookupVariable("vararg")).isEqualTo(new Object[] {"hello", "hi"});
 	}
 
+	@Test
+	public void explicitVariableTakesPrecedence() {
+		Method method = ReflectionUtils.findMethod(SampleMethods.class, "hello", String.class, Boolean.class);
+		MethodBasedEvaluationContext context = createEvaluationContext(method, "test", true);
+		context.setVariable("p0", "override");
+
+		assertThat(context.lookupVariable("p0")).isEqualTo("override");
+		assertThat(context.lookupVariable("a0")).isEqualTo("test");
+		assertThat(context.lookupVariable("flag")).isEqualTo(true);
+		assertThat(context.lookupVariable("p0")).isEqualTo("override");
+	}
+
+	@Test
+	public void parameterNamesDiscoveredOnce() {
+		Method method = ReflectionUtils.findMethod(SampleMethods.class, "hello", String.class, Boolean.class);
+		AtomicInteger count = new AtomicInteger();
+		ParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer() {
+			@Override
+			public String[] getParameterNames(Method method) {
+				count.incrementAndGet();
+				return super.getParameterNames(method);
+			}
+		};
+		MethodBasedEvaluationContext context =
+				new MethodBasedEvaluationContext(this, method, new Object[] {"test", true}, discoverer);
+
+		assertThat(context.lookupVariable("foo")).isEqualTo("test");
+		assertThat(context.lookupVariable("p1")).isEqualTo(true);
+		assertThat(context.lookupVariable("a00")).isNull();
+		assertThat(context.lookupVariable("a9999999999")).isNull();
+		assertThat(context.lookupVariable("unknown")).isNull();
+		assertThat(count.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void lazyLoadArgumentsSetsVariables() {
+		Method method = ReflectionUtils.findMethod(SampleMethods.class, "hello", String.class, Boolean.class);
+		List<String> names = new ArrayList<>();
+		MethodBasedEvaluationContext context =
+				new MethodBasedEvaluationContext(this, method, new Object[] {"test", true}, this.paramDiscover) {
+					@Override
+					public void setVariable(String name, @Nullable Object value) {
+						names.add(name);
+						super.setVariable(name, value);
+					}
+				};
+
+		assertThat(context.lookupVariable("foo")).isEqualTo("test");
+		assertThat(names).isEmpty();
+		assertThat(context.lookupVariable("unknown")).isNull();
+		assertThat(names).containsExactly("a0", "p0", "foo", "a1", "p1", "flag");
+	}
+
+	@Test
+	public void resolveArgumentIndex() {
+		String[] paramNames = {"foo", "p0"};
+		assertThat(MethodBasedEvaluationContext.resolveArgumentIndex("foo", paramNames, 2)).isEqualTo(0);
+		assertThat(MethodBasedEvaluationContext.resolveArgumentIndex("a1", paramNames, 2)).isEqualTo(1);
+		assertThat(MethodBasedEvaluationContext.resolveArgumentIndex("p0", paramNames, 2)).isEqualTo(1);
+		assertThat(MethodBasedEvaluationContext.resolveArgumentIndex("a2", paramNames, 2)).isEqualTo(-1);
+		assertThat(MethodBasedEvaluationContext.resolveArgumentIndex("foo", null, 2)).isEqualTo(-1);
+	}
+
 	private MethodBasedEvaluationContext createEvaluationContext(Method method, Object... args) {
 		return new MethodBasedEvaluationContext(this, method, args, this.paramDiscover);
 	}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.expression;
+
+import org.junit.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SharedExpressionCache}.
+ *
+ * @author Finn Ayers
+ */
+public class SharedExpressionCacheTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private final SharedExpressionCache cache = new SharedExpressionCache(2);
+
+
+	@Test
+	public void sameExpressionForSameContextTypes() {
+		Expression expression = this.cache.getExpression(this.parser, "#p0.length()", Object.class, String.class);
+		assertThat(expression.getExpressionString()).isEqualTo("#p0.length()");
+		assertThat(this.cache.getExpression(this.parser, "#p0.length()", Object.class, String.class))
+				.isSameAs(expression);
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.hitCount()).isEqualTo(1);
+		assertThat(this.cache.parseCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void differentExpressionForDifferentContextTypes() {
+		Expression expression = this.cache.getExpression(this.parser, "#p0.length()", Object.class, String.class);
+		assertThat(this.cache.getExpression(this.parser, "#p0.length()", Object.class, StringBuilder.class))
+				.isNotSameAs(expression);
+		assertThat(this.cache.getExpression(new SpelExpressionParser(), "#p0.length()", Object.class, String.class))
+				.isNotSameAs(expression);
+		assertThat(this.cache.hitCount()).isEqualTo(0);
+		assertThat(this.cache.parseCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		Expression first = this.cache.getExpression(this.parser, "'first'");
+		this.cache.getExpression(this.parser, "'second'");
+		this.cache.getExpression(this.parser, "'third'");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.evictionCount()).isEqualTo(1);
+		assertThat(this.cache.getExpression(this.parser, "'first'")).isNotSameAs(first);
+	}
+
+	@Test
+	public void clearSharedInstance() {
+		SharedExpressionCache sharedInstance = SharedExpressionCache.getSharedInstance();
+		sharedInstance.getExpression(this.parser, "'shared'");
+		assertThat(sharedInstance.size()).isGreaterThan(0);
+		SharedExpressionCache.clearSharedInstance();
+		assertThat(sharedInstance.size()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Base class for small generated classes that read and write a property of a
+ * particular class through its getter and setter methods or through its field,
+ * using plain bytecode instructions rather than reflective invocations.
+ *
+ * <p>Accessors can only be generated for public members of public classes
+ * whose parameter and field types are public, and only for classes that are
+ * loaded by the class loader of this class, so that the cached accessors do
+ * not keep other class loaders alive; {@link #forMethods} and {@link #forField}
+ * return {@code null} for any other member, in which case callers are expected
+ * to fall back to reflection. Each accessor class is defined in a child class loader of the
+ * class loader of the member's class, and is cached for the lifetime of that
+ * class loader, so that it is generated once per member.
+ *
+ * <p>Note that a generated accessor propagates any exception thrown by a getter
+ * or setter method as is, rather than wrapped in an
+ * {@link java.lang.reflect.InvocationTargetException}.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public abstract class GeneratedAccessor {
+
+	private static final String ACCESSOR_CLASS_SUFFIX = "$$Accessor$$";
+
+	private static final Log logger = LogFactory.getLog(GeneratedAccessor.class);
+
+	private static final Map<ClassLoader, AccessorClassLoader> classLoaders = new ConcurrentHashMap<>(4);
+
+	private static final Object NO_ACCESSOR = new Object();
+
+	private static final AtomicInteger suffixId = new AtomicInteger(1);
+
+
+	/**
+	 * Constructor for use by generated subclasses.
+	 */
+	protected GeneratedAccessor() {
+	}
+
+
+	/**
+	 * Read the property from the given target.
+	 * @param target the target instance ({@code null} for a static member)
+	 * @return the property value, with primitive values boxed
+	 * @throws UnsupportedOperationException if the accessor was generated
+	 * without a getter method or field
+	 */
+	@Nullable
+	public Object get(@Nullable Object target) {
+		throw new UnsupportedOperationException("Accessor " + getClass().getName() + " is not readable");
+	}
+
+	/**
+	 * Write the property on the given target.
+	 * @param target the target instance ({@code null} for a static member)
+	 * @param value the value to write, which must be an instance of the type of
+	 * the property or, for a primitive property, of its wrapper type
+	 * @throws UnsupportedOperationException if the accessor was generated
+	 * without a setter method or writable field
+	 */
+	public void set(@Nullable Object target, @Nullable Object value) {
+		throw new UnsupportedOperationException("Accessor " + getClass().getName() + " is not writable");
+	}
+
+
+	/**
+	 * Return an accessor for the property with the given getter and setter methods.
+	 * @param readMethod the getter method, if any
+	 * @param writeMethod the setter method, if any
+	 * @return the generated accessor, or {@code null} if no accessor could be
+	 * generated for any of the given methods
+	 */
+	@Nullable
+	public static GeneratedAccessor forMethods(@Nullable Method readMethod, @Nullable Method writeMethod) {
+		Assert.isTrue(readMethod != null || writeMethod != null, "Read method or write method is required");
+		if ((readMethod != null && !isReadable(readMethod)) || (writeMethod != null && !isWritable(writeMethod))) {
+			return null;
+		}
+		return getAccessor(new AccessorKey(readMethod, writeMethod));
+	}
+
+	/**
+	 * Return an accessor for the given field, which is readable and, unless the
+	 * field is final, writable.
+	 * @param field the field to access
+	 * @return the generated accessor, or {@code null} if no accessor could be
+	 * generated for the given field
+	 */
+	@Nullable
+	public static GeneratedAccessor forField(Field field) {
+		Assert.notNull(field, "Field must not be null");
+		if (!isAccessible(field) || !isAccessible(field.getType())) {
+			return null;
+		}
+		return getAccessor(new AccessorKey(field, (Modifier.isFinal(field.getModifiers()) ? null : field)));
+	}
+
+	private static boolean isReadable(Method method) {
+		return (isAccessible(method) && method.getParameterCount() == 0 && method.getReturnType() != void.class &&
+				isAccessible(method.getReturnType()));
+	}
+
+	private static boolean isWritable(Method method) {
+		return (isAccessible(method) && method.getParameterCount() == 1 &&
+				isAccessible(method.getParameterTypes()[0]));
+	}
+
+	private static boolean isAccessible(Member member) {
+		return (Modifier.isPublic(member.getModifiers()) && isAccessible(member.getDeclaringClass()) &&
+				getClassLoader(member.getDeclaringClass()) != null);
+	}
+
+	private static boolean isAccessible(Class<?> type) {
+		Class<?> typeToCheck = type;
+		while (typeToCheck.isArray()) {
+			typeToCheck = typeToCheck.getComponentType();
+		}
+		return (typeToCheck.isPrimitive() || Modifier.isPublic(typeToCheck.getModifiers()));
+	}
+
+	/**
+	 * Determine the class loader to define accessors for the given class in,
+	 * or {@code null} if it is not the class loader of this class, for example
+	 * the bootstrap class loader of the JDK classes or a child class loader.
+	 */
+	@Nullable
+	private static ClassLoader getClassLoader(Class<?> clazz) {
+		ClassLoader classLoader = clazz.getClassLoader();
+		return (classLoader != null && classLoader == GeneratedAccessor.class.getClassLoader() ? classLoader : null);
+	}
+
+	@Nullable
+	private static GeneratedAccessor getAccessor(AccessorKey key) {
+		Member member = (key.reader != null ? key.reader : key.writer);
+		Assert.state(member != null, "No member to access");
+		ClassLoader classLoader = getClassLoader(member.getDeclaringClass());
+		Assert.state(classLoader != null, "No class loader for accessor");
+		Object accessor = classLoaders.computeIfAbsent(classLoader, AccessorClassLoader::new).getAccessor(key);
+		return (accessor != NO_ACCESSOR ? (GeneratedAccessor) accessor : null);
+	}
+
+	@Nullable
+	private static GeneratedAccessor generateAccessor(AccessorClassLoader accessorClassLoader, AccessorKey key) {
+		Member member = (key.reader != null ? key.reader : key.writer);
+		Assert.state(member != null, "No member to access");
+		String className = member.getDeclaringClass().getName() + ACCESSOR_CLASS_SUFFIX + suffixId.getAndIncrement();
+		try {
+			byte[] bytes = generateAccessorClass(className.replace('.', '/'), key.reader, key.writer);
+			Class<?> accessorClass = accessorClassLoader.defineClass(className, bytes);
+			return (GeneratedAccessor) accessorClass.getDeclaredConstructor().newInstance();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate accessor for " + key, ex);
+			}
+			return null;
+		}
+	}
+
+	private static byte[] generateAccessorClass(String className, @Nullable Member reader, @Nullable Member writer) {
+		String superClassName = Type.getInternalName(GeneratedAccessor.class);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC,
+				className, null, superClassName, null);
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superClassName, "<init>", "()V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		if (reader != null) {
+			mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "get", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+			mv.visitCode();
+			Class<?> type = generateAccess(mv, reader, true);
+			box(mv, type);
+			mv.visitInsn(Opcodes.ARETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		if (writer != null) {
+			mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "set", "(Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+			mv.visitCode();
+			Class<?> type = generateAccess(mv, writer, false);
+			if (type == long.class || type == double.class) {
+				mv.visitInsn(Opcodes.POP2);
+			}
+			else if (type != void.class) {
+				mv.visitInsn(Opcodes.POP);
+			}
+			mv.visitInsn(Opcodes.RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Generate the instructions that read or write the given member, with the
+	 * target in local variable 1 and the value to write in local variable 2.
+	 * @return the type of the value left on the stack
+	 */
+	private static Class<?> generateAccess(MethodVisitor mv, Member member, boolean read) {
+		Class<?> declaringClass = member.getDeclaringClass();
+		String owner = Type.getInternalName(declaringClass);
+		boolean isStatic = Modifier.isStatic(member.getModifiers());
+		if (!isStatic) {
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+		}
+
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			if (!read) {
+				mv.visitVarInsn(Opcodes.ALOAD, 2);
+				unbox(mv, method.getParameterTypes()[0]);
+			}
+			boolean isInterface = declaringClass.isInterface();
+			int opcode = (isStatic ? Opcodes.INVOKESTATIC :
+					(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL));
+			mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+			return method.getReturnType();
+		}
+		else {
+			Field field = (Field) member;
+			String descriptor = Type.getDescriptor(field.getType());
+			if (read) {
+				mv.visitFieldInsn((isStatic ? Opcodes.GETSTATIC : Opcodes.GETFIELD), owner, field.getName(), descriptor);
+				return field.getType();
+			}
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			unbox(mv, field.getType());
+			mv.visitFieldInsn((isStatic ? Opcodes.PUTSTATIC : Opcodes.PUTFIELD), owner, field.getName(), descriptor);
+			return void.class;
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(type);
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(wrapperType), "valueOf",
+					"(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(wrapperType), false);
+		}
+	}
+
+	private static void unbox(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapperName = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(Opcodes.CHECKCAST, wrapperName);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapperName, type.getName() + "Value",
+					"()" + Type.getDescriptor(type), false);
+		}
+		else if (type != Object.class) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+
+	/**
+	 * Child class loader that accessor classes are defined in,
+	 * holding on to the accessors for its classes.
+	 */
+	private static class AccessorClassLoader extends ClassLoader {
+
+		private final Map<AccessorKey, Object> accessors = new ConcurrentHashMap<>(256);
+
+		public AccessorClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		public Object getAccessor(AccessorKey key) {
+			return this.accessors.computeIfAbsent(key, k -> {
+				GeneratedAccessor accessor = generateAccessor(this, k);
+				return (accessor != null ? accessor : NO_ACCESSOR);
+			});
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+
+	/**
+	 * Cache key for the members of an accessor.
+	 */
+	private static final class AccessorKey {
+
+		@Nullable
+		private final Member reader;
+
+		@Nullable
+		private final Member writer;
+
+		public AccessorKey(@Nullable Member reader, @Nullable Member writer) {
+			this.reader = reader;
+			this.writer = writer;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof AccessorKey)) {
+				return false;
+			}
+			AccessorKey otherKey = (AccessorKey) other;
+			return (ObjectUtils.nullSafeEquals(this.reader, otherKey.reader) &&
+					ObjectUtils.nullSafeEquals(this.writer, otherKey.writer));
+		}
+
+		@Override
+		public int hashCode() {
+			return (ObjectUtils.nullSafeHashCode(this.reader) * 29 + ObjectUtils.nullSafeHashCode(this.writer));
+		}
+
+		@Override
+		public String toString() {
+			return "reader [" + this.reader + "], writer [" + this.writer + "]";
+		}
+	}
+
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Simple LRU (Least Recently Used) cache, bounded by a specified cache limit.
+ *
+ * <p>This implementation is backed by a {@code ConcurrentHashMap} for storing
+ * the cached values. Cache hits never block: accesses are recorded in lossy,
+ * per-thread striped buffers and applied to the access order in batches. New
+ * entries and removals are queued and applied the same way by whichever thread
+ * manages to acquire the eviction lock without waiting for it. As a consequence,
+ * the cache may temporarily hold slightly more entries than its limit when
+ * under heavy concurrent writes.
+ *
+ * <p>Hit, miss and eviction counts are recorded and can be queried at any time,
+ * e.g. to verify that a cache limit fits the actual working set.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @param <K> the type of the key used for cache retrieval
+ * @param <V> the type of the cached values
+ */
+public class ConcurrentLruCache<K, V> {
+
+	private static final int READ_BUFFER_COUNT = Math.min(16,
+			Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+	private static final int READ_BUFFER_SIZE = 64;
+
+	private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+
+	private final int sizeLimit;
+
+	private final Function<K, V> generator;
+
+	private final ConcurrentHashMap<K, Node<K, V>> cache = new ConcurrentHashMap<>(16, 0.75f, READ_BUFFER_COUNT);
+
+	private final ReadBuffer<K, V>[] readBuffers;
+
+	private final ConcurrentLinkedQueue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	/** Access order from least to most recently used, guarded by the eviction lock. */
+	private final EvictionQueue<K, V> evictionQueue = new EvictionQueue<>();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a new cache instance with the given limit and generator function.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param generator a function to generate a new value for a given key
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator) {
+		Assert.isTrue(sizeLimit >= 0, "Cache size limit must not be negative");
+		Assert.notNull(generator, "Generator function must not be null");
+		this.sizeLimit = sizeLimit;
+		this.generator = generator;
+		this.readBuffers = new ReadBuffer[READ_BUFFER_COUNT];
+		for (int i = 0; i < READ_BUFFER_COUNT; i++) {
+			this.readBuffers[i] = new ReadBuffer<>();
+		}
+	}
+
+
+	/**
+	 * Retrieve an entry from the cache, potentially triggering generation
+	 * of the value.
+	 * @param key the key to retrieve the entry for
+	 * @return the cached or newly generated value
+	 */
+	public V get(K key) {
+		if (this.sizeLimit == 0) {
+			this.missCount.increment();
+			return this.generator.apply(key);
+		}
+		Node<K, V> node = this.cache.get(key);
+		if (node != null) {
+			this.hitCount.increment();
+			recordRead(node);
+			return node.value;
+		}
+		this.missCount.increment();
+		return put(key, this.generator.apply(key));
+	}
+
+	private V put(K key, V value) {
+		Node<K, V> node = new Node<>(key, value);
+		Node<K, V> existing = this.cache.putIfAbsent(key, node);
+		if (existing != null) {
+			// Concurrently generated: keep the first value
+			recordRead(existing);
+			return existing.value;
+		}
+		this.writeBuffer.add(() -> addNode(node));
+		drainAfterWrite();
+		return value;
+	}
+
+	/**
+	 * Determine whether the given key is present in this cache.
+	 * @param key the key to check for
+	 * @return {@code true} if the key is present, {@code false} if there was no matching key
+	 */
+	public boolean contains(K key) {
+		return this.cache.containsKey(key);
+	}
+
+	/**
+	 * Immediately remove the given key and any associated value.
+	 * @param key the key to evict the entry for
+	 * @return {@code true} if the key was present before, {@code false} if there was no matching key
+	 */
+	public boolean remove(K key) {
+		Node<K, V> node = this.cache.remove(key);
+		if (node == null) {
+			return false;
+		}
+		node.alive = false;
+		this.writeBuffer.add(() -> this.evictionQueue.unlink(node));
+		drainAfterWrite();
+		return true;
+	}
+
+	/**
+	 * Immediately remove all entries from this cache.
+	 * <p>The hit, miss and eviction statistics are not reset.
+	 */
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			drainReadBuffers();
+			Node<K, V> node;
+			while ((node = this.evictionQueue.poll()) != null) {
+				this.cache.remove(node.key, node);
+				node.alive = false;
+			}
+			// Entries whose addition is still queued
+			for (Node<K, V> pending : this.cache.values()) {
+				this.cache.remove(pending.key, pending);
+				pending.alive = false;
+			}
+			drainWriteBuffer();
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the current size of the cache.
+	 * @see #sizeLimit()
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value).
+	 * @see #size()
+	 */
+	public int sizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Return the number of lookups that were served from the cache.
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that required the generation of a value.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries that were removed from the cache in order
+	 * to stay within its size limit.
+	 */
+	public long evictionCount() {
+		return this.evictionCount.sum();
+	}
+
+
+	private void recordRead(Node<K, V> node) {
+		ReadBuffer<K, V> buffer = this.readBuffers[(int) Thread.currentThread().getId() & (READ_BUFFER_COUNT - 1)];
+		long index = buffer.recordCount.getAndIncrement();
+		// Lossy: a slot that has not been drained yet is simply overwritten
+		buffer.nodes.lazySet((int) (index & (READ_BUFFER_SIZE - 1)), node);
+		if ((index & (READ_BUFFER_DRAIN_THRESHOLD - 1)) == READ_BUFFER_DRAIN_THRESHOLD - 1 &&
+				this.evictionLock.tryLock()) {
+			try {
+				drainReadBuffers();
+				drainWriteBuffer();
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void drainAfterWrite() {
+		// Re-check after unlocking: a writer that failed to acquire the lock
+		// relies on the current lock holder to process its queued operation.
+		while (!this.writeBuffer.isEmpty() && this.evictionLock.tryLock()) {
+			try {
+				drainReadBuffers();
+				drainWriteBuffer();
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void drainReadBuffers() {
+		for (ReadBuffer<K, V> buffer : this.readBuffers) {
+			for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+				Node<K, V> node = buffer.nodes.getAndSet(i, null);
+				if (node != null) {
+					this.evictionQueue.moveToBack(node);
+				}
+			}
+		}
+	}
+
+	private void drainWriteBuffer() {
+		Runnable operation;
+		while ((operation = this.writeBuffer.poll()) != null) {
+			operation.run();
+		}
+	}
+
+	private void addNode(Node<K, V> node) {
+		if (!node.alive) {
+			return;
+		}
+		this.evictionQueue.add(node);
+		while (this.evictionQueue.size > this.sizeLimit) {
+			Node<K, V> eldest = this.evictionQueue.poll();
+			if (eldest == null) {
+				break;
+			}
+			if (this.cache.remove(eldest.key, eldest)) {
+				this.evictionCount.increment();
+			}
+			eldest.alive = false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentLruCache [size=" + size() + ", sizeLimit=" + this.sizeLimit +
+				", hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount() + "]";
+	}
+
+
+	private static final class Node<K, V> {
+
+		final K key;
+
+		final V value;
+
+		volatile boolean alive = true;
+
+		// The following fields are guarded by the eviction lock
+
+		@Nullable
+		Node<K, V> prev;
+
+		@Nullable
+		Node<K, V> next;
+
+		boolean linked;
+
+		Node(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+
+	private static final class ReadBuffer<K, V> {
+
+		final AtomicLong recordCount = new AtomicLong();
+
+		final AtomicReferenceArray<Node<K, V>> nodes = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+	}
+
+
+	/**
+	 * Doubly-linked list of cache nodes; not thread-safe.
+	 */
+	private static final class EvictionQueue<K, V> {
+
+		@Nullable
+		private Node<K, V> first;
+
+		@Nullable
+		private Node<K, V> last;
+
+		int size;
+
+		void add(Node<K, V> node) {
+			if (node.linked) {
+				return;
+			}
+			node.prev = this.last;
+			node.next = null;
+			if (this.last == null) {
+				this.first = node;
+			}
+			else {
+				this.last.next = node;
+			}
+			this.last = node;
+			node.linked = true;
+			this.size++;
+		}
+
+		@Nullable
+		Node<K, V> poll() {
+			Node<K, V> node = this.first;
+			if (node != null) {
+				unlink(node);
+			}
+			return node;
+		}
+
+		void moveToBack(Node<K, V> node) {
+			if (node.linked && node != this.last) {
+				unlink(node);
+				add(node);
+			}
+		}
+
+		void unlink(Node<K, V> node) {
+			if (!node.linked) {
+				return;
+			}
+			Node<K, V> prev = node.prev;
+			Node<K, V> next = node.next;
+			if (prev == null) {
+				this.first = next;
+			}
+			else {
+				prev.next = next;
+			}
+			if (next == null) {
+				this.last = prev;
+			}
+			else {
+				next.prev = prev;
+			}
+			node.prev = null;
+			node.next = null;
+			node.linked = false;
+			this.size--;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -102,6 +102,21 @@ public abstract class DigestUtils {
 		return appendDigestAsHex(MD5_ALGORITHM_NAME, inputStream, builder);
 	}
 
+	/**
+	 * Append a hexadecimal string representation of the MD5 digest computed by
+	 * the given {@link MessageDigest}, e.g. updated incrementally as content is
+	 * written, to the given {@link StringBuilder}. The digest is completed and
+	 * reset as per {@link MessageDigest#digest()}.
+	 * @param md5Digest a {@code MessageDigest} for the MD5 algorithm
+	 * @param builder the string builder to append the digest to
+	 * @return the given string builder
+	 * @since 5.2
+	 */
+	public static StringBuilder appendMd5DigestAsHex(MessageDigest md5Digest, StringBuilder builder) {
+		Assert.isTrue(MD5_ALGORITHM_NAME.equals(md5Digest.getAlgorithm()), "MD5 MessageDigest required");
+		return builder.append(encodeHex(md5Digest.digest()));
+	}
+
 
 	/**
 	 * Create a new {@link MessageDigest} with the given algorithm.
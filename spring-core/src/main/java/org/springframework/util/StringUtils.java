@@ -742,6 +742,10 @@ public abstract class StringUtils {
 			return source;
 		}
 		Assert.notNull(charset, "Charset must not be null");
+		if (source.indexOf('%') == -1) {
+			// Nothing to decode: avoid the intermediate byte buffer
+			return source;
+		}
 
 		ByteArrayOutputStream bos = new ByteArrayOutputStream(length);
 		boolean changed = false;
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link GeneratedAccessor}.
+ *
+ * @author Finn Ayers
+ */
+public class GeneratedAccessorTests {
+
+	@Test
+	public void accessObjectProperty() {
+		GeneratedAccessor accessor = GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "getName"),
+				ReflectionUtils.findMethod(Bean.class, "setName", String.class));
+		Bean bean = new Bean();
+
+		assertThat(accessor).isNotNull();
+		assertThat(accessor.get(bean)).isNull();
+		accessor.set(bean, "test");
+		assertThat(bean.getName()).isEqualTo("test");
+		assertThat(accessor.get(bean)).isEqualTo("test");
+		assertThat(GeneratedAccessor.forMethods(ReflectionUtils.findMethod(Bean.class, "getName"),
+				ReflectionUtils.findMethod(Bean.class, "setName", String.class))).isSameAs(accessor);
+	}
+
+	@Test
+	public void accessPrimitiveProperties() {
+		GeneratedAccessor ageAccessor = GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "getAge"),
+				ReflectionUtils.findMethod(Bean.class, "setAge", long.class));
+		GeneratedAccessor activeAccessor = GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "isActive"),
+				ReflectionUtils.findMethod(Bean.class, "setActive", boolean.class));
+		Bean bean = new Bean();
+
+		ageAccessor.set(bean, 42L);
+		activeAccessor.set(bean, true);
+		assertThat(ageAccessor.get(bean)).isEqualTo(42L);
+		assertThat(activeAccessor.get(bean)).isEqualTo(true);
+		assertThat(bean.getAge()).isEqualTo(42L);
+		assertThat(bean.isActive()).isTrue();
+	}
+
+	@Test
+	public void accessReadOnlyProperty() {
+		GeneratedAccessor accessor = GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "getNames"), null);
+		Bean bean = new Bean();
+
+		assertThat(accessor.get(bean)).isSameAs(bean.getNames());
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() ->
+				accessor.set(bean, null));
+	}
+
+	@Test
+	public void accessField() {
+		GeneratedAccessor accessor = GeneratedAccessor.forField(ReflectionUtils.findField(Bean.class, "count"));
+		Bean bean = new Bean();
+
+		accessor.set(bean, 3);
+		assertThat(bean.count).isEqualTo(3);
+		assertThat(accessor.get(bean)).isEqualTo(3);
+	}
+
+	@Test
+	public void accessInterfaceMethod() {
+		GeneratedAccessor accessor = GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Named.class, "getName"), null);
+
+		assertThat(accessor.get(new Bean("test"))).isEqualTo("test");
+	}
+
+	@Test
+	public void exceptionFromGetterIsPropagated() {
+		GeneratedAccessor accessor = GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "getFailure"), null);
+
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				accessor.get(new Bean()));
+	}
+
+	@Test
+	public void noAccessorForInaccessibleMembers() {
+		assertThat(GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "getSecret"), null)).isNull();
+		assertThat(GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(PrivateBean.class, "getName"), null)).isNull();
+		assertThat(GeneratedAccessor.forField(ReflectionUtils.findField(Bean.class, "secret"))).isNull();
+		assertThat(GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(Bean.class, "getPrivateBean"), null)).isNull();
+		assertThat(GeneratedAccessor.forMethods(
+				ReflectionUtils.findMethod(String.class, "isEmpty"), null)).isNull();
+	}
+
+
+	public interface Named {
+
+		String getName();
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class Bean implements Named {
+
+		public int count;
+
+		private String secret;
+
+		private String name;
+
+		private long age;
+
+		private boolean active;
+
+		private final List<String> names = new ArrayList<>();
+
+		public Bean() {
+		}
+
+		public Bean(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public long getAge() {
+			return this.age;
+		}
+
+		public void setAge(long age) {
+			this.age = age;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+
+		public List<String> getNames() {
+			return this.names;
+		}
+
+		public String getFailure() {
+			throw new IllegalStateException("Failure");
+		}
+
+		protected String getSecret() {
+			return this.secret;
+		}
+
+		public PrivateBean getPrivateBean() {
+			return new PrivateBean();
+		}
+	}
+
+
+	private static class PrivateBean {
+
+		public String getName() {
+			return "private";
+		}
+	}
+
+}
@@ -615,10 +615,28 @@ public class AntPathMatcherTests {
 		assertThat(pathMatcher.stringMatcherCache.size() > 20).isTrue();
 
 		for (int i = 0; i < 65536; i++) {
-			pathMatcher.match("test" + i, "test");
+			pathMatcher.match("test" + i, "test" + i);
 		}
-		// Cache turned off because it went beyond the threshold
-		assertThat(pathMatcher.stringMatcherCache.isEmpty()).isTrue();
+		// Cache stays active but bounded, evicting the least recently used patterns
+		assertThat(pathMatcher.stringMatcherCache.size()).isEqualTo(AntPathMatcher.DEFAULT_CACHE_LIMIT);
+		assertThat(pathMatcher.getPatternCacheEvictionCount()).isGreaterThan(0L);
+
+		long hits = pathMatcher.getPatternCacheHitCount();
+		pathMatcher.match("test65535", "test65535");
+		assertThat(pathMatcher.getPatternCacheHitCount()).isEqualTo(hits + 1);
+	}
+
+	@Test
+	public void cacheLimit() {
+		pathMatcher.setCacheLimit(2);
+		pathMatcher.match("/a*", "/ab");
+		pathMatcher.match("/b*", "/bc");
+		pathMatcher.match("/a*", "/ab");
+		pathMatcher.match("/c*", "/cd");
+		assertThat(pathMatcher.stringMatcherCache.size()).isEqualTo(2);
+		assertThat(pathMatcher.stringMatcherCache.contains("a*")).isTrue();
+		assertThat(pathMatcher.stringMatcherCache.contains("b*")).isFalse();
+		assertThat(pathMatcher.getPatternCacheEvictionCount()).isEqualTo(1);
 	}
 
 	@Test
@@ -670,7 +688,7 @@ public class AntPathMatcherTests {
 	public void cachePatternsSetToFalse() {
 		pathMatcher.setCachePatterns(false);
 		match();
-		assertThat(pathMatcher.stringMatcherCache.isEmpty()).isTrue();
+		assertThat(pathMatcher.stringMatcherCache.size()).isEqualTo(0);
 	}
 
 	@Test
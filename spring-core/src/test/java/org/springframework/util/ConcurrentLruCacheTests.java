@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link ConcurrentLruCache}.
+ *
+ * @author Finn Ayers
+ */
+public class ConcurrentLruCacheTests {
+
+	private final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, key -> key + "value");
+
+
+	@Test
+	public void getAndSize() {
+		assertThat(this.cache.sizeLimit()).isEqualTo(2);
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.contains("k1")).isTrue();
+		assertThat(this.cache.get("k2")).isEqualTo("k2value");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.get("k3")).isEqualTo("k3value");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.contains("k1")).isFalse();
+	}
+
+	@Test
+	public void removeAndClear() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		assertThat(this.cache.remove("k1")).isTrue();
+		assertThat(this.cache.remove("k1")).isFalse();
+		assertThat(this.cache.size()).isEqualTo(1);
+
+		this.cache.get("k3");
+		this.cache.get("k4");
+		assertThat(this.cache.contains("k2")).isFalse();
+		assertThat(this.cache.contains("k3")).isTrue();
+		assertThat(this.cache.contains("k4")).isTrue();
+
+		this.cache.clear();
+		assertThat(this.cache.size()).isEqualTo(0);
+		this.cache.get("k5");
+		this.cache.get("k6");
+		assertThat(this.cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k1");
+		this.cache.get("k3");
+		assertThat(this.cache.contains("k1")).isTrue();
+		assertThat(this.cache.contains("k2")).isFalse();
+		assertThat(this.cache.contains("k3")).isTrue();
+	}
+
+	@Test
+	public void statistics() {
+		this.cache.get("k1");
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k3");
+		assertThat(this.cache.hitCount()).isEqualTo(1);
+		assertThat(this.cache.missCount()).isEqualTo(3);
+		assertThat(this.cache.evictionCount()).isEqualTo(1);
+		assertThat(this.cache.toString()).contains("hits=1", "misses=3", "evictions=1");
+	}
+
+	@Test
+	public void zeroSizeLimit() {
+		AtomicInteger counter = new AtomicInteger();
+		ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache<>(0, key -> counter.incrementAndGet());
+		assertThat(cache.get("k1")).isEqualTo(1);
+		assertThat(cache.get("k1")).isEqualTo(2);
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.missCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void negativeSizeLimit() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ConcurrentLruCache<>(-1, key -> key));
+	}
+
+	@Test
+	public void concurrentAccessStaysBounded() throws Exception {
+		ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(64, key -> key * 2);
+		int threadCount = 8;
+		CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int t = 0; t < threadCount; t++) {
+			int offset = t;
+			Thread thread = new Thread(() -> {
+				try {
+					for (int i = 0; i < 10000; i++) {
+						int key = (i * 31 + offset) % 500;
+						assertThat(cache.get(key)).isEqualTo(key * 2);
+					}
+				}
+				finally {
+					latch.countDown();
+				}
+			});
+			thread.start();
+		}
+		latch.await();
+		// Any queued write is processed with the next write
+		cache.get(-1);
+		assertThat(cache.size()).isLessThanOrEqualTo(64);
+		assertThat(cache.hitCount() + cache.missCount()).isEqualTo(threadCount * 10000 + 1);
+	}
+
+}
@@ -19,6 +19,8 @@ package org.springframework.util;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -76,4 +78,16 @@ public class DigestUtilsTests {
 		assertThat(builder.toString()).as("Invalid hash").isEqualTo(expected);
 	}
 
+	@Test
+	public void md5StringBuilderFromMessageDigest() throws NoSuchAlgorithmException {
+		String expected = "b10a8db164e0754105b7a99be72e3fe5";
+
+		MessageDigest digest = MessageDigest.getInstance("MD5");
+		digest.update(bytes, 0, 5);
+		digest.update(bytes, 5, bytes.length - 5);
+		StringBuilder builder = new StringBuilder();
+		DigestUtils.appendMd5DigestAsHex(digest, builder);
+		assertThat(builder.toString()).as("Invalid hash").isEqualTo(expected);
+	}
+
 }
@@ -16,8 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 
 /**
@@ -39,7 +41,17 @@ public class Assign extends SpelNodeImpl {
 	@Override
 	public TypedValue getValueInternal(ExpressionState state) throws EvaluationException {
 		TypedValue newValue = this.children[1].getValueInternal(state);
-		getChild(0).setValue(state, newValue.getValue());
+		SpelNodeImpl target = this.children[0];
+		target.setValue(state, newValue.getValue());
+		if (target instanceof VariableReference && target.isWritable(state)) {
+			// Only assignments to variables are compiled, e.g. '#someVar=42'
+			String valueDescriptor = this.children[1].exitTypeDescriptor;
+			this.exitTypeDescriptor = (CodeFlow.isPrimitive(valueDescriptor) ?
+					CodeFlow.toBoxedDescriptor(valueDescriptor) : valueDescriptor);
+		}
+		else {
+			this.exitTypeDescriptor = null;
+		}
 		return newValue;
 	}
 
@@ -48,4 +60,24 @@ public class Assign extends SpelNodeImpl {
 		return getChild(0).toStringAST() + "=" + getChild(1).toStringAST();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null && this.children[1].isCompilable());
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		cf.loadEvaluationContext(mv);
+		mv.visitLdcInsn(((VariableReference) this.children[0]).getName());
+		cf.enterCompilationScope();
+		this.children[1].generateCode(mv, cf);
+		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
+		cf.exitCompilationScope();
+		// Keep the assigned value on the stack as the result of the assignment
+		mv.visitInsn(DUP_X2);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/EvaluationContext", "setVariable",
+				"(Ljava/lang/String;Ljava/lang/Object;)V", true);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -20,8 +20,10 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelNode;
 import org.springframework.lang.Nullable;
@@ -164,4 +166,97 @@ public class InlineMap extends SpelNodeImpl {
 		return (Map<Object, Object>) this.constant.getValue();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		if (isConstant()) {
+			return true;
+		}
+		for (int c = 0; c < this.children.length; c++) {
+			SpelNodeImpl child = this.children[c];
+			if (!(c % 2 == 0 && child instanceof PropertyOrFieldReference) && !child.isCompilable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		if (isConstant()) {
+			final String constantFieldName = "inlineMap$" + codeflow.nextFieldId();
+			final String className = codeflow.getClassName();
+
+			codeflow.registerNewField((cw, cflow) ->
+					cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, constantFieldName, "Ljava/util/Map;", null, null));
+
+			codeflow.registerNewClinit((mVisitor, cflow) -> {
+				generateClinitCode(className, constantFieldName, mVisitor, cflow);
+				mVisitor.visitFieldInsn(PUTSTATIC, className, constantFieldName, "Ljava/util/Map;");
+			});
+
+			mv.visitFieldInsn(GETSTATIC, className, constantFieldName, "Ljava/util/Map;");
+		}
+		else {
+			mv.visitTypeInsn(NEW, "java/util/LinkedHashMap");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "()V", false);
+			for (int c = 0; c < this.children.length; c++) {
+				mv.visitInsn(DUP);
+				generateKeyCode(mv, codeflow, this.children[c++]);
+				generateEntryCode(mv, codeflow, this.children[c]);
+				mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+						"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+				mv.visitInsn(POP);
+			}
+		}
+		codeflow.pushDescriptor("Ljava/util/Map");
+	}
+
+	private static void generateKeyCode(MethodVisitor mv, CodeFlow codeflow, SpelNodeImpl keyChild) {
+		if (keyChild instanceof PropertyOrFieldReference) {
+			// An unquoted key is the name of the key rather than a reference to evaluate
+			mv.visitLdcInsn(((PropertyOrFieldReference) keyChild).getName());
+		}
+		else {
+			generateEntryCode(mv, codeflow, keyChild);
+		}
+	}
+
+	private static void generateEntryCode(MethodVisitor mv, CodeFlow codeflow, SpelNodeImpl child) {
+		codeflow.enterCompilationScope();
+		child.generateCode(mv, codeflow);
+		CodeFlow.insertBoxIfNecessary(mv, codeflow.lastDescriptor());
+		codeflow.exitCompilationScope();
+	}
+
+	/**
+	 * Generate the code that leaves the unmodifiable constant map on the stack.
+	 * Nested constant lists and maps are built directly here, as calling back
+	 * into generateCode() would register further clinit adders.
+	 */
+	void generateClinitCode(String clazzname, String constantFieldName, MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitTypeInsn(NEW, "java/util/LinkedHashMap");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "()V", false);
+		for (int c = 0; c < this.children.length; c++) {
+			mv.visitInsn(DUP);
+			generateKeyCode(mv, codeflow, this.children[c++]);
+			SpelNodeImpl valueChild = this.children[c];
+			if (valueChild instanceof InlineList) {
+				((InlineList) valueChild).generateClinitCode(clazzname, constantFieldName, mv, codeflow, true);
+			}
+			else if (valueChild instanceof InlineMap) {
+				((InlineMap) valueChild).generateClinitCode(clazzname, constantFieldName, mv, codeflow);
+			}
+			else {
+				generateEntryCode(mv, codeflow, valueChild);
+			}
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+					"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+			mv.visitInsn(POP);
+		}
+		mv.visitMethodInsn(INVOKESTATIC, "java/util/Collections", "unmodifiableMap",
+				"(Ljava/util/Map;)Ljava/util/Map;", false);
+	}
+
 }
@@ -142,7 +142,6 @@ public class SpelExpression implements Expression {
 		return result;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
 	public <T> T getValue(@Nullable Class<T> expectedResultType) throws EvaluationException {
@@ -150,13 +149,7 @@ public class SpelExpression implements Expression {
 			try {
 				EvaluationContext context = getEvaluationContext();
 				Object result = this.compiledAst.getValue(context.getRootObject().getValue(), context);
-				if (expectedResultType == null) {
-					return (T) result;
-				}
-				else {
-					return ExpressionUtils.convertTypedValue(
-							getEvaluationContext(), new TypedValue(result), expectedResultType);
-				}
+				return convertCompiledResult(context, result, expectedResultType);
 			}
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
@@ -205,20 +198,13 @@ public class SpelExpression implements Expression {
 		return result;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
 	public <T> T getValue(Object rootObject, @Nullable Class<T> expectedResultType) throws EvaluationException {
 		if (this.compiledAst != null) {
 			try {
 				Object result = this.compiledAst.getValue(rootObject, getEvaluationContext());
-				if (expectedResultType == null) {
-					return (T)result;
-				}
-				else {
-					return ExpressionUtils.convertTypedValue(
-							getEvaluationContext(), new TypedValue(result), expectedResultType);
-				}
+				return convertCompiledResult(getEvaluationContext(), result, expectedResultType);
 			}
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
@@ -269,7 +255,6 @@ public class SpelExpression implements Expression {
 		return result;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
 	public <T> T getValue(EvaluationContext context, @Nullable Class<T> expectedResultType) throws EvaluationException {
@@ -278,12 +263,7 @@ public class SpelExpression implements Expression {
 		if (this.compiledAst != null) {
 			try {
 				Object result = this.compiledAst.getValue(context.getRootObject().getValue(), context);
-				if (expectedResultType != null) {
-					return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
-				}
-				else {
-					return (T) result;
-				}
+				return convertCompiledResult(context, result, expectedResultType);
 			}
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
@@ -332,7 +312,6 @@ public class SpelExpression implements Expression {
 		return result;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
 	public <T> T getValue(EvaluationContext context, Object rootObject, @Nullable Class<T> expectedResultType)
@@ -343,12 +322,7 @@ public class SpelExpression implements Expression {
 		if (this.compiledAst != null) {
 			try {
 				Object result = this.compiledAst.getValue(rootObject, context);
-				if (expectedResultType != null) {
-					return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
-				}
-				else {
-					return (T) result;
-				}
+				return convertCompiledResult(context, result, expectedResultType);
 			}
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
@@ -547,6 +521,22 @@ public class SpelExpression implements Expression {
 		return this.ast.toStringAST();
 	}
 
+	/**
+	 * Convert the result of a compiled expression to the expected result type,
+	 * returning it as is, without wrapping it in a {@link TypedValue} for the
+	 * type converter, if it is an instance of that type already.
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private static <T> T convertCompiledResult(
+			EvaluationContext context, @Nullable Object result, @Nullable Class<T> expectedResultType) {
+
+		if (expectedResultType == null || expectedResultType.isInstance(result)) {
+			return (T) result;
+		}
+		return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+	}
+
 	private TypedValue toTypedValue(@Nullable Object object) {
 		return (object != null ? new TypedValue(object) : TypedValue.NULL);
 	}
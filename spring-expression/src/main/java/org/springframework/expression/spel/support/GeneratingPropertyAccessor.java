@@ -0,0 +1,195 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.GeneratedAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A {@link ReflectivePropertyAccessor} variant that reads and writes frequently
+ * accessed properties through {@link GeneratedAccessor generated accessor classes}
+ * rather than reflectively, which benefits expressions that are interpreted
+ * rather than compiled.
+ *
+ * <p>A getter method, setter method or field is accessed reflectively until it
+ * has been accessed as many times as the configured generation threshold, after
+ * which an accessor class is generated for it. Members for which no accessor
+ * can be generated, such as members that are not public, are always accessed
+ * reflectively. Exceptions thrown by a getter or setter method are wrapped in an
+ * {@link InvocationTargetException} either way.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see GeneratedAccessor
+ */
+public class GeneratingPropertyAccessor extends ReflectivePropertyAccessor {
+
+	/**
+	 * The default number of reflective accesses to a member after which an
+	 * accessor is generated for it.
+	 */
+	public static final int DEFAULT_GENERATION_THRESHOLD = 100;
+
+
+	private final int generationThreshold;
+
+	private final Map<Member, MemberAccess> memberAccessCache = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new property accessor for reading as well writing, with the
+	 * {@link #DEFAULT_GENERATION_THRESHOLD default generation threshold}.
+	 */
+	public GeneratingPropertyAccessor() {
+		this(true, DEFAULT_GENERATION_THRESHOLD);
+	}
+
+	/**
+	 * Create a new property accessor for reading and possibly writing.
+	 * @param allowWrite whether to also allow for write operations
+	 * @param generationThreshold the number of reflective accesses to a member
+	 * after which an accessor is generated for it (0 to generate an accessor
+	 * on first access)
+	 */
+	public GeneratingPropertyAccessor(boolean allowWrite, int generationThreshold) {
+		super(allowWrite);
+		Assert.isTrue(generationThreshold >= 0, "Generation threshold must not be negative");
+		this.generationThreshold = generationThreshold;
+	}
+
+
+	@Override
+	@Nullable
+	protected Object readMember(Member member, @Nullable Object target) throws Exception {
+		GeneratedAccessor accessor = getMemberAccess(member).getAccessor();
+		if (accessor == null) {
+			return super.readMember(member, target);
+		}
+		try {
+			return accessor.get(target);
+		}
+		catch (Throwable ex) {
+			throw asReflectiveException(member, ex);
+		}
+	}
+
+	@Override
+	protected void writeMember(Member member, @Nullable Object target, @Nullable Object value) throws Exception {
+		GeneratedAccessor accessor = (isWritable(member, value) ? getMemberAccess(member).getAccessor() : null);
+		if (accessor == null) {
+			super.writeMember(member, target, value);
+			return;
+		}
+		try {
+			accessor.set(target, value);
+		}
+		catch (Throwable ex) {
+			throw asReflectiveException(member, ex);
+		}
+	}
+
+	private boolean isWritable(Member member, @Nullable Object value) {
+		// Final fields can only be written reflectively, and values of a
+		// different type are left to reflection for a consistent exception
+		if (member instanceof Method) {
+			return ClassUtils.isAssignableValue(((Method) member).getParameterTypes()[0], value);
+		}
+		return (!Modifier.isFinal(member.getModifiers()) &&
+				ClassUtils.isAssignableValue(((Field) member).getType(), value));
+	}
+
+	/**
+	 * Wrap an exception thrown by a getter or setter method in an
+	 * {@link InvocationTargetException}, as a reflective invocation does.
+	 */
+	private static Exception asReflectiveException(Member member, Throwable ex) {
+		if (member instanceof Method) {
+			return new InvocationTargetException(ex);
+		}
+		if (ex instanceof Error) {
+			throw (Error) ex;
+		}
+		return (Exception) ex;
+	}
+
+	private MemberAccess getMemberAccess(Member member) {
+		MemberAccess access = this.memberAccessCache.get(member);
+		if (access == null) {
+			access = new MemberAccess(member);
+			MemberAccess existing = this.memberAccessCache.putIfAbsent(member, access);
+			if (existing != null) {
+				access = existing;
+			}
+		}
+		return access;
+	}
+
+
+	/**
+	 * Tracks the accesses to a member until an accessor is generated for it.
+	 */
+	private class MemberAccess {
+
+		private final Member member;
+
+		private volatile int accessCount;
+
+		private volatile boolean generated;
+
+		@Nullable
+		private volatile GeneratedAccessor accessor;
+
+		public MemberAccess(Member member) {
+			this.member = member;
+		}
+
+		@Nullable
+		public GeneratedAccessor getAccessor() {
+			if (this.generated) {
+				return this.accessor;
+			}
+			// Not atomic: a few more reflective accesses don't matter
+			if (this.accessCount++ < generationThreshold) {
+				return null;
+			}
+			this.accessor = generateAccessor();
+			this.generated = true;
+			return this.accessor;
+		}
+
+		@Nullable
+		private GeneratedAccessor generateAccessor() {
+			if (this.member instanceof Field) {
+				return GeneratedAccessor.forField((Field) this.member);
+			}
+			Method method = (Method) this.member;
+			return (method.getParameterCount() == 0 ?
+					GeneratedAccessor.forMethods(method, null) : GeneratedAccessor.forMethods(null, method));
+		}
+	}
+
+}
@@ -187,8 +187,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 			}
 			if (method != null) {
 				try {
-					ReflectionUtils.makeAccessible(method);
-					Object value = method.invoke(target);
+					Object value = readMember(method, target);
 					return new TypedValue(value, invoker.typeDescriptor.narrow(value));
 				}
 				catch (Exception ex) {
@@ -209,8 +208,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 			}
 			if (field != null) {
 				try {
-					ReflectionUtils.makeAccessible(field);
-					Object value = field.get(target);
+					Object value = readMember(field, target);
 					return new TypedValue(value, invoker.typeDescriptor.narrow(value));
 				}
 				catch (Exception ex) {
@@ -293,8 +291,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 			}
 			if (method != null) {
 				try {
-					ReflectionUtils.makeAccessible(method);
-					method.invoke(target, possiblyConvertedNewValue);
+					writeMember(method, target, possiblyConvertedNewValue);
 					return;
 				}
 				catch (Exception ex) {
@@ -314,8 +311,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 			}
 			if (field != null) {
 				try {
-					ReflectionUtils.makeAccessible(field);
-					field.set(target, possiblyConvertedNewValue);
+					writeMember(field, target, possiblyConvertedNewValue);
 					return;
 				}
 				catch (Exception ex) {
@@ -338,6 +334,52 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 		return (lastReadInvoker != null ? lastReadInvoker.member : null);
 	}
 
+	/**
+	 * Read the value of the given getter method or field from the given target.
+	 * <p>The default implementation uses reflection.
+	 * @param member the getter method or field
+	 * @param target the target object, or the target class for a static member
+	 * @return the value
+	 * @throws Exception if the value cannot be read
+	 * @since 5.2
+	 */
+	@Nullable
+	protected Object readMember(Member member, @Nullable Object target) throws Exception {
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			ReflectionUtils.makeAccessible(method);
+			return method.invoke(target);
+		}
+		else {
+			Field field = (Field) member;
+			ReflectionUtils.makeAccessible(field);
+			return field.get(target);
+		}
+	}
+
+	/**
+	 * Write the given value through the given setter method or field to the
+	 * given target.
+	 * <p>The default implementation uses reflection.
+	 * @param member the setter method or field
+	 * @param target the target object, or the target class for a static member
+	 * @param value the value, converted to the type of the property already
+	 * @throws Exception if the value cannot be written
+	 * @since 5.2
+	 */
+	protected void writeMember(Member member, @Nullable Object target, @Nullable Object value) throws Exception {
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			ReflectionUtils.makeAccessible(method);
+			method.invoke(target, value);
+		}
+		else {
+			Field field = (Field) member;
+			ReflectionUtils.makeAccessible(field);
+			field.set(target, value);
+		}
+	}
+
 
 	@Nullable
 	private TypeDescriptor getTypeDescriptor(EvaluationContext context, Object target, String name) {
@@ -542,7 +584,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 				}
 			}
 			if (method != null) {
-				return new OptimalPropertyAccessor(invocationTarget);
+				return new OptimalPropertyAccessor(this, invocationTarget);
 			}
 		}
 
@@ -557,7 +599,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 				}
 			}
 			if (field != null) {
-				return new OptimalPropertyAccessor(invocationTarget);
+				return new OptimalPropertyAccessor(this, invocationTarget);
 			}
 		}
 
@@ -648,9 +690,12 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 
 		private final TypeDescriptor typeDescriptor;
 
-		OptimalPropertyAccessor(InvokerPair target) {
+		private final ReflectivePropertyAccessor accessor;
+
+		OptimalPropertyAccessor(ReflectivePropertyAccessor accessor, InvokerPair target) {
 			this.member = target.member;
 			this.typeDescriptor = target.typeDescriptor;
+			this.accessor = accessor;
 		}
 
 		@Override
@@ -686,25 +731,15 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 
 		@Override
 		public TypedValue read(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
-			if (this.member instanceof Method) {
-				Method method = (Method) this.member;
-				try {
-					ReflectionUtils.makeAccessible(method);
-					Object value = method.invoke(target);
-					return new TypedValue(value, this.typeDescriptor.narrow(value));
-				}
-				catch (Exception ex) {
-					throw new AccessException("Unable to access property '" + name + "' through getter method", ex);
-				}
+			try {
+				Object value = this.accessor.readMember(this.member, target);
+				return new TypedValue(value, this.typeDescriptor.narrow(value));
 			}
-			else {
-				Field field = (Field) this.member;
-				try {
-					ReflectionUtils.makeAccessible(field);
-					Object value = field.get(target);
-					return new TypedValue(value, this.typeDescriptor.narrow(value));
+			catch (Exception ex) {
+				if (this.member instanceof Method) {
+					throw new AccessException("Unable to access property '" + name + "' through getter method", ex);
 				}
-				catch (Exception ex) {
+				else {
 					throw new AccessException("Unable to access field '" + name + "'", ex);
 				}
 			}
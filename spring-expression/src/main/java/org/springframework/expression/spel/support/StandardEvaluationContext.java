@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -84,9 +84,11 @@ public class StandardEvaluationContext implements EvaluationContext {
 	@Nullable
 	private TypeConverter typeConverter;
 
-	private TypeComparator typeComparator = new StandardTypeComparator();
+	@Nullable
+	private TypeComparator typeComparator;
 
-	private OperatorOverloader operatorOverloader = new StandardOperatorOverloader();
+	@Nullable
+	private OperatorOverloader operatorOverloader;
 
 	private final Map<String, Object> variables = new ConcurrentHashMap<>();
 
@@ -215,6 +217,9 @@ public class StandardEvaluationContext implements EvaluationContext {
 
 	@Override
 	public TypeComparator getTypeComparator() {
+		if (this.typeComparator == null) {
+			this.typeComparator = new StandardTypeComparator();
+		}
 		return this.typeComparator;
 	}
 
@@ -225,6 +230,9 @@ public class StandardEvaluationContext implements EvaluationContext {
 
 	@Override
 	public OperatorOverloader getOperatorOverloader() {
+		if (this.operatorOverloader == null) {
+			this.operatorOverloader = new StandardOperatorOverloader();
+		}
 		return this.operatorOverloader;
 	}
 
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,6 +32,7 @@ import java.util.StringTokenizer;
 import org.junit.Test;
 
 import org.springframework.asm.MethodVisitor;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -43,6 +45,7 @@ import org.springframework.expression.spel.standard.SpelCompiler;
 import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardTypeConverter;
 import org.springframework.expression.spel.testdata.PersonInOtherPackage;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -445,6 +448,185 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertThat(o).isEqualTo("op");
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void inlineMap() throws Exception {
+		expression = parser.parseExpression("{a:'abc',b:{1,2},c:{d:'def'}}");
+		Map<?, ?> m = (Map) expression.getValue();
+		assertThat(m.toString()).isEqualTo("{a=abc, b=[1, 2], c={d=def}}");
+		assertCanCompile(expression);
+		m = (Map) expression.getValue();
+		assertThat(m.toString()).isEqualTo("{a=abc, b=[1, 2], c={d=def}}");
+
+		expression = parser.parseExpression("{a:'abc',b:'def'}['b'].substring(1)");
+		assertThat(expression.getValue()).isEqualTo("ef");
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo("ef");
+
+		EvaluationContext ctx = new StandardEvaluationContext();
+		ctx.setVariable("name", "abc");
+		expression = parser.parseExpression("{name:#name,length:#name.length(),1:2}");
+		m = (Map) expression.getValue(ctx);
+		assertThat(m.toString()).isEqualTo("{name=abc, length=3, 1=2}");
+		assertCanCompile(expression);
+		ctx.setVariable("name", "defg");
+		m = (Map) expression.getValue(ctx);
+		assertThat(m.toString()).isEqualTo("{name=defg, length=4, 1=2}");
+	}
+
+	@Test
+	public void projection() throws Exception {
+		EvaluationContext ctx = new StandardEvaluationContext();
+		ctx.setVariable("names", Arrays.asList("a", "bc", "def"));
+
+		expression = parser.parseExpression("#names.![length()]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(1, 2, 3));
+
+		expression = parser.parseExpression("#names.![#this.toUpperCase()]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList("A", "BC", "DEF"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList("A", "BC", "DEF"));
+
+		Method m = getClass().getDeclaredMethod("join", String[].class);
+		ctx.setVariable("join", m);
+		expression = parser.parseExpression("#names.![#join(#this,'x')]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList("ax", "bcx", "defx"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList("ax", "bcx", "defx"));
+
+		expression = parser.parseExpression("{{1,2},{3}}.![#this.![#this * 2]]");
+		assertThat(expression.getValue().toString()).isEqualTo("[[2, 4], [6]]");
+		assertCanCompile(expression);
+		assertThat(expression.getValue().toString()).isEqualTo("[[2, 4], [6]]");
+
+		expression = parser.parseExpression("#names?.![length()]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertCanCompile(expression);
+		ctx.setVariable("names", null);
+		assertThat(expression.getValue(ctx)).isNull();
+
+		// Projections over arrays and maps are not compiled
+		ctx.setVariable("names", new String[] {"a", "bc"});
+		expression = parser.parseExpression("#names.![length()]");
+		expression.getValue(ctx);
+		assertCantCompile(expression);
+		ctx.setVariable("names", Collections.singletonMap("a", "bc"));
+		expression = parser.parseExpression("#names.![value]");
+		expression.getValue(ctx);
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void selection() throws Exception {
+		EvaluationContext ctx = new StandardEvaluationContext();
+		ctx.setVariable("numbers", Arrays.asList(1, 2, 3, 4));
+
+		expression = parser.parseExpression("#numbers.?[#this > 2]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(3, 4));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(3, 4));
+
+		expression = parser.parseExpression("#numbers.^[#this > 2]");
+		assertThat(expression.getValue(ctx)).isEqualTo(3);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(3);
+
+		expression = parser.parseExpression("#numbers.$[#this > 2]");
+		assertThat(expression.getValue(ctx)).isEqualTo(4);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(4);
+
+		expression = parser.parseExpression("#numbers.^[#this > 5]");
+		assertThat(expression.getValue(ctx)).isNull();
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isNull();
+
+		expression = parser.parseExpression("#numbers.?[#this > 1].![#this * 10]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(20, 30, 40));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList(20, 30, 40));
+
+		// The selection criteria must be boolean
+		expression = parser.parseExpression("#numbers.?[#this]");
+		assertThatExceptionOfType(SpelEvaluationException.class).isThrownBy(() ->
+				expression.getValue(ctx));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void assignToVariable() throws Exception {
+		EvaluationContext ctx = new StandardEvaluationContext();
+		expression = parser.parseExpression("#a=42");
+		assertThat(expression.getValue(ctx)).isEqualTo(42);
+		assertCanCompile(expression);
+		ctx.setVariable("a", null);
+		assertThat(expression.getValue(ctx)).isEqualTo(42);
+		assertThat(ctx.lookupVariable("a")).isEqualTo(42);
+
+		ctx.setVariable("b", "abc");
+		expression = parser.parseExpression("#a=#b.toUpperCase()");
+		assertThat(expression.getValue(ctx)).isEqualTo("ABC");
+		assertCanCompile(expression);
+		ctx.setVariable("b", "def");
+		assertThat(expression.getValue(ctx)).isEqualTo("DEF");
+		assertThat(ctx.lookupVariable("a")).isEqualTo("DEF");
+	}
+
+	@Test
+	public void indexIntoMapWithNonLiteralKey() throws Exception {
+		EvaluationContext ctx = new StandardEvaluationContext();
+		Map<Integer, String> map = new HashMap<>();
+		map.put(1, "one");
+		map.put(2, "two");
+		ctx.setVariable("map", map);
+		ctx.setVariable("key", 2);
+
+		expression = parser.parseExpression("#map[1]");
+		assertThat(expression.getValue(ctx)).isEqualTo("one");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo("one");
+
+		expression = parser.parseExpression("#map[#key]");
+		assertThat(expression.getValue(ctx)).isEqualTo("two");
+		assertCanCompile(expression);
+		ctx.setVariable("key", 1);
+		assertThat(expression.getValue(ctx)).isEqualTo("one");
+
+		ctx.setVariable("keys", Arrays.asList(2, 1));
+		expression = parser.parseExpression("#keys.![#map.get(#this)]");
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList("two", "one"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx)).isEqualTo(Arrays.asList("two", "one"));
+	}
+
+	@Test
+	public void compiledResultOfExpectedTypeIsNotConverted() throws Exception {
+		StandardEvaluationContext ctx = new StandardEvaluationContext();
+		ctx.setVariable("a", "abc");
+		expression = parser.parseExpression("#a.toUpperCase()");
+		assertThat(expression.getValue(ctx, String.class)).isEqualTo("ABC");
+		assertCanCompile(expression);
+
+		ctx.setTypeConverter(new StandardTypeConverter() {
+			@Override
+			public Object convertValue(Object value, TypeDescriptor sourceType, TypeDescriptor targetType) {
+				throw new IllegalStateException("Unexpected conversion of " + value);
+			}
+		});
+		assertThat(expression.getValue(ctx, String.class)).isEqualTo("ABC");
+		assertThat(expression.getValue(ctx, CharSequence.class)).isEqualTo("ABC");
+		assertThat(expression.getValue(ctx, Object.class)).isEqualTo("ABC");
+
+		ctx.setTypeConverter(new StandardTypeConverter());
+		ctx.setVariable("a", "42");
+		expression = parser.parseExpression("#a.trim()");
+		assertThat(expression.getValue(ctx, Integer.class)).isEqualTo(42);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(ctx, Integer.class)).isEqualTo(42);
+	}
+
 	@Test
 	public void intLiteral() throws Exception {
 		expression = parser.parseExpression("42");
@@ -1028,7 +1210,7 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 
 		expression = parser.parseExpression("#negate(#ints.?[#this<2][0])");
 		assertThat(expression.getValue(context, Integer.class).toString()).isEqualTo("-1");
-		// Selection isn't compilable.
+		// Selection over an array isn't compilable.
 		assertThat(((SpelNodeImpl)((SpelExpression) expression).getAST()).isCompilable()).isFalse();
 	}
 
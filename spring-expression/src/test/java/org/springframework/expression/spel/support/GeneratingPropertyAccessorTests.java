@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link GeneratingPropertyAccessor}.
+ *
+ * @author Finn Ayers
+ */
+public class GeneratingPropertyAccessorTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+
+	@Test
+	public void readAndWriteProperties() {
+		EvaluationContext context = createContext(new GeneratingPropertyAccessor(true, 0));
+		Person person = new Person();
+
+		parser.parseExpression("name").setValue(context, person, "Ada");
+		parser.parseExpression("age").setValue(context, person, "36");
+		parser.parseExpression("nickname").setValue(context, person, "Countess");
+
+		Expression name = parser.parseExpression("name");
+		for (int i = 0; i < 3; i++) {
+			assertThat(name.getValue(context, person)).isEqualTo("Ada");
+		}
+		assertThat(parser.parseExpression("age").getValue(context, person)).isEqualTo(36);
+		assertThat(parser.parseExpression("nickname").getValue(context, person)).isEqualTo("Countess");
+		assertThat(person.getAge()).isEqualTo(36);
+	}
+
+	@Test
+	public void readWithGeneratedAccessorAfterThreshold() throws Exception {
+		GeneratingPropertyAccessor accessor = new GeneratingPropertyAccessor(true, 2);
+		EvaluationContext context = createContext(accessor);
+		Person person = new Person();
+
+		// Reflective and generated access both wrap the exception thrown by the getter
+		for (int i = 0; i < 3; i++) {
+			assertThatExceptionOfType(AccessException.class).isThrownBy(() ->
+					accessor.read(context, person, "failure"))
+				.withCauseInstanceOf(InvocationTargetException.class);
+		}
+		try {
+			accessor.read(context, person, "failure");
+		}
+		catch (AccessException ex) {
+			Throwable targetException = ((InvocationTargetException) ex.getCause()).getTargetException();
+			assertThat(targetException).isInstanceOf(IllegalStateException.class);
+			assertThat(targetException.getStackTrace()[1].getClassName()).contains("$$Accessor$$");
+		}
+	}
+
+	@Test
+	public void readNonPublicPropertyReflectively() throws Exception {
+		GeneratingPropertyAccessor accessor = new GeneratingPropertyAccessor(true, 0);
+		EvaluationContext context = createContext(accessor);
+		PackagePrivatePerson person = new PackagePrivatePerson();
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(accessor.read(context, person, "name").getValue()).isEqualTo("hidden");
+		}
+	}
+
+	private static EvaluationContext createContext(GeneratingPropertyAccessor accessor) {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.addPropertyAccessor(accessor);
+		return context;
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class Person {
+
+		public String nickname;
+
+		private String name;
+
+		private int age;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public String getFailure() {
+			throw new IllegalStateException("Failure");
+		}
+	}
+
+
+	static class PackagePrivatePerson {
+
+		public String getName() {
+			return "hidden";
+		}
+	}
+
+}
@@ -416,6 +416,21 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 
 	final MultiValueMap<String, String> headers;
 
+	/*
+	 * Parsed values of frequently read headers, each along with the raw value it
+	 * was parsed from. A memoized value is only used as long as the raw value is
+	 * unchanged, so it is not affected by mutations through the underlying map.
+	 */
+
+	@Nullable
+	private transient ParsedHeader<MediaType> parsedContentType;
+
+	@Nullable
+	private transient ParsedHeader<List<MediaType>> parsedAccept;
+
+	@Nullable
+	private transient ParsedHeader<ZonedDateTime> parsedDate;
+
 
 	/**
 	 * Construct a new, empty instance of the {@code HttpHeaders} object.
@@ -463,7 +478,17 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	 * <p>Returns an empty list when the acceptable media types are unspecified.
 	 */
 	public List<MediaType> getAccept() {
-		return MediaType.parseMediaTypes(get(ACCEPT));
+		List<String> values = get(ACCEPT);
+		if (CollectionUtils.isEmpty(values)) {
+			return MediaType.parseMediaTypes(values);
+		}
+		ParsedHeader<List<MediaType>> parsed = this.parsedAccept;
+		if (parsed == null || !parsed.rawValue.equals(values)) {
+			parsed = new ParsedHeader<>(ACCEPT, new ArrayList<>(values), MediaType.parseMediaTypes(values));
+			this.parsedAccept = parsed;
+		}
+		// Callers may sort or modify the returned list
+		return new ArrayList<>(parsed.value);
 	}
 
 	/**
@@ -963,7 +988,15 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	@Nullable
 	public MediaType getContentType() {
 		String value = getFirst(CONTENT_TYPE);
-		return (StringUtils.hasLength(value) ? MediaType.parseMediaType(value) : null);
+		if (!StringUtils.hasLength(value)) {
+			return null;
+		}
+		ParsedHeader<MediaType> parsed = this.parsedContentType;
+		if (parsed == null || !parsed.rawValue.equals(value)) {
+			parsed = new ParsedHeader<>(CONTENT_TYPE, value, MediaType.parseMediaType(value));
+			this.parsedContentType = parsed;
+		}
+		return parsed.value;
 	}
 
 	/**
@@ -1474,6 +1507,12 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 			// No header value sent at all
 			return null;
 		}
+		ParsedHeader<ZonedDateTime> parsed = this.parsedDate;
+		if (parsed != null && parsed.rawValue.equals(headerValue) &&
+				parsed.headerName.equalsIgnoreCase(headerName)) {
+			return parsed.value;
+		}
+		String rawValue = headerValue;
 		if (headerValue.length() >= 3) {
 			// Short "0" or "-1" like values are never valid HTTP date headers...
 			// Let's only bother with DateTimeFormatter parsing for long enough values.
@@ -1486,7 +1525,9 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 
 			for (DateTimeFormatter dateFormatter : DATE_PARSERS) {
 				try {
-					return ZonedDateTime.parse(headerValue, dateFormatter);
+					ZonedDateTime dateTime = ZonedDateTime.parse(headerValue, dateFormatter);
+					this.parsedDate = new ParsedHeader<>(headerName, rawValue, dateTime);
+					return dateTime;
 				}
 				catch (DateTimeParseException ex) {
 					// ignore
@@ -1834,4 +1875,23 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		return DATE_FORMATTER.format(time);
 	}
 
+
+	/**
+	 * A parsed header value along with the raw value it was parsed from.
+	 */
+	private static final class ParsedHeader<T> {
+
+		final String headerName;
+
+		final Object rawValue;
+
+		final T value;
+
+		ParsedHeader(String headerName, Object rawValue, T value) {
+			this.headerName = headerName;
+			this.rawValue = rawValue;
+			this.value = value;
+		}
+	}
+
 }
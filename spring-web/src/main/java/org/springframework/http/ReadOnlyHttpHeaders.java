@@ -16,13 +16,11 @@
 
 package org.springframework.http;
 
-import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.MultiValueMap;
@@ -37,42 +35,12 @@ class ReadOnlyHttpHeaders extends HttpHeaders {
 
 	private static final long serialVersionUID = -8578554704772377436L;
 
-	@Nullable
-	private MediaType cachedContentType;
-
-	@Nullable
-	private List<MediaType> cachedAccept;
-
 
 	ReadOnlyHttpHeaders(HttpHeaders headers) {
 		super(headers.headers);
 	}
 
 
-	@Override
-	public MediaType getContentType() {
-		if (this.cachedContentType != null) {
-			return this.cachedContentType;
-		}
-		else {
-			MediaType contentType = super.getContentType();
-			this.cachedContentType = contentType;
-			return contentType;
-		}
-	}
-
-	@Override
-	public List<MediaType> getAccept() {
-		if (this.cachedAccept != null) {
-			return this.cachedAccept;
-		}
-		else {
-			List<MediaType> accept = super.getAccept();
-			this.cachedAccept = accept;
-			return accept;
-		}
-	}
-
 	@Override
 	public List<String> get(Object key) {
 		List<String> values = this.headers.get(key);
@@ -141,9 +109,8 @@ class ReadOnlyHttpHeaders extends HttpHeaders {
 
 	@Override
 	public Set<Entry<String, List<String>>> entrySet() {
-		return Collections.unmodifiableSet(this.headers.entrySet().stream()
-				.map(AbstractMap.SimpleImmutableEntry::new)
-				.collect(Collectors.toSet()));
+		// Unmodifiable view rather than a copy of the underlying headers
+		return Collections.unmodifiableMap(this.headers).entrySet();
 	}
 
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+/**
+ * Callback interface for the instrumentation of HTTP exchanges performed
+ * through an {@link InstrumentedClientHttpConnector}, e.g. to record the
+ * latencies of the individual phases of an exchange with a metrics library.
+ *
+ * <p>Listeners are invoked on the thread that completes the exchange, which
+ * is typically an event loop thread of the underlying HTTP client, and
+ * should therefore return quickly and never block.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see InstrumentedClientHttpConnector
+ */
+@FunctionalInterface
+public interface ClientHttpExchangeListener {
+
+	/**
+	 * Invoked once per exchange, when the response body has been consumed or
+	 * released, or when the exchange failed or was cancelled before that.
+	 * @param metrics the timings and outcome of the exchange
+	 */
+	void onExchangeComplete(ClientHttpExchangeMetrics metrics);
+
+}
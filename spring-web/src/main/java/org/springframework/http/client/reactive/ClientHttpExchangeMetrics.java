@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * Timings and outcome of a single HTTP exchange, as reported to a
+ * {@link ClientHttpExchangeListener}.
+ *
+ * <p>An exchange is divided into the following consecutive phases, each of
+ * which is {@code null} if the exchange did not get that far:
+ * <ol>
+ * <li>{@linkplain #getConnectDuration() connect}: until the request can be
+ * written, including the acquisition of a pooled connection or, for a new
+ * connection, name resolution, TCP connect and TLS handshake.
+ * <li>{@linkplain #getRequestDuration() request}: writing the request headers
+ * and body.
+ * <li>{@linkplain #getResponseDuration() response}: waiting for the response
+ * headers, i.e. the time to first byte.
+ * <li>{@linkplain #getBodyDuration() body}: consuming the response body.
+ * </ol>
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see InstrumentedClientHttpConnector
+ */
+public final class ClientHttpExchangeMetrics {
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	private final int concurrentExchanges;
+
+	private final int rawStatusCode;
+
+	@Nullable
+	private final Throwable error;
+
+	private final boolean cancelled;
+
+	private final long startTime;
+
+	private final long connectedTime;
+
+	private final long requestSentTime;
+
+	private final long responseTime;
+
+	private final long endTime;
+
+
+	ClientHttpExchangeMetrics(HttpMethod method, URI uri, int concurrentExchanges, int rawStatusCode,
+			@Nullable Throwable error, boolean cancelled, long startTime, long connectedTime,
+			long requestSentTime, long responseTime, long endTime) {
+
+		this.method = method;
+		this.uri = uri;
+		this.concurrentExchanges = concurrentExchanges;
+		this.rawStatusCode = rawStatusCode;
+		this.error = error;
+		this.cancelled = cancelled;
+		this.startTime = startTime;
+		this.connectedTime = connectedTime;
+		this.requestSentTime = requestSentTime;
+		this.responseTime = responseTime;
+		this.endTime = endTime;
+	}
+
+
+	/**
+	 * Return the HTTP method of the request.
+	 */
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return the URI of the request.
+	 */
+	public URI getUri() {
+		return this.uri;
+	}
+
+	/**
+	 * Return the number of exchanges in progress through the same connector
+	 * when this exchange started, including this one. Since each exchange
+	 * holds on to a connection until its response body is consumed, this is
+	 * an indication of the utilization of the connection pool.
+	 */
+	public int getConcurrentExchanges() {
+		return this.concurrentExchanges;
+	}
+
+	/**
+	 * Return the HTTP status code of the response, or -1 if no response
+	 * was received.
+	 */
+	public int getRawStatusCode() {
+		return this.rawStatusCode;
+	}
+
+	/**
+	 * Return the error that terminated the exchange, if any.
+	 */
+	@Nullable
+	public Throwable getError() {
+		return this.error;
+	}
+
+	/**
+	 * Whether the exchange was cancelled, either before the response was
+	 * received or while consuming the response body.
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Return the time until the request could be written, or {@code null}
+	 * if no connection was obtained.
+	 */
+	@Nullable
+	public Duration getConnectDuration() {
+		return duration(this.startTime, this.connectedTime);
+	}
+
+	/**
+	 * Return the time spent writing the request, or {@code null} if the
+	 * request was not completely written.
+	 */
+	@Nullable
+	public Duration getRequestDuration() {
+		return duration(this.connectedTime, this.requestSentTime);
+	}
+
+	/**
+	 * Return the time from the end of the request (or from the connect phase,
+	 * if the response arrived before the request was completely written) until
+	 * the response headers were received, or {@code null} if no response was
+	 * received.
+	 */
+	@Nullable
+	public Duration getResponseDuration() {
+		long requestTime = (this.requestSentTime != 0 && this.requestSentTime <= this.responseTime ?
+				this.requestSentTime : this.connectedTime);
+		return duration(requestTime, this.responseTime);
+	}
+
+	/**
+	 * Return the time from receiving the response headers until the response
+	 * body was consumed or released, or {@code null} if no response was received.
+	 */
+	@Nullable
+	public Duration getBodyDuration() {
+		return duration(this.responseTime, this.endTime);
+	}
+
+	/**
+	 * Return the total duration of the exchange.
+	 */
+	public Duration getTotalDuration() {
+		return Duration.ofNanos(this.endTime - this.startTime);
+	}
+
+	@Nullable
+	private static Duration duration(long startTime, long endTime) {
+		return (startTime != 0 && endTime != 0 ? Duration.ofNanos(endTime - startTime) : null);
+	}
+
+
+	@Override
+	public String toString() {
+		return "ClientHttpExchangeMetrics [" + this.method + " " + this.uri + ", status=" + this.rawStatusCode +
+				", connect=" + getConnectDuration() + ", request=" + getRequestDuration() +
+				", response=" + getResponseDuration() + ", body=" + getBodyDuration() +
+				", total=" + getTotalDuration() + ", concurrentExchanges=" + this.concurrentExchanges + "]";
+	}
+
+}
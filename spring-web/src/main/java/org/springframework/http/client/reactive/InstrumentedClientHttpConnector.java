@@ -0,0 +1,214 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpConnector} that decorates another connector in order to
+ * measure the phases of each exchange and report them to a
+ * {@link ClientHttpExchangeListener}, see {@link ClientHttpExchangeMetrics}.
+ *
+ * <p>The phases are derived from the points at which the delegate connector
+ * invokes the request callback, completes writing the request, emits the
+ * response and completes the response body. This works the same for any
+ * connector, e.g. {@link ReactorClientHttpConnector} or
+ * {@link JettyClientHttpConnector}, and costs a few timestamps and a single
+ * {@code ClientHttpExchangeMetrics} instance per exchange:
+ *
+ * <pre class="code">
+ * ClientHttpConnector connector = new InstrumentedClientHttpConnector(
+ *         new ReactorClientHttpConnector(), metrics -&gt; ...);
+ * WebClient client = WebClient.builder().clientConnector(connector).build();
+ * </pre>
+ *
+ * <p>An exchange is complete when its response body has been consumed or
+ * released, which the {@code WebClient} contract requires in any case.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public class InstrumentedClientHttpConnector implements ClientHttpConnector {
+
+	private static final Log logger = LogFactory.getLog(InstrumentedClientHttpConnector.class);
+
+
+	private final ClientHttpConnector delegate;
+
+	private final ClientHttpExchangeListener listener;
+
+	private final AtomicInteger activeExchanges = new AtomicInteger();
+
+
+	/**
+	 * Create a new {@code InstrumentedClientHttpConnector}.
+	 * @param delegate the connector to perform the exchanges with
+	 * @param listener the listener to report each completed exchange to
+	 */
+	public InstrumentedClientHttpConnector(ClientHttpConnector delegate, ClientHttpExchangeListener listener) {
+		Assert.notNull(delegate, "ClientHttpConnector is required");
+		Assert.notNull(listener, "ClientHttpExchangeListener is required");
+		this.delegate = delegate;
+		this.listener = listener;
+	}
+
+
+	/**
+	 * Return the connector that performs the exchanges.
+	 */
+	public ClientHttpConnector getDelegate() {
+		return this.delegate;
+	}
+
+	/**
+	 * Return the number of exchanges currently in progress.
+	 */
+	public int getActiveExchanges() {
+		return this.activeExchanges.get();
+	}
+
+
+	@Override
+	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+
+		return Mono.defer(() -> {
+			ExchangeRecorder recorder = new ExchangeRecorder(method, uri, this.activeExchanges.incrementAndGet());
+			return this.delegate
+					.connect(method, uri, request -> {
+						recorder.connected();
+						return requestCallback.apply(request).doOnSuccess(aVoid -> recorder.requestSent());
+					})
+					.map(response -> {
+						recorder.responseReceived(response.getRawStatusCode());
+						return (ClientHttpResponse) new InstrumentedClientHttpResponse(response, recorder);
+					})
+					.doOnSuccess(response -> {
+						if (response == null) {
+							recorder.complete(null, false);
+						}
+					})
+					.doOnError(ex -> recorder.complete(ex, false))
+					.doOnCancel(recorder::cancelBeforeResponse);
+		});
+	}
+
+
+	/**
+	 * Records the timestamps of a single exchange.
+	 */
+	private class ExchangeRecorder {
+
+		private final HttpMethod method;
+
+		private final URI uri;
+
+		private final int concurrentExchanges;
+
+		private final long startTime = System.nanoTime();
+
+		private volatile long connectedTime;
+
+		private volatile long requestSentTime;
+
+		private volatile long responseTime;
+
+		private volatile int rawStatusCode = -1;
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		ExchangeRecorder(HttpMethod method, URI uri, int concurrentExchanges) {
+			this.method = method;
+			this.uri = uri;
+			this.concurrentExchanges = concurrentExchanges;
+		}
+
+		void connected() {
+			// The latest attempt counts if the client retries the request
+			this.connectedTime = System.nanoTime();
+			this.requestSentTime = 0;
+		}
+
+		void requestSent() {
+			this.requestSentTime = System.nanoTime();
+		}
+
+		void responseReceived(int rawStatusCode) {
+			this.rawStatusCode = rawStatusCode;
+			this.responseTime = System.nanoTime();
+		}
+
+		void cancelBeforeResponse() {
+			if (this.responseTime == 0) {
+				complete(null, true);
+			}
+		}
+
+		void complete(@Nullable Throwable error, boolean cancelled) {
+			if (!this.completed.compareAndSet(false, true)) {
+				return;
+			}
+			long endTime = System.nanoTime();
+			activeExchanges.decrementAndGet();
+			ClientHttpExchangeMetrics metrics = new ClientHttpExchangeMetrics(this.method, this.uri,
+					this.concurrentExchanges, this.rawStatusCode, error, cancelled, this.startTime,
+					this.connectedTime, this.requestSentTime, this.responseTime, endTime);
+			try {
+				listener.onExchangeComplete(metrics);
+			}
+			catch (Throwable ex) {
+				logger.warn("Failed to report " + metrics, ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Response decorator that completes the exchange with the response body.
+	 */
+	private static class InstrumentedClientHttpResponse extends ClientHttpResponseDecorator {
+
+		private final ExchangeRecorder recorder;
+
+		InstrumentedClientHttpResponse(ClientHttpResponse delegate, ExchangeRecorder recorder) {
+			super(delegate);
+			this.recorder = recorder;
+		}
+
+		@Override
+		public Flux<DataBuffer> getBody() {
+			return super.getBody()
+					.doOnError(ex -> this.recorder.complete(ex, false))
+					.doFinally(signalType -> this.recorder.complete(null, signalType == SignalType.CANCEL));
+		}
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Incremental parser for {@code "application/x-www-form-urlencoded"} content.
+ *
+ * <p>Each buffer is URL decoded as it arrives, and names and values are
+ * converted to strings as soon as they are complete, so that no more than the
+ * bytes of the current name or value are held in addition to the parsed form
+ * data. The result is the same as with {@link java.net.URLDecoder} applied to
+ * the name and value of each trimmed, non-empty {@code '&'}-separated pair.
+ *
+ * <p>Only applicable to charsets in which the characters {@code '='},
+ * {@code '&'}, {@code '+'} and {@code '%'} are single ASCII bytes, see
+ * {@link #supportsCharset(Charset)}. Instances are stateful and must be used
+ * for a single message only.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see FormHttpMessageReader
+ */
+final class FormDataParser {
+
+	private static final byte[] DELIMITERS = {'=', '&', '+', '%'};
+
+
+	private final Charset charset;
+
+	private final long maxSize;
+
+	private final int maxFields;
+
+	private final MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
+
+	private byte[] bytes = new byte[64];
+
+	private int length;
+
+	/** Number of literal whitespace bytes at the end of the current name or value. */
+	private int trailingWhitespace;
+
+	@Nullable
+	private String name;
+
+	private boolean pairStarted;
+
+	/** Position within a percent-encoded escape: 0 (none), 1 or 2. */
+	private int escapeState;
+
+	private int escapeValue;
+
+	private long size;
+
+	private int fieldCount;
+
+	private boolean content;
+
+
+	/**
+	 * Create a new parser.
+	 * @param charset the charset of the form data
+	 * @param maxSize the maximum number of bytes to read, or -1 for unlimited
+	 * @param maxFields the maximum number of fields, or -1 for unlimited
+	 */
+	FormDataParser(Charset charset, long maxSize, int maxFields) {
+		this.charset = charset;
+		this.maxSize = maxSize;
+		this.maxFields = maxFields;
+	}
+
+
+	/**
+	 * Whether the given charset encodes the form delimiters as single ASCII bytes.
+	 */
+	static boolean supportsCharset(Charset charset) {
+		return Arrays.equals("=&+%".getBytes(charset), DELIMITERS);
+	}
+
+
+	/**
+	 * Parse the given buffer, which is released before returning.
+	 * @throws DecodingException in case of invalid content or exceeded limits
+	 */
+	void parse(DataBuffer buffer) {
+		try {
+			this.content = true;
+			int count = buffer.readableByteCount();
+			this.size += count;
+			if (this.maxSize >= 0 && this.size > this.maxSize) {
+				throw new DecodingException("Form data exceeded the limit of " + this.maxSize + " bytes");
+			}
+			int end = buffer.writePosition();
+			for (int i = buffer.readPosition(); i < end; i++) {
+				parseByte(buffer.getByte(i));
+			}
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	private void parseByte(byte b) {
+		if (this.escapeState > 0) {
+			int digit = Character.digit((char) (b & 0xFF), 16);
+			if (digit == -1) {
+				throw new DecodingException("Illegal hex characters in escape (%) pattern");
+			}
+			this.escapeValue = (this.escapeValue << 4) + digit;
+			if (this.escapeState == 2) {
+				append((byte) this.escapeValue, false);
+				this.escapeState = 0;
+			}
+			else {
+				this.escapeState = 2;
+			}
+			return;
+		}
+		switch (b) {
+			case '&':
+				completePair();
+				break;
+			case '=':
+				if (this.name == null) {
+					this.pairStarted = true;
+					this.name = currentString();
+				}
+				else {
+					append(b, false);
+				}
+				break;
+			case '+':
+				append((byte) ' ', false);
+				break;
+			case '%':
+				this.pairStarted = true;
+				this.escapeState = 1;
+				this.escapeValue = 0;
+				break;
+			default:
+				if (isWhitespace(b)) {
+					// Leading whitespace of a pair is skipped, trailing whitespace is trimmed
+					if (this.pairStarted) {
+						append(b, true);
+					}
+				}
+				else {
+					append(b, false);
+				}
+		}
+	}
+
+	private static boolean isWhitespace(byte b) {
+		// Same as String#trim
+		return (b >= 0 && b <= ' ');
+	}
+
+	private void append(byte b, boolean whitespace) {
+		if (this.length == this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+		}
+		this.bytes[this.length++] = b;
+		this.trailingWhitespace = (whitespace ? this.trailingWhitespace + 1 : 0);
+		this.pairStarted = true;
+	}
+
+	private String currentString() {
+		String result = new String(this.bytes, 0, this.length, this.charset);
+		this.length = 0;
+		this.trailingWhitespace = 0;
+		return result;
+	}
+
+	private void completePair() {
+		if (this.escapeState > 0) {
+			throw new DecodingException("Incomplete trailing escape (%) pattern");
+		}
+		this.length -= this.trailingWhitespace;
+		if (this.name != null) {
+			add(this.name, currentString());
+		}
+		else if (this.length > 0) {
+			add(currentString(), null);
+		}
+		this.name = null;
+		this.length = 0;
+		this.trailingWhitespace = 0;
+		this.pairStarted = false;
+	}
+
+	private void add(String name, @Nullable String value) {
+		if (this.maxFields >= 0 && ++this.fieldCount > this.maxFields) {
+			throw new DecodingException("Form data exceeded the limit of " + this.maxFields + " fields");
+		}
+		this.formData.add(name, value);
+	}
+
+	/**
+	 * Whether any content was parsed, even if empty.
+	 */
+	boolean hasContent() {
+		return this.content;
+	}
+
+	/**
+	 * Complete parsing at the end of the input.
+	 * @return the parsed form data
+	 */
+	MultiValueMap<String, String> complete() {
+		completePair();
+		return this.formData;
+	}
+
+}
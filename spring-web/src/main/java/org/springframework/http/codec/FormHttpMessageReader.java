@@ -29,8 +29,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.ReactiveHttpInputMessage;
@@ -44,6 +46,10 @@ import org.springframework.util.StringUtils;
  * Implementation of an {@link HttpMessageReader} to read HTML form data, i.e.
  * request body with media type {@code "application/x-www-form-urlencoded"}.
  *
+ * <p>Form data is URL decoded incrementally as the body is received, without
+ * aggregating the entire body first, and is subject to a maximum size and a
+ * maximum number of fields.
+ *
  * @author Sebastien Deleuze
  * @author Rossen Stoyanchev
  * @since 5.0
@@ -56,12 +62,28 @@ public class FormHttpMessageReader extends LoggingCodecSupport
 	 */
 	public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
 
+	/**
+	 * The default maximum size of the form data: 256K.
+	 * @since 5.2
+	 */
+	public static final int DEFAULT_MAX_IN_MEMORY_SIZE = 256 * 1024;
+
+	/**
+	 * The default maximum number of form fields: 10000.
+	 * @since 5.2
+	 */
+	public static final int DEFAULT_MAX_FIELDS = 10000;
+
 	private static final ResolvableType MULTIVALUE_STRINGS_TYPE =
 			ResolvableType.forClassWithGenerics(MultiValueMap.class, String.class, String.class);
 
 
 	private Charset defaultCharset = DEFAULT_CHARSET;
 
+	private int maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
+
+	private int maxFields = DEFAULT_MAX_FIELDS;
+
 
 	/**
 	 * Set the default character set to use for reading form data when the
@@ -80,6 +102,44 @@ public class FormHttpMessageReader extends LoggingCodecSupport
 		return this.defaultCharset;
 	}
 
+	/**
+	 * Set the maximum size of the form data, in bytes. Form data exceeding
+	 * this size is rejected with a {@link DecodingException}.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_IN_MEMORY_SIZE}.
+	 * @param maxInMemorySize the maximum number of bytes, or -1 for unlimited
+	 * @since 5.2
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Return the configured maximum size of the form data.
+	 * @since 5.2
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Set the maximum number of form fields, counting each name-value pair.
+	 * Form data exceeding this number is rejected with a {@link DecodingException}.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_FIELDS}.
+	 * @param maxFields the maximum number of fields, or -1 for unlimited
+	 * @since 5.2
+	 */
+	public void setMaxFields(int maxFields) {
+		this.maxFields = maxFields;
+	}
+
+	/**
+	 * Return the configured maximum number of form fields.
+	 * @since 5.2
+	 */
+	public int getMaxFields() {
+		return this.maxFields;
+	}
+
 
 	@Override
 	public boolean canRead(ResolvableType elementType, @Nullable MediaType mediaType) {
@@ -105,15 +165,33 @@ public class FormHttpMessageReader extends LoggingCodecSupport
 		MediaType contentType = message.getHeaders().getContentType();
 		Charset charset = getMediaTypeCharset(contentType);
 
-		return DataBufferUtils.join(message.getBody())
-				.map(buffer -> {
-					CharBuffer charBuffer = charset.decode(buffer.asByteBuffer());
-					String body = charBuffer.toString();
-					DataBufferUtils.release(buffer);
-					MultiValueMap<String, String> formData = parseFormData(charset, body);
+		if (!FormDataParser.supportsCharset(charset)) {
+			return DataBufferUtils.join(message.getBody())
+					.map(buffer -> {
+						if (this.maxInMemorySize >= 0 && buffer.readableByteCount() > this.maxInMemorySize) {
+							DataBufferUtils.release(buffer);
+							throw new DecodingException(
+									"Form data exceeded the limit of " + this.maxInMemorySize + " bytes");
+						}
+						CharBuffer charBuffer = charset.decode(buffer.asByteBuffer());
+						String body = charBuffer.toString();
+						DataBufferUtils.release(buffer);
+						MultiValueMap<String, String> formData = parseFormData(charset, body);
+						logFormData(formData, hints);
+						return formData;
+					});
+		}
+
+		// Decode incrementally, without joining the body
+		return message.getBody()
+				.collect(() -> new FormDataParser(charset, this.maxInMemorySize, this.maxFields), FormDataParser::parse)
+				.filter(FormDataParser::hasContent)
+				.map(parser -> {
+					MultiValueMap<String, String> formData = parser.complete();
 					logFormData(formData, hints);
 					return formData;
-				});
+				})
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
 	private void logFormData(MultiValueMap<String, String> formData, Map<String, Object> hints) {
@@ -134,6 +212,9 @@ public class FormHttpMessageReader extends LoggingCodecSupport
 
 	private MultiValueMap<String, String> parseFormData(Charset charset, String body) {
 		String[] pairs = StringUtils.tokenizeToStringArray(body, "&");
+		if (this.maxFields >= 0 && pairs.length > this.maxFields) {
+			throw new DecodingException("Form data exceeded the limit of " + this.maxFields + " fields");
+		}
 		MultiValueMap<String, String> result = new LinkedMultiValueMap<>(pairs.length);
 		try {
 			for (String pair : pairs) {
@@ -16,9 +16,15 @@
 
 package org.springframework.http.codec.multipart;
 
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -28,11 +34,16 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.core.io.buffer.PooledDataBuffer;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
@@ -49,6 +60,19 @@ import org.springframework.util.StringUtils;
  * {@code HttpMessageReader} for parsing {@code "multipart/form-data"} requests
  * to a stream of {@link Part}'s.
  *
+ * <p>The request body is parsed as it arrives, without blocking and without
+ * buffering entire parts in memory: form fields are kept in memory up to
+ * {@link #setMaxInMemorySize maxInMemorySize}, while the content of other parts
+ * exceeding that size is written to a temporary file through an
+ * {@link AsynchronousFileChannel}. Each part is emitted once its content has
+ * been stored, and the request body is consumed no faster than parts are
+ * stored and requested downstream.
+ *
+ * <p>The content of a part can be consumed once. Temporary files are moved by
+ * {@link FilePart#transferTo(Path)}, and deleted once their content has been
+ * read, when the part is discarded, or through {@link Part#delete()}. A message
+ * without a final boundary is rejected with a {@link DecodingException}.
+ *
  * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
  * to aggregate all parts into a Map.
  *
@@ -58,23 +82,132 @@ import org.springframework.util.StringUtils;
  */
 public class DefaultMultipartMessageReader extends LoggingCodecSupport implements HttpMessageReader<Part> {
 
+	/**
+	 * The default maximum amount of memory per part: 256K.
+	 */
+	public static final int DEFAULT_MAX_IN_MEMORY_SIZE = 256 * 1024;
+
+	/**
+	 * The default maximum size of the headers of a part: 8K.
+	 */
+	public static final int DEFAULT_MAX_HEADERS_SIZE = 8 * 1024;
+
+	private static final int FILE_BUFFER_SIZE = 8 * 1024;
+
 	private static final Log logger = LogFactory.getLog(DefaultMultipartMessageReader.class);
 
-	private static final byte CR = '\r';
 
-	private static final byte LF = '\n';
+	private int maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
+
+	private int maxHeadersSize = DEFAULT_MAX_HEADERS_SIZE;
 
-	private static final byte HYPHEN = '-';
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	private long maxRequestSize = -1;
+
+	@Nullable
+	private volatile Path fileStorageDirectory;
+
+
+	/**
+	 * Configure the maximum amount of memory allowed per part. Form fields
+	 * exceeding this size are rejected, while the content of other parts is
+	 * written to a temporary file once it exceeds this size.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_IN_MEMORY_SIZE}.
+	 * @param maxInMemorySize the maximum number of bytes to keep in memory per part
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize >= 0, "'maxInMemorySize' must not be negative");
+		this.maxInMemorySize = maxInMemorySize;
+	}
 
-	private static final byte[] FIRST_BOUNDARY_PREFIX = {HYPHEN, HYPHEN};
+	/**
+	 * Return the configured maximum amount of memory allowed per part.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
 
-	private static final byte[] BOUNDARY_PREFIX = {CR, LF, HYPHEN, HYPHEN};
+	/**
+	 * Configure the maximum size of the headers of each part.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_HEADERS_SIZE}.
+	 * @param maxHeadersSize the maximum number of header bytes per part
+	 */
+	public void setMaxHeadersSize(int maxHeadersSize) {
+		Assert.isTrue(maxHeadersSize > 0, "'maxHeadersSize' must be positive");
+		this.maxHeadersSize = maxHeadersSize;
+	}
 
-	private static final byte[] HEADER_BODY_SEPARATOR = {CR, LF, CR, LF};
+	/**
+	 * Return the configured maximum size of the headers of each part.
+	 */
+	public int getMaxHeadersSize() {
+		return this.maxHeadersSize;
+	}
 
-	private static final String HEADER_SEPARATOR = "\\r\\n";
+	/**
+	 * Configure the maximum amount of disk space allowed per part.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxDiskUsagePerPart the maximum number of bytes stored on disk
+	 * per part, or -1 for unlimited
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
 
-	private static final DataBufferUtils.Matcher HEADER_MATCHER = DataBufferUtils.matcher(HEADER_BODY_SEPARATOR);
+	/**
+	 * Return the configured maximum amount of disk space allowed per part.
+	 */
+	public long getMaxDiskUsagePerPart() {
+		return this.maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Configure the maximum number of parts allowed in a request.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxParts the maximum number of parts, or -1 for unlimited
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Return the configured maximum number of parts allowed in a request.
+	 */
+	public int getMaxParts() {
+		return this.maxParts;
+	}
+
+	/**
+	 * Configure the maximum size of an entire multipart request body,
+	 * including boundaries and part headers.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxRequestSize the maximum number of bytes, or -1 for unlimited
+	 */
+	public void setMaxRequestSize(long maxRequestSize) {
+		this.maxRequestSize = maxRequestSize;
+	}
+
+	/**
+	 * Return the configured maximum size of an entire multipart request body.
+	 */
+	public long getMaxRequestSize() {
+		return this.maxRequestSize;
+	}
+
+	/**
+	 * Set the directory used to store the content of parts that exceed
+	 * {@link #setMaxInMemorySize maxInMemorySize}. The directory must exist.
+	 * <p>By default a new directory is created in the system temporary
+	 * directory when it is first needed.
+	 * @param fileStorageDirectory the directory for temporary part files
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) {
+		Assert.notNull(fileStorageDirectory, "'fileStorageDirectory' must not be null");
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
 
 
 	@Override
@@ -95,14 +228,24 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 			return Flux.error(new CodecException("No multipart boundary found in Content-Type: \"" +
 					message.getHeaders().getContentType() + "\""));
 		}
-		byte[] boundaryNeedle = concat(BOUNDARY_PREFIX, boundary);
-		Flux<DataBuffer> body = skipUntilFirstBoundary(message.getBody(), boundary);
-
-		return DataBufferUtils.split(body, boundaryNeedle)
-				.takeWhile(DefaultMultipartMessageReader::notLastBoundary)
-				.map(DefaultMultipartMessageReader::toPart)
-				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
-				.doOnDiscard(DefaultPart.class, part -> DataBufferUtils.release(part.body));
+		return Flux.defer(() -> {
+			MultipartParser parser = new MultipartParser(boundary, this.maxHeadersSize, this.maxRequestSize);
+			PartCollector collector = new PartCollector();
+			// Small prefetch values: parts are stored before more of the body is requested
+			return message.getBody()
+					.flatMapIterable(parser::parse, 1)
+					.concatWith(Mono.fromRunnable(parser::complete))
+					.concatMap(collector::next, 1)
+					.concatWith(Mono.defer(collector::complete))
+					.doOnDiscard(MultipartParser.Token.class, MultipartParser.Token::release)
+					.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
+					.doOnDiscard(DefaultPart.class, DefaultPart::release)
+					.doFinally(signalType -> {
+						if (signalType != SignalType.ON_COMPLETE) {
+							collector.discard();
+						}
+					});
+		});
 	}
 
 	@Nullable
@@ -117,173 +260,221 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 		return null;
 	}
 
-	/**
-	 * Finds the fist occurrence of the boundary in the given stream of data buffers, and skips
-	 * all data until then. Note that the first boundary of a multipart message does not contain
-	 * the initial \r\n, hence the need for a special boundary matcher.
-	 */
-	private static Flux<DataBuffer> skipUntilFirstBoundary(Flux<DataBuffer> dataBuffers, byte[] boundary) {
-		byte[] needle = concat(FIRST_BOUNDARY_PREFIX, boundary);
-		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(needle);
-		AtomicBoolean found = new AtomicBoolean();
-
-		return dataBuffers.concatMap(dataBuffer -> {
-			if (found.get()) {
-				return Mono.just(dataBuffer);
-			}
-			else {
-				int endIdx = matcher.match(dataBuffer);
-				if (endIdx != -1) {
-					found.set(true);
-					int length = dataBuffer.writePosition() - 1 - endIdx;
-					DataBuffer slice = dataBuffer.retainedSlice(endIdx + 1, length);
-					DataBufferUtils.release(dataBuffer);
-					if (logger.isTraceEnabled()) {
-							logger.trace(
-									"Found last byte of first boundary (" + toString(boundary)
-											+ ") at " + endIdx);
-						}
-					return Mono.just(slice);
-				}
-				else {
-					DataBufferUtils.release(dataBuffer);
-					return Mono.empty();
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message,
+			Map<String, Object> hints) {
+		return Mono.error(new UnsupportedOperationException(
+				"Cannot read multipart request body into single Part"));
+	}
+
+	private Path getFileStorageDirectory() throws IOException {
+		Path directory = this.fileStorageDirectory;
+		if (directory == null) {
+			synchronized (this) {
+				directory = this.fileStorageDirectory;
+				if (directory == null) {
+					directory = Files.createTempDirectory("spring-multipart-");
+					this.fileStorageDirectory = directory;
 				}
 			}
-		});
+		}
+		return directory;
 	}
 
-	/**
-	 * Indicates whether the given data buffer is not the last boundary, i.e. it does not start
-	 * with two hyphens.
-	 */
-	private static boolean notLastBoundary(DataBuffer dataBuffer) {
-		if (dataBuffer.readableByteCount() >= 2) {
-			int readPosition = dataBuffer.readPosition();
-			if (dataBuffer.getByte(readPosition) == HYPHEN && dataBuffer.getByte(readPosition + 1) == HYPHEN) {
-				DataBufferUtils.release(dataBuffer);
-				return false;
+	private static boolean isFilePart(HttpHeaders headers) {
+		return StringUtils.hasLength(headers.getContentDisposition().getFilename());
+	}
+
+	private static boolean isFormField(HttpHeaders headers) {
+		ContentDisposition cd = headers.getContentDisposition();
+		MediaType contentType = headers.getContentType();
+		return (!StringUtils.hasLength(cd.getFilename()) && StringUtils.hasLength(cd.getName()) &&
+				(contentType == null || MediaType.TEXT_PLAIN.isCompatibleWith(contentType)));
+	}
+
+	private static void deleteFile(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not delete temporary part file " + file + ": " + ex.getMessage());
 			}
 		}
-		return true;
 	}
 
+
 	/**
-	 * Convert the given data buffer into a Part. All data up until the header separator (\r\n\r\n)
-	 * is passed to {@link #toHeaders(DataBuffer)}, the remaining data is considered to be the
-	 * body.
+	 * Collects the tokens of the {@link MultipartParser} into parts, storing
+	 * the content of each part in memory or in a temporary file. Invoked
+	 * sequentially for a single message.
 	 */
-	private static Part toPart(DataBuffer dataBuffer) {
-		int readPosition = dataBuffer.readPosition();
-		if (dataBuffer.readableByteCount() >= 2) {
-			if (dataBuffer.getByte(readPosition) == CR && dataBuffer.getByte(readPosition + 1) == LF) {
-				dataBuffer.readPosition(readPosition + 2);
-			}
-		}
+	private class PartCollector {
+
+		@Nullable
+		private HttpHeaders headers;
+
+		private boolean formField;
 
-		int endIdx = HEADER_MATCHER.match(dataBuffer);
+		private final List<DataBuffer> buffers = new ArrayList<>();
 
-		HttpHeaders headers;
-		DataBuffer body;
-		if (endIdx > 0) {
-			if (logger.isTraceEnabled()) {
-				logger.trace("Found last byte of part header at " + endIdx );
+		private long size;
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private AsynchronousFileChannel channel;
+
+		private long filePosition;
+
+		private int partCount;
+
+		private DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		Mono<Part> next(MultipartParser.Token token) {
+			if (token instanceof MultipartParser.HeadersToken) {
+				if (maxParts >= 0 && this.partCount >= maxParts) {
+					return Mono.error(new DecodingException("Multipart request exceeded the limit of " +
+							maxParts + " parts"));
+				}
+				Part previous = finishPart();
+				this.headers = ((MultipartParser.HeadersToken) token).headers();
+				this.formField = isFormField(this.headers);
+				this.partCount++;
+				return Mono.justOrEmpty(previous);
 			}
-			readPosition = dataBuffer.readPosition();
-			int headersLength = endIdx + 1 - (readPosition + HEADER_BODY_SEPARATOR.length);
-			DataBuffer headersBuffer = dataBuffer.retainedSlice(readPosition, headersLength);
-			int bodyLength = dataBuffer.writePosition() - (1 + endIdx);
-			body = dataBuffer.retainedSlice(endIdx + 1, bodyLength);
-			headers = toHeaders(headersBuffer);
-		}
-		else {
-			if (logger.isTraceEnabled()) {
-				logger.trace("No header found");
+			DataBuffer buffer = ((MultipartParser.BodyToken) token).buffer();
+			if (this.headers == null) {
+				DataBufferUtils.release(buffer);
+				return Mono.empty();
 			}
-			headers = new HttpHeaders();
-			body = DataBufferUtils.retain(dataBuffer);
+			return addContent(buffer).then(Mono.empty());
 		}
-		DataBufferUtils.release(dataBuffer);
 
-		ContentDisposition cd = headers.getContentDisposition();
-		MediaType contentType = headers.getContentType();
-		if (StringUtils.hasLength(cd.getFilename())) {
-			return new DefaultFilePart(headers, body);
+		Mono<Part> complete() {
+			return Mono.justOrEmpty(finishPart());
 		}
-		else if (StringUtils.hasLength(cd.getName()) &&
-				(contentType == null || MediaType.TEXT_PLAIN.isCompatibleWith(contentType))) {
-			return new DefaultFormPart(headers, body);
+
+		private Mono<Void> addContent(DataBuffer buffer) {
+			this.bufferFactory = buffer.factory();
+			this.size += buffer.readableByteCount();
+			if (this.channel != null) {
+				if (maxDiskUsagePerPart >= 0 && this.size > maxDiskUsagePerPart) {
+					DataBufferUtils.release(buffer);
+					return Mono.error(diskUsageExceeded());
+				}
+				return write(Collections.singletonList(buffer));
+			}
+			this.buffers.add(buffer);
+			if (this.size <= maxInMemorySize) {
+				return Mono.empty();
+			}
+			if (this.formField) {
+				return Mono.error(new DecodingException("Form field exceeded the in-memory limit of " +
+						maxInMemorySize + " bytes"));
+			}
+			if (maxDiskUsagePerPart >= 0 && this.size > maxDiskUsagePerPart) {
+				return Mono.error(diskUsageExceeded());
+			}
+			return createFile().then(Mono.defer(() -> {
+				List<DataBuffer> buffers = new ArrayList<>(this.buffers);
+				this.buffers.clear();
+				return write(buffers);
+			}));
 		}
-		else {
-			return new DefaultPart(headers, body);
+
+		private DecodingException diskUsageExceeded() {
+			return new DecodingException("Part exceeded the disk usage limit of " + maxDiskUsagePerPart + " bytes");
 		}
-	}
 
-	/**
-	 * Convert the given data buffer into a {@link HttpHeaders} instance. The given string is read
-	 * as US-ASCII, then split along \r\n line boundaries, each line containing a header name and
-	 * value(s).
-	 */
-	private static HttpHeaders toHeaders(DataBuffer dataBuffer) {
-		byte[] bytes = new byte[dataBuffer.readableByteCount()];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
-		String string = new String(bytes, StandardCharsets.US_ASCII);
-		String[] lines = string.split(HEADER_SEPARATOR);
-		HttpHeaders result = new HttpHeaders();
-		for (String line : lines) {
-			int idx = line.indexOf(':');
-			if (idx != -1) {
-				String name = line.substring(0, idx);
-				String value = line.substring(idx + 1);
-				while (value.startsWith(" ")) {
-					value = value.substring(1);
+		private Mono<Void> createFile() {
+			// Creating and opening the file may block
+			return Mono.<Void>fromRunnable(() -> {
+				try {
+					Path file = Files.createTempFile(getFileStorageDirectory(), "part-", ".multipart");
+					this.file = file;
+					this.channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE);
+					if (logger.isTraceEnabled()) {
+						logger.trace("Storing part content in " + file);
+					}
 				}
-				String[] tokens = StringUtils.tokenizeToStringArray(value, ",");
-				for (String token : tokens) {
-					result.add(name, token);
+				catch (IOException ex) {
+					throw new DecodingException("Could not create temporary file for part content", ex);
 				}
+			}).subscribeOn(Schedulers.elastic());
+		}
+
+		private Mono<Void> write(List<DataBuffer> buffers) {
+			AsynchronousFileChannel channel = this.channel;
+			Assert.state(channel != null, "No file channel");
+			long position = this.filePosition;
+			for (DataBuffer buffer : buffers) {
+				this.filePosition += buffer.readableByteCount();
 			}
+			return DataBufferUtils.write(Flux.fromIterable(buffers), channel, position)
+					.doOnNext(DataBufferUtils::release)
+					.then();
 		}
-		return result;
-	}
 
-	private static String toString(byte[] bytes) {
-		StringBuilder builder = new StringBuilder();
-		for (byte b : bytes) {
-			if (b == CR) {
-				builder.append("␍");
+		@Nullable
+		private Part finishPart() {
+			HttpHeaders headers = this.headers;
+			if (headers == null) {
+				return null;
 			}
-			else if (b == LF) {
-				builder.append("␤");
+			this.headers = null;
+			this.size = 0;
+			this.filePosition = 0;
+			Path file = this.file;
+			if (file != null) {
+				closeChannel();
+				this.file = null;
+				return createPart(headers, Collections.emptyList(), file);
 			}
-			else if (b >= 20 && b <= 126) {
-				builder.append((char) b);
+			List<DataBuffer> buffers = new ArrayList<>(this.buffers);
+			this.buffers.clear();
+			if (this.formField) {
+				return new DefaultFormPart(headers, buffers, this.bufferFactory);
 			}
+			return createPart(headers, buffers, null);
 		}
-		return builder.toString();
-	}
 
+		private Part createPart(HttpHeaders headers, List<DataBuffer> buffers, @Nullable Path file) {
+			if (isFilePart(headers)) {
+				return new DefaultFilePart(headers, buffers, file, this.bufferFactory);
+			}
+			return new DefaultPart(headers, buffers, file, this.bufferFactory);
+		}
 
-	@Override
-	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message,
-			Map<String, Object> hints) {
-		return Mono.error(new UnsupportedOperationException(
-				"Cannot read multipart request body into single Part"));
-	}
-
-	private static byte[] concat(byte[]... byteArrays) {
-		int length = 0;
-		for (byte[] byteArray : byteArrays) {
-			length += byteArray.length;
+		private void closeChannel() {
+			AsynchronousFileChannel channel = this.channel;
+			this.channel = null;
+			if (channel != null) {
+				try {
+					channel.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+			}
 		}
-		byte[] result = new byte[length];
-		length = 0;
-		for (byte[] byteArray : byteArrays) {
-			System.arraycopy(byteArray, 0, result, length, byteArray.length);
-			length += byteArray.length;
+
+		/**
+		 * Release the content of the part in progress, if any, after an error
+		 * or cancellation.
+		 */
+		void discard() {
+			this.headers = null;
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+			closeChannel();
+			Path file = this.file;
+			this.file = null;
+			if (file != null) {
+				deleteFile(file);
+			}
 		}
-		return result;
 	}
 
 
@@ -291,11 +482,27 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 		private final HttpHeaders headers;
 
-		protected final DataBuffer body;
+		private final List<DataBuffer> buffers;
+
+		@Nullable
+		private final Path file;
+
+		protected final DataBufferFactory bufferFactory;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		public DefaultPart(HttpHeaders headers, List<DataBuffer> buffers, @Nullable Path file,
+				DataBufferFactory bufferFactory) {
 
-		public DefaultPart(HttpHeaders headers, DataBuffer body) {
 			this.headers = headers;
-			this.body = body;
+			this.buffers = buffers;
+			this.file = file;
+			this.bufferFactory = bufferFactory;
+		}
+
+		@Nullable
+		protected Path getFile() {
+			return this.file;
 		}
 
 		@Override
@@ -312,25 +519,68 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 		@Override
 		public Flux<DataBuffer> content() {
-			return Flux.just(this.body);
+			Path file = this.file;
+			if (file != null) {
+				return DataBufferUtils.readAsynchronousFileChannel(
+						() -> AsynchronousFileChannel.open(file, StandardOpenOption.READ),
+						this.bufferFactory, FILE_BUFFER_SIZE)
+						.subscribeOn(Schedulers.elastic())
+						.doFinally(signalType -> deleteFile(file));
+			}
+			return Flux.defer(() -> {
+				if (!this.released.compareAndSet(false, true)) {
+					return Flux.error(new IllegalStateException("Part content has already been consumed"));
+				}
+				return Flux.fromIterable(this.buffers);
+			});
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			if (this.file != null) {
+				Path file = this.file;
+				return Mono.<Void>fromRunnable(() -> deleteFile(file)).subscribeOn(Schedulers.elastic());
+			}
+			return Mono.fromRunnable(this::release);
+		}
+
+		void release() {
+			if (this.released.compareAndSet(false, true)) {
+				this.buffers.forEach(DataBufferUtils::release);
+			}
+			if (this.file != null) {
+				deleteFile(this.file);
+			}
 		}
 	}
 
 
 	private static class DefaultFormPart extends DefaultPart implements FormFieldPart {
 
-		private String value;
+		private final byte[] bytes;
 
-		public DefaultFormPart(HttpHeaders headers, DataBuffer body) {
-			super(headers, body);
-			this.value = toString(body, contentTypeCharset(headers));
+		private final String value;
+
+		public DefaultFormPart(HttpHeaders headers, List<DataBuffer> buffers, DataBufferFactory bufferFactory) {
+			super(headers, Collections.emptyList(), null, bufferFactory);
+			this.bytes = toBytes(buffers);
+			this.value = new String(this.bytes, contentTypeCharset(headers)).trim();
 		}
 
-		private static String toString(DataBuffer dataBuffer, Charset charset) {
-			byte[] bytes = new byte[dataBuffer.readableByteCount()];
-			dataBuffer.read(bytes);
-			DataBufferUtils.release(dataBuffer);
-			return new String(bytes, charset).trim();
+		private static byte[] toBytes(List<DataBuffer> buffers) {
+			int length = 0;
+			for (DataBuffer buffer : buffers) {
+				length += buffer.readableByteCount();
+			}
+			byte[] bytes = new byte[length];
+			int offset = 0;
+			for (DataBuffer buffer : buffers) {
+				int count = buffer.readableByteCount();
+				buffer.read(bytes, offset, count);
+				offset += count;
+				DataBufferUtils.release(buffer);
+			}
+			return bytes;
 		}
 
 		private static Charset contentTypeCharset(HttpHeaders headers) {
@@ -349,13 +599,19 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 			return this.value;
 		}
 
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(this.bufferFactory.wrap(this.bytes)));
+		}
 	}
 
 
 	private static class DefaultFilePart extends DefaultPart implements FilePart {
 
-		public DefaultFilePart(HttpHeaders headers, DataBuffer body) {
-			super(headers, body);
+		public DefaultFilePart(HttpHeaders headers, List<DataBuffer> buffers, @Nullable Path file,
+				DataBufferFactory bufferFactory) {
+
+			super(headers, buffers, file, bufferFactory);
 		}
 
 		@Override
@@ -367,9 +623,20 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 		@Override
 		public Mono<Void> transferTo(Path dest) {
+			Path file = getFile();
+			if (file != null) {
+				// Content stored on disk: move rather than copy
+				return Mono.<Void>fromRunnable(() -> {
+					try {
+						Files.move(file, dest, StandardCopyOption.REPLACE_EXISTING);
+					}
+					catch (IOException ex) {
+						throw new IllegalStateException("Could not transfer part content to " + dest, ex);
+					}
+				}).subscribeOn(Schedulers.elastic());
+			}
 			return DataBufferUtils.write(content(), dest);
 		}
-
 	}
 
 }
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Incremental parser for {@code "multipart/form-data"} content, turning each
+ * incoming {@link DataBuffer} into a list of {@link Token tokens}.
+ *
+ * <p>Part bodies are emitted as slices of the incoming buffers as soon as they
+ * are known not to contain the boundary. Only the bytes at the end of a buffer
+ * that could be the start of a boundary are held back, so the memory used by
+ * the parser itself is bounded by the boundary length and the maximum size of
+ * the part headers, independent of the size of the parts.
+ *
+ * <p>Instances are stateful and must be used for a single message only, with
+ * {@link #parse} invoked sequentially for each buffer and {@link #complete}
+ * invoked at the end of the input.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see DefaultMultipartMessageReader
+ */
+final class MultipartParser {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] BOUNDARY_PREFIX = {CR, LF, HYPHEN, HYPHEN};
+
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
+	private static final String HEADER_SEPARATOR = "\\r?\\n";
+
+
+	private final byte[] needle;
+
+	/** KMP failure function for the needle. */
+	private final int[] needleTable;
+
+	private final int maxHeadersSize;
+
+	private final long maxRequestSize;
+
+	private State state = State.PREAMBLE;
+
+	/** The number of needle bytes matched at the end of the input so far. */
+	private int matched;
+
+	/** Body bytes held back since they match the start of the needle. */
+	private byte[] tail = EMPTY_BYTES;
+
+	private final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+
+	private int headerLineLength;
+
+	private boolean boundaryHyphen;
+
+	private long requestSize;
+
+
+	/**
+	 * Create a new parser for the given boundary.
+	 * @param boundary the multipart boundary, without leading hyphens
+	 * @param maxHeadersSize the maximum size of the headers of a single part
+	 * @param maxRequestSize the maximum size of the entire message, or -1 for unlimited
+	 */
+	MultipartParser(byte[] boundary, int maxHeadersSize, long maxRequestSize) {
+		this.needle = new byte[BOUNDARY_PREFIX.length + boundary.length];
+		System.arraycopy(BOUNDARY_PREFIX, 0, this.needle, 0, BOUNDARY_PREFIX.length);
+		System.arraycopy(boundary, 0, this.needle, BOUNDARY_PREFIX.length, boundary.length);
+		this.needleTable = failureTable(this.needle);
+		this.maxHeadersSize = maxHeadersSize;
+		this.maxRequestSize = maxRequestSize;
+		// The first boundary may be at the very start, i.e. without a preceding CRLF
+		this.matched = 2;
+	}
+
+	private static int[] failureTable(byte[] needle) {
+		int[] table = new int[needle.length];
+		int length = 0;
+		for (int i = 1; i < needle.length; i++) {
+			while (length > 0 && needle[i] != needle[length]) {
+				length = table[length - 1];
+			}
+			if (needle[i] == needle[length]) {
+				length++;
+			}
+			table[i] = length;
+		}
+		return table;
+	}
+
+
+	/**
+	 * Parse the given buffer, which is released before returning.
+	 * @param buffer the next buffer of the message body
+	 * @return the tokens found in the buffer, possibly empty
+	 * @throws DecodingException if a configured limit is exceeded
+	 */
+	List<Token> parse(DataBuffer buffer) {
+		List<Token> tokens = new ArrayList<>(2);
+		try {
+			this.requestSize += buffer.readableByteCount();
+			if (this.maxRequestSize >= 0 && this.requestSize > this.maxRequestSize) {
+				throw new DecodingException(
+						"Multipart request exceeded the limit of " + this.maxRequestSize + " bytes");
+			}
+			int pos = buffer.readPosition();
+			int end = buffer.writePosition();
+			while (pos < end && this.state != State.DONE) {
+				switch (this.state) {
+					case PREAMBLE:
+					case BODY:
+						pos = parseBody(buffer, pos, end, tokens);
+						break;
+					case BOUNDARY_LINE:
+						pos = parseBoundaryLine(buffer, pos, end);
+						break;
+					case HEADERS:
+						pos = parseHeaders(buffer, pos, end, tokens);
+						break;
+					default:
+						throw new IllegalStateException(this.state.name());
+				}
+			}
+			return tokens;
+		}
+		catch (RuntimeException ex) {
+			tokens.forEach(Token::release);
+			throw ex;
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	/**
+	 * Signal the end of the input.
+	 * @throws DecodingException if the final boundary has not been found,
+	 * i.e. if the message has been truncated
+	 */
+	void complete() {
+		State state = this.state;
+		this.state = State.DONE;
+		if (state != State.DONE) {
+			throw new DecodingException("Could not find end of multipart body");
+		}
+	}
+
+	/**
+	 * Scan for the boundary, emitting the body bytes before it unless in the
+	 * preamble. Returns the position after the boundary, or the end position.
+	 */
+	private int parseBody(DataBuffer buffer, int start, int end, List<Token> tokens) {
+		boolean emit = (this.state == State.BODY);
+		int matched = this.matched;
+		for (int i = start; i < end; i++) {
+			byte b = buffer.getByte(i);
+			while (matched > 0 && b != this.needle[matched]) {
+				matched = this.needleTable[matched - 1];
+			}
+			if (b == this.needle[matched]) {
+				matched++;
+			}
+			if (matched == this.needle.length) {
+				if (emit) {
+					int inBuffer = i + 1 - start;
+					if (inBuffer >= this.needle.length) {
+						emitTail(buffer, this.tail.length, tokens);
+						emitSlice(buffer, start, inBuffer - this.needle.length, tokens);
+					}
+					else {
+						emitTail(buffer, this.tail.length - (this.needle.length - inBuffer), tokens);
+					}
+				}
+				this.tail = EMPTY_BYTES;
+				this.matched = 0;
+				this.boundaryHyphen = false;
+				this.state = State.BOUNDARY_LINE;
+				return i + 1;
+			}
+		}
+		this.matched = matched;
+		if (emit) {
+			int length = end - start;
+			if (matched <= length) {
+				emitTail(buffer, this.tail.length, tokens);
+				emitSlice(buffer, start, length - matched, tokens);
+				this.tail = copy(buffer, end - matched, matched, EMPTY_BYTES, 0);
+			}
+			else {
+				int kept = matched - length;
+				emitTail(buffer, this.tail.length - kept, tokens);
+				this.tail = copy(buffer, start, length, this.tail, kept);
+			}
+		}
+		return end;
+	}
+
+	private void emitTail(DataBuffer buffer, int length, List<Token> tokens) {
+		if (length > 0) {
+			byte[] bytes = Arrays.copyOf(this.tail, length);
+			tokens.add(new BodyToken(buffer.factory().wrap(bytes)));
+		}
+	}
+
+	private static void emitSlice(DataBuffer buffer, int index, int length, List<Token> tokens) {
+		if (length > 0) {
+			tokens.add(new BodyToken(buffer.retainedSlice(index, length)));
+		}
+	}
+
+	/**
+	 * Copy the last {@code prefixLength} bytes of the given prefix, followed
+	 * by the given range of the buffer, into a new array.
+	 */
+	private static byte[] copy(DataBuffer buffer, int index, int length, byte[] prefix, int prefixLength) {
+		if (length == 0 && prefixLength == 0) {
+			return EMPTY_BYTES;
+		}
+		byte[] result = new byte[prefixLength + length];
+		System.arraycopy(prefix, prefix.length - prefixLength, result, 0, prefixLength);
+		for (int i = 0; i < length; i++) {
+			result[prefixLength + i] = buffer.getByte(index + i);
+		}
+		return result;
+	}
+
+	/**
+	 * Consume the rest of the boundary line: either the closing hyphens of the
+	 * final boundary, or optional padding up to and including the line feed.
+	 */
+	private int parseBoundaryLine(DataBuffer buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			byte b = buffer.getByte(i);
+			if (b == HYPHEN) {
+				if (this.boundaryHyphen) {
+					this.state = State.DONE;
+					return end;
+				}
+				this.boundaryHyphen = true;
+			}
+			else if (b == LF) {
+				this.headerBytes.reset();
+				this.headerLineLength = 0;
+				this.state = State.HEADERS;
+				return i + 1;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Collect header bytes until an empty line. Lines may be terminated with
+	 * CRLF or, leniently, with a bare LF.
+	 */
+	private int parseHeaders(DataBuffer buffer, int start, int end, List<Token> tokens) {
+		for (int i = start; i < end; i++) {
+			byte b = buffer.getByte(i);
+			if (b == LF) {
+				if (this.headerLineLength == 0) {
+					tokens.add(new HeadersToken(toHeaders(this.headerBytes.toByteArray())));
+					this.headerBytes.reset();
+					this.state = State.BODY;
+					return i + 1;
+				}
+				this.headerLineLength = 0;
+			}
+			else if (b != CR) {
+				this.headerLineLength++;
+			}
+			this.headerBytes.write(b);
+			if (this.headerBytes.size() > this.maxHeadersSize) {
+				throw new DecodingException(
+						"Part headers exceeded the limit of " + this.maxHeadersSize + " bytes");
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Convert the given bytes into a {@link HttpHeaders} instance. The bytes are
+	 * read as US-ASCII, then split along line boundaries, each line containing a
+	 * header name and value.
+	 * <p>Note that each line results in a single, trimmed value, even if it holds
+	 * a comma-separated list: unlike the parsing in earlier versions, values are
+	 * not split on commas, since a quoted filename may contain commas as well.
+	 */
+	private static HttpHeaders toHeaders(byte[] bytes) {
+		String string = new String(bytes, StandardCharsets.US_ASCII);
+		String[] lines = string.split(HEADER_SEPARATOR);
+		HttpHeaders result = new HttpHeaders();
+		for (String line : lines) {
+			int idx = line.indexOf(':');
+			if (idx != -1) {
+				String name = line.substring(0, idx);
+				result.add(name, line.substring(idx + 1).trim());
+			}
+		}
+		return result;
+	}
+
+
+	private enum State {
+
+		PREAMBLE, BOUNDARY_LINE, HEADERS, BODY, DONE
+	}
+
+
+	/**
+	 * Base class for the output of the parser.
+	 */
+	abstract static class Token {
+
+		void release() {
+		}
+	}
+
+
+	/**
+	 * Token for the headers of a part, starting a new part.
+	 */
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		HttpHeaders headers() {
+			return this.headers;
+		}
+	}
+
+
+	/**
+	 * Token for a chunk of body content of the current part.
+	 */
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		BodyToken(DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		DataBuffer buffer() {
+			return this.buffer;
+		}
+
+		@Override
+		void release() {
+			DataBufferUtils.release(this.buffer);
+		}
+	}
+
+}
@@ -114,8 +114,12 @@ class NettyHeadersAdapter implements MultiValueMap<String, String> {
 	@Override
 	@Nullable
 	public List<String> get(Object key) {
-		if (containsKey(key)) {
-			return this.headers.getAll((String) key);
+		if (key instanceof String) {
+			// Single lookup: Netty returns an empty list for an absent header
+			List<String> values = this.headers.getAll((String) key);
+			if (!values.isEmpty()) {
+				return values;
+			}
 		}
 		return null;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.cert.X509Certificate;
 import java.util.Enumeration;
@@ -37,6 +38,7 @@ import reactor.core.publisher.Flux;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
@@ -202,12 +204,21 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 	/**
 	 * Read from the request body InputStream and return a DataBuffer.
 	 * Invoked only when {@link ServletInputStream#isReady()} returns "true".
+	 * <p>If the input stream reports available bytes, they are read into a
+	 * DataBuffer of that size directly, or else read into a reusable byte[]
+	 * and copied into a DataBuffer of the size read.
 	 * @return a DataBuffer with data read, or {@link #EOF_BUFFER} if the input
 	 * stream returned -1, or null if 0 bytes were read.
 	 */
 	@Nullable
 	DataBuffer readFromInputStream() throws IOException {
-		int read = this.request.getInputStream().read(this.buffer);
+		ServletInputStream inputStream = this.request.getInputStream();
+		int available = inputStream.available();
+		if (available > 0) {
+			return readFromInputStream(inputStream, Math.min(available, this.buffer.length));
+		}
+
+		int read = inputStream.read(this.buffer);
 		logBytesRead(read);
 
 		if (read > 0) {
@@ -223,6 +234,49 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 		return null;
 	}
 
+	/**
+	 * Read up to the given number of bytes, known to be available, into a
+	 * DataBuffer of that size, straight into its backing array if it has one.
+	 */
+	@Nullable
+	private DataBuffer readFromInputStream(ServletInputStream inputStream, int length) throws IOException {
+		boolean release = true;
+		DataBuffer dataBuffer = this.bufferFactory.allocateBuffer(length);
+		try {
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer(0, length);
+			int read;
+			if (byteBuffer.hasArray()) {
+				read = inputStream.read(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), length);
+				if (read > 0) {
+					dataBuffer.writePosition(read);
+				}
+			}
+			else {
+				read = inputStream.read(this.buffer, 0, length);
+				if (read > 0) {
+					dataBuffer.write(this.buffer, 0, read);
+				}
+			}
+			logBytesRead(read);
+
+			if (read > 0) {
+				release = false;
+				return dataBuffer;
+			}
+
+			if (read == -1) {
+				return EOF_BUFFER;
+			}
+
+			return null;
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(dataBuffer);
+			}
+		}
+	}
+
 	protected final void logBytesRead(int read) {
 		Log rsReadLogger = AbstractListenerReadPublisher.rsReadLogger;
 		if (rsReadLogger.isTraceEnabled()) {
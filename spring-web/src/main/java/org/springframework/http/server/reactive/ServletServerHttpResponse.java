@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.http.server.reactive;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import javax.servlet.AsyncContext;
 import javax.servlet.AsyncEvent;
@@ -164,6 +165,21 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 	 */
 	protected int writeToOutputStream(DataBuffer dataBuffer) throws IOException {
 		ServletOutputStream outputStream = this.outputStream;
+		ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+		if (byteBuffer.hasArray()) {
+			// Write straight from the array backing the DataBuffer, rather than copying
+			byte[] array = byteBuffer.array();
+			int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+			int remaining = byteBuffer.remaining();
+			int bytesWritten = 0;
+			while (bytesWritten < remaining && outputStream.isReady()) {
+				int len = Math.min(remaining - bytesWritten, this.bufferSize);
+				outputStream.write(array, offset + bytesWritten, len);
+				bytesWritten += len;
+			}
+			dataBuffer.readPosition(dataBuffer.readPosition() + bytesWritten);
+			return bytesWritten;
+		}
 		InputStream input = dataBuffer.asInputStream();
 		int bytesWritten = 0;
 		byte[] buffer = new byte[this.bufferSize];
@@ -129,8 +129,11 @@ class TomcatHeadersAdapter implements MultiValueMap<String, String> {
 	@Override
 	@Nullable
 	public List<String> get(Object key) {
-		if (containsKey(key)) {
-			return Collections.list(this.headers.values((String) key));
+		if (key instanceof String) {
+			Enumeration<String> values = this.headers.values((String) key);
+			if (values.hasMoreElements()) {
+				return Collections.list(values);
+			}
 		}
 		return null;
 	}
@@ -78,7 +78,10 @@ public class UrlBasedCorsConfigurationSource implements CorsConfigurationSource
 	/**
 	 * Optionally configure the name of the attribute that caches the lookupPath.
 	 * This is used to make the call to
-	 * {@link UrlPathHelper#getLookupPathForRequest(HttpServletRequest, String)}
+	 * {@link UrlPathHelper#getLookupPathForRequest(HttpServletRequest, String)}.
+	 * <p>By default, the lookup path is obtained via
+	 * {@link UrlPathHelper#resolveAndCacheLookupPath(HttpServletRequest)}, sharing
+	 * it with handler mappings that use equally configured {@code UrlPathHelper}s.
 	 * @param lookupPathAttributeName the request attribute to check
 	 * @since 5.2
 	 */
@@ -131,7 +134,9 @@ public class UrlBasedCorsConfigurationSource implements CorsConfigurationSource
 	@Override
 	@Nullable
 	public CorsConfiguration getCorsConfiguration(HttpServletRequest request) {
-		String lookupPath = this.urlPathHelper.getLookupPathForRequest(request, this.lookupPathAttributeName);
+		String lookupPath = (this.lookupPathAttributeName != null ?
+				this.urlPathHelper.getLookupPathForRequest(request, this.lookupPathAttributeName) :
+				this.urlPathHelper.resolveAndCacheLookupPath(request));
 		for (Map.Entry<String, CorsConfiguration> entry : this.corsConfigurations.entrySet()) {
 			if (this.pathMatcher.match(entry.getKey(), lookupPath)) {
 				return entry.getValue();
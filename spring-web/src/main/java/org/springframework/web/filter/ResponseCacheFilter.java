@@ -0,0 +1,364 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * {@link javax.servlet.Filter} that caches responses to {@code GET} requests
+ * in memory, as instructed by their {@code Cache-Control} header, and serves
+ * subsequent requests for the same URL from the cache without invoking the
+ * rest of the filter chain.
+ *
+ * <p>A response is stored if it has a cacheable status and a {@code max-age}
+ * or {@code s-maxage} directive, unless it has a {@code no-store},
+ * {@code no-cache} or {@code private} directive, a {@code Set-Cookie} header,
+ * or {@code Vary: *}. Responses to requests with an {@code Authorization}
+ * header are only stored with a {@code public} or {@code s-maxage} directive.
+ * Separate variants are stored for the request header values named by the
+ * {@code Vary} header. Requests with a {@code no-store} directive bypass the
+ * cache, while requests with a {@code no-cache} or {@code max-age=0} directive
+ * are not served from the cache but may refresh it.
+ *
+ * <p>Once a response is stale, it may still be served within the period of a
+ * {@code stale-while-revalidate} directive: a single request then goes through
+ * the filter chain to refresh the cache, while concurrent requests are served
+ * the stale response. Since a request cannot be processed again once its
+ * response is complete, the refresh is not done in the background.
+ *
+ * <p>The response body is written through as it is produced, and cached
+ * unless it exceeds the {@link #setMaxEntrySize(int) maxEntrySize}. The total
+ * size of cached responses is bounded by {@link #setMaxSize(long) maxSize},
+ * with the least recently used responses evicted first. Responses are held in
+ * a {@link ResponseCacheStore}, which serves lookups without locking.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see org.springframework.web.filter.reactive.ResponseCacheFilter
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+	private final ResponseCacheStore<byte[]> store = new ResponseCacheStore<>(body -> {});
+
+	private int maxEntrySize = 1024 * 1024;
+
+	private Clock clock = Clock.systemUTC();
+
+
+	/**
+	 * Set the maximum total size, in bytes, of cached responses. Once it is
+	 * exceeded, the least recently used responses are evicted.
+	 * <p>By default this is set to 10 MB.
+	 */
+	public void setMaxSize(long maxSize) {
+		this.store.setMaxSize(maxSize);
+	}
+
+	/**
+	 * Return the configured maximum total size of cached responses.
+	 */
+	public long getMaxSize() {
+		return this.store.getMaxSize();
+	}
+
+	/**
+	 * Set the maximum size, in bytes, of the body of a single cached response.
+	 * Larger responses are passed through without being cached.
+	 * <p>By default this is set to 1 MB.
+	 */
+	public void setMaxEntrySize(int maxEntrySize) {
+		Assert.isTrue(maxEntrySize > 0, "Max entry size must be greater than 0");
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the configured maximum size of a single cached response body.
+	 */
+	public int getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to determine the age of cached
+	 * responses.
+	 * <p>By default this is {@link Clock#systemUTC()}.
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the current total size of cached responses, in bytes.
+	 */
+	public long getSize() {
+		return this.store.getSize();
+	}
+
+	/**
+	 * Remove all cached responses.
+	 */
+	public void clear() {
+		this.store.clear();
+	}
+
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		if (!HttpMethod.GET.matches(request.getMethod())) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		Function<String, List<String>> requestHeaders = name -> Collections.list(request.getHeaders(name));
+		if (ResponseCacheStore.isBypassed(requestHeaders)) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		String key = getCacheKey(request);
+		ResponseCacheStore.Entry<byte[]> stale = null;
+		if (ResponseCacheStore.isLookupAllowed(requestHeaders)) {
+			long now = this.clock.millis();
+			ResponseCacheStore.Entry<byte[]> cached = this.store.lookup(key, requestHeaders, now);
+			if (cached != null) {
+				if (cached.isFresh(now) || !cached.startRevalidation()) {
+					writeCachedResponse(response, cached, now);
+					return;
+				}
+				stale = cached;
+			}
+		}
+
+		CachingResponseWrapper responseWrapper = new CachingResponseWrapper(response, this.maxEntrySize);
+		try {
+			filterChain.doFilter(request, responseWrapper);
+			responseWrapper.flushWriter();
+			byte[] body = responseWrapper.getContent();
+			if (!isAsyncStarted(request) && body != null) {
+				ResponseCacheStore.Entry<byte[]> cached = this.store.createEntry(requestHeaders,
+						response.getStatus(), getHeaders(response), body, body.length, this.clock.millis());
+				if (cached != null) {
+					this.store.store(key, cached);
+				}
+				else if (stale != null) {
+					this.store.remove(key, stale);
+				}
+			}
+		}
+		finally {
+			if (stale != null) {
+				stale.finishRevalidation();
+			}
+		}
+	}
+
+	private static String getCacheKey(HttpServletRequest request) {
+		StringBuilder builder = new StringBuilder(request.getMethod()).append(' ').append(request.getRequestURL());
+		String query = request.getQueryString();
+		if (query != null) {
+			builder.append('?').append(query);
+		}
+		return builder.toString();
+	}
+
+	private static HttpHeaders getHeaders(HttpServletResponse response) {
+		HttpHeaders headers = new HttpHeaders();
+		for (String name : response.getHeaderNames()) {
+			for (String value : response.getHeaders(name)) {
+				headers.add(name, value);
+			}
+		}
+		return headers;
+	}
+
+	private void writeCachedResponse(HttpServletResponse response, ResponseCacheStore.Entry<byte[]> cached,
+			long now) throws IOException {
+
+		byte[] body = cached.getBody();
+		response.setStatus(cached.getStatus());
+		cached.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+		response.setHeader(HttpHeaders.AGE, Long.toString(cached.getAge(now)));
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+
+	/**
+	 * Response wrapper that writes the body through to the response, while
+	 * capturing it up to the given size.
+	 */
+	private static class CachingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final int maxSize;
+
+		@Nullable
+		private FastByteArrayOutputStream content = new FastByteArrayOutputStream(1024);
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		CachingResponseWrapper(HttpServletResponse response, int maxSize) {
+			super(response);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				this.outputStream = new CachingServletOutputStream(getResponse().getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				this.writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()), true);
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			this.content = null;
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			this.content = null;
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			this.content = null;
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			if (this.content != null) {
+				this.content.reset();
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			if (this.content != null) {
+				this.content.reset();
+			}
+		}
+
+		void flushWriter() {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+		}
+
+		/**
+		 * Return the captured body, or {@code null} if it was not captured.
+		 */
+		@Nullable
+		byte[] getContent() {
+			return (this.content != null ? this.content.toByteArray() : null);
+		}
+
+		/**
+		 * Return the stream to capture the given number of bytes to, if any.
+		 */
+		@Nullable
+		private FastByteArrayOutputStream getContent(int length) {
+			FastByteArrayOutputStream content = this.content;
+			if (content != null && content.size() + length > this.maxSize) {
+				this.content = null;
+				return null;
+			}
+			return content;
+		}
+
+
+		private class CachingServletOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream os;
+
+			CachingServletOutputStream(ServletOutputStream os) {
+				this.os = os;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				this.os.write(b);
+				FastByteArrayOutputStream content = getContent(1);
+				if (content != null) {
+					content.write(b);
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.os.write(b, off, len);
+				FastByteArrayOutputStream content = getContent(len);
+				if (content != null) {
+					content.write(b, off, len);
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				this.os.flush();
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.os.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.os.setWriteListener(writeListener);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * In-memory store of HTTP responses, shared by the Servlet and the reactive
+ * {@code ResponseCacheFilter}. Interprets the {@code Cache-Control} directives
+ * of requests and responses, creates entries for cacheable responses, and
+ * holds them per URL, with separate variants for the request header values
+ * named by the {@code Vary} header.
+ *
+ * <p>This store is the common building block of the response cache filters,
+ * and may also be used to build a response cache for another server API.
+ * A filter typically proceeds as follows: requests that are
+ * {@link #isBypassed bypassed} skip the store entirely; requests for which a
+ * {@link #isLookupAllowed lookup is allowed} are served from a {@link #lookup
+ * looked up} entry, which is {@link Entry#retain() retained} while its body is
+ * written; the other responses are {@link #createEntry turned into entries}
+ * and {@link #store stored} if they are cacheable. The body type is chosen by
+ * the caller, along with the function that releases a body once its entry has
+ * been removed and is no longer retained.
+ *
+ * <p>Lookups never block: entries are kept in a {@link ConcurrentHashMap},
+ * and a lookup merely marks the entry as accessed. Once the total size of the
+ * entries exceeds the {@link #setMaxSize(long) maxSize}, a single thread at a
+ * time evicts entries in the order they were stored, sparing entries that have
+ * been accessed since they were last considered for eviction once, which
+ * approximates a least recently used order at a constant cost per eviction.
+ * Other threads may temporarily add entries beyond the maximum size meanwhile.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @param <B> the type of the cached response bodies
+ * @see ResponseCacheFilter
+ * @see org.springframework.web.filter.reactive.ResponseCacheFilter
+ */
+public class ResponseCacheStore<B> {
+
+	private static final List<Integer> CACHEABLE_STATUSES = Arrays.asList(HttpStatus.OK.value(),
+			HttpStatus.NON_AUTHORITATIVE_INFORMATION.value(), HttpStatus.MULTIPLE_CHOICES.value(),
+			HttpStatus.MOVED_PERMANENTLY.value(), HttpStatus.NOT_FOUND.value(), HttpStatus.GONE.value());
+
+
+	private final Consumer<? super B> releaseFunction;
+
+	private long maxSize = 10 * 1024 * 1024;
+
+	private final ConcurrentHashMap<String, List<Entry<B>>> cache = new ConcurrentHashMap<>(64);
+
+	private final AtomicLong size = new AtomicLong();
+
+	/** Stored entries in eviction order, including removed entries not yet polled. */
+	private final ConcurrentLinkedQueue<Entry<B>> evictionQueue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger entryCount = new AtomicInteger();
+
+	private final AtomicInteger removedEntryCount = new AtomicInteger();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+
+	/**
+	 * Create a new store.
+	 * @param releaseFunction the function to release the body of an entry
+	 * once it is removed from the store and no longer in use
+	 */
+	public ResponseCacheStore(Consumer<? super B> releaseFunction) {
+		Assert.notNull(releaseFunction, "Release function is required");
+		this.releaseFunction = releaseFunction;
+	}
+
+
+	/**
+	 * Set the maximum total size, in bytes, of the stored entries. Once it is
+	 * exceeded, the least recently used entries are evicted.
+	 * <p>By default this is set to 10 MB.
+	 */
+	public void setMaxSize(long maxSize) {
+		Assert.isTrue(maxSize > 0, "Max size must be greater than 0");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return the configured maximum total size of the stored entries.
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Return the current total size of the stored entries, in bytes.
+	 */
+	public long getSize() {
+		return this.size.get();
+	}
+
+
+	/**
+	 * Whether a request with the given headers must bypass the cache entirely,
+	 * i.e. whether it has a {@code no-store} directive.
+	 * @param requestHeaders the values of a request header by name
+	 */
+	public static boolean isBypassed(Function<String, List<String>> requestHeaders) {
+		return parseDirectives(requestHeaders.apply(HttpHeaders.CACHE_CONTROL)).containsKey("no-store");
+	}
+
+	/**
+	 * Whether a request with the given headers may be served from the cache,
+	 * i.e. whether it has neither a {@code no-cache} nor a {@code max-age=0}
+	 * directive, nor a {@code Pragma: no-cache} header.
+	 * @param requestHeaders the values of a request header by name
+	 */
+	public static boolean isLookupAllowed(Function<String, List<String>> requestHeaders) {
+		Map<String, String> directives = parseDirectives(requestHeaders.apply(HttpHeaders.CACHE_CONTROL));
+		if (directives.containsKey("no-cache") || "0".equals(directives.get("max-age"))) {
+			return false;
+		}
+		List<String> pragma = requestHeaders.apply(HttpHeaders.PRAGMA);
+		return (pragma == null || !pragma.contains("no-cache"));
+	}
+
+	/**
+	 * Return the freshness lifetime, in seconds, of a response with the given
+	 * status and headers to a request with the given headers, or -1 if the
+	 * response is not cacheable.
+	 * @param requestHeaders the values of a request header by name
+	 * @param status the response status
+	 * @param headers the response headers
+	 */
+	public static long getFreshnessLifetime(Function<String, List<String>> requestHeaders,
+			int status, HttpHeaders headers) {
+
+		Map<String, String> directives = parseDirectives(headers.get(HttpHeaders.CACHE_CONTROL));
+		return getFreshnessLifetime(requestHeaders, status, headers, directives);
+	}
+
+	private static long getFreshnessLifetime(Function<String, List<String>> requestHeaders,
+			int status, HttpHeaders headers, Map<String, String> directives) {
+
+		if (!CACHEABLE_STATUSES.contains(status) ||
+				headers.containsKey(HttpHeaders.SET_COOKIE) || headers.getVary().contains("*")) {
+			return -1;
+		}
+		if (directives.containsKey("no-store") || directives.containsKey("no-cache") ||
+				directives.containsKey("private")) {
+			return -1;
+		}
+		List<String> authorization = requestHeaders.apply(HttpHeaders.AUTHORIZATION);
+		if (authorization != null && !authorization.isEmpty() &&
+				!directives.containsKey("public") && !directives.containsKey("s-maxage")) {
+			return -1;
+		}
+		String maxAge = directives.get("s-maxage");
+		return parseSeconds(maxAge != null ? maxAge : directives.get("max-age"));
+	}
+
+	/**
+	 * Create an entry for the given response, or return {@code null} if it is
+	 * not cacheable.
+	 * @param requestHeaders the values of a request header by name
+	 * @param status the response status
+	 * @param headers the response headers, copied into the entry
+	 * @param body the response body
+	 * @param bodySize the size of the body in bytes
+	 * @param now the current time in milliseconds
+	 */
+	@Nullable
+	public Entry<B> createEntry(Function<String, List<String>> requestHeaders,
+			int status, HttpHeaders headers, B body, int bodySize, long now) {
+
+		Map<String, String> directives = parseDirectives(headers.get(HttpHeaders.CACHE_CONTROL));
+		long lifetime = getFreshnessLifetime(requestHeaders, status, headers, directives);
+		if (lifetime < 0) {
+			return null;
+		}
+		long staleWhileRevalidate = Math.max(parseSeconds(directives.get("stale-while-revalidate")), 0);
+		Map<String, List<String>> varyValues = new HashMap<>();
+		for (String name : headers.getVary()) {
+			varyValues.put(name.toLowerCase(Locale.ENGLISH), getValues(requestHeaders, name));
+		}
+		return new Entry<>(status, headers, body, bodySize, varyValues, this.releaseFunction,
+				now, now + lifetime * 1000, now + (lifetime + staleWhileRevalidate) * 1000);
+	}
+
+	/**
+	 * Find the entry for the given key that matches the given request headers,
+	 * unless it is stale beyond its {@code stale-while-revalidate} period, in
+	 * which case it is removed.
+	 * @param key the cache key, typically derived from the request URL
+	 * @param requestHeaders the values of a request header by name
+	 * @param now the current time in milliseconds
+	 */
+	@Nullable
+	public Entry<B> lookup(String key, Function<String, List<String>> requestHeaders, long now) {
+		List<Entry<B>> entries = this.cache.get(key);
+		if (entries == null) {
+			return null;
+		}
+		for (Entry<B> entry : entries) {
+			if (entry.matches(requestHeaders)) {
+				if (now >= entry.staleUntil) {
+					remove(key, entry);
+					return null;
+				}
+				if (!entry.accessed) {
+					entry.accessed = true;
+				}
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Store the given entry, replacing an existing entry for the same key and
+	 * request header values, and evict entries if the maximum size is exceeded.
+	 */
+	public void store(String key, Entry<B> entry) {
+		List<Entry<B>> replaced = new ArrayList<>(1);
+		entry.key = key;
+		this.cache.compute(key, (k, entries) -> {
+			List<Entry<B>> newEntries = new ArrayList<>(entries != null ? entries.size() + 1 : 1);
+			if (entries != null) {
+				for (Entry<B> existing : entries) {
+					if (existing.varyValues.equals(entry.varyValues)) {
+						replaced.add(existing);
+					}
+					else {
+						newEntries.add(existing);
+					}
+				}
+			}
+			newEntries.add(entry);
+			return newEntries;
+		});
+		this.size.addAndGet(entry.size);
+		this.entryCount.incrementAndGet();
+		this.evictionQueue.add(entry);
+		replaced.forEach(this::discard);
+		evictIfNecessary();
+	}
+
+	/**
+	 * Remove the given entry, unless it has been removed or replaced already.
+	 */
+	public void remove(String key, Entry<B> entry) {
+		this.cache.computeIfPresent(key, (k, entries) -> {
+			if (!entries.contains(entry)) {
+				return entries;
+			}
+			List<Entry<B>> newEntries = new ArrayList<>(entries);
+			newEntries.remove(entry);
+			return (!newEntries.isEmpty() ? newEntries : null);
+		});
+		discard(entry);
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void clear() {
+		this.cache.forEach((key, entries) -> entries.forEach(entry -> remove(key, entry)));
+	}
+
+	private void discard(Entry<B> entry) {
+		if (entry.removed.compareAndSet(false, true)) {
+			this.size.addAndGet(-entry.size);
+			this.entryCount.decrementAndGet();
+			this.removedEntryCount.incrementAndGet();
+			entry.release();
+		}
+	}
+
+	private void evictIfNecessary() {
+		// Re-check after unlocking: a thread that failed to acquire the lock
+		// relies on the current lock holder, which may have missed its entry.
+		while ((this.size.get() > this.maxSize || hasTooManyRemovedEntries()) && this.evictionLock.tryLock()) {
+			try {
+				// Spare accessed entries once each, so that concurrent lookups
+				// cannot keep the eviction from making progress
+				int secondChances = this.entryCount.get();
+				Entry<B> entry;
+				while (this.size.get() > this.maxSize && (entry = this.evictionQueue.poll()) != null) {
+					if (!entry.removed.get()) {
+						if (entry.accessed && secondChances-- > 0) {
+							entry.accessed = false;
+							this.evictionQueue.add(entry);
+							continue;
+						}
+						remove(entry.key, entry);
+					}
+					this.removedEntryCount.decrementAndGet();
+				}
+				if (hasTooManyRemovedEntries()) {
+					// Replaced and expired entries are only polled on eviction
+					int purged = 0;
+					for (Iterator<Entry<B>> iterator = this.evictionQueue.iterator(); iterator.hasNext();) {
+						if (iterator.next().removed.get()) {
+							iterator.remove();
+							purged++;
+						}
+					}
+					this.removedEntryCount.addAndGet(-purged);
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private boolean hasTooManyRemovedEntries() {
+		int removedEntryCount = this.removedEntryCount.get();
+		return (removedEntryCount > 64 && removedEntryCount > this.entryCount.get());
+	}
+
+
+	private static Map<String, String> parseDirectives(@Nullable List<String> values) {
+		if (values == null || values.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> directives = new HashMap<>();
+		for (String value : values) {
+			for (String directive : StringUtils.tokenizeToStringArray(value, ",")) {
+				int index = directive.indexOf('=');
+				if (index != -1) {
+					String argument = directive.substring(index + 1).trim();
+					if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+						argument = argument.substring(1, argument.length() - 1);
+					}
+					directives.put(directive.substring(0, index).trim().toLowerCase(Locale.ENGLISH), argument);
+				}
+				else {
+					directives.put(directive.toLowerCase(Locale.ENGLISH), "");
+				}
+			}
+		}
+		return directives;
+	}
+
+	private static long parseSeconds(@Nullable String value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	private static List<String> getValues(Function<String, List<String>> requestHeaders, String name) {
+		List<String> values = requestHeaders.apply(name);
+		return (values != null ? values : Collections.emptyList());
+	}
+
+
+	/**
+	 * A stored response, with the request header values it varies by.
+	 * @param <B> the type of the response body
+	 */
+	public static final class Entry<B> {
+
+		private final int status;
+
+		private final HttpHeaders headers;
+
+		private final B body;
+
+		private final Map<String, List<String>> varyValues;
+
+		private final Consumer<? super B> releaseFunction;
+
+		private final long storedTime;
+
+		private final long freshUntil;
+
+		private final long staleUntil;
+
+		private final long size;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		private final AtomicBoolean removed = new AtomicBoolean();
+
+		private final AtomicBoolean revalidating = new AtomicBoolean();
+
+		// Set once the entry is stored, before it is published
+		private String key = "";
+
+		private volatile boolean accessed;
+
+		Entry(int status, HttpHeaders headers, B body, int bodySize, Map<String, List<String>> varyValues,
+				Consumer<? super B> releaseFunction, long storedTime, long freshUntil, long staleUntil) {
+
+			HttpHeaders headersToUse = new HttpHeaders();
+			headers.forEach((name, values) -> headersToUse.put(name, new ArrayList<>(values)));
+			this.status = status;
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headersToUse);
+			this.body = body;
+			this.varyValues = varyValues;
+			this.releaseFunction = releaseFunction;
+			this.storedTime = storedTime;
+			this.freshUntil = freshUntil;
+			this.staleUntil = staleUntil;
+			this.size = bodySize + headersToUse.toString().length();
+		}
+
+		/**
+		 * Return the response status.
+		 */
+		public int getStatus() {
+			return this.status;
+		}
+
+		/**
+		 * Return the read-only response headers.
+		 */
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		/**
+		 * Return the response body, which must only be accessed while the
+		 * entry is {@link #retain() retained} if it may be released.
+		 */
+		public B getBody() {
+			return this.body;
+		}
+
+		/**
+		 * Return the age of the response, in seconds, for the given current time.
+		 */
+		public long getAge(long now) {
+			return (now - this.storedTime) / 1000;
+		}
+
+		/**
+		 * Whether the response is still fresh at the given current time.
+		 */
+		public boolean isFresh(long now) {
+			return (now < this.freshUntil);
+		}
+
+		/**
+		 * Try to mark the stale response as being revalidated.
+		 * @return {@code true} if the caller is to revalidate the response, or
+		 * {@code false} if another request revalidates it already
+		 */
+		public boolean startRevalidation() {
+			return this.revalidating.compareAndSet(false, true);
+		}
+
+		/**
+		 * Mark the revalidation of the response as finished.
+		 */
+		public void finishRevalidation() {
+			this.revalidating.set(false);
+		}
+
+		/**
+		 * Retain the body of this entry until {@link #release()} is called.
+		 * @return {@code false} if the entry has been removed and its body
+		 * released already
+		 */
+		public boolean retain() {
+			while (true) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					return false;
+				}
+				if (this.refCount.compareAndSet(count, count + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Release a previous {@link #retain() retain}, releasing the body once
+		 * the entry has been removed and no longer retained.
+		 */
+		public void release() {
+			if (this.refCount.decrementAndGet() == 0) {
+				this.releaseFunction.accept(this.body);
+			}
+		}
+
+		boolean matches(Function<String, List<String>> requestHeaders) {
+			for (Map.Entry<String, List<String>> entry : this.varyValues.entrySet()) {
+				if (!entry.getValue().equals(getValues(requestHeaders, entry.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
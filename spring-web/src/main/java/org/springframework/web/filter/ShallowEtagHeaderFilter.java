@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,16 +18,21 @@ package org.springframework.web.filter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.DigestUtils;
 import org.springframework.web.util.ContentCachingResponseWrapper;
@@ -43,6 +48,11 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>By default, the complete response body is buffered before the ETag is
+ * computed. With a {@link #setStreamingThreshold streaming threshold}, the
+ * ETag is computed incrementally as the body is written instead, and a body
+ * that exceeds the threshold is passed through without an ETag.
+ *
  * <p><b>NOTE:</b> As of Spring Framework 5.0, this filter uses request/response
  * decorators built on the Servlet 3.1 API.
  *
@@ -61,6 +71,8 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private int streamingThreshold = -1;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -81,6 +93,28 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the number of bytes of the response body up to which the body is
+	 * buffered in order to compute an ETag. The MD5 hash of the body is then
+	 * computed incrementally as it is written, rather than through
+	 * {@link #generateETagHeaderValue}, and a body exceeding the threshold is
+	 * passed through to the response as it is written, without an ETag.
+	 * <p>By default this is set to -1, in which case the complete body is
+	 * buffered and the ETag is computed once it has been written.
+	 * @since 5.2
+	 */
+	public void setStreamingThreshold(int streamingThreshold) {
+		this.streamingThreshold = streamingThreshold;
+	}
+
+	/**
+	 * Return the configured streaming threshold.
+	 * @since 5.2
+	 */
+	public int getStreamingThreshold() {
+		return this.streamingThreshold;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -97,7 +131,9 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-			responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+			responseToUse = (this.streamingThreshold >= 0 ?
+					new HashingContentCachingResponseWrapper(response, request, this.streamingThreshold) :
+					new HttpStreamingAwareContentCachingResponseWrapper(response, request));
 		}
 
 		filterChain.doFilter(request, responseToUse);
@@ -113,12 +149,18 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		Assert.notNull(responseWrapper, "ContentCachingResponseWrapper not found");
 		HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
 		int statusCode = responseWrapper.getStatusCode();
+		if (responseWrapper instanceof HashingContentCachingResponseWrapper) {
+			((HashingContentCachingResponseWrapper) responseWrapper).flushWriter();
+		}
 
-		if (rawResponse.isCommitted()) {
+		if (rawResponse.isCommitted() || (responseWrapper instanceof HashingContentCachingResponseWrapper &&
+				((HashingContentCachingResponseWrapper) responseWrapper).isPassThrough())) {
 			responseWrapper.copyBodyToResponse();
 		}
 		else if (isEligibleForEtag(request, responseWrapper, statusCode, responseWrapper.getContentInputStream())) {
-			String responseETag = generateETagHeaderValue(responseWrapper.getContentInputStream(), this.writeWeakETag);
+			String responseETag = (responseWrapper instanceof HashingContentCachingResponseWrapper ?
+					((HashingContentCachingResponseWrapper) responseWrapper).getETag(this.writeWeakETag) :
+					generateETagHeaderValue(responseWrapper.getContentInputStream(), this.writeWeakETag));
 			rawResponse.setHeader(HttpHeaders.ETAG, responseETag);
 			String requestETag = request.getHeader(HttpHeaders.IF_NONE_MATCH);
 			if (requestETag != null && ("*".equals(requestETag) || compareETagHeaderValue(requestETag, responseETag))) {
@@ -230,4 +272,201 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		}
 	}
 
+
+	/**
+	 * Variant of the content caching wrapper that computes the MD5 hash of the
+	 * body as it is written, and passes the body through to the response once
+	 * it exceeds the streaming threshold.
+	 */
+	private static class HashingContentCachingResponseWrapper extends ContentCachingResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private final int threshold;
+
+		private final MessageDigest digest;
+
+		private boolean passThrough;
+
+		@Nullable
+		private Long contentLength;
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		public HashingContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int threshold) {
+
+			super(response);
+			this.request = request;
+			this.threshold = threshold;
+			try {
+				this.digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				this.outputStream = new HashingServletOutputStream(super.getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
+						characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			flushWriter();
+			if (this.passThrough) {
+				getResponse().flushBuffer();
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			if (this.passThrough) {
+				getResponse().setContentLength(len);
+			}
+			else {
+				super.setContentLength(len);
+				this.contentLength = (long) len;
+			}
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (this.passThrough) {
+				getResponse().setContentLengthLong(len);
+			}
+			else {
+				super.setContentLengthLong(len);
+				this.contentLength = len;
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			flushWriter();
+			super.resetBuffer();
+			this.digest.reset();
+		}
+
+		@Override
+		public void reset() {
+			flushWriter();
+			super.reset();
+			this.digest.reset();
+			this.contentLength = null;
+		}
+
+		/**
+		 * Flush the characters buffered by the writer, if any, to the
+		 * output stream, hashing them.
+		 */
+		public void flushWriter() {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+		}
+
+		/**
+		 * Whether the body exceeded the threshold and was passed through.
+		 */
+		public boolean isPassThrough() {
+			return this.passThrough;
+		}
+
+		/**
+		 * Return the ETag computed from the body written so far.
+		 */
+		public String getETag(boolean isWeak) {
+			StringBuilder builder = new StringBuilder(37);
+			if (isWeak) {
+				builder.append("W/");
+			}
+			builder.append("\"0");
+			DigestUtils.appendMd5DigestAsHex(this.digest, builder);
+			builder.append('"');
+			return builder.toString();
+		}
+
+		private boolean shouldPassThrough(int length) throws IOException {
+			if (!this.passThrough && (getContentSize() + length > this.threshold ||
+					isContentCachingDisabled(this.request))) {
+				this.passThrough = true;
+				copyBodyToResponse(false);
+				// Only forwarded by copyBodyToResponse if some content was cached
+				HttpServletResponse rawResponse = (HttpServletResponse) getResponse();
+				if (this.contentLength != null && !rawResponse.isCommitted()) {
+					rawResponse.setContentLengthLong(this.contentLength);
+				}
+			}
+			return this.passThrough;
+		}
+
+
+		private class HashingServletOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream os;
+
+			public HashingServletOutputStream(ServletOutputStream os) {
+				this.os = os;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				if (shouldPassThrough(1)) {
+					getResponse().getOutputStream().write(b);
+				}
+				else {
+					digest.update((byte) b);
+					this.os.write(b);
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				if (shouldPassThrough(len)) {
+					getResponse().getOutputStream().write(b, off, len);
+				}
+				else {
+					digest.update(b, off, len);
+					this.os.write(b, off, len);
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (passThrough) {
+					getResponse().getOutputStream().flush();
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.os.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.os.setWriteListener(writeListener);
+			}
+		}
+	}
+
 }
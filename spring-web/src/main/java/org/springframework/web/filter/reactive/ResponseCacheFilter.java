@@ -0,0 +1,300 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.ResponseCacheStore;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Reactive {@link WebFilter} that caches responses to {@code GET} requests in
+ * memory, as instructed by their {@code Cache-Control} header, and serves
+ * subsequent requests for the same URL from the cache without invoking the
+ * rest of the filter chain.
+ *
+ * <p>A response is stored if it has a cacheable status and a {@code max-age}
+ * or {@code s-maxage} directive, unless it has a {@code no-store},
+ * {@code no-cache} or {@code private} directive, or {@code Vary: *}.
+ * Responses to requests with an {@code Authorization} header are only stored
+ * with a {@code public} or {@code s-maxage} directive. Separate variants are
+ * stored for the request header values named by the {@code Vary} header.
+ * Requests with a {@code no-store} directive bypass the cache, while requests
+ * with a {@code no-cache} or {@code max-age=0} directive are not served from
+ * the cache but may refresh it.
+ *
+ * <p>Once a response is stale, it may still be served within the period of a
+ * {@code stale-while-revalidate} directive: a single request then goes through
+ * the filter chain to refresh the cache, while concurrent requests are served
+ * the stale response. Since a request cannot be repeated once its body has been
+ * consumed, the refresh is not done in the background.
+ *
+ * <p>Response bodies are passed through as they are written, while retained
+ * slices of the written data buffers, which may be pooled, are captured until
+ * the body exceeds the {@link #setMaxEntrySize(int) maxEntrySize}. Each cached
+ * response is written as a retained slice of the captured body. The total size
+ * of cached responses is bounded by {@link #setMaxSize(long) maxSize}, with the
+ * least recently used responses evicted first. Responses are held in a
+ * {@link ResponseCacheStore}, which serves lookups without locking.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see org.springframework.web.filter.ResponseCacheFilter
+ */
+public class ResponseCacheFilter implements WebFilter {
+
+	private final ResponseCacheStore<DataBuffer> store = new ResponseCacheStore<>(DataBufferUtils::release);
+
+	private int maxEntrySize = 1024 * 1024;
+
+	private Clock clock = Clock.systemUTC();
+
+
+	/**
+	 * Set the maximum total size, in bytes, of cached responses. Once it is
+	 * exceeded, the least recently used responses are evicted.
+	 * <p>By default this is set to 10 MB.
+	 */
+	public void setMaxSize(long maxSize) {
+		this.store.setMaxSize(maxSize);
+	}
+
+	/**
+	 * Return the configured maximum total size of cached responses.
+	 */
+	public long getMaxSize() {
+		return this.store.getMaxSize();
+	}
+
+	/**
+	 * Set the maximum size, in bytes, of the body of a single cached response.
+	 * Larger responses are passed through without being cached.
+	 * <p>By default this is set to 1 MB.
+	 */
+	public void setMaxEntrySize(int maxEntrySize) {
+		Assert.isTrue(maxEntrySize > 0, "Max entry size must be greater than 0");
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the configured maximum size of a single cached response body.
+	 */
+	public int getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to determine the age of cached
+	 * responses.
+	 * <p>By default this is {@link Clock#systemUTC()}.
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the current total size of cached responses, in bytes.
+	 */
+	public long getSize() {
+		return this.store.getSize();
+	}
+
+	/**
+	 * Remove all cached responses.
+	 */
+	public void clear() {
+		this.store.clear();
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		if (request.getMethod() != HttpMethod.GET) {
+			return chain.filter(exchange);
+		}
+		Function<String, List<String>> requestHeaders = request.getHeaders()::get;
+		if (ResponseCacheStore.isBypassed(requestHeaders)) {
+			return chain.filter(exchange);
+		}
+
+		String key = request.getMethodValue() + " " + request.getURI();
+		ResponseCacheStore.Entry<DataBuffer> stale = null;
+		if (ResponseCacheStore.isLookupAllowed(requestHeaders)) {
+			long now = this.clock.millis();
+			ResponseCacheStore.Entry<DataBuffer> cached = this.store.lookup(key, requestHeaders, now);
+			if (cached != null) {
+				if (cached.isFresh(now) || !cached.startRevalidation()) {
+					if (cached.retain()) {
+						return writeCachedResponse(exchange.getResponse(), cached, now);
+					}
+				}
+				else {
+					stale = cached;
+				}
+			}
+		}
+
+		CachingResponseDecorator response = new CachingResponseDecorator(exchange, key, stale);
+		Mono<Void> result = chain.filter(exchange.mutate().response(response).build());
+		if (stale != null) {
+			ResponseCacheStore.Entry<DataBuffer> revalidated = stale;
+			result = result.doFinally(signalType -> revalidated.finishRevalidation());
+		}
+		return result;
+	}
+
+	/**
+	 * Write the given retained cached response with a retained slice of its body,
+	 * and release the cached response.
+	 */
+	private Mono<Void> writeCachedResponse(ServerHttpResponse response,
+			ResponseCacheStore.Entry<DataBuffer> cached, long now) {
+
+		DataBuffer body;
+		try {
+			body = cached.getBody().retainedSlice(0, cached.getBody().readableByteCount());
+		}
+		finally {
+			cached.release();
+		}
+		response.setStatusCode(HttpStatus.valueOf(cached.getStatus()));
+		cached.getHeaders().forEach((name, values) -> response.getHeaders().put(name, new ArrayList<>(values)));
+		response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.getAge(now)));
+		return response.writeWith(Mono.just(body));
+	}
+
+	private static int getStatus(@Nullable HttpStatus status) {
+		return (status != null ? status : HttpStatus.OK).value();
+	}
+
+
+	/**
+	 * Response decorator that captures the response body as it passes through,
+	 * and caches the response once the body has been written completely.
+	 */
+	private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+		private final ServerHttpRequest request;
+
+		private final String key;
+
+		@Nullable
+		private final ResponseCacheStore.Entry<DataBuffer> stale;
+
+		@Nullable
+		private List<DataBuffer> captured = new ArrayList<>();
+
+		private long capturedSize;
+
+		CachingResponseDecorator(ServerWebExchange exchange, String key,
+				@Nullable ResponseCacheStore.Entry<DataBuffer> stale) {
+
+			super(exchange.getResponse());
+			this.request = exchange.getRequest();
+			this.key = key;
+			this.stale = stale;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			HttpStatus status = getStatusCode();
+			HttpHeaders headers = getHeaders();
+			long lifetime = ResponseCacheStore.getFreshnessLifetime(
+					this.request.getHeaders()::get, getStatus(status), headers);
+			if (lifetime < 0 || !getCookies().isEmpty()) {
+				if (this.stale != null) {
+					store.remove(this.key, this.stale);
+				}
+				return super.writeWith(body);
+			}
+			if (headers.getContentLength() > maxEntrySize) {
+				return super.writeWith(body);
+			}
+			return super.writeWith(Flux.from(body)
+					.doOnNext(this::capture)
+					.doOnComplete(() -> storeCaptured(status, headers))
+					.doFinally(signalType -> discardCaptured()));
+		}
+
+		/**
+		 * Capture a retained slice of the given buffer, or give up caching
+		 * once the body exceeds the maximum entry size.
+		 */
+		private void capture(DataBuffer buffer) {
+			List<DataBuffer> captured = this.captured;
+			if (captured != null) {
+				this.capturedSize += buffer.readableByteCount();
+				if (this.capturedSize > maxEntrySize) {
+					discardCaptured();
+				}
+				else {
+					captured.add(buffer.retainedSlice(buffer.readPosition(), buffer.readableByteCount()));
+				}
+			}
+		}
+
+		private void storeCaptured(@Nullable HttpStatus status, HttpHeaders headers) {
+			List<DataBuffer> captured = this.captured;
+			this.captured = null;
+			if (captured != null) {
+				DataBuffer body = (!captured.isEmpty() ? bufferFactory().join(captured) :
+						bufferFactory().allocateBuffer(0));
+				ResponseCacheStore.Entry<DataBuffer> cached = store.createEntry(this.request.getHeaders()::get,
+						getStatus(status), headers, body, body.readableByteCount(), clock.millis());
+				if (cached != null) {
+					store.store(this.key, cached);
+				}
+				else {
+					DataBufferUtils.release(body);
+					if (this.stale != null) {
+						store.remove(this.key, this.stale);
+					}
+				}
+			}
+		}
+
+		private void discardCaptured() {
+			List<DataBuffer> captured = this.captured;
+			this.captured = null;
+			if (captured != null) {
+				captured.forEach(DataBufferUtils::release);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Reactive {@link WebFilter} that generates an {@code ETag} value based on the
+ * content of the response to a {@code GET} or {@code HEAD} request. This ETag
+ * is compared to the {@code If-None-Match} header of the request. If these
+ * headers are equal, the response content is not sent, but rather a
+ * {@code 304 "Not Modified"} status instead.
+ *
+ * <p>The MD5 hash of the response body is computed incrementally as the data
+ * buffers are written, while the buffers are held back until the body is
+ * complete, since the ETag header has to be sent before the body. A body
+ * exceeding the {@link #setStreamingThreshold streaming threshold} is
+ * passed through as it is written, without an ETag, and so is a body that is
+ * written with {@link ServerHttpResponse#writeAndFlushWith writeAndFlushWith}.
+ *
+ * <p>Since the ETag is based on the response content, the response is still
+ * rendered. As such, this filter only saves bandwidth, not server performance.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see org.springframework.web.filter.ShallowEtagHeaderFilter
+ */
+public class ShallowEtagHeaderFilter implements WebFilter {
+
+	private static final String DIRECTIVE_NO_STORE = "no-store";
+
+
+	private boolean writeWeakETag = false;
+
+	private int streamingThreshold = 256 * 1024;
+
+
+	/**
+	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
+	 * <p>The default is {@code false}.
+	 * @see <a href="https://tools.ietf.org/html/rfc7232#section-2.3">RFC 7232 section 2.3</a>
+	 */
+	public void setWriteWeakETag(boolean writeWeakETag) {
+		this.writeWeakETag = writeWeakETag;
+	}
+
+	/**
+	 * Return whether the ETag value written to the response should be weak, as per RFC 7232.
+	 */
+	public boolean isWriteWeakETag() {
+		return this.writeWeakETag;
+	}
+
+	/**
+	 * Set the number of bytes of the response body up to which the body is
+	 * held back in order to compute an ETag. A body exceeding the threshold
+	 * is passed through to the response as it is written, without an ETag.
+	 * <p>By default this is set to 256K.
+	 */
+	public void setStreamingThreshold(int streamingThreshold) {
+		this.streamingThreshold = streamingThreshold;
+	}
+
+	/**
+	 * Return the configured streaming threshold.
+	 */
+	public int getStreamingThreshold() {
+		return this.streamingThreshold;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		if (!HttpMethod.GET.equals(request.getMethod()) && !HttpMethod.HEAD.equals(request.getMethod())) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = new EtagResponseDecorator(exchange.getResponse(), request);
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+	/**
+	 * Indicates whether the given response is eligible for ETag generation.
+	 * <p>The default implementation returns {@code true} if the response
+	 * status code is in the {@code 2xx} series, and the response Cache-Control
+	 * header is not set or does not contain a "no-store" directive.
+	 * @param response the HTTP response
+	 * @return {@code true} if eligible for ETag generation, {@code false} otherwise
+	 */
+	protected boolean isEligibleForEtag(ServerHttpResponse response) {
+		HttpStatus statusCode = response.getStatusCode();
+		if (statusCode == null || statusCode.is2xxSuccessful()) {
+			String cacheControl = response.getHeaders().getCacheControl();
+			return (cacheControl == null || !cacheControl.contains(DIRECTIVE_NO_STORE));
+		}
+		return false;
+	}
+
+	private static boolean compareETagHeaderValue(String requestETag, String responseETag) {
+		if (requestETag.startsWith("W/")) {
+			requestETag = requestETag.substring(2);
+		}
+		if (responseETag.startsWith("W/")) {
+			responseETag = responseETag.substring(2);
+		}
+		return requestETag.equals(responseETag);
+	}
+
+
+	private class EtagResponseDecorator extends ServerHttpResponseDecorator {
+
+		private final ServerHttpRequest request;
+
+		public EtagResponseDecorator(ServerHttpResponse delegate, ServerHttpRequest request) {
+			super(delegate);
+			this.request = request;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!isEligibleForEtag(getDelegate())) {
+				return super.writeWith(body);
+			}
+			BodyDigest bodyDigest = new BodyDigest(streamingThreshold);
+			return super.writeWith(Flux.<DataBuffer>from(body)
+					.bufferUntil(bodyDigest::update)
+					.defaultIfEmpty(Collections.emptyList())
+					.concatMap(buffers -> bodyDigest.isPassThrough() ?
+							Flux.fromIterable(buffers) : completeBody(buffers, bodyDigest))
+					.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release));
+		}
+
+		private Flux<DataBuffer> completeBody(List<DataBuffer> buffers, BodyDigest bodyDigest) {
+			String responseETag = bodyDigest.getETag(writeWeakETag);
+			HttpHeaders headers = getHeaders();
+			headers.setETag(responseETag);
+			for (String requestETag : this.request.getHeaders().getIfNoneMatch()) {
+				if ("*".equals(requestETag) || compareETagHeaderValue(requestETag, responseETag)) {
+					setStatusCode(HttpStatus.NOT_MODIFIED);
+					headers.remove(HttpHeaders.CONTENT_LENGTH);
+					buffers.forEach(DataBufferUtils::release);
+					return Flux.empty();
+				}
+			}
+			if (headers.getContentLength() < 0) {
+				headers.setContentLength(bodyDigest.getSize());
+			}
+			return Flux.fromIterable(buffers);
+		}
+	}
+
+
+	/**
+	 * Computes the MD5 hash of a response body as its data buffers are written,
+	 * until the body exceeds the streaming threshold.
+	 */
+	private static class BodyDigest {
+
+		private final int threshold;
+
+		@Nullable
+		private MessageDigest digest;
+
+		private long size;
+
+		public BodyDigest(int threshold) {
+			this.threshold = threshold;
+			try {
+				this.digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+			}
+		}
+
+		/**
+		 * Update the hash with the given buffer.
+		 * @return {@code true} once the body exceeds the threshold
+		 */
+		public boolean update(DataBuffer buffer) {
+			if (this.digest != null) {
+				this.size += buffer.readableByteCount();
+				if (this.size > this.threshold) {
+					this.digest = null;
+				}
+				else {
+					this.digest.update(buffer.asByteBuffer());
+				}
+			}
+			return (this.digest == null);
+		}
+
+		public boolean isPassThrough() {
+			return (this.digest == null);
+		}
+
+		public long getSize() {
+			return this.size;
+		}
+
+		public String getETag(boolean isWeak) {
+			MessageDigest digest = this.digest;
+			if (digest == null) {
+				throw new IllegalStateException("Response body exceeded the streaming threshold");
+			}
+			StringBuilder builder = new StringBuilder(37);
+			if (isWeak) {
+				builder.append("W/");
+			}
+			builder.append("\"0");
+			DigestUtils.appendMd5DigestAsHex(digest, builder);
+			builder.append('"');
+			return builder.toString();
+		}
+	}
+
+}
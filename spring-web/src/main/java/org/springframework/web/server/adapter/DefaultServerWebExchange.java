@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 import reactor.core.publisher.Flux;
@@ -93,6 +94,8 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 
 	private final Flux<Part> partFlux;
 
+	private final List<Part> readParts = new CopyOnWriteArrayList<>();
+
 	@Nullable
 	private final ApplicationContext applicationContext;
 
@@ -159,7 +162,7 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 	}
 
 	@SuppressWarnings("unchecked")
-	private static Flux<Part> initParts(ServerHttpRequest request, ServerCodecConfigurer configurer, String logPrefix) {
+	private Flux<Part> initParts(ServerHttpRequest request, ServerCodecConfigurer configurer, String logPrefix) {
 		try {
 			MediaType contentType = request.getHeaders().getContentType();
 			if (MediaType.MULTIPART_FORM_DATA.isCompatibleWith(contentType)) {
@@ -168,6 +171,7 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 						.findFirst()
 						.orElseThrow(() -> new IllegalStateException("No multipart HttpMessageReader.")))
 						.read(PARTS_DATA_TYPE, request, Hints.from(Hints.LOG_PREFIX_HINT, logPrefix))
+						.doOnNext(this.readParts::add)
 						.cache();
 			}
 		}
@@ -235,6 +239,17 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 		return this.partFlux;
 	}
 
+	/**
+	 * Delete the storage of the multipart parts read so far, e.g. temporary
+	 * files of parts whose content has not been consumed, once the exchange
+	 * has been completed or cancelled.
+	 */
+	Mono<Void> cleanupMultipart() {
+		return Flux.fromIterable(this.readParts)
+				.concatMap(part -> part.delete().onErrorResume(ex -> Mono.empty()))
+				.then();
+	}
+
 	@Override
 	public LocaleContext getLocaleContext() {
 		return this.localeContextResolver.resolveLocaleContext(this);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,28 +16,45 @@
 
 package org.springframework.web.server.session;
 
+import java.nio.ByteBuffer;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
 import reactor.core.publisher.Mono;
 
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.IdGenerator;
 import org.springframework.util.JdkIdGenerator;
+import org.springframework.util.SerializationUtils;
 import org.springframework.web.server.WebSession;
 
 /**
  * Simple Map-based storage for {@link WebSession} instances.
  *
+ * <p>Expired sessions are removed with a hashed timer wheel: every stored
+ * session is due in the one-second tick in which it expires, and checks
+ * triggered by {@link #createWebSession() create} or {@link #retrieveSession
+ * retrieve} only visit the sessions that came due since the previous check.
+ * Sessions accessed in the meantime are rescheduled when they come due.
+ *
+ * <p>Besides the {@linkplain #setMaxSessions number of sessions}, the store
+ * can limit the {@linkplain #setMaxMemorySize total size} of session
+ * attributes, and it can keep attributes serialized in {@linkplain
+ * #setOffHeap off-heap} buffers between requests.
+ *
  * @author Rossen Stoyanchev
  * @author Rob Winch
  * @since 5.0
@@ -49,10 +66,16 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 	private int maxSessions = 10000;
 
+	private long maxMemorySize = -1;
+
+	private boolean offHeap;
+
 	private Clock clock = Clock.system(ZoneId.of("GMT"));
 
 	private final Map<String, InMemoryWebSession> sessions = new ConcurrentHashMap<>();
 
+	private final AtomicLong memorySize = new AtomicLong();
+
 	private final ExpiredSessionChecker expiredSessionChecker = new ExpiredSessionChecker();
 
 
@@ -76,6 +99,53 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 		return this.maxSessions;
 	}
 
+	/**
+	 * Set the maximum total size, in bytes, of the serialized attributes of
+	 * all stored sessions. Once the limit is reached, any attempt to store an
+	 * additional or larger session will result in an {@link IllegalStateException}.
+	 * <p>The size of a session is determined by serializing its attributes
+	 * whenever it is saved, so they must be {@link java.io.Serializable}.
+	 * <p>By default set to -1, i.e. no limit.
+	 * @param maxMemorySize the maximum size in bytes, or -1 for no limit
+	 * @since 5.2
+	 */
+	public void setMaxMemorySize(long maxMemorySize) {
+		this.maxMemorySize = maxMemorySize;
+	}
+
+	/**
+	 * Return the maximum total size, in bytes, of session attributes.
+	 * @since 5.2
+	 */
+	public long getMaxMemorySize() {
+		return this.maxMemorySize;
+	}
+
+	/**
+	 * Whether to keep the attributes of stored sessions serialized in direct,
+	 * off-heap buffers between requests, reducing the heap usage of a large
+	 * number of idle sessions. Attributes are then serialized on every save
+	 * and deserialized on every retrieval, which returns a separate
+	 * {@code WebSession} instance for each request. Session attributes must
+	 * be {@link java.io.Serializable}. The buffer of a session is reused
+	 * across saves as long as the serialized attributes fit into it.
+	 * <p>This can only be changed while the store is empty.
+	 * <p>By default set to {@code false}.
+	 * @since 5.2
+	 */
+	public void setOffHeap(boolean offHeap) {
+		Assert.state(this.sessions.isEmpty(), "Cannot change storage of existing sessions");
+		this.offHeap = offHeap;
+	}
+
+	/**
+	 * Whether session attributes are kept serialized in off-heap buffers.
+	 * @since 5.2
+	 */
+	public boolean isOffHeap() {
+		return this.offHeap;
+	}
+
 	/**
 	 * Configure the {@link Clock} to use to set lastAccessTime on every created
 	 * session and to calculate if it is expired.
@@ -102,12 +172,25 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 	 * Return the map of sessions with an {@link Collections#unmodifiableMap
 	 * unmodifiable} wrapper. This could be used for management purposes, to
 	 * list active sessions, invalidate expired ones, etc.
+	 * <p>When {@linkplain #setOffHeap off-heap} storage is used, the
+	 * attributes of these sessions are deserialized on every access and
+	 * cannot be modified.
 	 * @since 5.0.8
 	 */
 	public Map<String, WebSession> getSessions() {
 		return Collections.unmodifiableMap(this.sessions);
 	}
 
+	/**
+	 * Return the total size, in bytes, of the serialized attributes of all
+	 * stored sessions, as tracked when a {@linkplain #setMaxMemorySize maximum
+	 * size} is set or {@linkplain #setOffHeap off-heap} storage is used.
+	 * @since 5.2
+	 */
+	public long getMemorySize() {
+		return this.memorySize.get();
+	}
+
 
 	@Override
 	public Mono<WebSession> createWebSession() {
@@ -125,18 +208,21 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 			return Mono.empty();
 		}
 		else if (session.isExpired(now)) {
-			this.sessions.remove(id);
+			discardSession(id, session);
 			return Mono.empty();
 		}
 		else {
 			session.updateLastAccessTime(now);
-			return Mono.just(session);
+			return Mono.just(session.isSerialized() ? new InMemoryWebSession(session) : session);
 		}
 	}
 
 	@Override
 	public Mono<Void> removeSession(String id) {
-		this.sessions.remove(id);
+		InMemoryWebSession session = this.sessions.get(id);
+		if (session != null) {
+			discardSession(id, session);
+		}
 		return Mono.empty();
 	}
 
@@ -151,7 +237,8 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 	/**
 	 * Check for expired sessions and remove them. Typically such checks are
 	 * kicked off lazily during calls to {@link #createWebSession() create} or
-	 * {@link #retrieveSession retrieve}, no less than 60 seconds apart.
+	 * {@link #retrieveSession retrieve}, once per second at most, and only
+	 * visit the sessions that came due since the previous check.
 	 * This method can be called to force a check at a specific time.
 	 * @since 5.0.8
 	 */
@@ -160,9 +247,57 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 	}
 
 
+	/**
+	 * Store the given session, updating the tracked memory size.
+	 */
+	private void storeSession(InMemoryWebSession session, long size) {
+		synchronized (session) {
+			InMemoryWebSession previous = this.sessions.put(session.getId(), session);
+			this.memorySize.addAndGet(size - (previous != null ? previous.size : 0));
+			session.size = size;
+		}
+		this.expiredSessionChecker.schedule(session);
+	}
+
+	/**
+	 * Remove the given session, if still stored under the given id.
+	 */
+	private boolean discardSession(String id, InMemoryWebSession session) {
+		synchronized (session) {
+			if (this.sessions.remove(id, session)) {
+				this.memorySize.addAndGet(-session.size);
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private void checkMaxMemorySize(long additionalSize) {
+		if (this.maxMemorySize >= 0 && this.memorySize.get() + additionalSize > this.maxMemorySize) {
+			removeExpiredSessions();
+			if (this.memorySize.get() + additionalSize > this.maxMemorySize) {
+				throw new IllegalStateException("Max memory size limit reached: " + this.memorySize.get());
+			}
+		}
+	}
+
+	private static byte[] serializeAttributes(Map<String, Object> attributes) {
+		byte[] bytes = SerializationUtils.serialize(new HashMap<>(attributes));
+		Assert.state(bytes != null, "No serialized attributes");
+		return bytes;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> deserializeAttributes(byte[] bytes) {
+		Map<String, Object> attributes = (Map<String, Object>) SerializationUtils.deserialize(bytes);
+		Assert.state(attributes != null, "No deserialized attributes");
+		return attributes;
+	}
+
+
 	private class InMemoryWebSession implements WebSession {
 
-		private final AtomicReference<String> id = new AtomicReference<>(String.valueOf(idGenerator.generateId()));
+		private final AtomicReference<String> id;
 
 		private final Map<String, Object> attributes = new ConcurrentHashMap<>();
 
@@ -172,12 +307,53 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		private volatile Duration maxIdleTime = Duration.ofMinutes(30);
 
-		private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
+		private final AtomicReference<State> state;
+
+		/** Stored copy of this session, when attributes are kept off-heap. */
+		@Nullable
+		private volatile InMemoryWebSession storedSession;
+
+		/** The serialized attributes of a stored off-heap session. */
+		@Nullable
+		private volatile ByteBuffer serializedAttributes;
+
+		/** The size counted against the max memory size of the store. */
+		private volatile long size;
+
+		/** The timer wheel tick in which this session is due, or 0. */
+		private volatile long expirationTick;
 
 
 		public InMemoryWebSession(Instant creationTime) {
+			this.id = new AtomicReference<>(String.valueOf(idGenerator.generateId()));
 			this.creationTime = creationTime;
 			this.lastAccessTime = this.creationTime;
+			this.state = new AtomicReference<>(State.NEW);
+		}
+
+		/**
+		 * Create a session for a single request from a stored off-heap session.
+		 */
+		public InMemoryWebSession(InMemoryWebSession storedSession) {
+			this.id = new AtomicReference<>(storedSession.getId());
+			this.attributes.putAll(storedSession.getAttributes());
+			this.creationTime = storedSession.creationTime;
+			this.lastAccessTime = storedSession.lastAccessTime;
+			this.maxIdleTime = storedSession.maxIdleTime;
+			this.state = new AtomicReference<>(State.STARTED);
+			this.storedSession = storedSession;
+		}
+
+		/**
+		 * Create a stored off-heap session from a session used by a request.
+		 */
+		public InMemoryWebSession(InMemoryWebSession session, byte[] serializedAttributes) {
+			this.id = new AtomicReference<>(session.getId());
+			this.creationTime = session.creationTime;
+			this.lastAccessTime = session.lastAccessTime;
+			this.maxIdleTime = session.maxIdleTime;
+			this.state = new AtomicReference<>(State.STARTED);
+			writeSerializedAttributes(serializedAttributes);
 		}
 
 		@Override
@@ -187,9 +363,50 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		@Override
 		public Map<String, Object> getAttributes() {
+			byte[] bytes = readSerializedAttributes();
+			if (bytes != null) {
+				return Collections.unmodifiableMap(deserializeAttributes(bytes));
+			}
 			return this.attributes;
 		}
 
+		/**
+		 * Copy the serialized attributes of a stored off-heap session, guarding
+		 * against a concurrent save writing into the same buffer.
+		 */
+		@Nullable
+		private byte[] readSerializedAttributes() {
+			synchronized (this) {
+				ByteBuffer buffer = this.serializedAttributes;
+				if (buffer == null) {
+					return null;
+				}
+				byte[] bytes = new byte[buffer.remaining()];
+				buffer.duplicate().get(bytes);
+				return bytes;
+			}
+		}
+
+		/**
+		 * Write the serialized attributes into the buffer of this stored off-heap
+		 * session, reusing the current buffer unless it is too small, or more
+		 * than twice the size needed.
+		 * @return the capacity of the buffer, counted against the max memory size
+		 */
+		private int writeSerializedAttributes(byte[] bytes) {
+			synchronized (this) {
+				ByteBuffer buffer = this.serializedAttributes;
+				if (buffer == null || buffer.capacity() < bytes.length || buffer.capacity() / 2 > bytes.length) {
+					buffer = ByteBuffer.allocateDirect(bytes.length);
+				}
+				buffer.clear();
+				buffer.put(bytes);
+				buffer.flip();
+				this.serializedAttributes = buffer;
+				return buffer.capacity();
+			}
+		}
+
 		@Override
 		public Instant getCreationTime() {
 			return this.creationTime;
@@ -222,25 +439,48 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		@Override
 		public Mono<Void> changeSessionId() {
-			String currentId = this.id.get();
-			InMemoryWebSessionStore.this.sessions.remove(currentId);
+			InMemoryWebSession stored = this.storedSession;
+			boolean removed = discardSession(getId(), stored != null ? stored : this);
 			String newId = String.valueOf(idGenerator.generateId());
 			this.id.set(newId);
-			InMemoryWebSessionStore.this.sessions.put(this.getId(), this);
+			if (stored != null) {
+				stored.id.set(newId);
+				if (removed) {
+					storeSession(stored, stored.size);
+				}
+			}
+			else if (removed || !offHeap) {
+				storeSession(this, this.size);
+			}
 			return Mono.empty();
 		}
 
 		@Override
 		public Mono<Void> invalidate() {
 			this.state.set(State.EXPIRED);
-			getAttributes().clear();
-			InMemoryWebSessionStore.this.sessions.remove(this.id.get());
+			this.attributes.clear();
+			this.serializedAttributes = null;
+			InMemoryWebSession stored = this.storedSession;
+			if (stored != null) {
+				stored.invalidate();
+			}
+			else {
+				discardSession(getId(), this);
+			}
 			return Mono.empty();
 		}
 
 		@Override
 		public Mono<Void> save() {
 
+			if (isSerialized()) {
+				// Stored off-heap sessions are saved through their request copies
+				return Mono.empty();
+			}
+			if (offHeap) {
+				return saveOffHeap();
+			}
+
 			checkMaxSessionsLimit();
 
 			// Implicitly started session..
@@ -249,12 +489,61 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 			}
 
 			if (isStarted()) {
+				long size = 0;
+				if (maxMemorySize >= 0) {
+					size = serializeAttributes(this.attributes).length;
+					checkMaxMemorySize(size - (sessions.get(getId()) == this ? this.size : 0));
+				}
+
 				// Save
-				InMemoryWebSessionStore.this.sessions.put(this.getId(), this);
+				storeSession(this, size);
 
 				// Unless it was invalidated
 				if (this.state.get().equals(State.EXPIRED)) {
-					InMemoryWebSessionStore.this.sessions.remove(this.getId());
+					discardSession(getId(), this);
+					return Mono.error(new IllegalStateException("Session was invalidated"));
+				}
+			}
+
+			return Mono.empty();
+		}
+
+		private Mono<Void> saveOffHeap() {
+			InMemoryWebSession stored = this.storedSession;
+			if (stored != null && sessions.get(getId()) != stored) {
+				// Invalidated or expired since retrieved
+				this.state.set(State.EXPIRED);
+				return Mono.empty();
+			}
+
+			checkMaxSessionsLimit();
+
+			// Implicitly started session..
+			if (!getAttributes().isEmpty()) {
+				this.state.compareAndSet(State.NEW, State.STARTED);
+			}
+
+			if (isStarted()) {
+				byte[] bytes = serializeAttributes(this.attributes);
+				checkMaxMemorySize(bytes.length - (stored != null ? stored.size : 0));
+
+				// Save
+				int size;
+				if (stored != null) {
+					stored.lastAccessTime = this.lastAccessTime;
+					stored.maxIdleTime = this.maxIdleTime;
+					size = stored.writeSerializedAttributes(bytes);
+				}
+				else {
+					stored = new InMemoryWebSession(this, bytes);
+					this.storedSession = stored;
+					size = bytes.length;
+				}
+				storeSession(stored, size);
+
+				// Unless it was invalidated
+				if (this.state.get().equals(State.EXPIRED) || stored.state.get().equals(State.EXPIRED)) {
+					stored.invalidate();
 					return Mono.error(new IllegalStateException("Session was invalidated"));
 				}
 			}
@@ -294,48 +583,126 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		private void updateLastAccessTime(Instant currentTime) {
 			this.lastAccessTime = currentTime;
+			InMemoryWebSession stored = this.storedSession;
+			if (stored != null) {
+				stored.lastAccessTime = currentTime;
+			}
+		}
+
+		private boolean isSerialized() {
+			return (this.serializedAttributes != null);
 		}
 	}
 
 
+	/**
+	 * Hashed timer wheel with one-second ticks, holding each stored session
+	 * in the bucket of the tick in which it is due to expire.
+	 */
 	private class ExpiredSessionChecker {
 
-		/** Max time between expiration checks. */
-		private static final int CHECK_PERIOD = 60 * 1000;
+		/** Duration of a tick, in milliseconds. */
+		private static final long TICK_DURATION = 1000;
 
+		/** Number of buckets, covering a little over an hour of ticks. */
+		private static final int WHEEL_SIZE = 4096;
+
+
+		private final AtomicReferenceArray<Set<InMemoryWebSession>> buckets = new AtomicReferenceArray<>(WHEEL_SIZE);
 
 		private final ReentrantLock lock = new ReentrantLock();
 
-		private Instant checkTime = clock.instant().plus(CHECK_PERIOD, ChronoUnit.MILLIS);
+		private volatile long currentTick = toTick(clock.instant());
 
 
 		public void checkIfNecessary(Instant now) {
-			if (this.checkTime.isBefore(now)) {
+			if (toTick(now) > this.currentTick) {
 				removeExpiredSessions(now);
 			}
 		}
 
-		public void removeExpiredSessions(Instant now) {
-			if (sessions.isEmpty()) {
+		/**
+		 * Schedule the given stored session, unless it is due earlier already:
+		 * if it has been accessed in the meantime, it is rescheduled then.
+		 */
+		public void schedule(InMemoryWebSession session) {
+			Duration maxIdleTime = session.getMaxIdleTime();
+			if (maxIdleTime.isNegative()) {
+				return;
+			}
+			long tick = Math.max(toTick(session.getLastAccessTime().plus(maxIdleTime)) + 1, this.currentTick + 1);
+			long scheduledTick = session.expirationTick;
+			if (scheduledTick != 0 && scheduledTick <= tick) {
 				return;
 			}
+			session.expirationTick = tick;
+			getBucket(tick).add(session);
+		}
+
+		public void removeExpiredSessions(Instant now) {
 			if (this.lock.tryLock()) {
 				try {
-					Iterator<InMemoryWebSession> iterator = sessions.values().iterator();
-					while (iterator.hasNext()) {
-						InMemoryWebSession session = iterator.next();
-						if (session.isExpired(now)) {
-							iterator.remove();
-							session.invalidate();
-						}
+					long previousTick = this.currentTick;
+					long nowTick = toTick(now);
+					this.currentTick = nowTick;
+					long ticks = Math.min(nowTick - previousTick, WHEEL_SIZE);
+					for (long i = 1; i <= ticks; i++) {
+						expireBucket(previousTick + i, nowTick, now);
 					}
 				}
 				finally {
-					this.checkTime = now.plus(CHECK_PERIOD, ChronoUnit.MILLIS);
 					this.lock.unlock();
 				}
 			}
 		}
+
+		private void expireBucket(long tick, long nowTick, Instant now) {
+			int index = (int) (tick & (WHEEL_SIZE - 1));
+			Set<InMemoryWebSession> bucket = this.buckets.get(index);
+			if (bucket == null) {
+				return;
+			}
+			Iterator<InMemoryWebSession> iterator = bucket.iterator();
+			while (iterator.hasNext()) {
+				InMemoryWebSession session = iterator.next();
+				long scheduledTick = session.expirationTick;
+				if (scheduledTick > nowTick) {
+					// Due in a later revolution, or rescheduled to an earlier bucket
+					if ((scheduledTick & (WHEEL_SIZE - 1)) != index) {
+						iterator.remove();
+					}
+					continue;
+				}
+				iterator.remove();
+				session.expirationTick = 0;
+				if (sessions.get(session.getId()) != session) {
+					// Removed in the meantime
+					continue;
+				}
+				if (session.isExpired(now)) {
+					session.invalidate();
+				}
+				else {
+					schedule(session);
+				}
+			}
+		}
+
+		private Set<InMemoryWebSession> getBucket(long tick) {
+			int index = (int) (tick & (WHEEL_SIZE - 1));
+			Set<InMemoryWebSession> bucket = this.buckets.get(index);
+			if (bucket == null) {
+				bucket = ConcurrentHashMap.newKeySet();
+				if (!this.buckets.compareAndSet(index, null, bucket)) {
+					bucket = this.buckets.get(index);
+				}
+			}
+			return bucket;
+		}
+
+		private long toTick(Instant instant) {
+			return instant.toEpochMilli() / TICK_DURATION;
+		}
 	}
 
 
@@ -20,13 +20,16 @@ import java.net.URLDecoder;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
@@ -48,6 +51,15 @@ import org.springframework.util.StringUtils;
  */
 public class UrlPathHelper {
 
+	/**
+	 * Name of the request attribute under which the lookup path resolved via
+	 * {@link #resolveAndCacheLookupPath(HttpServletRequest)} is cached.
+	 * Use {@link #getResolvedLookupPath(ServletRequest)} to access it.
+	 * @since 5.2
+	 * @see #getResolvedLookupPath(ServletRequest)
+	 */
+	public static final String PATH_ATTRIBUTE = UrlPathHelper.class.getName() + ".PATH";
+
 	/**
 	 * Special WebSphere request attribute, indicating the original request URI.
 	 * Preferable over the standard Servlet 2.4 forward attribute on WebSphere,
@@ -163,20 +175,64 @@ public class UrlPathHelper {
 	 * @see #getPathWithinApplication
 	 */
 	public String getLookupPathForRequest(HttpServletRequest request) {
+		String pathWithinApp = getPathWithinApplication(request);
 		// Always use full path within current servlet context?
 		if (this.alwaysUseFullPath) {
-			return getPathWithinApplication(request);
+			return pathWithinApp;
 		}
 		// Else, use path within current servlet mapping if applicable
-		String rest = getPathWithinServletMapping(request);
+		// Avoid decoding the request URI twice, unless a subclass may customize
+		// the path within the servlet mapping
+		String rest = (getClass() == UrlPathHelper.class ? getPathWithinServletMapping(request, pathWithinApp) :
+				getPathWithinServletMapping(request));
 		if (!"".equals(rest)) {
 			return rest;
 		}
 		else {
-			return getPathWithinApplication(request);
+			return pathWithinApp;
 		}
 	}
 
+	/**
+	 * Resolve the lookup path via {@link #getLookupPathForRequest(HttpServletRequest)}
+	 * and cache it in the request attribute {@link #PATH_ATTRIBUTE} for
+	 * subsequent access via {@link #getResolvedLookupPath(ServletRequest)}.
+	 * <p>A lookup path cached earlier in the same request is reused rather than
+	 * resolved again, provided it was resolved with the same settings and the
+	 * request URI, context path and servlet path have not changed since, e.g.
+	 * as a result of a forward or an include. This allows all handler mappings
+	 * of a {@code DispatcherServlet} as well as CORS processing and resource
+	 * URL resolution to share a single decoding and cleanup of the request URI.
+	 * @param request current HTTP request
+	 * @return the resolved lookup path
+	 * @since 5.2
+	 */
+	public String resolveAndCacheLookupPath(HttpServletRequest request) {
+		Object cached = request.getAttribute(PATH_ATTRIBUTE);
+		if (cached instanceof ResolvedLookupPath && ((ResolvedLookupPath) cached).isValidFor(this, request)) {
+			return ((ResolvedLookupPath) cached).lookupPath;
+		}
+		String lookupPath = getLookupPathForRequest(request);
+		request.setAttribute(PATH_ATTRIBUTE, new ResolvedLookupPath(this, request, lookupPath));
+		return lookupPath;
+	}
+
+	/**
+	 * Return a lookup path previously resolved via
+	 * {@link #resolveAndCacheLookupPath(HttpServletRequest)} and cached in the
+	 * request attribute {@link #PATH_ATTRIBUTE}.
+	 * @param request the current request
+	 * @return the previously resolved lookup path
+	 * @throws IllegalArgumentException if no lookup path was resolved before
+	 * @since 5.2
+	 */
+	public static String getResolvedLookupPath(ServletRequest request) {
+		Object cached = request.getAttribute(PATH_ATTRIBUTE);
+		Assert.isInstanceOf(ResolvedLookupPath.class, cached,
+				"Expected lookupPath in request attribute \"" + PATH_ATTRIBUTE + "\".");
+		return ((ResolvedLookupPath) cached).lookupPath;
+	}
+
 	/**
 	 * Variant of {@link #getLookupPathForRequest(HttpServletRequest)} that
 	 * automates checking for a previously computed lookupPath saved as a
@@ -212,7 +268,15 @@ public class UrlPathHelper {
 	 * @see #getLookupPathForRequest
 	 */
 	public String getPathWithinServletMapping(HttpServletRequest request) {
-		String pathWithinApp = getPathWithinApplication(request);
+		return getPathWithinServletMapping(request, getPathWithinApplication(request));
+	}
+
+	/**
+	 * Variant of {@link #getPathWithinServletMapping(HttpServletRequest)} for
+	 * an already resolved {@link #getPathWithinApplication path within the
+	 * web application}, avoiding decoding the request URI a second time.
+	 */
+	private String getPathWithinServletMapping(HttpServletRequest request, String pathWithinApp) {
 		String servletPath = getServletPath(request);
 		String sanitizedPathWithinApp = getSanitizedPath(pathWithinApp);
 		String path;
@@ -538,6 +602,9 @@ public class UrlPathHelper {
 	}
 
 	private String removeJsessionid(String requestUri) {
+		if (requestUri.indexOf(';') == -1) {
+			return requestUri;
+		}
 		int startIndex = requestUri.toLowerCase().indexOf(";jsessionid=");
 		if (startIndex != -1) {
 			int endIndex = requestUri.indexOf(';', startIndex + 12);
@@ -625,4 +692,67 @@ public class UrlPathHelper {
 		return !flagToUse;
 	}
 
+	/**
+	 * Lookup path cached as a request attribute, along with the settings and
+	 * request state it was resolved from.
+	 */
+	private static final class ResolvedLookupPath {
+
+		final String lookupPath;
+
+		private final boolean alwaysUseFullPath;
+
+		private final boolean urlDecode;
+
+		private final boolean removeSemicolonContent;
+
+		private final String defaultEncoding;
+
+		private final boolean reusable;
+
+		@Nullable
+		private final String characterEncoding;
+
+		@Nullable
+		private final String requestUri;
+
+		@Nullable
+		private final String contextPath;
+
+		@Nullable
+		private final String servletPath;
+
+		@Nullable
+		private final Object includeRequestUri;
+
+		ResolvedLookupPath(UrlPathHelper helper, HttpServletRequest request, String lookupPath) {
+			this.lookupPath = lookupPath;
+			this.alwaysUseFullPath = helper.alwaysUseFullPath;
+			this.urlDecode = helper.urlDecode;
+			this.removeSemicolonContent = helper.removeSemicolonContent;
+			this.defaultEncoding = helper.defaultEncoding;
+			// Subclasses may customize resolution in ways not captured here
+			this.reusable = (helper.getClass() == UrlPathHelper.class);
+			this.characterEncoding = request.getCharacterEncoding();
+			this.requestUri = request.getRequestURI();
+			this.contextPath = request.getContextPath();
+			this.servletPath = request.getServletPath();
+			this.includeRequestUri = request.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE);
+		}
+
+		boolean isValidFor(UrlPathHelper helper, HttpServletRequest request) {
+			return (this.reusable && helper.getClass() == UrlPathHelper.class &&
+					this.alwaysUseFullPath == helper.alwaysUseFullPath &&
+					this.urlDecode == helper.urlDecode &&
+					this.removeSemicolonContent == helper.removeSemicolonContent &&
+					this.defaultEncoding.equals(helper.defaultEncoding) &&
+					Objects.equals(this.characterEncoding, request.getCharacterEncoding()) &&
+					Objects.equals(this.requestUri, request.getRequestURI()) &&
+					Objects.equals(this.contextPath, request.getContextPath()) &&
+					Objects.equals(this.servletPath, request.getServletPath()) &&
+					Objects.equals(this.includeRequestUri, request.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE)));
+		}
+	}
+
+
 }
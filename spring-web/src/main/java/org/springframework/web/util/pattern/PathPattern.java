@@ -460,6 +460,10 @@ public class PathPattern implements Comparable<PathPattern> {
 		return this.separator;
 	}
 
+	boolean isCaseSensitive() {
+		return this.caseSensitive;
+	}
+
 	int getCapturedVariableCount() {
 		return this.capturedVariableCount;
 	}
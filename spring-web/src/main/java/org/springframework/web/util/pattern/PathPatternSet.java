@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.PathContainer.Element;
+import org.springframework.http.server.PathContainer.PathSegment;
+import org.springframework.http.server.PathContainer.Separator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * An immutable set of {@link PathPattern PathPatterns} compiled into a single
+ * prefix tree for matching one path against many patterns at once.
+ *
+ * <p>Each pattern is indexed by its leading run of separator and literal path
+ * elements. A lookup walks the path elements through that tree once, so only
+ * patterns whose literal prefix is compatible with the path are evaluated.
+ * Patterns are sorted by {@link PathPattern#SPECIFICITY_COMPARATOR} when the
+ * set is created, keeping the given order for patterns of equal specificity,
+ * and matches are returned in that order without sorting per lookup.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see PathPatternParser
+ */
+public final class PathPatternSet {
+
+	private final List<PathPattern> patterns;
+
+	private final Node caseSensitiveRoot = new Node();
+
+	private final Node caseInsensitiveRoot = new Node();
+
+
+	/**
+	 * Create a set for the given patterns.
+	 * @param patterns the patterns to compile; duplicates are ignored
+	 */
+	public PathPatternSet(Collection<PathPattern> patterns) {
+		Assert.notNull(patterns, "Patterns must not be null");
+		List<PathPattern> sorted = new ArrayList<>(new LinkedHashSet<>(patterns));
+		sorted.sort(PathPattern.SPECIFICITY_COMPARATOR);
+		this.patterns = Collections.unmodifiableList(sorted);
+		for (int i = 0; i < sorted.size(); i++) {
+			PathPattern pattern = sorted.get(i);
+			Node node = (pattern.isCaseSensitive() ? this.caseSensitiveRoot : this.caseInsensitiveRoot);
+			PathElement elem = pattern.getHeadSection();
+			while (elem instanceof SeparatorPathElement || elem instanceof LiteralPathElement) {
+				node = node.getOrCreateChild(elem);
+				elem = elem.next;
+			}
+			node.patternIndexes.set(i);
+		}
+	}
+
+
+	/**
+	 * Return all patterns in this set, sorted by specificity.
+	 */
+	public List<PathPattern> getPatterns() {
+		return this.patterns;
+	}
+
+	/**
+	 * Whether this set contains no patterns.
+	 */
+	public boolean isEmpty() {
+		return this.patterns.isEmpty();
+	}
+
+	/**
+	 * Return the patterns that match the given path, most specific first.
+	 * @param path the candidate path
+	 * @return the matching patterns, possibly empty
+	 */
+	public List<PathPattern> getMatchingPatterns(PathContainer path) {
+		BitSet candidates = getCandidates(path);
+		if (candidates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<PathPattern> result = new ArrayList<>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			PathPattern pattern = this.patterns.get(i);
+			if (pattern.matches(path)) {
+				result.add(pattern);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the most specific pattern that matches the given path.
+	 * @param path the candidate path
+	 * @return the best matching pattern, or {@code null} if none matches
+	 */
+	@Nullable
+	public PathPattern getBestMatchingPattern(PathContainer path) {
+		BitSet candidates = getCandidates(path);
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			PathPattern pattern = this.patterns.get(i);
+			if (pattern.matches(path)) {
+				return pattern;
+			}
+		}
+		return null;
+	}
+
+	private BitSet getCandidates(PathContainer path) {
+		BitSet candidates = new BitSet(this.patterns.size());
+		List<Element> elements = path.elements();
+		collectCandidates(this.caseSensitiveRoot, elements, false, candidates);
+		collectCandidates(this.caseInsensitiveRoot, elements, true, candidates);
+		return candidates;
+	}
+
+	private static void collectCandidates(Node root, List<Element> elements,
+			boolean lowerCase, BitSet candidates) {
+
+		Node node = root;
+		candidates.or(node.patternIndexes);
+		for (Element element : elements) {
+			node = node.getChild(element, lowerCase);
+			if (node == null) {
+				return;
+			}
+			candidates.or(node.patternIndexes);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PathPatternSet" + this.patterns;
+	}
+
+
+	/**
+	 * A node in the literal prefix tree. Patterns are registered with the node
+	 * at which their leading literal path elements end.
+	 */
+	private static class Node {
+
+		final BitSet patternIndexes = new BitSet();
+
+		@Nullable
+		private Node separatorChild;
+
+		@Nullable
+		private Map<String, Node> segmentChildren;
+
+		Node getOrCreateChild(PathElement element) {
+			if (element instanceof SeparatorPathElement) {
+				if (this.separatorChild == null) {
+					this.separatorChild = new Node();
+				}
+				return this.separatorChild;
+			}
+			if (this.segmentChildren == null) {
+				this.segmentChildren = new HashMap<>();
+			}
+			// LiteralPathElement exposes lower case text if not case sensitive
+			return this.segmentChildren.computeIfAbsent(String.valueOf(element.getChars()), key -> new Node());
+		}
+
+		@Nullable
+		Node getChild(Element element, boolean lowerCase) {
+			if (element instanceof Separator) {
+				return this.separatorChild;
+			}
+			if (this.segmentChildren == null || !(element instanceof PathSegment)) {
+				return null;
+			}
+			String value = ((PathSegment) element).valueToMatch();
+			return this.segmentChildren.get(lowerCase ? toLowerCase(value) : value);
+		}
+
+		private static String toLowerCase(String value) {
+			// Same per-char conversion as LiteralPathElement, independent of the default Locale
+			char[] chars = value.toCharArray();
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = Character.toLowerCase(chars[i]);
+			}
+			return new String(chars);
+		}
+	}
+
+}
@@ -146,6 +146,48 @@ public class HttpHeadersTests {
 		assertThat(headers.getFirst("Content-Type")).as("Invalid Content-Type header").isEqualTo("text/html;charset=UTF-8");
 	}
 
+	@Test
+	public void parsedContentTypeReflectsChanges() {
+		headers.setContentType(MediaType.TEXT_PLAIN);
+		MediaType contentType = headers.getContentType();
+		assertThat(headers.getContentType()).isSameAs(contentType);
+
+		headers.set("Content-Type", "application/json");
+		assertThat(headers.getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		headers.get("Content-Type").set(0, "text/html");
+		assertThat(headers.getContentType()).isEqualTo(MediaType.TEXT_HTML);
+		headers.remove("Content-Type");
+		assertThat(headers.getContentType()).isNull();
+	}
+
+	@Test
+	public void parsedAcceptReflectsChanges() {
+		headers.add("Accept", "text/html");
+		assertThat(headers.getAccept()).containsExactly(MediaType.TEXT_HTML);
+
+		headers.get("Accept").add("text/plain");
+		assertThat(headers.getAccept()).containsExactly(MediaType.TEXT_HTML, MediaType.TEXT_PLAIN);
+
+		headers.getAccept().clear();
+		assertThat(headers.getAccept()).containsExactly(MediaType.TEXT_HTML, MediaType.TEXT_PLAIN);
+
+		HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(headers);
+		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_XML));
+		assertThat(readOnly.getAccept()).containsExactly(MediaType.APPLICATION_XML);
+	}
+
+	@Test
+	public void parsedDateReflectsChanges() {
+		headers.setIfModifiedSince(1000L);
+		headers.setLastModified(2000L);
+		assertThat(headers.getIfModifiedSince()).isEqualTo(1000L);
+		assertThat(headers.getLastModified()).isEqualTo(2000L);
+		assertThat(headers.getIfModifiedSince()).isEqualTo(1000L);
+
+		headers.setIfModifiedSince(3000L);
+		assertThat(headers.getIfModifiedSince()).isEqualTo(3000L);
+	}
+
 	@Test
 	public void location() throws URISyntaxException {
 		URI location = new URI("https://www.example.com/hotels");
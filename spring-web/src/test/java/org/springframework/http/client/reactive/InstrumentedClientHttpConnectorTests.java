@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpRequest;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link InstrumentedClientHttpConnector}.
+ *
+ * @author Finn Ayers
+ */
+public class InstrumentedClientHttpConnectorTests {
+
+	private static final URI TEST_URI = URI.create("https://example.org/path");
+
+	private final List<ClientHttpExchangeMetrics> reported = new ArrayList<>();
+
+
+	@Test
+	public void exchangeCompletesWithResponseBody() {
+		MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+		response.setBody("body");
+		InstrumentedClientHttpConnector connector = new InstrumentedClientHttpConnector(
+				(method, uri, callback) -> callback.apply(new MockClientHttpRequest(method, uri)).thenReturn(response),
+				this.reported::add);
+
+		ClientHttpResponse actual = connector.connect(HttpMethod.GET, TEST_URI, ClientHttpRequest::setComplete).block();
+		assertThat(actual).isNotNull();
+		assertThat(this.reported).isEmpty();
+		assertThat(connector.getActiveExchanges()).isEqualTo(1);
+
+		StepVerifier.create(actual.getBody()).expectNextCount(1).verifyComplete();
+
+		assertThat(connector.getActiveExchanges()).isEqualTo(0);
+		assertThat(this.reported).hasSize(1);
+		ClientHttpExchangeMetrics metrics = this.reported.get(0);
+		assertThat(metrics.getMethod()).isEqualTo(HttpMethod.GET);
+		assertThat(metrics.getUri()).isEqualTo(TEST_URI);
+		assertThat(metrics.getRawStatusCode()).isEqualTo(200);
+		assertThat(metrics.getConcurrentExchanges()).isEqualTo(1);
+		assertThat(metrics.getError()).isNull();
+		assertThat(metrics.isCancelled()).isFalse();
+		assertThat(metrics.getConnectDuration()).isNotNull();
+		assertThat(metrics.getRequestDuration()).isNotNull();
+		assertThat(metrics.getResponseDuration()).isNotNull();
+		assertThat(metrics.getBodyDuration()).isNotNull();
+		assertThat(metrics.getTotalDuration()).isGreaterThanOrEqualTo(metrics.getBodyDuration());
+	}
+
+	@Test
+	public void exchangeFailsBeforeConnect() {
+		IllegalStateException error = new IllegalStateException("Connection refused");
+		InstrumentedClientHttpConnector connector = new InstrumentedClientHttpConnector(
+				(method, uri, callback) -> Mono.error(error), this.reported::add);
+
+		StepVerifier.create(connector.connect(HttpMethod.POST, TEST_URI, ClientHttpRequest::setComplete))
+				.verifyErrorMatches(ex -> ex == error);
+
+		assertThat(connector.getActiveExchanges()).isEqualTo(0);
+		assertThat(this.reported).hasSize(1);
+		ClientHttpExchangeMetrics metrics = this.reported.get(0);
+		assertThat(metrics.getRawStatusCode()).isEqualTo(-1);
+		assertThat(metrics.getError()).isSameAs(error);
+		assertThat(metrics.getConnectDuration()).isNull();
+		assertThat(metrics.getResponseDuration()).isNull();
+		assertThat(metrics.getBodyDuration()).isNull();
+	}
+
+	@Test
+	public void exchangeCancelledWhileConsumingBody() {
+		MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+		response.setBody("body");
+		InstrumentedClientHttpConnector connector = new InstrumentedClientHttpConnector(
+				(method, uri, callback) -> callback.apply(new MockClientHttpRequest(method, uri)).thenReturn(response),
+				this.reported::add);
+
+		ClientHttpResponse actual = connector.connect(HttpMethod.GET, TEST_URI, ClientHttpRequest::setComplete).block();
+		assertThat(actual).isNotNull();
+		StepVerifier.create(actual.getBody()).thenCancel().verify();
+
+		assertThat(this.reported).hasSize(1);
+		assertThat(this.reported.get(0).isCancelled()).isTrue();
+		assertThat(connector.getActiveExchanges()).isEqualTo(0);
+	}
+
+	@Test
+	public void listenerFailureDoesNotAffectExchange() {
+		InstrumentedClientHttpConnector connector = new InstrumentedClientHttpConnector(
+				(method, uri, callback) -> Mono.empty(),
+				metrics -> {
+					throw new IllegalStateException("Listener failure");
+				});
+
+		StepVerifier.create(connector.connect(HttpMethod.GET, TEST_URI, ClientHttpRequest::setComplete)).verifyComplete();
+		assertThat(connector.getActiveExchanges()).isEqualTo(0);
+	}
+
+}
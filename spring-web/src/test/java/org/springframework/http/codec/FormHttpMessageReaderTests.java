@@ -27,6 +27,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.AbstractLeakCheckingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
@@ -103,6 +104,56 @@ public class FormHttpMessageReaderTests extends AbstractLeakCheckingTestCase {
 		assertThat(result.getFirst("name 3")).as("Invalid result").isNull();
 	}
 
+	@Test
+	public void readFormInMultipleBuffers() {
+		Flux<DataBuffer> body = Flux.just("name+1=val", "ue+1&name+2=%", "C3%A", "4&name+3", " ")
+				.map(this::stringBuffer);
+		MultiValueMap<String, String> result = this.reader.readMono(null, request(body), null).block();
+
+		assertThat(result.size()).isEqualTo(3);
+		assertThat(result.getFirst("name 1")).isEqualTo("value 1");
+		assertThat(result.getFirst("name 2")).isEqualTo("\u00e4");
+		assertThat(result.containsKey("name 3")).isTrue();
+	}
+
+	@Test
+	public void readEmptyForm() {
+		StepVerifier.create(this.reader.readMono(null, request(Flux.empty()), null))
+				.verifyComplete();
+
+		MultiValueMap<String, String> result = this.reader.readMono(null, request(""), null).block();
+		assertThat(result).isEmpty();
+	}
+
+	@Test
+	public void readFormWithInvalidEscape() {
+		StepVerifier.create(this.reader.readMono(null, request("name=%A"), null))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void maxInMemorySize() {
+		FormHttpMessageReader reader = new FormHttpMessageReader();
+		reader.setMaxInMemorySize(10);
+		Flux<DataBuffer> body = Flux.just("name=value", "&other=value").map(this::stringBuffer);
+
+		StepVerifier.create(reader.readMono(null, request(body), null))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void maxFields() {
+		FormHttpMessageReader reader = new FormHttpMessageReader();
+		reader.setMaxFields(2);
+
+		assertThat(reader.readMono(null, request("a=1&b=2"), null).block().size()).isEqualTo(2);
+		StepVerifier.create(reader.readMono(null, request("a=1&b=2&a=3"), null))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
 	@Test
 	public void readFormError() {
 		DataBuffer fooBuffer = stringBuffer("name=value");
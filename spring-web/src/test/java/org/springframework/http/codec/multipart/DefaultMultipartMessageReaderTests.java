@@ -19,12 +19,15 @@ package org.springframework.http.codec.multipart;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
@@ -79,10 +82,8 @@ public class DefaultMultipartMessageReaderTests extends AbstractDataBufferAlloca
 		Flux<Part> result = this.reader.read(forClass(Part.class), request, emptyMap());
 
 		StepVerifier.create(result)
-				.consumeNextWith(part ->
-					part.content().subscribe(DataBufferUtils::release)
-				)
-				.verifyComplete();
+				.expectError(DecodingException.class)
+				.verify();
 	}
 
 	@Test
@@ -103,10 +104,102 @@ public class DefaultMultipartMessageReaderTests extends AbstractDataBufferAlloca
 				"----WebKitFormBoundaryG8fJ50opQOML0oGD");
 	}
 
+	@Test
+	public void fileContentStoredOnDisk() throws IOException {
+		Path directory = Files.createTempDirectory("DefaultMultipartMessageReaderTests");
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		reader.setMaxInMemorySize(8);
+		reader.setFileStorageDirectory(directory);
+
+		testBrowser(reader, new ClassPathResource("firefox.multipart", getClass()),
+				"---------------------------18399284482060392383840973206");
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.count()).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void deleteUnreadFileContent() throws IOException {
+		Path directory = Files.createTempDirectory("DefaultMultipartMessageReaderTests");
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		reader.setMaxInMemorySize(8);
+		reader.setFileStorageDirectory(directory);
+		MockServerHttpRequest request = createRequest(new ClassPathResource("firefox.multipart", getClass()),
+				"---------------------------18399284482060392383840973206");
+
+		List<Part> parts = reader.read(forClass(Part.class), request, emptyMap()).collectList().block();
+		assertThat(parts).hasSize(5);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.count()).isEqualTo(3);
+		}
+
+		Flux.fromIterable(parts).concatMap(Part::delete).blockLast();
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.count()).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void formFieldExceedsMaxInMemorySize() {
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		reader.setMaxInMemorySize(0);
+		MockServerHttpRequest request = createRequest(new ClassPathResource("chrome.multipart", getClass()),
+				"----WebKitFormBoundaryEveBLvRT65n21fwU");
+
+		StepVerifier.create(reader.read(forClass(Part.class), request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void maxDiskUsagePerPart() {
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		reader.setMaxInMemorySize(8);
+		reader.setMaxDiskUsagePerPart(50);
+		MockServerHttpRequest request = createRequest(new ClassPathResource("chrome.multipart", getClass()),
+				"----WebKitFormBoundaryEveBLvRT65n21fwU");
+
+		StepVerifier.create(reader.read(forClass(Part.class), request, emptyMap()))
+				.consumeNextWith(part -> testBrowserFormField(part, "text1", "a"))
+				.consumeNextWith(part -> testBrowserFormField(part, "text2", "b"))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void maxParts() {
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		reader.setMaxParts(2);
+		MockServerHttpRequest request = createRequest(new ClassPathResource("safari.multipart", getClass()),
+				"----WebKitFormBoundaryG8fJ50opQOML0oGD");
+
+		StepVerifier.create(reader.read(forClass(Part.class), request, emptyMap()))
+				.consumeNextWith(part -> testBrowserFormField(part, "text1", "a"))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void maxRequestSize() {
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		reader.setMaxRequestSize(100);
+		MockServerHttpRequest request = createRequest(new ClassPathResource("firefox.multipart", getClass()),
+				"---------------------------18399284482060392383840973206");
+
+		StepVerifier.create(reader.read(forClass(Part.class), request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
 	private void testBrowser(Resource resource, String boundary) {
+		testBrowser(this.reader, resource, boundary);
+	}
+
+	private void testBrowser(DefaultMultipartMessageReader reader, Resource resource, String boundary) {
 		MockServerHttpRequest request = createRequest(resource, boundary);
 
-		Flux<Part> result = this.reader.read(forClass(Part.class), request, emptyMap());
+		Flux<Part> result = reader.read(forClass(Part.class), request, emptyMap());
 
 		StepVerifier.create(result)
 				.consumeNextWith(part -> testBrowserFormField(part, "text1", "a"))
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link MultipartParser}.
+ *
+ * @author Finn Ayers
+ */
+public class MultipartParserTests {
+
+	private static final String BOUNDARY = "--abc--";
+
+	private static final String MESSAGE = "preamble\r\n" +
+			"----abc--\r\n" +
+			"Content-Disposition: form-data; name=\"a\"\r\n" +
+			"\r\n" +
+			"first\r\n----ab\r\n---abc\r\n" +
+			"----abc--  \r\n" +
+			"Content-Disposition: form-data; name=\"b\"\r\n" +
+			"Content-Type: text/plain\r\n" +
+			"\r\n" +
+			"\r\n\r\n" +
+			"----abc----\r\n" +
+			"epilogue";
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	@Test
+	public void parseWithAnyBufferSize() {
+		for (int bufferSize = 1; bufferSize <= MESSAGE.length(); bufferSize++) {
+			List<String> result = parse(new MultipartParser(bytes(BOUNDARY), 1024, -1), MESSAGE, bufferSize);
+			assertThat(result).as("buffer size " + bufferSize).containsExactly(
+					"headers:[Content-Disposition:\"form-data; name=\"a\"\"]",
+					"body:first\r\n----ab\r\n---abc",
+					"headers:[Content-Disposition:\"form-data; name=\"b\"\", Content-Type:\"text/plain\"]",
+					"body:\r\n");
+		}
+	}
+
+	@Test
+	public void boundaryAtStartAndBareLineFeeds() {
+		String message = "----abc--\n\nbody\n----abc--\r\n----abc----";
+		List<String> result = parse(new MultipartParser(bytes(BOUNDARY), 1024, -1), message, 3);
+		assertThat(result).containsExactly("headers:[]", "body:body\n----abc--");
+	}
+
+	@Test
+	public void headerValueWithComma() {
+		String message = "----abc--\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"a, b.txt\"\r\n" +
+				"\r\nbody\r\n----abc----";
+		List<String> result = parse(new MultipartParser(bytes(BOUNDARY), 1024, -1), message, 8);
+		assertThat(result).containsExactly(
+				"headers:[Content-Disposition:\"form-data; name=\"file\"; filename=\"a, b.txt\"\"]",
+				"body:body");
+	}
+
+	@Test
+	public void headerValueListIsNotSplit() {
+		String message = "----abc--\r\n" +
+				"Content-Language: en, de\r\n" +
+				"\r\nbody\r\n----abc----";
+		List<String> result = parse(new MultipartParser(bytes(BOUNDARY), 1024, -1), message, 8);
+		assertThat(result).containsExactly("headers:[Content-Language:\"en, de\"]", "body:body");
+	}
+
+	@Test
+	public void missingFinalBoundary() {
+		String message = MESSAGE.substring(0, MESSAGE.indexOf("----abc----"));
+		MultipartParser parser = new MultipartParser(bytes(BOUNDARY), 1024, -1);
+		assertThatExceptionOfType(DecodingException.class).isThrownBy(() -> parse(parser, message, 8));
+	}
+
+	@Test
+	public void maxHeadersSize() {
+		MultipartParser parser = new MultipartParser(bytes(BOUNDARY), 20, -1);
+		assertThatExceptionOfType(DecodingException.class).isThrownBy(() -> parse(parser, MESSAGE, 8));
+	}
+
+	@Test
+	public void maxRequestSize() {
+		MultipartParser parser = new MultipartParser(bytes(BOUNDARY), 1024, 100);
+		assertThatExceptionOfType(DecodingException.class).isThrownBy(() -> parse(parser, MESSAGE, 8));
+	}
+
+
+	private List<String> parse(MultipartParser parser, String message, int bufferSize) {
+		byte[] bytes = bytes(message);
+		List<MultipartParser.Token> tokens = new ArrayList<>();
+		for (int i = 0; i < bytes.length; i += bufferSize) {
+			DataBuffer buffer = this.bufferFactory.allocateBuffer(bufferSize);
+			buffer.write(bytes, i, Math.min(bufferSize, bytes.length - i));
+			tokens.addAll(parser.parse(buffer));
+		}
+		parser.complete();
+
+		// Join consecutive body tokens
+		List<String> result = new ArrayList<>();
+		StringBuilder body = null;
+		for (MultipartParser.Token token : tokens) {
+			if (token instanceof MultipartParser.HeadersToken) {
+				if (body != null) {
+					result.add("body:" + body);
+					body = null;
+				}
+				result.add("headers:" + ((MultipartParser.HeadersToken) token).headers());
+			}
+			else {
+				DataBuffer buffer = ((MultipartParser.BodyToken) token).buffer();
+				byte[] content = new byte[buffer.readableByteCount()];
+				buffer.read(content);
+				DataBufferUtils.release(buffer);
+				body = (body != null ? body : new StringBuilder()).append(new String(content, StandardCharsets.US_ASCII));
+			}
+		}
+		if (body != null) {
+			result.add("body:" + body);
+		}
+		return result;
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+}
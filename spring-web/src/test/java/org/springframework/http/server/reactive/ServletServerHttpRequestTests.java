@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.mock.web.test.DelegatingServletInputStream;
+import org.springframework.mock.web.test.MockAsyncContext;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ServletServerHttpRequest}.
+ *
+ * @author Finn Ayers
+ */
+public class ServletServerHttpRequestTests {
+
+	private static final byte[] BODY = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+
+	@Test
+	public void readFromInputStreamWithHeapBuffers() throws Exception {
+		testReadFromInputStream(new DefaultDataBufferFactory(false));
+	}
+
+	@Test
+	public void readFromInputStreamWithDirectBuffers() throws Exception {
+		testReadFromInputStream(new DefaultDataBufferFactory(true));
+	}
+
+	@Test
+	public void readFromInputStreamWithoutAvailableBytes() throws Exception {
+		testReadFromInputStream(new DefaultDataBufferFactory(false), false);
+	}
+
+	private void testReadFromInputStream(DataBufferFactory bufferFactory) throws Exception {
+		testReadFromInputStream(bufferFactory, true);
+	}
+
+	private void testReadFromInputStream(DataBufferFactory bufferFactory, boolean reportAvailable)
+			throws Exception {
+
+		ServletServerHttpRequest request = createRequest(bufferFactory, 8, reportAvailable);
+
+		DataBuffer buffer = request.readFromInputStream();
+		assertThat(buffer).isNotNull();
+		assertThat(buffer.readableByteCount()).isEqualTo(8);
+		assertThat(DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8)).isEqualTo("Hello Wo");
+		DataBufferUtils.release(buffer);
+
+		buffer = request.readFromInputStream();
+		assertThat(buffer).isNotNull();
+		assertThat(buffer.capacity()).isEqualTo(3);
+		assertThat(DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8)).isEqualTo("rld");
+		DataBufferUtils.release(buffer);
+
+		assertThat(request.readFromInputStream()).isSameAs(ServletServerHttpRequest.EOF_BUFFER);
+	}
+
+	private ServletServerHttpRequest createRequest(DataBufferFactory bufferFactory, int bufferSize,
+			boolean reportAvailable) throws Exception {
+
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/path") {
+			private final ServletInputStream inputStream =
+					new DelegatingServletInputStream(new ByteArrayInputStream(BODY)) {
+						@Override
+						public int available() throws IOException {
+							return (reportAvailable ? super.available() : 0);
+						}
+						@Override
+						public void setReadListener(ReadListener readListener) {
+							// Ignore
+						}
+					};
+			@Override
+			public ServletInputStream getInputStream() {
+				return this.inputStream;
+			}
+		};
+		AsyncContext asyncContext = new MockAsyncContext(request, new MockHttpServletResponse());
+		return new ServletServerHttpRequest(request, asyncContext, "", bufferFactory, bufferSize);
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.web.test.DelegatingServletInputStream;
+import org.springframework.mock.web.test.DelegatingServletOutputStream;
+import org.springframework.mock.web.test.MockAsyncContext;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ServletServerHttpResponse}.
+ *
+ * @author Finn Ayers
+ */
+public class ServletServerHttpResponseTests {
+
+	private static final byte[] BODY = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+
+	@Test
+	public void writeToOutputStreamWithHeapBuffer() throws Exception {
+		testWriteToOutputStream(new DefaultDataBufferFactory(false));
+	}
+
+	@Test
+	public void writeToOutputStreamWithDirectBuffer() throws Exception {
+		testWriteToOutputStream(new DefaultDataBufferFactory(true));
+	}
+
+	@Test
+	public void partialWriteWithHeapBuffer() throws Exception {
+		testPartialWrite(new DefaultDataBufferFactory(false));
+	}
+
+	@Test
+	public void partialWriteWithDirectBuffer() throws Exception {
+		testPartialWrite(new DefaultDataBufferFactory(true));
+	}
+
+	private void testWriteToOutputStream(DataBufferFactory bufferFactory) throws Exception {
+		TestServletOutputStream outputStream = new TestServletOutputStream(Integer.MAX_VALUE);
+		ServletServerHttpResponse response = createResponse(bufferFactory, outputStream, 4);
+
+		DataBuffer buffer = bufferFactory.allocateBuffer(BODY.length + 2);
+		buffer.write(new byte[] {'-', '-'});
+		buffer.read(new byte[2]);
+		buffer.write(BODY);
+
+		assertThat(response.writeToOutputStream(buffer)).isEqualTo(BODY.length);
+		assertThat(buffer.readableByteCount()).isEqualTo(0);
+		assertThat(outputStream.getContent()).isEqualTo("Hello World");
+	}
+
+	private void testPartialWrite(DataBufferFactory bufferFactory) throws Exception {
+		TestServletOutputStream outputStream = new TestServletOutputStream(1);
+		ServletServerHttpResponse response = createResponse(bufferFactory, outputStream, 4);
+
+		DataBuffer buffer = bufferFactory.allocateBuffer(BODY.length);
+		buffer.write(BODY);
+
+		assertThat(response.writeToOutputStream(buffer)).isEqualTo(4);
+		assertThat(buffer.readableByteCount()).isEqualTo(BODY.length - 4);
+		assertThat(outputStream.getContent()).isEqualTo("Hell");
+
+		outputStream.setReadyWrites(Integer.MAX_VALUE);
+		assertThat(response.writeToOutputStream(buffer)).isEqualTo(BODY.length - 4);
+		assertThat(buffer.readableByteCount()).isEqualTo(0);
+		assertThat(outputStream.getContent()).isEqualTo("Hello World");
+	}
+
+	private ServletServerHttpResponse createResponse(DataBufferFactory bufferFactory,
+			ServletOutputStream outputStream, int bufferSize) throws Exception {
+
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/path") {
+			@Override
+			public ServletInputStream getInputStream() {
+				return new DelegatingServletInputStream(new ByteArrayInputStream(new byte[0])) {
+					@Override
+					public void setReadListener(ReadListener readListener) {
+						// Ignore
+					}
+				};
+			}
+		};
+		MockHttpServletResponse servletResponse = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+		AsyncContext asyncContext = new MockAsyncContext(servletRequest, servletResponse);
+		ServletServerHttpRequest request =
+				new ServletServerHttpRequest(servletRequest, asyncContext, "", bufferFactory, bufferSize);
+		return new ServletServerHttpResponse(servletResponse, asyncContext, bufferFactory, bufferSize, request);
+	}
+
+
+	/**
+	 * ServletOutputStream that is ready for a given number of writes only.
+	 */
+	private static class TestServletOutputStream extends DelegatingServletOutputStream {
+
+		private int readyWrites;
+
+		TestServletOutputStream(int readyWrites) {
+			super(new ByteArrayOutputStream());
+			this.readyWrites = readyWrites;
+		}
+
+		void setReadyWrites(int readyWrites) {
+			this.readyWrites = readyWrites;
+		}
+
+		String getContent() {
+			return new String(((ByteArrayOutputStream) getTargetStream()).toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.readyWrites--;
+			((ByteArrayOutputStream) getTargetStream()).write(b, off, len);
+		}
+
+		@Override
+		public boolean isReady() {
+			return (this.readyWrites > 0);
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			// Ignore
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ResponseCacheStore}.
+ *
+ * @author Finn Ayers
+ */
+public class ResponseCacheStoreTests {
+
+	private final List<String> released = new ArrayList<>();
+
+	private final ResponseCacheStore<String> store = new ResponseCacheStore<>(this.released::add);
+
+	private final Function<String, List<String>> requestHeaders = name -> null;
+
+
+	@Test
+	public void requestDirectives() {
+		assertThat(ResponseCacheStore.isBypassed(headers(HttpHeaders.CACHE_CONTROL, "max-age=0, no-store"))).isTrue();
+		assertThat(ResponseCacheStore.isBypassed(this.requestHeaders)).isFalse();
+		assertThat(ResponseCacheStore.isLookupAllowed(headers(HttpHeaders.CACHE_CONTROL, "max-age=0"))).isFalse();
+		assertThat(ResponseCacheStore.isLookupAllowed(headers(HttpHeaders.CACHE_CONTROL, "No-Cache"))).isFalse();
+		assertThat(ResponseCacheStore.isLookupAllowed(headers(HttpHeaders.PRAGMA, "no-cache"))).isFalse();
+		assertThat(ResponseCacheStore.isLookupAllowed(headers(HttpHeaders.CACHE_CONTROL, "max-age=60"))).isTrue();
+	}
+
+	@Test
+	public void freshnessLifetime() {
+		assertThat(ResponseCacheStore.getFreshnessLifetime(this.requestHeaders, 200,
+				responseHeaders("public, max-age=\"60\""))).isEqualTo(60);
+		assertThat(ResponseCacheStore.getFreshnessLifetime(this.requestHeaders, 200,
+				responseHeaders("max-age=60, s-maxage=120"))).isEqualTo(120);
+		assertThat(ResponseCacheStore.getFreshnessLifetime(this.requestHeaders, 500,
+				responseHeaders("max-age=60"))).isEqualTo(-1);
+		assertThat(ResponseCacheStore.getFreshnessLifetime(this.requestHeaders, 200,
+				responseHeaders("private, max-age=60"))).isEqualTo(-1);
+		assertThat(ResponseCacheStore.getFreshnessLifetime(headers(HttpHeaders.AUTHORIZATION, "Basic"), 200,
+				responseHeaders("max-age=60"))).isEqualTo(-1);
+	}
+
+	@Test
+	public void lookupAndStaleWhileRevalidate() {
+		ResponseCacheStore.Entry<String> entry = this.store.createEntry(this.requestHeaders, 200,
+				responseHeaders("max-age=10, stale-while-revalidate=20"), "body", 4, 0);
+		assertThat(entry).isNotNull();
+		this.store.store("/catalog", entry);
+
+		assertThat(this.store.lookup("/catalog", this.requestHeaders, 5000)).isSameAs(entry);
+		assertThat(entry.isFresh(5000)).isTrue();
+		assertThat(entry.getAge(5000)).isEqualTo(5);
+
+		assertThat(this.store.lookup("/catalog", this.requestHeaders, 20000)).isSameAs(entry);
+		assertThat(entry.isFresh(20000)).isFalse();
+		assertThat(entry.startRevalidation()).isTrue();
+		assertThat(entry.startRevalidation()).isFalse();
+		entry.finishRevalidation();
+
+		assertThat(this.store.lookup("/catalog", this.requestHeaders, 30000)).isNull();
+		assertThat(this.store.getSize()).isEqualTo(0);
+		assertThat(this.released).containsExactly("body");
+	}
+
+	@Test
+	public void variesByRequestHeader() {
+		HttpHeaders headers = responseHeaders("max-age=60");
+		headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+		Function<String, List<String>> en = headers(HttpHeaders.ACCEPT_LANGUAGE, "en");
+		Function<String, List<String>> de = headers(HttpHeaders.ACCEPT_LANGUAGE, "de");
+		this.store.store("/catalog", this.store.createEntry(en, 200, headers, "en", 2, 0));
+		this.store.store("/catalog", this.store.createEntry(de, 200, headers, "de", 2, 0));
+
+		assertThat(this.store.lookup("/catalog", en, 0).getBody()).isEqualTo("en");
+		assertThat(this.store.lookup("/catalog", de, 0).getBody()).isEqualTo("de");
+		assertThat(this.store.lookup("/catalog", this.requestHeaders, 0)).isNull();
+
+		this.store.store("/catalog", this.store.createEntry(en, 200, headers, "en2", 3, 0));
+		assertThat(this.store.lookup("/catalog", en, 0).getBody()).isEqualTo("en2");
+		assertThat(this.released).containsExactly("en");
+	}
+
+	@Test
+	public void copiesHeaderValues() {
+		HttpHeaders headers = responseHeaders("max-age=60");
+		ResponseCacheStore.Entry<String> entry = this.store.createEntry(this.requestHeaders, 200, headers, "body", 4, 0);
+		headers.add(HttpHeaders.CACHE_CONTROL, "public");
+		assertThat(entry.getHeaders().get(HttpHeaders.CACHE_CONTROL)).containsExactly("max-age=60");
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		ResponseCacheStore.Entry<String> entry1 = createEntry("1");
+		long entrySize = 1 + responseHeaders("max-age=60").toString().length();
+		this.store.setMaxSize(entrySize * 2);
+		this.store.store("/1", entry1);
+		this.store.store("/2", createEntry("2"));
+		assertThat(this.store.lookup("/1", this.requestHeaders, 0)).isSameAs(entry1);
+
+		this.store.store("/3", createEntry("3"));
+		assertThat(this.store.lookup("/2", this.requestHeaders, 0)).isNull();
+		assertThat(this.store.lookup("/1", this.requestHeaders, 0)).isSameAs(entry1);
+		assertThat(this.store.lookup("/3", this.requestHeaders, 0)).isNotNull();
+		assertThat(this.store.getSize()).isEqualTo(entrySize * 2);
+		assertThat(this.released).containsExactly("2");
+	}
+
+	@Test
+	public void releasesRetainedBodyAfterRemoval() {
+		ResponseCacheStore.Entry<String> entry = createEntry("body");
+		this.store.store("/catalog", entry);
+		assertThat(entry.retain()).isTrue();
+
+		this.store.clear();
+		assertThat(this.store.getSize()).isEqualTo(0);
+		assertThat(this.released).isEmpty();
+		assertThat(entry.retain()).isTrue();
+		entry.release();
+
+		entry.release();
+		assertThat(this.released).containsExactly("body");
+		assertThat(entry.retain()).isFalse();
+	}
+
+
+	private ResponseCacheStore.Entry<String> createEntry(String body) {
+		ResponseCacheStore.Entry<String> entry = this.store.createEntry(this.requestHeaders, 200,
+				responseHeaders("max-age=60"), body, body.length(), 0);
+		assertThat(entry).isNotNull();
+		return entry;
+	}
+
+	private static Function<String, List<String>> headers(String headerName, String value) {
+		return name -> (name.equalsIgnoreCase(headerName) ? Collections.singletonList(value) : null);
+	}
+
+	private static HttpHeaders responseHeaders(String cacheControl) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl(cacheControl);
+		return headers;
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ResponseCacheFilter}.
+ *
+ * @author Finn Ayers
+ */
+public class ResponseCacheFilterTests {
+
+	private final ResponseCacheFilter filter = new ResponseCacheFilter();
+
+	private final AtomicInteger handlerCount = new AtomicInteger();
+
+	private String cacheControl = "max-age=60";
+
+
+	@Test
+	public void cachesResponse() {
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 1");
+
+		exchange = exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 1");
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getHeaders().getCacheControl()).isEqualTo("max-age=60");
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+		assertThat(this.handlerCount.get()).isEqualTo(1);
+		assertThat(this.filter.getSize()).isGreaterThan(0L);
+
+		exchange = exchange(MockServerHttpRequest.get("/catalog?page=2"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2");
+	}
+
+	@Test
+	public void doesNotCacheWithoutFreshnessLifetime() {
+		this.cacheControl = "no-cache, max-age=60";
+		exchange(MockServerHttpRequest.get("/catalog"));
+		exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(this.handlerCount.get()).isEqualTo(2);
+
+		this.cacheControl = "public";
+		exchange(MockServerHttpRequest.get("/catalog"));
+		exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(this.handlerCount.get()).isEqualTo(4);
+		assertThat(this.filter.getSize()).isEqualTo(0L);
+	}
+
+	@Test
+	public void requestDirectives() {
+		exchange(MockServerHttpRequest.get("/catalog"));
+
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/catalog")
+				.header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2");
+
+		exchange = exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2");
+		assertThat(this.handlerCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void variesByRequestHeader() {
+		exchange(MockServerHttpRequest.get("/catalog").header(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+		exchange(MockServerHttpRequest.get("/catalog").header(HttpHeaders.ACCEPT_LANGUAGE, "de"));
+		assertThat(this.handlerCount.get()).isEqualTo(2);
+
+		MockServerWebExchange exchange =
+				exchange(MockServerHttpRequest.get("/catalog").header(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 1");
+		exchange = exchange(MockServerHttpRequest.get("/catalog").header(HttpHeaders.ACCEPT_LANGUAGE, "de"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2");
+		assertThat(this.handlerCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void staleWhileRevalidate() {
+		Instant now = Instant.now();
+		this.filter.setClock(Clock.fixed(now, ZoneId.of("UTC")));
+		this.cacheControl = "max-age=10, stale-while-revalidate=60";
+		exchange(MockServerHttpRequest.get("/catalog"));
+
+		// One request refreshes the stale response, while concurrent ones are served from the cache
+		this.filter.setClock(Clock.fixed(now.plusSeconds(30), ZoneId.of("UTC")));
+		MockServerWebExchange concurrentExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/catalog"));
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/catalog"));
+		this.filter.filter(exchange, filterExchange -> this.filter.filter(concurrentExchange, this::handle)
+				.then(handle(filterExchange))).block(Duration.ofSeconds(5));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2");
+		assertThat(concurrentExchange.getResponse().getBodyAsString().block()).isEqualTo("response 1");
+		assertThat(concurrentExchange.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("30");
+
+		exchange = exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2");
+		assertThat(this.handlerCount.get()).isEqualTo(2);
+
+		this.filter.setClock(Clock.fixed(now.plusSeconds(100), ZoneId.of("UTC")));
+		exchange = exchange(MockServerHttpRequest.get("/catalog"));
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 3");
+	}
+
+	@Test
+	public void cachesBodyWrittenInSeveralBuffers() {
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/catalog"), 3);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 1response 1response 1");
+
+		exchange = exchange(MockServerHttpRequest.get("/catalog"), 3);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 1response 1response 1");
+		assertThat(this.handlerCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void doesNotCacheBodyExceedingMaxEntrySize() {
+		this.filter.setMaxEntrySize(25);
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/catalog"), 3);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 1response 1response 1");
+
+		exchange = exchange(MockServerHttpRequest.get("/catalog"), 3);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("response 2response 2response 2");
+		assertThat(this.filter.getSize()).isEqualTo(0L);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		this.filter.setMaxSize(150);
+		exchange(MockServerHttpRequest.get("/catalog/1"));
+		exchange(MockServerHttpRequest.get("/catalog/2"));
+		exchange(MockServerHttpRequest.get("/catalog/1"));
+		assertThat(this.handlerCount.get()).isEqualTo(2);
+
+		exchange(MockServerHttpRequest.get("/catalog/3"));
+		exchange(MockServerHttpRequest.get("/catalog/1"));
+		assertThat(this.handlerCount.get()).isEqualTo(3);
+		exchange(MockServerHttpRequest.get("/catalog/2"));
+		assertThat(this.handlerCount.get()).isEqualTo(4);
+		assertThat(this.filter.getSize()).isLessThanOrEqualTo(150L);
+	}
+
+
+	private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+		return exchange(request, 1);
+	}
+
+	private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, int bufferCount) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		this.filter.filter(exchange, filterExchange -> handle(filterExchange, bufferCount))
+				.block(Duration.ofSeconds(5));
+		return exchange;
+	}
+
+	private Mono<Void> handle(ServerWebExchange exchange) {
+		return handle(exchange, 1);
+	}
+
+	private Mono<Void> handle(ServerWebExchange exchange, int bufferCount) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.getHeaders().setCacheControl(this.cacheControl);
+		response.getHeaders().setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+		byte[] bytes = ("response " + this.handlerCount.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+		return response.writeWith(Flux.range(0, bufferCount).map(i -> response.bufferFactory().wrap(bytes)));
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ShallowEtagHeaderFilter}.
+ *
+ * @author Finn Ayers
+ */
+public class ShallowEtagHeaderFilterTests {
+
+	private static final String ETAG = "\"0b10a8db164e0754105b7a99be72e3fe5\"";
+
+	private final ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+
+	private HttpStatus status = HttpStatus.OK;
+
+
+	@Test
+	public void filterNoMatch() {
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/hotels"));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(ETAG);
+		assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(11);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterMatch() {
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/hotels").ifNoneMatch(ETAG));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(ETAG);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEmpty();
+	}
+
+	@Test
+	public void filterMatchHead() {
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.head("/hotels").ifNoneMatch(ETAG));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(ETAG);
+	}
+
+	@Test
+	public void filterMatchWeakETag() {
+		this.filter.setWriteWeakETag(true);
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/hotels").ifNoneMatch(ETAG));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("W/" + ETAG);
+	}
+
+	@Test
+	public void filterStreamingThresholdExceeded() {
+		this.filter.setStreamingThreshold(8);
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/hotels").ifNoneMatch(ETAG));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterNotEligible() {
+		this.status = HttpStatus.NOT_FOUND;
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/hotels"));
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+
+		this.status = HttpStatus.OK;
+		exchange = exchange(MockServerHttpRequest.post("/hotels"));
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("Hello World");
+	}
+
+
+	private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		WebFilterChain chain = filterExchange -> {
+			ServerHttpResponse response = filterExchange.getResponse();
+			response.setStatusCode(this.status);
+			DataBufferFactory bufferFactory = response.bufferFactory();
+			return response.writeWith(Flux.just("Hello ", "World")
+					.map(s -> bufferFactory.wrap(s.getBytes(StandardCharsets.UTF_8))));
+		};
+		this.filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+		return exchange;
+	}
+
+}
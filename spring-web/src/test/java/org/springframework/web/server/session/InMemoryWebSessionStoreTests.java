@@ -150,6 +150,129 @@ public class InMemoryWebSessionStoreTests {
 			.withMessage("Max sessions limit reached: 10000");
 	}
 
+	@Test
+	public void expirationOnlyVisitsDueSessions() {
+		DirectFieldAccessor accessor = new DirectFieldAccessor(this.store);
+		Map<?,?> sessions = (Map<?, ?>) accessor.getPropertyValue("sessions");
+		assertThat(sessions).isNotNull();
+
+		WebSession shortLived = insertSession();
+		shortLived.setMaxIdleTime(Duration.ofMinutes(5));
+		shortLived.save().block();
+		WebSession longLived = insertSession();
+		longLived.setMaxIdleTime(Duration.ofMinutes(60));
+		longLived.save().block();
+		WebSession immortal = insertSession();
+		immortal.setMaxIdleTime(Duration.ofSeconds(-1));
+		immortal.save().block();
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(6)));
+		assertThat(sessions.keySet()).containsOnly(longLived.getId(), immortal.getId());
+
+		// Accessed sessions are rescheduled when they come due
+		assertThat(this.store.retrieveSession(longLived.getId()).block()).isNotNull();
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(58)));
+		assertThat(sessions.keySet()).containsOnly(longLived.getId(), immortal.getId());
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(10)));
+		assertThat(sessions.keySet()).containsOnly(immortal.getId());
+	}
+
+	@Test
+	public void maxMemorySize() {
+		this.store.setMaxMemorySize(1024);
+
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", new byte[512]);
+		session.save().block();
+		assertThat(this.store.getMemorySize()).isBetween(512L, 1024L);
+
+		WebSession other = this.store.createWebSession().block();
+		assertThat(other).isNotNull();
+		other.getAttributes().put("foo", new byte[512]);
+		assertThatIllegalStateException().isThrownBy(other::save)
+				.withMessageStartingWith("Max memory size limit reached");
+
+		session.invalidate().block();
+		assertThat(this.store.getMemorySize()).isEqualTo(0);
+		other.save().block();
+		assertThat(this.store.retrieveSession(other.getId()).block()).isSameAs(other);
+	}
+
+	@Test
+	public void offHeap() {
+		this.store.setOffHeap(true);
+
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", "bar");
+		session.save().block();
+		assertThat(this.store.getMemorySize()).isGreaterThan(0);
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertThat(retrieved).isNotNull().isNotSameAs(session);
+		assertThat(retrieved.getAttributes()).containsEntry("foo", "bar");
+
+		retrieved.getAttributes().put("foo", "baz");
+		assertThat(this.store.retrieveSession(session.getId()).block().getAttributes()).containsEntry("foo", "bar");
+		retrieved.save().block();
+		assertThat(this.store.retrieveSession(session.getId()).block().getAttributes()).containsEntry("foo", "baz");
+
+		String id = retrieved.getId();
+		retrieved.changeSessionId().block();
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+		assertThat(this.store.retrieveSession(retrieved.getId()).block()).isNotNull();
+	}
+
+	@Test
+	public void offHeapSaveWithSmallerAttributes() {
+		this.store.setOffHeap(true);
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", "barbarbarbar");
+		session.save().block();
+		long size = this.store.getMemorySize();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertThat(retrieved).isNotNull();
+		retrieved.getAttributes().put("foo", "bar");
+		retrieved.save().block();
+		assertThat(this.store.getMemorySize()).isEqualTo(size);
+		WebSession saved = this.store.retrieveSession(session.getId()).block();
+		assertThat(saved).isNotNull();
+		assertThat(saved.getAttributes()).containsEntry("foo", "bar").hasSize(1);
+	}
+
+	@Test
+	public void offHeapSessionInvalidatedBeforeSave() {
+		this.store.setOffHeap(true);
+		WebSession session1 = insertSession();
+		String id = session1.getId();
+
+		WebSession session2 = this.store.retrieveSession(id).block();
+		assertThat(session2).isNotNull();
+		WebSession session3 = this.store.retrieveSession(id).block();
+		assertThat(session3).isNotNull();
+		session3.invalidate().block();
+
+		session2.getAttributes().put("foo", "bar");
+		session2.save().block();
+
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+		assertThat(this.store.getMemorySize()).isEqualTo(0);
+	}
+
+	@Test
+	public void offHeapExpiration() {
+		this.store.setOffHeap(true);
+		WebSession session = insertSession();
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.getSessions()).isEmpty();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isNull();
+	}
+
 	private WebSession insertSession() {
 		WebSession session = this.store.createWebSession().block();
 		assertThat(session).isNotNull();
@@ -17,6 +17,7 @@
 package org.springframework.web.util;
 
 import java.io.UnsupportedEncodingException;
+import javax.servlet.http.HttpServletRequest;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -24,6 +25,7 @@ import org.junit.Test;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * Unit tests for {@link UrlPathHelper}.
@@ -166,6 +168,72 @@ public class UrlPathHelperTests {
 		assertThat(helper.getLookupPathForRequest(request)).isEqualTo("/welcome.html;c=d");
 	}
 
+	@Test
+	public void getLookupPathWithOverriddenPathWithinServletMapping() {
+		UrlPathHelper customHelper = new UrlPathHelper() {
+			@Override
+			public String getPathWithinServletMapping(HttpServletRequest request) {
+				return "/custom";
+			}
+		};
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+
+		assertThat(customHelper.getLookupPathForRequest(request)).isEqualTo("/custom");
+	}
+
+	@Test
+	public void resolveAndCacheLookupPath() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+
+		assertThat(helper.resolveAndCacheLookupPath(request)).isEqualTo("/welcome.html");
+		assertThat(UrlPathHelper.getResolvedLookupPath(request)).isEqualTo("/welcome.html");
+		Object cached = request.getAttribute(UrlPathHelper.PATH_ATTRIBUTE);
+
+		// Equally configured helper reuses the cached lookup path
+		assertThat(new UrlPathHelper().resolveAndCacheLookupPath(request)).isEqualTo("/welcome.html");
+		assertThat(request.getAttribute(UrlPathHelper.PATH_ATTRIBUTE)).isSameAs(cached);
+	}
+
+	@Test
+	public void resolveAndCacheLookupPathWithDifferentSettings() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+
+		assertThat(helper.resolveAndCacheLookupPath(request)).isEqualTo("/welcome.html");
+
+		UrlPathHelper fullPathHelper = new UrlPathHelper();
+		fullPathHelper.setAlwaysUseFullPath(true);
+		assertThat(fullPathHelper.resolveAndCacheLookupPath(request)).isEqualTo("/main/welcome.html");
+		assertThat(UrlPathHelper.getResolvedLookupPath(request)).isEqualTo("/main/welcome.html");
+	}
+
+	@Test
+	public void resolveAndCacheLookupPathAfterRequestChange() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+
+		assertThat(helper.resolveAndCacheLookupPath(request)).isEqualTo("/welcome.html");
+
+		// e.g. forward
+		request.setRequestURI("/petclinic/main/other.html");
+		assertThat(helper.resolveAndCacheLookupPath(request)).isEqualTo("/other.html");
+
+		// e.g. include
+		request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/petclinic/main/included.html");
+		assertThat(helper.resolveAndCacheLookupPath(request)).isEqualTo("/included.html");
+	}
+
+	@Test
+	public void getResolvedLookupPathWithoutResolution() {
+		assertThatIllegalArgumentException().isThrownBy(() -> UrlPathHelper.getResolvedLookupPath(request));
+	}
+
 
 	//
 	// suite of tests root requests for default servlets (SRV 11.2) on Websphere vs Tomcat and other containers
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PathPatternSet}.
+ *
+ * @author Finn Ayers
+ */
+public class PathPatternSetTests {
+
+	private final PathPatternParser parser = new PathPatternParser();
+
+
+	@Test
+	public void matchesSortedBySpecificity() {
+		PathPatternSet set = createSet("/**", "/resources/**", "/resources/{*path}",
+				"/resources/css/*.css", "/resources/css/main.css", "/other/**");
+
+		assertThat(match(set, "/resources/css/main.css")).containsExactly(
+				"/resources/css/main.css", "/resources/css/*.css", "/resources/**", "/resources/{*path}", "/**");
+		assertThat(match(set, "/other/file")).containsExactly("/other/**", "/**");
+		assertThat(match(set, "/")).containsExactly("/**");
+	}
+
+	@Test
+	public void sameOrderAsSpecificityComparator() {
+		List<String> patterns = Arrays.asList("/a/b/c", "/a/{x}/c", "/a/*/c", "/a/**",
+				"/{x}/{y}/{z}", "/a/b/{z}", "/a/b/c/", "/**", "/a/b/c*", "/a/?/c");
+		PathPatternSet set = createSet(patterns.toArray(new String[0]));
+
+		for (String path : Arrays.asList("/a/b/c", "/a/b/c/", "/a/x/c", "/a/b/cd", "/z/y/x")) {
+			PathContainer container = PathContainer.parsePath(path);
+			List<PathPattern> expected = new ArrayList<>();
+			for (String pattern : patterns) {
+				PathPattern pathPattern = this.parser.parse(pattern);
+				if (pathPattern.matches(container)) {
+					expected.add(pathPattern);
+				}
+			}
+			expected.sort(PathPattern.SPECIFICITY_COMPARATOR);
+			assertThat(set.getMatchingPatterns(container)).as(path).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	public void bestMatchingPattern() {
+		PathPatternSet set = createSet("/foo/**", "/foo/bar", "/foo/{id}");
+
+		assertThat(set.getBestMatchingPattern(PathContainer.parsePath("/foo/bar")).getPatternString())
+				.isEqualTo("/foo/bar");
+		assertThat(set.getBestMatchingPattern(PathContainer.parsePath("/foo/baz")).getPatternString())
+				.isEqualTo("/foo/{id}");
+		assertThat(set.getBestMatchingPattern(PathContainer.parsePath("/bar"))).isNull();
+	}
+
+	@Test
+	public void optionalTrailingSeparator() {
+		PathPatternSet set = createSet("/foo/bar");
+		assertThat(match(set, "/foo/bar/")).containsExactly("/foo/bar");
+		assertThat(match(set, "/foo/ba")).isEmpty();
+	}
+
+	@Test
+	public void caseInsensitive() {
+		PathPatternParser parser = new PathPatternParser();
+		parser.setCaseSensitive(false);
+		PathPatternSet set = new PathPatternSet(Arrays.asList(
+				parser.parse("/Foo/Bar"), this.parser.parse("/foo/bar"), this.parser.parse("/FOO/**")));
+
+		assertThat(match(set, "/FOO/BAR")).containsExactly("/Foo/Bar", "/FOO/**");
+		assertThat(match(set, "/foo/bar")).containsExactly("/Foo/Bar", "/foo/bar");
+	}
+
+	@Test
+	public void emptyPatternAndPath() {
+		PathPatternSet set = createSet("", "/**", "/foo");
+		assertThat(match(set, "")).containsExactly("", "/**");
+		assertThat(createSet().isEmpty()).isTrue();
+		assertThat(match(createSet(), "/foo")).isEmpty();
+	}
+
+
+	private PathPatternSet createSet(String... patterns) {
+		return new PathPatternSet(Arrays.stream(patterns).map(this.parser::parse).collect(Collectors.toList()));
+	}
+
+	private List<String> match(PathPatternSet set, String path) {
+		return set.getMatchingPatterns(PathContainer.parsePath(path)).stream()
+				.map(PathPattern::getPatternString)
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+/**
+ * Exception published by a {@link ConcurrencyLimitExchangeFilterFunction}
+ * when a request is rejected since the current concurrency limit is reached.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public class ConcurrencyLimitExceededException extends WebClientException {
+
+	private static final long serialVersionUID = -6340566295743651846L;
+
+	private final int limit;
+
+
+	/**
+	 * Create a new instance of {@code ConcurrencyLimitExceededException}.
+	 * @param limit the concurrency limit at the time of the rejection
+	 */
+	public ConcurrencyLimitExceededException(int limit) {
+		super("Concurrency limit of " + limit + " exchanges exceeded");
+		this.limit = limit;
+	}
+
+
+	/**
+	 * Return the concurrency limit at the time of the rejection.
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+}
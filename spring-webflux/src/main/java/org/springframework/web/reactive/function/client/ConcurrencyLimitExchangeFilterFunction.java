@@ -0,0 +1,391 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractor;
+import org.springframework.web.reactive.function.client.support.ClientResponseWrapper;
+
+/**
+ * {@link ExchangeFilterFunction} that limits the number of concurrent
+ * exchanges, adapting the limit to the measured response latencies with an
+ * AIMD (additive increase, multiplicative decrease) algorithm. Requests beyond
+ * the current limit fail immediately with a {@link ConcurrencyLimitExceededException},
+ * shedding load before it queues up in front of an overloaded server.
+ *
+ * <p>The limit is decreased by the configured {@linkplain #setBackoffRatio
+ * backoff ratio}, at most once per response latency, when an exchange fails,
+ * when the server responds with {@code 429 Too Many Requests} or
+ * {@code 503 Service Unavailable}, or when the latency of a response exceeds
+ * the minimum recently observed latency by more than the configured
+ * {@linkplain #setLatencyTolerance tolerance}. Otherwise, the limit grows by
+ * about one per round of exchanges, as long as at least half of it is used.
+ *
+ * <p>An exchange counts against the limit until its response body has been
+ * consumed or released, which the {@code WebClient} contract requires in any
+ * case, since the underlying connection is in use until then.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public class ConcurrencyLimitExchangeFilterFunction implements ExchangeFilterFunction {
+
+	/** Number of latencies after which the minimum latency is re-established. */
+	private static final int LATENCY_WINDOW_SIZE = 500;
+
+
+	private int minLimit = 1;
+
+	private int maxLimit = 200;
+
+	private double backoffRatio = 0.9;
+
+	private double latencyTolerance = 2.0;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	private volatile int limit = 20;
+
+	private final Object monitor = new Object();
+
+	// The following fields are guarded by the monitor
+
+	private double estimatedLimit = 20;
+
+	private long minLatency = Long.MAX_VALUE;
+
+	private long windowMinLatency = Long.MAX_VALUE;
+
+	private int windowLatencyCount;
+
+	private long lastDecreaseTime;
+
+	private boolean decreased;
+
+
+	/**
+	 * Set the initial concurrency limit, adjusted to the range between the
+	 * {@linkplain #setMinLimit minimum} and {@linkplain #setMaxLimit maximum}
+	 * limits: set those first when configuring a limit outside of the default range.
+	 * <p>By default this is set to 20.
+	 */
+	public void setInitialLimit(int initialLimit) {
+		Assert.isTrue(initialLimit > 0, "Initial limit must be greater than 0");
+		synchronized (this.monitor) {
+			setEstimatedLimit(initialLimit);
+		}
+	}
+
+	/**
+	 * Set the minimum concurrency limit, raising the current limit if necessary.
+	 * <p>By default this is set to 1.
+	 */
+	public void setMinLimit(int minLimit) {
+		Assert.isTrue(minLimit > 0, "Minimum limit must be greater than 0");
+		synchronized (this.monitor) {
+			Assert.isTrue(minLimit <= this.maxLimit, "Minimum limit must not be greater than maximum limit");
+			this.minLimit = minLimit;
+			setEstimatedLimit(this.estimatedLimit);
+		}
+	}
+
+	/**
+	 * Return the configured minimum concurrency limit.
+	 */
+	public int getMinLimit() {
+		return this.minLimit;
+	}
+
+	/**
+	 * Set the maximum concurrency limit, lowering the current limit if necessary.
+	 * <p>By default this is set to 200.
+	 */
+	public void setMaxLimit(int maxLimit) {
+		Assert.isTrue(maxLimit > 0, "Maximum limit must be greater than 0");
+		synchronized (this.monitor) {
+			Assert.isTrue(maxLimit >= this.minLimit, "Maximum limit must not be less than minimum limit");
+			this.maxLimit = maxLimit;
+			setEstimatedLimit(this.estimatedLimit);
+		}
+	}
+
+	/**
+	 * Return the configured maximum concurrency limit.
+	 */
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	/**
+	 * Set the ratio to multiply the limit with when overload is detected,
+	 * as a value between 0 and 1.
+	 * <p>By default this is set to 0.9.
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "Backoff ratio must be between 0 and 1");
+		this.backoffRatio = backoffRatio;
+	}
+
+	/**
+	 * Return the configured backoff ratio.
+	 */
+	public double getBackoffRatio() {
+		return this.backoffRatio;
+	}
+
+	/**
+	 * Set the factor by which the latency of a response may exceed the
+	 * minimum recently observed latency before it is considered a sign of
+	 * overload.
+	 * <p>By default this is set to 2.
+	 */
+	public void setLatencyTolerance(double latencyTolerance) {
+		Assert.isTrue(latencyTolerance >= 1, "Latency tolerance must be at least 1");
+		this.latencyTolerance = latencyTolerance;
+	}
+
+	/**
+	 * Return the configured latency tolerance.
+	 */
+	public double getLatencyTolerance() {
+		return this.latencyTolerance;
+	}
+
+	/**
+	 * Return the current concurrency limit.
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+	/**
+	 * Return the number of exchanges currently in progress.
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * Return the number of requests rejected so far.
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.sum();
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		return Mono.defer(() -> {
+			int limit = this.limit;
+			if (!tryAcquire(limit)) {
+				this.rejectedCount.increment();
+				return Mono.error(new ConcurrencyLimitExceededException(limit));
+			}
+			Permit permit = new Permit();
+			long startTime = System.nanoTime();
+			return next.exchange(request)
+					.map(response -> {
+						permit.responded = true;
+						long latency = System.nanoTime() - startTime;
+						onResponse(latency, isOverloadStatus(response.rawStatusCode()));
+						return (ClientResponse) new PermitReleasingClientResponse(response, permit);
+					})
+					.doOnSuccess(response -> {
+						if (response == null) {
+							permit.release();
+						}
+					})
+					.doOnError(ex -> {
+						onFailure(System.nanoTime() - startTime);
+						permit.release();
+					})
+					.doOnCancel(() -> {
+						if (!permit.responded) {
+							permit.release();
+						}
+					});
+		});
+	}
+
+	private boolean tryAcquire(int limit) {
+		while (true) {
+			int current = this.inFlight.get();
+			if (current >= limit) {
+				return false;
+			}
+			if (this.inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private static boolean isOverloadStatus(int statusCode) {
+		return (statusCode == HttpStatus.TOO_MANY_REQUESTS.value() ||
+				statusCode == HttpStatus.SERVICE_UNAVAILABLE.value());
+	}
+
+	private void onResponse(long latency, boolean overloaded) {
+		synchronized (this.monitor) {
+			if (latency < this.windowMinLatency) {
+				this.windowMinLatency = latency;
+			}
+			long minLatency = Math.min(this.minLatency, this.windowMinLatency);
+			if (++this.windowLatencyCount == LATENCY_WINDOW_SIZE) {
+				// Let the minimum follow lasting changes in the latency of the server
+				this.minLatency = this.windowMinLatency;
+				this.windowMinLatency = Long.MAX_VALUE;
+				this.windowLatencyCount = 0;
+			}
+			if (overloaded || latency > minLatency * this.latencyTolerance) {
+				decreaseLimit(latency);
+			}
+			else if (this.inFlight.get() * 2 >= this.estimatedLimit) {
+				setEstimatedLimit(this.estimatedLimit + 1 / this.estimatedLimit);
+			}
+		}
+	}
+
+	private void onFailure(long latency) {
+		synchronized (this.monitor) {
+			decreaseLimit(latency);
+		}
+	}
+
+	private void decreaseLimit(long latency) {
+		long now = System.nanoTime();
+		if (!this.decreased || now - this.lastDecreaseTime >= latency) {
+			this.decreased = true;
+			this.lastDecreaseTime = now;
+			setEstimatedLimit(this.estimatedLimit * this.backoffRatio);
+		}
+	}
+
+	/**
+	 * Set the estimated limit within the configured range, and update the
+	 * limit accordingly. To be called with the monitor held.
+	 */
+	private void setEstimatedLimit(double estimatedLimit) {
+		this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, estimatedLimit));
+		this.limit = (int) this.estimatedLimit;
+	}
+
+
+	/**
+	 * Holds a slot of the concurrency limit for a single exchange.
+	 */
+	private class Permit {
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		volatile boolean responded;
+
+		void release() {
+			if (this.released.compareAndSet(false, true)) {
+				inFlight.decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * {@link ClientResponse} that releases the permit of its exchange once
+	 * the body has been consumed, or the consumption failed or was cancelled.
+	 */
+	private static class PermitReleasingClientResponse extends ClientResponseWrapper {
+
+		private final Permit permit;
+
+		PermitReleasingClientResponse(ClientResponse delegate, Permit permit) {
+			super(delegate);
+			this.permit = permit;
+		}
+
+		@Override
+		public <T> T body(BodyExtractor<T, ? super ClientHttpResponse> extractor) {
+			return releaseAfter(super.body(extractor));
+		}
+
+		@Override
+		public <T> Mono<T> bodyToMono(Class<? extends T> elementClass) {
+			return releaseAfter(super.bodyToMono(elementClass));
+		}
+
+		@Override
+		public <T> Mono<T> bodyToMono(ParameterizedTypeReference<T> typeReference) {
+			return releaseAfter(super.bodyToMono(typeReference));
+		}
+
+		@Override
+		public <T> Flux<T> bodyToFlux(Class<? extends T> elementClass) {
+			return releaseAfter(super.bodyToFlux(elementClass));
+		}
+
+		@Override
+		public <T> Flux<T> bodyToFlux(ParameterizedTypeReference<T> typeReference) {
+			return releaseAfter(super.bodyToFlux(typeReference));
+		}
+
+		@Override
+		public <T> Mono<ResponseEntity<T>> toEntity(Class<T> bodyType) {
+			return releaseAfter(super.toEntity(bodyType));
+		}
+
+		@Override
+		public <T> Mono<ResponseEntity<T>> toEntity(ParameterizedTypeReference<T> typeReference) {
+			return releaseAfter(super.toEntity(typeReference));
+		}
+
+		@Override
+		public <T> Mono<ResponseEntity<List<T>>> toEntityList(Class<T> elementType) {
+			return releaseAfter(super.toEntityList(elementType));
+		}
+
+		@Override
+		public <T> Mono<ResponseEntity<List<T>>> toEntityList(ParameterizedTypeReference<T> typeReference) {
+			return releaseAfter(super.toEntityList(typeReference));
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T releaseAfter(T body) {
+			if (body instanceof Mono) {
+				return (T) ((Mono<?>) body).doFinally(signalType -> this.permit.release());
+			}
+			else if (body instanceof Flux) {
+				return (T) ((Flux<?>) body).doFinally(signalType -> this.permit.release());
+			}
+			else {
+				this.permit.release();
+				return body;
+			}
+		}
+	}
+
+}
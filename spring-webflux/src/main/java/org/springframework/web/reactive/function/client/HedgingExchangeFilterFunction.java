@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ExchangeFilterFunction} that hedges slow requests: if no response
+ * has been received after a delay derived from the observed latencies, the
+ * request is sent a second time, the first response of either request is
+ * used, and the other request is cancelled or, if its response arrived in the
+ * meantime, has its response body released.
+ *
+ * <p>The hedge delay is the configured {@linkplain #setPercentile percentile}
+ * of the latencies of recent responses, bounded by the configured
+ * {@linkplain #setMinDelay minimum} and {@linkplain #setMaxDelay maximum}
+ * delay. Until enough latencies have been recorded, the maximum delay is used.
+ *
+ * <p>To keep the additional load in check, hedged requests are subject to a
+ * budget that allows a given {@linkplain #setBudgetRatio ratio} of the
+ * requests to be hedged. By default, only {@code GET}, {@code HEAD} and
+ * {@code OPTIONS} requests are hedged, since other requests may not be
+ * idempotent or may have a body that cannot be written twice.
+ *
+ * <p>An error of the original request is propagated, while an error of the
+ * hedged request is ignored in favor of the outcome of the original request.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public class HedgingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private static final Set<HttpMethod> DEFAULT_METHODS =
+			EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+	/** Number of recent latencies to derive the hedge delay from. */
+	private static final int SAMPLE_COUNT = 128;
+
+	/** Number of recorded latencies after which the hedge delay is recalculated. */
+	private static final int RECALCULATION_INTERVAL = 32;
+
+	/** Budget units per hedged request. */
+	private static final int BUDGET_UNIT = 1000;
+
+	/** Maximum number of hedged requests the budget can accumulate. */
+	private static final int MAX_BUDGET_HEDGES = 10;
+
+
+	private double percentile = 0.95;
+
+	private Duration minDelay = Duration.ofMillis(10);
+
+	private Duration maxDelay = Duration.ofSeconds(1);
+
+	private double budgetRatio = 0.1;
+
+	private Predicate<ClientRequest> requestPredicate = request -> DEFAULT_METHODS.contains(request.method());
+
+	private final AtomicLongArray latencies = new AtomicLongArray(SAMPLE_COUNT);
+
+	private final AtomicLong latencyCount = new AtomicLong();
+
+	/** The hedge delay in nanoseconds, or -1 until enough latencies were recorded. */
+	private volatile long delay = -1;
+
+	private final AtomicInteger budget = new AtomicInteger();
+
+	private final LongAdder hedgeCount = new LongAdder();
+
+
+	/**
+	 * Set the percentile of the recent response latencies to use as hedge
+	 * delay, as a value between 0 and 1.
+	 * <p>By default this is set to 0.95, i.e. about 5% of the requests are
+	 * hedged, subject to the budget.
+	 */
+	public void setPercentile(double percentile) {
+		Assert.isTrue(percentile > 0 && percentile <= 1, "Percentile must be greater than 0 and at most 1");
+		this.percentile = percentile;
+	}
+
+	/**
+	 * Return the configured percentile.
+	 */
+	public double getPercentile() {
+		return this.percentile;
+	}
+
+	/**
+	 * Set the minimum hedge delay.
+	 * <p>By default this is set to 10 milliseconds.
+	 */
+	public void setMinDelay(Duration minDelay) {
+		Assert.isTrue(!minDelay.isNegative(), "Minimum delay must not be negative");
+		this.minDelay = minDelay;
+	}
+
+	/**
+	 * Return the configured minimum hedge delay.
+	 */
+	public Duration getMinDelay() {
+		return this.minDelay;
+	}
+
+	/**
+	 * Set the maximum hedge delay, also used until enough response latencies
+	 * have been recorded.
+	 * <p>By default this is set to 1 second.
+	 */
+	public void setMaxDelay(Duration maxDelay) {
+		Assert.isTrue(!maxDelay.isNegative(), "Maximum delay must not be negative");
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Return the configured maximum hedge delay.
+	 */
+	public Duration getMaxDelay() {
+		return this.maxDelay;
+	}
+
+	/**
+	 * Set the maximum ratio of hedged to eligible requests, as a value
+	 * between 0 and 1. Unused budget accumulates for up to 10 hedged requests.
+	 * <p>By default this is set to 0.1, i.e. at most one in ten requests is hedged.
+	 */
+	public void setBudgetRatio(double budgetRatio) {
+		Assert.isTrue(budgetRatio >= 0 && budgetRatio <= 1, "Budget ratio must be between 0 and 1");
+		this.budgetRatio = budgetRatio;
+	}
+
+	/**
+	 * Return the configured budget ratio.
+	 */
+	public double getBudgetRatio() {
+		return this.budgetRatio;
+	}
+
+	/**
+	 * Set the predicate that determines which requests may be hedged.
+	 * <p>By default, {@code GET}, {@code HEAD} and {@code OPTIONS} requests
+	 * may be hedged.
+	 */
+	public void setRequestPredicate(Predicate<ClientRequest> requestPredicate) {
+		Assert.notNull(requestPredicate, "Predicate must not be null");
+		this.requestPredicate = requestPredicate;
+	}
+
+	/**
+	 * Return the current hedge delay.
+	 */
+	public Duration getDelay() {
+		long delay = this.delay;
+		if (delay < 0) {
+			return this.maxDelay;
+		}
+		long nanos = Math.max(this.minDelay.toNanos(), Math.min(this.maxDelay.toNanos(), delay));
+		return Duration.ofNanos(nanos);
+	}
+
+	/**
+	 * Return the number of requests that were hedged so far.
+	 */
+	public long getHedgeCount() {
+		return this.hedgeCount.sum();
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		if (!this.requestPredicate.test(request)) {
+			return next.exchange(request);
+		}
+		return Mono.defer(() -> {
+			depositBudget();
+			AtomicBoolean responded = new AtomicBoolean();
+			Mono<ClientResponse> original = exchange(request, next, responded);
+			Mono<ClientResponse> hedged = Mono.delay(getDelay())
+					.flatMap(tick -> {
+						if (responded.get() || !withdrawBudget()) {
+							return Mono.never();
+						}
+						this.hedgeCount.increment();
+						return exchange(request, next, responded).onErrorResume(ex -> Mono.never());
+					});
+			return Mono.first(original, hedged);
+		});
+	}
+
+	private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, AtomicBoolean responded) {
+		return Mono.defer(() -> {
+			long startTime = System.nanoTime();
+			return next.exchange(request).flatMap(response -> {
+				if (responded.compareAndSet(false, true)) {
+					recordLatency(System.nanoTime() - startTime);
+					return Mono.just(response);
+				}
+				// Lost the race: release the response independent of the cancellation of this request
+				response.bodyToMono(Void.class).onErrorResume(ex -> Mono.empty()).subscribe();
+				return Mono.never();
+			});
+		});
+	}
+
+	private void depositBudget() {
+		int deposit = (int) (this.budgetRatio * BUDGET_UNIT);
+		int max = BUDGET_UNIT * MAX_BUDGET_HEDGES;
+		this.budget.getAndUpdate(current -> Math.min(max, current + deposit));
+	}
+
+	private boolean withdrawBudget() {
+		while (true) {
+			int current = this.budget.get();
+			if (current < BUDGET_UNIT) {
+				return false;
+			}
+			if (this.budget.compareAndSet(current, current - BUDGET_UNIT)) {
+				return true;
+			}
+		}
+	}
+
+	private void recordLatency(long latency) {
+		long count = this.latencyCount.getAndIncrement() + 1;
+		this.latencies.set((int) ((count - 1) % SAMPLE_COUNT), latency);
+		if (count >= SAMPLE_COUNT && count % RECALCULATION_INTERVAL == 0) {
+			long[] values = new long[SAMPLE_COUNT];
+			for (int i = 0; i < SAMPLE_COUNT; i++) {
+				values[i] = this.latencies.get(i);
+			}
+			Arrays.sort(values);
+			int index = (int) Math.ceil(this.percentile * SAMPLE_COUNT) - 1;
+			this.delay = values[Math.max(0, index)];
+		}
+	}
+
+}
@@ -20,7 +20,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import reactor.core.publisher.Mono;
 
@@ -31,6 +30,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternSet;
 
 /**
  * Abstract base class for URL-mapped
@@ -57,6 +57,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 
 	private final Map<PathPattern, Object> handlerMap = new LinkedHashMap<>();
 
+	@Nullable
+	private volatile PathPatternSet patternSet;
+
 
 	/**
 	 * Set whether to lazily initialize handlers. Only applicable to
@@ -108,19 +111,15 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 	@Nullable
 	protected Object lookupHandler(PathContainer lookupPath, ServerWebExchange exchange) throws Exception {
 
-		List<PathPattern> matches = this.handlerMap.keySet().stream()
-				.filter(key -> key.matches(lookupPath))
-				.collect(Collectors.toList());
+		// Matches are already sorted by specificity
+		List<PathPattern> matches = getPatternSet().getMatchingPatterns(lookupPath);
 
 		if (matches.isEmpty()) {
 			return null;
 		}
 
-		if (matches.size() > 1) {
-			matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
-			if (logger.isTraceEnabled()) {
-				logger.debug(exchange.getLogPrefix() + "Matching patterns " + matches);
-			}
+		if (matches.size() > 1 && logger.isTraceEnabled()) {
+			logger.debug(exchange.getLogPrefix() + "Matching patterns " + matches);
 		}
 
 		PathPattern pattern = matches.get(0);
@@ -128,6 +127,15 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 		return handleMatch(this.handlerMap.get(pattern), pattern, pathWithinMapping, exchange);
 	}
 
+	private PathPatternSet getPatternSet() {
+		PathPatternSet patternSet = this.patternSet;
+		if (patternSet == null) {
+			patternSet = new PathPatternSet(this.handlerMap.keySet());
+			this.patternSet = patternSet;
+		}
+		return patternSet;
+	}
+
 	private Object handleMatch(Object handler, PathPattern bestMatch, PathContainer pathWithinMapping,
 			ServerWebExchange exchange) {
 
@@ -206,6 +214,7 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 
 		// Register resolved handler
 		this.handlerMap.put(pattern, resolvedHandler);
+		this.patternSet = null;
 		if (logger.isTraceEnabled()) {
 			logger.trace("Mapped [" + urlPath + "] onto " + getHandlerDescription(handler));
 		}
@@ -0,0 +1,584 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Resolver that delegates to the chain, and if a resource is found that is
+ * not encoded already, compresses it with gzip on first access if the
+ * "Accept-Encoding" request header allows it. The compressed variant is then
+ * cached, and served for subsequent requests without compressing it again,
+ * until the last-modified time of the resource changes.
+ *
+ * <p>Only resources with one of the configured {@link #setMediaTypes mediaTypes}
+ * and at least {@link #setMinContentLength minContentLength} bytes are
+ * compressed. Compressed variants are kept in memory up to
+ * {@link #setMaxMemorySize maxMemorySize} in total, with the least recently
+ * used variants evicted first. If a {@link #setCacheDirectory cacheDirectory}
+ * is configured, evicted variants are written to it instead of being dropped.
+ * Both compressed and uncompressed responses for compressible resources
+ * carry a {@code "Vary: Accept-Encoding"} header.
+ *
+ * <p>Since the JDK does not provide a brotli encoder, only gzip variants are
+ * created. This resolver should be ordered ahead of an
+ * {@link EncodedResourceResolver}, so that existing precompressed variants,
+ * e.g. brotli, are still preferred when present. For the same reason as the
+ * {@code EncodedResourceResolver}, it must also be ordered ahead of a
+ * {@link VersionResourceResolver} with a content-based, version strategy.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ */
+public class CompressingResourceResolver extends AbstractResourceResolver {
+
+	/**
+	 * The content coding of the compressed variants.
+	 */
+	public static final String GZIP_CODING = "gzip";
+
+	/**
+	 * The default media types of resources to compress.
+	 */
+	public static final List<MediaType> DEFAULT_MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+			MediaType.parseMediaType("text/*"), MediaType.parseMediaType("application/javascript"),
+			MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.parseMediaType("image/svg+xml")));
+
+
+	private final List<MediaType> mediaTypes = new ArrayList<>(DEFAULT_MEDIA_TYPES);
+
+	private long minContentLength = 1024;
+
+	private long maxMemorySize = 10 * 1024 * 1024;
+
+	@Nullable
+	private File cacheDirectory;
+
+	private final Map<String, CompressedContent> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long memorySize;
+
+	private final Map<String, CompletableFuture<CompressedContent>> compressions = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Configure the media types of resources to compress.
+	 * <p>By default this property is set to {@link #DEFAULT_MEDIA_TYPES}.
+	 * @param mediaTypes the media types, possibly with wildcards
+	 */
+	public void setMediaTypes(List<MediaType> mediaTypes) {
+		Assert.notEmpty(mediaTypes, "At least one media type expected");
+		this.mediaTypes.clear();
+		this.mediaTypes.addAll(mediaTypes);
+	}
+
+	/**
+	 * Return a read-only list with the media types of resources to compress.
+	 */
+	public List<MediaType> getMediaTypes() {
+		return Collections.unmodifiableList(this.mediaTypes);
+	}
+
+	/**
+	 * Configure the minimum content length of resources to compress, since
+	 * compressing small resources does not save enough to be worth the effort.
+	 * <p>By default this is set to 1024 bytes.
+	 */
+	public void setMinContentLength(long minContentLength) {
+		this.minContentLength = minContentLength;
+	}
+
+	/**
+	 * Return the configured minimum content length.
+	 */
+	public long getMinContentLength() {
+		return this.minContentLength;
+	}
+
+	/**
+	 * Configure the maximum number of bytes of compressed variants to keep
+	 * in memory.
+	 * <p>By default this is set to 10M.
+	 */
+	public void setMaxMemorySize(long maxMemorySize) {
+		this.maxMemorySize = maxMemorySize;
+	}
+
+	/**
+	 * Return the configured maximum memory size.
+	 */
+	public long getMaxMemorySize() {
+		return this.maxMemorySize;
+	}
+
+	/**
+	 * Configure a directory to write compressed variants to once they are
+	 * evicted from memory, or if they exceed the maximum memory size.
+	 * <p>By default this is not set, and such variants are dropped and
+	 * compressed again when they are next requested.
+	 */
+	public void setCacheDirectory(@Nullable File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Return the configured cache directory, if any.
+	 */
+	@Nullable
+	public File getCacheDirectory() {
+		return this.cacheDirectory;
+	}
+
+	/**
+	 * Return the number of bytes of compressed variants held in memory.
+	 */
+	public long getMemorySize() {
+		synchronized (this.cache) {
+			return this.memorySize;
+		}
+	}
+
+
+	@Override
+	protected Mono<Resource> resolveResourceInternal(@Nullable ServerWebExchange exchange,
+			String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveResource(exchange, requestPath, locations).flatMap(resource -> {
+
+			if (exchange == null || !isCompressible(resource)) {
+				return Mono.just(resource);
+			}
+
+			String acceptEncoding = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+			if (acceptEncoding == null || !acceptEncoding.toLowerCase().contains(GZIP_CODING)) {
+				return Mono.just(new CompressedResource(resource, null));
+			}
+
+			CompletableFuture<CompressedContent> content;
+			try {
+				content = getCompressedContent(resource);
+			}
+			catch (IOException ex) {
+				logger.debug(exchange.getLogPrefix() + "Failed to compress [" + resource.getFilename() + "]", ex);
+				return Mono.just(resource);
+			}
+			return Mono.fromFuture(content)
+					.<Resource>map(compressed -> new CompressedResource(resource, compressed))
+					.onErrorResume(IOException.class, ex -> {
+						logger.debug(exchange.getLogPrefix() + "Failed to compress [" + resource.getFilename() + "]", ex);
+						return Mono.just(resource);
+					});
+		});
+	}
+
+	private boolean isCompressible(Resource resource) {
+		if (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return false;
+		}
+		MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(null);
+		if (mediaType == null || this.mediaTypes.stream().noneMatch(type -> type.includes(mediaType))) {
+			return false;
+		}
+		try {
+			return (resource.contentLength() >= this.minContentLength);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Return the cached compressed content of the given resource, or else a
+	 * future for its compression on the elastic scheduler, shared with any
+	 * concurrent requests for the same resource.
+	 */
+	private CompletableFuture<CompressedContent> getCompressedContent(Resource resource) throws IOException {
+		String key = resource.getURL().toExternalForm();
+		long lastModified = resource.lastModified();
+		CompressedContent content = getCachedContent(key, lastModified);
+		if (content != null) {
+			return CompletableFuture.completedFuture(content);
+		}
+		CompletableFuture<CompressedContent> future = new CompletableFuture<>();
+		CompletableFuture<CompressedContent> existing = this.compressions.putIfAbsent(key, future);
+		if (existing != null) {
+			return existing;
+		}
+		// Compressing and spilling to disk are blocking
+		Schedulers.elastic().schedule(() -> {
+			try {
+				CompressedContent cached = getCachedContent(key, lastModified);
+				future.complete(cached != null ? cached : compress(resource, key, lastModified));
+			}
+			catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+			finally {
+				this.compressions.remove(key, future);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Return the cached compressed content for the given key, unless it is
+	 * outdated by a later last-modified time of the resource.
+	 */
+	@Nullable
+	private CompressedContent getCachedContent(String key, long lastModified) {
+		synchronized (this.cache) {
+			CompressedContent content = this.cache.get(key);
+			return (content != null && content.getLastModified() == lastModified ? content : null);
+		}
+	}
+
+	private CompressedContent compress(Resource resource, String key, long lastModified) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream((int) Math.min(resource.contentLength(), 1024 * 1024));
+		try (InputStream in = resource.getInputStream(); OutputStream out = new GZIPOutputStream(bos)) {
+			StreamUtils.copy(in, out);
+		}
+		CompressedContent content = new CompressedContent(key, bos.toByteArray(), lastModified);
+		cache(content);
+		return content;
+	}
+
+	/**
+	 * Add the given content to the cache, evicting the least recently used
+	 * content held in memory as necessary. Evicted content is written to the
+	 * cache directory, if any, after the cache lock has been released.
+	 */
+	private void cache(CompressedContent content) {
+		CompressedContent previous;
+		List<CompressedContent> toSpill = new ArrayList<>();
+		synchronized (this.cache) {
+			previous = this.cache.remove(content.getKey());
+			if (previous != null && previous.inMemory) {
+				this.memorySize -= previous.getContentLength();
+				previous.inMemory = false;
+			}
+			if (content.getContentLength() <= this.maxMemorySize) {
+				Iterator<CompressedContent> it = this.cache.values().iterator();
+				while (this.memorySize + content.getContentLength() > this.maxMemorySize && it.hasNext()) {
+					CompressedContent eldest = it.next();
+					if (eldest.inMemory) {
+						this.memorySize -= eldest.getContentLength();
+						eldest.inMemory = false;
+						if (this.cacheDirectory != null) {
+							toSpill.add(eldest);
+						}
+						else {
+							eldest.release();
+							it.remove();
+						}
+					}
+				}
+				this.memorySize += content.getContentLength();
+				content.inMemory = true;
+				this.cache.put(content.getKey(), content);
+			}
+			else if (this.cacheDirectory != null) {
+				toSpill.add(content);
+				this.cache.put(content.getKey(), content);
+			}
+		}
+		if (previous != null) {
+			previous.delete();
+		}
+		toSpill.forEach(this::spill);
+	}
+
+	private void spill(CompressedContent content) {
+		File cacheDirectory = this.cacheDirectory;
+		boolean spilled = false;
+		if (cacheDirectory != null) {
+			try {
+				content.spill(cacheDirectory);
+				spilled = true;
+			}
+			catch (IOException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to write compressed variant to " + cacheDirectory, ex);
+				}
+			}
+		}
+		boolean removed;
+		synchronized (this.cache) {
+			removed = (this.cache.get(content.getKey()) != content);
+			if (!spilled && !removed) {
+				this.cache.remove(content.getKey());
+				removed = true;
+			}
+		}
+		if (removed) {
+			// Replaced or dropped while being written
+			content.release();
+			content.delete();
+		}
+	}
+
+	private static CompressedContent awaitContent(Future<CompressedContent> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for compressed content");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	@Override
+	protected Mono<String> resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * Compressed content of a resource, held in memory or in a file.
+	 */
+	private static class CompressedContent {
+
+		private final String key;
+
+		@Nullable
+		private volatile byte[] bytes;
+
+		@Nullable
+		private volatile File file;
+
+		private final long contentLength;
+
+		private final long lastModified;
+
+		/** Whether the bytes are counted in the memory size, guarded by the cache lock. */
+		boolean inMemory;
+
+		public CompressedContent(String key, byte[] bytes, long lastModified) {
+			this.key = key;
+			this.bytes = bytes;
+			this.contentLength = bytes.length;
+			this.lastModified = lastModified;
+		}
+
+		public String getKey() {
+			return this.key;
+		}
+
+		public long getContentLength() {
+			return this.contentLength;
+		}
+
+		public long getLastModified() {
+			return this.lastModified;
+		}
+
+		@Nullable
+		public InputStream getInputStream() throws IOException {
+			byte[] bytes = this.bytes;
+			if (bytes != null) {
+				return new ByteArrayInputStream(bytes);
+			}
+			File file = this.file;
+			return (file != null && file.exists() ? new FileInputStream(file) : null);
+		}
+
+		public void spill(File directory) throws IOException {
+			byte[] bytes = this.bytes;
+			if (bytes != null) {
+				File file = File.createTempFile("resource", ".gz", directory);
+				file.deleteOnExit();
+				FileCopyUtils.copy(bytes, file);
+				this.file = file;
+				this.bytes = null;
+			}
+		}
+
+		public void release() {
+			this.bytes = null;
+		}
+
+		public void delete() {
+			File file = this.file;
+			if (file != null) {
+				file.delete();
+			}
+		}
+	}
+
+
+	/**
+	 * A compressible {@link HttpResource}, either served as is or with its
+	 * compressed content from the cache, compressing it again if evicted.
+	 */
+	private final class CompressedResource extends AbstractResource implements HttpResource {
+
+		private final Resource original;
+
+		private final boolean compressed;
+
+		@Nullable
+		private volatile CompressedContent content;
+
+		CompressedResource(Resource original, @Nullable CompressedContent content) {
+			this.original = original;
+			this.compressed = (content != null);
+			this.content = content;
+		}
+
+		private CompressedContent getContent() throws IOException {
+			CompressedContent content = this.content;
+			if (content == null) {
+				content = awaitContent(getCompressedContent(this.original));
+				this.content = content;
+			}
+			return content;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			if (!this.compressed) {
+				return this.original.getInputStream();
+			}
+			InputStream inputStream = getContent().getInputStream();
+			if (inputStream == null) {
+				this.content = null;
+				inputStream = getContent().getInputStream();
+			}
+			if (inputStream == null) {
+				throw new IOException("Compressed content of " + getDescription() + " was evicted");
+			}
+			return inputStream;
+		}
+
+		@Override
+		public boolean exists() {
+			return this.original.exists();
+		}
+
+		@Override
+		public boolean isReadable() {
+			return this.original.isReadable();
+		}
+
+		@Override
+		public boolean isFile() {
+			return (!this.compressed && this.original.isFile());
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return (this.compressed ? super.getURL() : this.original.getURL());
+		}
+
+		@Override
+		public File getFile() throws IOException {
+			return (this.compressed ? super.getFile() : this.original.getFile());
+		}
+
+		@Override
+		public long contentLength() throws IOException {
+			return (this.compressed ? getContent().getContentLength() : this.original.contentLength());
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return this.original.lastModified();
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.original.getDescription();
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers;
+			if (this.original instanceof HttpResource) {
+				headers = ((HttpResource) this.original).getResponseHeaders();
+			}
+			else {
+				headers = new HttpHeaders();
+			}
+			if (this.compressed) {
+				headers.add(HttpHeaders.CONTENT_ENCODING, GZIP_CODING);
+			}
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			return headers;
+		}
+	}
+
+}
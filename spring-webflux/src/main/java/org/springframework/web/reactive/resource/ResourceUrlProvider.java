@@ -32,11 +32,13 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.pattern.PathPattern;
 import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PathPatternSet;
 
 /**
  * A central component to use to obtain the public URL path that clients should
@@ -58,6 +60,9 @@ public class ResourceUrlProvider implements ApplicationListener<ContextRefreshed
 
 	private final Map<PathPattern, ResourceWebHandler> handlerMap = new LinkedHashMap<>();
 
+	@Nullable
+	private volatile PathPatternSet patternSet;
+
 
 	/**
 	 * Return a read-only view of the resource handler mappings either manually
@@ -81,6 +86,7 @@ public class ResourceUrlProvider implements ApplicationListener<ContextRefreshed
 			PathPattern pattern = this.patternParser.parse(rawPattern);
 			this.handlerMap.put(pattern, resourceWebHandler);
 		});
+		this.patternSet = null;
 	}
 
 	@Override
@@ -102,6 +108,7 @@ public class ResourceUrlProvider implements ApplicationListener<ContextRefreshed
 					this.handlerMap.put(pattern, resourceHandler);
 				}
 			}));
+		this.patternSet = null;
 
 		if (this.handlerMap.isEmpty()) {
 			logger.trace("No resource handling mappings found");
@@ -142,26 +149,30 @@ public class ResourceUrlProvider implements ApplicationListener<ContextRefreshed
 	}
 
 	private Mono<String> resolveResourceUrl(ServerWebExchange exchange, PathContainer lookupPath) {
-		return this.handlerMap.entrySet().stream()
-				.filter(entry -> entry.getKey().matches(lookupPath))
-				.min((entry1, entry2) ->
-						PathPattern.SPECIFICITY_COMPARATOR.compare(entry1.getKey(), entry2.getKey()))
-				.map(entry -> {
-					PathContainer path = entry.getKey().extractPathWithinPattern(lookupPath);
-					int endIndex = lookupPath.elements().size() - path.elements().size();
-					PathContainer mapping = lookupPath.subPath(0, endIndex);
-					ResourceWebHandler handler = entry.getValue();
-					List<ResourceResolver> resolvers = handler.getResourceResolvers();
-					ResourceResolverChain chain = new DefaultResourceResolverChain(resolvers);
-					return chain.resolveUrlPath(path.value(), handler.getLocations())
-							.map(resolvedPath -> mapping.value() + resolvedPath);
-				})
-				.orElseGet(() ->{
-					if (logger.isTraceEnabled()) {
-						logger.trace(exchange.getLogPrefix() + "No match for \"" + lookupPath + "\"");
-					}
-					return Mono.empty();
-				});
+		PathPattern pattern = getPatternSet().getBestMatchingPattern(lookupPath);
+		if (pattern == null) {
+			if (logger.isTraceEnabled()) {
+				logger.trace(exchange.getLogPrefix() + "No match for \"" + lookupPath + "\"");
+			}
+			return Mono.empty();
+		}
+		PathContainer path = pattern.extractPathWithinPattern(lookupPath);
+		int endIndex = lookupPath.elements().size() - path.elements().size();
+		PathContainer mapping = lookupPath.subPath(0, endIndex);
+		ResourceWebHandler handler = this.handlerMap.get(pattern);
+		List<ResourceResolver> resolvers = handler.getResourceResolvers();
+		ResourceResolverChain chain = new DefaultResourceResolverChain(resolvers);
+		return chain.resolveUrlPath(path.value(), handler.getLocations())
+				.map(resolvedPath -> mapping.value() + resolvedPath);
+	}
+
+	private PathPatternSet getPatternSet() {
+		PathPatternSet patternSet = this.patternSet;
+		if (patternSet == null) {
+			patternSet = new PathPatternSet(this.handlerMap.keySet());
+			this.patternSet = patternSet;
+		}
+		return patternSet;
 	}
 
 
@@ -106,6 +106,23 @@ public class VersionResourceResolver extends AbstractResourceResolver {
 		return this;
 	}
 
+	/**
+	 * Insert a content-based version in resource URLs that match the given path
+	 * patterns, like {@link #addContentVersionStrategy}, but look up versions
+	 * in the given manifest first, rather than computing them from the content
+	 * of each file.
+	 * @param manifest the location of the manifest, e.g. produced at build time
+	 * @param pathPatterns one or more resource URL path patterns,
+	 * relative to the pattern configured with the resource handler
+	 * @return the current instance for chained method invocation
+	 * @since 5.2
+	 * @see ManifestVersionStrategy
+	 */
+	public VersionResourceResolver addManifestVersionStrategy(Resource manifest, String... pathPatterns) {
+		addVersionStrategy(new ManifestVersionStrategy(manifest), pathPatterns);
+		return this;
+	}
+
 	/**
 	 * Insert a fixed, prefix-based version in resource URLs that match the given
 	 * path patterns, for example: <code>"{version}/js/main.js"</code>. This is useful (vs.
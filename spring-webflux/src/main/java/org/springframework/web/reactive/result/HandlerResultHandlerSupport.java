@@ -33,6 +33,7 @@ import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.http.MediaType;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
@@ -51,6 +52,8 @@ public abstract class HandlerResultHandlerSupport implements Ordered {
 	private static final List<MediaType> ALL_APPLICATION_MEDIA_TYPES =
 			Arrays.asList(MediaType.ALL, new MediaType("application"));
 
+	private static final int MEDIA_TYPE_SELECTION_CACHE_LIMIT = 1024;
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -58,6 +61,10 @@ public abstract class HandlerResultHandlerSupport implements Ordered {
 
 	private final ReactiveAdapterRegistry adapterRegistry;
 
+	/** Selected media type, or {@code null} for no match, per acceptable and producible types. */
+	private final ConcurrentLruCache<MediaTypeSelectionKey, MediaType> mediaTypeSelectionCache =
+			new ConcurrentLruCache<>(MEDIA_TYPE_SELECTION_CACHE_LIMIT, HandlerResultHandlerSupport::doSelectMediaType);
+
 	private int order = LOWEST_PRECEDENCE;
 
 
@@ -131,9 +138,28 @@ public abstract class HandlerResultHandlerSupport implements Ordered {
 		List<MediaType> acceptableTypes = getAcceptableTypes(exchange);
 		List<MediaType> producibleTypes = getProducibleTypes(exchange, producibleTypesSupplier);
 
+		MediaType selected = this.mediaTypeSelectionCache.get(
+				new MediaTypeSelectionKey(acceptableTypes, producibleTypes));
+
+		if (selected != null) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Using '" + selected + "' given " + acceptableTypes +
+						" and supported " + producibleTypes);
+			}
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug(exchange.getLogPrefix() +
+					"No match for " + acceptableTypes + ", supported: " + producibleTypes);
+		}
+
+		return selected;
+	}
+
+	@Nullable
+	private static MediaType doSelectMediaType(MediaTypeSelectionKey key) {
 		Set<MediaType> compatibleMediaTypes = new LinkedHashSet<>();
-		for (MediaType acceptable : acceptableTypes) {
-			for (MediaType producible : producibleTypes) {
+		for (MediaType acceptable : key.acceptableTypes) {
+			for (MediaType producible : key.producibleTypes) {
 				if (acceptable.isCompatibleWith(producible)) {
 					compatibleMediaTypes.add(selectMoreSpecificMediaType(acceptable, producible));
 				}
@@ -143,30 +169,15 @@ public abstract class HandlerResultHandlerSupport implements Ordered {
 		List<MediaType> result = new ArrayList<>(compatibleMediaTypes);
 		MediaType.sortBySpecificityAndQuality(result);
 
-		MediaType selected = null;
 		for (MediaType mediaType : result) {
 			if (mediaType.isConcrete()) {
-				selected = mediaType;
-				break;
+				return mediaType;
 			}
 			else if (mediaType.isPresentIn(ALL_APPLICATION_MEDIA_TYPES)) {
-				selected = MediaType.APPLICATION_OCTET_STREAM;
-				break;
+				return MediaType.APPLICATION_OCTET_STREAM;
 			}
 		}
-
-		if (selected != null) {
-			if (logger.isDebugEnabled()) {
-				logger.debug("Using '" + selected + "' given " + acceptableTypes +
-						" and supported " + producibleTypes);
-			}
-		}
-		else if (logger.isDebugEnabled()) {
-			logger.debug(exchange.getLogPrefix() +
-					"No match for " + acceptableTypes + ", supported: " + producibleTypes);
-		}
-
-		return selected;
+		return null;
 	}
 
 	private List<MediaType> getAcceptableTypes(ServerWebExchange exchange) {
@@ -180,10 +191,50 @@ public abstract class HandlerResultHandlerSupport implements Ordered {
 		return (mediaTypes != null ? new ArrayList<>(mediaTypes) : producibleTypesSupplier.get());
 	}
 
-	private MediaType selectMoreSpecificMediaType(MediaType acceptable, MediaType producible) {
+	private static MediaType selectMoreSpecificMediaType(MediaType acceptable, MediaType producible) {
 		producible = producible.copyQualityValue(acceptable);
 		Comparator<MediaType> comparator = MediaType.SPECIFICITY_COMPARATOR;
 		return (comparator.compare(acceptable, producible) <= 0 ? acceptable : producible);
 	}
 
+
+	/**
+	 * Key for the media type selection cache. The outcome of the content
+	 * negotiation algorithm depends on the acceptable and the producible
+	 * media types only, so requests with the same resolved acceptable types
+	 * for the same handler and return type share the same selection.
+	 */
+	private static final class MediaTypeSelectionKey {
+
+		private final List<MediaType> acceptableTypes;
+
+		private final List<MediaType> producibleTypes;
+
+		private final int hashCode;
+
+		MediaTypeSelectionKey(List<MediaType> acceptableTypes, List<MediaType> producibleTypes) {
+			this.acceptableTypes = acceptableTypes;
+			this.producibleTypes = producibleTypes;
+			this.hashCode = acceptableTypes.hashCode() * 31 + producibleTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MediaTypeSelectionKey)) {
+				return false;
+			}
+			MediaTypeSelectionKey otherKey = (MediaTypeSelectionKey) other;
+			return (this.acceptableTypes.equals(otherKey.acceptableTypes) &&
+					this.producibleTypes.equals(otherKey.producibleTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
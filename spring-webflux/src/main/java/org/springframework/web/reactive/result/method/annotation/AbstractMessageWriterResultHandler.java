@@ -18,6 +18,7 @@ package org.springframework.web.reactive.result.method.annotation;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import kotlin.reflect.KFunction;
@@ -35,6 +36,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageWriter;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
 import org.springframework.web.reactive.result.HandlerResultHandlerSupport;
 import org.springframework.web.server.NotAcceptableStatusException;
@@ -52,8 +54,13 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 
 	private static final String COROUTINES_FLOW_CLASS_NAME = "kotlinx.coroutines.flow.Flow";
 
+	private static final int PRODUCIBLE_MEDIA_TYPES_CACHE_LIMIT = 256;
+
 	private final List<HttpMessageWriter<?>> messageWriters;
 
+	private final ConcurrentLruCache<ResolvableType, List<MediaType>> producibleMediaTypesCache =
+			new ConcurrentLruCache<>(PRODUCIBLE_MEDIA_TYPES_CACHE_LIMIT, this::initMediaTypesFor);
+
 
 	/**
 	 * Constructor with {@link HttpMessageWriter HttpMessageWriters} and a
@@ -181,13 +188,17 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 	}
 
 	private List<MediaType> getMediaTypesFor(ResolvableType elementType) {
+		return this.producibleMediaTypesCache.get(elementType);
+	}
+
+	private List<MediaType> initMediaTypesFor(ResolvableType elementType) {
 		List<MediaType> writableMediaTypes = new ArrayList<>();
 		for (HttpMessageWriter<?> converter : getMessageWriters()) {
 			if (converter.canWrite(elementType, null)) {
 				writableMediaTypes.addAll(converter.getWritableMediaTypes());
 			}
 		}
-		return writableMediaTypes;
+		return Collections.unmodifiableList(writableMediaTypes);
 	}
 
 
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link ConcurrencyLimitExchangeFilterFunction}.
+ *
+ * @author Finn Ayers
+ */
+public class ConcurrencyLimitExchangeFilterFunctionTests {
+
+	private static final URI DEFAULT_URL = URI.create("https://example.com");
+
+	private final ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+
+	private final ConcurrencyLimitExchangeFilterFunction filter = new ConcurrencyLimitExchangeFilterFunction();
+
+
+	@Test
+	public void exchangeHoldsPermitUntilBodyConsumed() {
+		this.filter.setInitialLimit(1);
+		this.filter.setMaxLimit(1);
+		ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.OK).body("foo").build());
+
+		ClientResponse response = this.filter.filter(this.request, exchange).block();
+		assertThat(response).isNotNull();
+		assertThat(this.filter.getInFlight()).isEqualTo(1);
+
+		StepVerifier.create(this.filter.filter(this.request, exchange))
+				.expectError(ConcurrencyLimitExceededException.class)
+				.verify();
+		assertThat(this.filter.getRejectedCount()).isEqualTo(1);
+
+		assertThat(response.bodyToMono(String.class).block()).isEqualTo("foo");
+		assertThat(this.filter.getInFlight()).isEqualTo(0);
+
+		StepVerifier.create(this.filter.filter(this.request, exchange).flatMap(r -> r.bodyToMono(String.class)))
+				.expectNext("foo")
+				.verifyComplete();
+		assertThat(this.filter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void permitReleasedWhenEntityRetrieved() {
+		ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.OK).body("foo").build());
+
+		ResponseEntity<String> entity = this.filter.filter(this.request, exchange)
+				.flatMap(response -> response.toEntity(String.class))
+				.block();
+		assertThat(entity).isNotNull();
+		assertThat(entity.getBody()).isEqualTo("foo");
+		assertThat(this.filter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void permitReleasedWhenBodyCancelled() {
+		ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.OK).body(Flux.never()).build());
+
+		ClientResponse response = this.filter.filter(this.request, exchange).block();
+		assertThat(response).isNotNull();
+		assertThat(this.filter.getInFlight()).isEqualTo(1);
+
+		response.bodyToMono(String.class).subscribe().dispose();
+		assertThat(this.filter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void limitIncreasesWhenUsed() {
+		this.filter.setInitialLimit(1);
+		ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.OK).build());
+
+		this.filter.filter(this.request, exchange).flatMap(r -> r.bodyToMono(Void.class)).block();
+
+		assertThat(this.filter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	public void limitDecreasesOnOverloadStatus() {
+		this.filter.setInitialLimit(10);
+		ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+		this.filter.filter(this.request, exchange).flatMap(r -> r.bodyToMono(Void.class)).block();
+
+		assertThat(this.filter.getLimit()).isEqualTo(9);
+		assertThat(this.filter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void limitDecreasesOnError() {
+		this.filter.setInitialLimit(10);
+		ExchangeFunction exchange = request -> Mono.error(new IllegalStateException("Connection refused"));
+
+		StepVerifier.create(this.filter.filter(this.request, exchange))
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		assertThat(this.filter.getLimit()).isEqualTo(9);
+		assertThat(this.filter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void limitIsKeptWithinRange() {
+		this.filter.setInitialLimit(500);
+		assertThat(this.filter.getLimit()).isEqualTo(200);
+
+		this.filter.setMinLimit(50);
+		this.filter.setInitialLimit(10);
+		assertThat(this.filter.getLimit()).isEqualTo(50);
+
+		this.filter.setMaxLimit(60);
+		this.filter.setInitialLimit(500);
+		assertThat(this.filter.getLimit()).isEqualTo(60);
+		this.filter.setMaxLimit(55);
+		assertThat(this.filter.getLimit()).isEqualTo(55);
+	}
+
+	@Test
+	public void minLimitGreaterThanMaxLimitIsRejected() {
+		this.filter.setMaxLimit(10);
+		assertThatIllegalArgumentException().isThrownBy(() -> this.filter.setMinLimit(11));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.filter.setMaxLimit(0));
+		this.filter.setMinLimit(10);
+		assertThatIllegalArgumentException().isThrownBy(() -> this.filter.setMaxLimit(9));
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link HedgingExchangeFilterFunction}.
+ *
+ * @author Finn Ayers
+ */
+public class HedgingExchangeFilterFunctionTests {
+
+	private static final URI DEFAULT_URL = URI.create("https://example.com");
+
+	private final HedgingExchangeFilterFunction filter = new HedgingExchangeFilterFunction();
+
+	private final AtomicInteger exchangeCount = new AtomicInteger();
+
+
+	@Test
+	public void fastResponseIsNotHedged() {
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		this.filter.setBudgetRatio(1);
+
+		ClientResponse result = this.filter.filter(request(HttpMethod.GET), exchange(Mono.just(response))).block();
+
+		assertThat(result).isSameAs(response);
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+		assertThat(this.filter.getHedgeCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void slowResponseIsHedged() {
+		AtomicBoolean originalCancelled = new AtomicBoolean();
+		ClientResponse hedgedResponse = ClientResponse.create(HttpStatus.OK).build();
+		this.filter.setBudgetRatio(1);
+		this.filter.setMaxDelay(Duration.ofMillis(10));
+
+		ClientResponse result = this.filter.filter(request(HttpMethod.GET),
+				exchange(Mono.<ClientResponse>never().doOnCancel(() -> originalCancelled.set(true)),
+						Mono.just(hedgedResponse)))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(hedgedResponse);
+		assertThat(originalCancelled.get()).isTrue();
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+		assertThat(this.filter.getHedgeCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void hedgeBudgetExhausted() {
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		this.filter.setBudgetRatio(0);
+		this.filter.setMaxDelay(Duration.ofMillis(10));
+
+		ClientResponse result = this.filter.filter(request(HttpMethod.GET),
+				exchange(Mono.delay(Duration.ofMillis(100)).thenReturn(response)))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+		assertThat(this.filter.getHedgeCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void nonIdempotentRequestIsNotHedged() {
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		this.filter.setBudgetRatio(1);
+		this.filter.setMaxDelay(Duration.ofMillis(10));
+
+		ClientResponse result = this.filter.filter(request(HttpMethod.POST),
+				exchange(Mono.delay(Duration.ofMillis(100)).thenReturn(response)))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void hedgedRequestErrorIsIgnored() {
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		this.filter.setBudgetRatio(1);
+		this.filter.setMaxDelay(Duration.ofMillis(10));
+
+		ClientResponse result = this.filter.filter(request(HttpMethod.GET),
+				exchange(Mono.delay(Duration.ofMillis(100)).thenReturn(response),
+						Mono.error(new IllegalStateException("Connection refused"))))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(this.filter.getHedgeCount()).isEqualTo(1);
+	}
+
+
+	private static ClientRequest request(HttpMethod method) {
+		return ClientRequest.create(method, DEFAULT_URL).build();
+	}
+
+	@SafeVarargs
+	private final ExchangeFunction exchange(Mono<ClientResponse>... responses) {
+		return request -> responses[this.exchangeCount.getAndIncrement()];
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ManifestVersionStrategy}.
+ *
+ * @author Finn Ayers
+ */
+public class ManifestVersionStrategyTests {
+
+	private final Resource resource = new ClassPathResource("test/bar.css", getClass());
+
+
+	@Test
+	public void getResourceVersionFromManifest() {
+		String key = "test/bar.css";
+		Resource manifest = new ByteArrayResource((key + "=123\n").getBytes(StandardCharsets.ISO_8859_1));
+		ManifestVersionStrategy versionStrategy = new ManifestVersionStrategy(manifest);
+
+		assertThat(versionStrategy.getResourceVersion(this.resource).block()).isEqualTo("123");
+		assertThat(versionStrategy.getResourceVersion(new ClassPathResource("test/foo.css", getClass())).block())
+				.isEqualTo("e36d2e05253c6c7085a91522ce43a0b4");
+	}
+
+	@Test
+	public void getResourceVersionWithManifestFile() throws IOException {
+		File manifestFile = File.createTempFile("manifest", ".properties");
+		manifestFile.delete();
+		try {
+			String hash = DigestUtils.md5DigestAsHex(FileCopyUtils.copyToByteArray(this.resource.getInputStream()));
+			ManifestVersionStrategy versionStrategy = new ManifestVersionStrategy(manifestFile);
+			assertThat(versionStrategy.getResourceVersion(this.resource).block()).isEqualTo(hash);
+			assertThat(manifestFile.exists()).isTrue();
+
+			versionStrategy = new ManifestVersionStrategy(manifestFile);
+			assertThat(versionStrategy.getManifest()).containsEntry("test/bar.css", hash);
+			assertThat(versionStrategy.getResourceVersion(this.resource).block()).isEqualTo(hash);
+		}
+		finally {
+			manifestFile.delete();
+		}
+	}
+
+	@Test
+	public void getResourceVersionRehashesModifiedResource() throws IOException {
+		File manifestFile = File.createTempFile("manifest", ".properties");
+		File file = File.createTempFile("resource", ".css");
+		try {
+			FileCopyUtils.copy("body { color: red; }".getBytes(StandardCharsets.UTF_8), file);
+			Resource resource = new FileSystemResource(file);
+			ManifestVersionStrategy versionStrategy = new ManifestVersionStrategy(manifestFile);
+			String hash = versionStrategy.getResourceVersion(resource).block();
+
+			FileCopyUtils.copy("body { color: blue; }".getBytes(StandardCharsets.UTF_8), file);
+			String newHash = versionStrategy.getResourceVersion(resource).block();
+			assertThat(newHash).isNotEqualTo(hash)
+					.isEqualTo(DigestUtils.md5DigestAsHex(FileCopyUtils.copyToByteArray(file)));
+
+			String manifestContent = new String(FileCopyUtils.copyToByteArray(manifestFile), StandardCharsets.ISO_8859_1);
+			assertThat(manifestContent).doesNotContain(hash).contains(newHash);
+
+			versionStrategy = new ManifestVersionStrategy(manifestFile);
+			assertThat(versionStrategy.getManifest()).containsEntry(file.toURI().toURL().toExternalForm(), newHash);
+		}
+		finally {
+			manifestFile.delete();
+			file.delete();
+		}
+	}
+
+}
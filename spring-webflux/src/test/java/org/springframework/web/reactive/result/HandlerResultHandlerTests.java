@@ -101,6 +101,24 @@ public class HandlerResultHandlerTests {
 		assertThat(actual).isEqualTo(APPLICATION_OCTET_STREAM);
 	}
 
+	@Test
+	public void selectionPerAcceptableAndProducibleTypes() throws Exception {
+		List<MediaType> producible = Arrays.asList(TEXT_PLAIN, APPLICATION_JSON);
+		String[] accepts = {"application/json", "text/plain", "application/json", "image/gif", "text/plain"};
+		MediaType[] expected = {APPLICATION_JSON, TEXT_PLAIN, APPLICATION_JSON, null, TEXT_PLAIN};
+
+		for (int i = 0; i < accepts.length; i++) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(
+					MockServerHttpRequest.get("/path").header("Accept", accepts[i]));
+			assertThat(this.resultHandler.selectMediaType(exchange, () -> producible)).isEqualTo(expected[i]);
+		}
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/path").header("Accept", "text/plain"));
+		exchange.getAttributes().put(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, Collections.singleton(IMAGE_GIF));
+		assertThat(this.resultHandler.selectMediaType(exchange, () -> producible)).isNull();
+	}
+
 
 	@SuppressWarnings("WeakerAccess")
 	private static class TestResultHandler extends HandlerResultHandlerSupport {
@@ -50,6 +50,8 @@ import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -88,6 +90,10 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 	private static final Type RESOURCE_REGION_LIST_TYPE =
 			new ParameterizedTypeReference<List<ResourceRegion>>() { }.getType();
 
+	private static final int PRODUCIBLE_MEDIA_TYPES_CACHE_LIMIT = 256;
+
+	private static final int MEDIA_TYPES_TO_USE_CACHE_LIMIT = 1024;
+
 
 	private static final UrlPathHelper decodingUrlPathHelper = new UrlPathHelper();
 
@@ -105,6 +111,15 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 	private final Set<String> safeExtensions = new HashSet<>();
 
+	/** Media types of the converters that can write a given value class and target type. */
+	private final ConcurrentLruCache<ProducibleTypesKey, List<MediaType>> producibleMediaTypesCache =
+			new ConcurrentLruCache<>(PRODUCIBLE_MEDIA_TYPES_CACHE_LIMIT, this::initProducibleMediaTypes);
+
+	/** Compatible media types, sorted by specificity and quality, per acceptable and producible types. */
+	private final ConcurrentLruCache<MediaTypesKey, List<MediaType>> mediaTypesToUseCache =
+			new ConcurrentLruCache<>(MEDIA_TYPES_TO_USE_CACHE_LIMIT,
+					AbstractMessageConverterMethodProcessor::initMediaTypesToUse);
+
 
 	/**
 	 * Constructor with list of converters only.
@@ -233,14 +248,8 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				throw new HttpMessageNotWritableException(
 						"No converter found for return value of type: " + valueType);
 			}
-			List<MediaType> mediaTypesToUse = new ArrayList<>();
-			for (MediaType requestedType : acceptableTypes) {
-				for (MediaType producibleType : producibleTypes) {
-					if (requestedType.isCompatibleWith(producibleType)) {
-						mediaTypesToUse.add(getMostSpecificMediaType(requestedType, producibleType));
-					}
-				}
-			}
+			List<MediaType> mediaTypesToUse =
+					this.mediaTypesToUseCache.get(new MediaTypesKey(acceptableTypes, producibleTypes));
 			if (mediaTypesToUse.isEmpty()) {
 				if (body != null) {
 					throw new HttpMediaTypeNotAcceptableException(producibleTypes);
@@ -251,8 +260,6 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				return;
 			}
 
-			MediaType.sortBySpecificityAndQuality(mediaTypesToUse);
-
 			for (MediaType mediaType : mediaTypesToUse) {
 				if (mediaType.isConcrete()) {
 					selectedMediaType = mediaType;
@@ -367,22 +374,41 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 			return new ArrayList<>(mediaTypes);
 		}
 		else if (!this.allSupportedMediaTypes.isEmpty()) {
-			List<MediaType> result = new ArrayList<>();
-			for (HttpMessageConverter<?> converter : this.messageConverters) {
-				if (converter instanceof GenericHttpMessageConverter && targetType != null) {
-					if (((GenericHttpMessageConverter<?>) converter).canWrite(targetType, valueClass, null)) {
-						result.addAll(converter.getSupportedMediaTypes());
-					}
-				}
-				else if (converter.canWrite(valueClass, null)) {
+			return new ArrayList<>(this.producibleMediaTypesCache.get(new ProducibleTypesKey(valueClass, targetType)));
+		}
+		else {
+			return Collections.singletonList(MediaType.ALL);
+		}
+	}
+
+	private List<MediaType> initProducibleMediaTypes(ProducibleTypesKey key) {
+		Class<?> valueClass = key.valueClass;
+		Type targetType = key.targetType;
+		List<MediaType> result = new ArrayList<>();
+		for (HttpMessageConverter<?> converter : this.messageConverters) {
+			if (converter instanceof GenericHttpMessageConverter && targetType != null) {
+				if (((GenericHttpMessageConverter<?>) converter).canWrite(targetType, valueClass, null)) {
 					result.addAll(converter.getSupportedMediaTypes());
 				}
 			}
-			return result;
+			else if (converter.canWrite(valueClass, null)) {
+				result.addAll(converter.getSupportedMediaTypes());
+			}
 		}
-		else {
-			return Collections.singletonList(MediaType.ALL);
+		return Collections.unmodifiableList(result);
+	}
+
+	private static List<MediaType> initMediaTypesToUse(MediaTypesKey key) {
+		List<MediaType> mediaTypesToUse = new ArrayList<>();
+		for (MediaType requestedType : key.acceptableTypes) {
+			for (MediaType producibleType : key.producibleTypes) {
+				if (requestedType.isCompatibleWith(producibleType)) {
+					mediaTypesToUse.add(getMostSpecificMediaType(requestedType, producibleType));
+				}
+			}
 		}
+		MediaType.sortBySpecificityAndQuality(mediaTypesToUse);
+		return Collections.unmodifiableList(mediaTypesToUse);
 	}
 
 	private List<MediaType> getAcceptableMediaTypes(HttpServletRequest request)
@@ -395,7 +421,7 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 	 * Return the more specific of the acceptable and the producible media types
 	 * with the q-value of the former.
 	 */
-	private MediaType getMostSpecificMediaType(MediaType acceptType, MediaType produceType) {
+	private static MediaType getMostSpecificMediaType(MediaType acceptType, MediaType produceType) {
 		MediaType produceTypeToUse = produceType.copyQualityValue(acceptType);
 		return (MediaType.SPECIFICITY_COMPARATOR.compare(acceptType, produceTypeToUse) <= 0 ? acceptType : produceTypeToUse);
 	}
@@ -495,4 +521,77 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				mediaType.getSubtype().endsWith("+xml"));
 	}
 
+
+	/**
+	 * Key for the producible media types of the configured converters.
+	 */
+	private static final class ProducibleTypesKey {
+
+		private final Class<?> valueClass;
+
+		@Nullable
+		private final Type targetType;
+
+		ProducibleTypesKey(Class<?> valueClass, @Nullable Type targetType) {
+			this.valueClass = valueClass;
+			this.targetType = targetType;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ProducibleTypesKey)) {
+				return false;
+			}
+			ProducibleTypesKey otherKey = (ProducibleTypesKey) other;
+			return (this.valueClass == otherKey.valueClass &&
+					ObjectUtils.nullSafeEquals(this.targetType, otherKey.targetType));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.valueClass.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.targetType);
+		}
+	}
+
+
+	/**
+	 * Key for the compatible media types of given acceptable and producible
+	 * media types, on which the outcome of content negotiation solely depends.
+	 */
+	private static final class MediaTypesKey {
+
+		private final List<MediaType> acceptableTypes;
+
+		private final List<MediaType> producibleTypes;
+
+		private final int hashCode;
+
+		MediaTypesKey(List<MediaType> acceptableTypes, List<MediaType> producibleTypes) {
+			this.acceptableTypes = acceptableTypes;
+			this.producibleTypes = producibleTypes;
+			this.hashCode = acceptableTypes.hashCode() * 31 + producibleTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MediaTypesKey)) {
+				return false;
+			}
+			MediaTypesKey otherKey = (MediaTypesKey) other;
+			return (this.acceptableTypes.equals(otherKey.acceptableTypes) &&
+					this.producibleTypes.equals(otherKey.producibleTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
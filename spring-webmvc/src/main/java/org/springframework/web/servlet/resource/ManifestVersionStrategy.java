@@ -0,0 +1,282 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link ContentVersionStrategy} that looks up the content hash of a resource
+ * in a manifest first, and only calculates it from the content of the resource
+ * if the manifest does not contain it, avoiding hashing all resources at runtime.
+ *
+ * <p>The manifest is a properties file that maps the
+ * {@link #getManifestKey key of a resource} to its Hex MD5 hash, optionally
+ * followed by the content length and the last-modified time of the resource,
+ * e.g. {@code "static/css/main.css=e36d2e05253c6c7085a91522ce43a0b4,1024,1546300800000"}.
+ * It can be produced at build time and loaded from the classpath, or written on
+ * the first run to a {@link #ManifestVersionStrategy(File) manifest file}, to
+ * which calculated hashes are appended along with the content length and the
+ * last-modified time of the resource. If either differs from the current value
+ * for the resource, the hash is calculated again, the entry replaced, and the
+ * manifest file rewritten without the superseded entry. Entries
+ * with a hash only are not checked, so a manifest with such entries must be
+ * produced again whenever resources change.
+ *
+ * @author Finn Ayers
+ * @since 5.2
+ * @see VersionResourceResolver
+ */
+public class ManifestVersionStrategy extends ContentVersionStrategy {
+
+	private final Map<String, ManifestEntry> manifest = new ConcurrentHashMap<>();
+
+	@Nullable
+	private final File manifestFile;
+
+
+	/**
+	 * Create a strategy with the manifest at the given location, e.g. on the
+	 * classpath. Hashes not contained in the manifest are kept in memory.
+	 * @param manifest the manifest location, which need not exist
+	 */
+	public ManifestVersionStrategy(Resource manifest) {
+		Assert.notNull(manifest, "Manifest must not be null");
+		this.manifestFile = null;
+		loadManifest(manifest);
+	}
+
+	/**
+	 * Create a strategy with the given manifest file, which is loaded if it
+	 * exists and to which hashes not contained in it yet are appended.
+	 * @param manifestFile the manifest file, which need not exist
+	 */
+	public ManifestVersionStrategy(File manifestFile) {
+		Assert.notNull(manifestFile, "Manifest file must not be null");
+		this.manifestFile = manifestFile;
+		loadManifest(new FileSystemResource(manifestFile));
+	}
+
+
+	private void loadManifest(Resource manifest) {
+		if (!manifest.exists()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("No version manifest found at " + manifest);
+			}
+			return;
+		}
+		Properties props = new Properties();
+		try (InputStream is = manifest.getInputStream()) {
+			props.load(is);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to load version manifest " + manifest, ex);
+		}
+		for (String key : props.stringPropertyNames()) {
+			this.manifest.put(key, ManifestEntry.parse(props.getProperty(key)));
+		}
+	}
+
+	/**
+	 * Return a read-only snapshot of the hashes in the manifest, including
+	 * hashes calculated at runtime.
+	 */
+	public Map<String, String> getManifest() {
+		Map<String, String> hashes = new LinkedHashMap<>(this.manifest.size());
+		this.manifest.forEach((key, entry) -> hashes.put(key, entry.getHash()));
+		return Collections.unmodifiableMap(hashes);
+	}
+
+
+	@Override
+	public String getResourceVersion(Resource resource) {
+		String key = getManifestKey(resource);
+		ManifestEntry entry = this.manifest.get(key);
+		if (entry != null && !entry.hasMetadata()) {
+			return entry.getHash();
+		}
+		long contentLength = getContentLength(resource);
+		long lastModified = getLastModified(resource);
+		if (entry != null && entry.matches(contentLength, lastModified)) {
+			return entry.getHash();
+		}
+		String hash = super.getResourceVersion(resource);
+		ManifestEntry newEntry = new ManifestEntry(hash, contentLength, lastModified);
+		if (updateManifest(key, entry, newEntry) && this.manifestFile != null) {
+			writeToManifestFile(key, newEntry, entry != null);
+		}
+		return hash;
+	}
+
+	private boolean updateManifest(String key, @Nullable ManifestEntry entry, ManifestEntry newEntry) {
+		return (entry != null ? this.manifest.replace(key, entry, newEntry) :
+				this.manifest.putIfAbsent(key, newEntry) == null);
+	}
+
+	/**
+	 * Return the key of the given resource in the manifest.
+	 * <p>The default implementation returns the path of a {@link ClassPathResource},
+	 * e.g. {@code "static/css/main.css"}, which does not depend on where the
+	 * application is deployed, and the URL of any other resource.
+	 * @param resource the resource to get the key for
+	 * @return the key
+	 */
+	protected String getManifestKey(Resource resource) {
+		if (resource instanceof ClassPathResource) {
+			return ((ClassPathResource) resource).getPath();
+		}
+		try {
+			return resource.getURL().toExternalForm();
+		}
+		catch (IOException ex) {
+			return resource.getDescription();
+		}
+	}
+
+	/**
+	 * Append the given new entry to the manifest file, or rewrite the manifest
+	 * file if the entry supersedes an earlier one, so that the file does not
+	 * keep growing as resources are modified.
+	 */
+	private void writeToManifestFile(String key, ManifestEntry entry, boolean superseding) {
+		Assert.state(this.manifestFile != null, "No manifest file");
+		Properties props = new Properties();
+		synchronized (this.manifest) {
+			if (superseding) {
+				this.manifest.forEach((entryKey, manifestEntry) ->
+						props.setProperty(entryKey, manifestEntry.toString()));
+			}
+			else {
+				props.setProperty(key, entry.toString());
+			}
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try {
+				props.store(bos, null);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+			// Skip the timestamp comment that Properties writes ahead of the entries
+			String content = new String(bos.toByteArray(), StandardCharsets.ISO_8859_1);
+			content = content.substring(content.indexOf('\n') + 1);
+			try (OutputStream out = new FileOutputStream(this.manifestFile, !superseding)) {
+				out.write(content.getBytes(StandardCharsets.ISO_8859_1));
+			}
+			catch (IOException ex) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Failed to write to version manifest " + this.manifestFile, ex);
+				}
+			}
+		}
+	}
+
+	private static long getContentLength(Resource resource) {
+		try {
+			return resource.contentLength();
+		}
+		catch (IOException ex) {
+			return -1;
+		}
+	}
+
+	private static long getLastModified(Resource resource) {
+		try {
+			return resource.lastModified();
+		}
+		catch (IOException ex) {
+			return -1;
+		}
+	}
+
+
+	/**
+	 * A manifest entry: the hash of a resource, and its content length and
+	 * last-modified time when the hash was calculated, or -1 if not known.
+	 */
+	private static final class ManifestEntry {
+
+		private final String hash;
+
+		private final long contentLength;
+
+		private final long lastModified;
+
+		ManifestEntry(String hash, long contentLength, long lastModified) {
+			this.hash = hash;
+			this.contentLength = contentLength;
+			this.lastModified = lastModified;
+		}
+
+		static ManifestEntry parse(String value) {
+			String[] parts = StringUtils.commaDelimitedListToStringArray(value);
+			if (parts.length == 3) {
+				try {
+					return new ManifestEntry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+				}
+				catch (NumberFormatException ex) {
+					// Fall through to a hash-only entry
+				}
+			}
+			return new ManifestEntry(value, -1, -1);
+		}
+
+		String getHash() {
+			return this.hash;
+		}
+
+		/**
+		 * Whether this entry has a content length or a last-modified time
+		 * to check against the current values for the resource.
+		 */
+		boolean hasMetadata() {
+			return (this.contentLength != -1 || this.lastModified != -1);
+		}
+
+		/**
+		 * Whether the given content length and last-modified time of the
+		 * resource still match those of this entry, where known.
+		 */
+		boolean matches(long contentLength, long lastModified) {
+			return ((this.contentLength == -1 || this.contentLength == contentLength) &&
+					(this.lastModified == -1 || this.lastModified == lastModified));
+		}
+
+		@Override
+		public String toString() {
+			return (this.contentLength == -1 && this.lastModified == -1 ? this.hash :
+					this.hash + "," + this.contentLength + "," + this.lastModified);
+		}
+	}
+
+}
@@ -93,7 +93,7 @@ public class ResourceUrlEncodingFilter extends GenericFilterBean {
 			if (this.indexLookupPath == null) {
 				UrlPathHelper pathHelper = this.resourceUrlProvider.getUrlPathHelper();
 				String requestUri = pathHelper.getRequestUri(this);
-				String lookupPath = pathHelper.getLookupPathForRequest(this);
+				String lookupPath = pathHelper.resolveAndCacheLookupPath(this);
 				this.indexLookupPath = requestUri.lastIndexOf(lookupPath);
 				if (this.indexLookupPath == -1) {
 					throw new IllegalStateException(
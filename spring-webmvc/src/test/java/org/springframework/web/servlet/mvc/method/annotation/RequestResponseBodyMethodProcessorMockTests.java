@@ -336,6 +336,28 @@ public class RequestResponseBodyMethodProcessorMockTests {
 	}
 
 
+	@Test
+	public void handleReturnValueWithCachedProducibleTypes() throws Exception {
+		given(stringMessageConverter.canWrite(String.class, null)).willReturn(true);
+		given(stringMessageConverter.canWrite(String.class, MediaType.TEXT_PLAIN)).willReturn(true);
+
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+			request.addHeader("Accept", (i == 1 ? "application/json" : "text/plain"));
+			NativeWebRequest nativeRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+			if (i == 1) {
+				assertThatExceptionOfType(HttpMediaTypeNotAcceptableException.class).isThrownBy(() ->
+						processor.handleReturnValue("Foo", returnTypeString, new ModelAndViewContainer(), nativeRequest));
+			}
+			else {
+				processor.handleReturnValue("Foo", returnTypeString, new ModelAndViewContainer(), nativeRequest);
+			}
+		}
+
+		verify(stringMessageConverter).canWrite(String.class, null);
+		verify(stringMessageConverter, times(2)).write(eq("Foo"), eq(MediaType.TEXT_PLAIN), isA(HttpOutputMessage.class));
+	}
+
 	@Test
 	public void handleReturnValueNotAcceptable() throws Exception {
 		MediaType accepted = MediaType.APPLICATION_ATOM_XML;
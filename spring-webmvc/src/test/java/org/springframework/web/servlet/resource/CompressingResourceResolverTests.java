@@ -0,0 +1,216 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.FileSystemUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressingResourceResolver}.
+ *
+ * @author Finn Ayers
+ */
+public class CompressingResourceResolverTests {
+
+	private final CompressingResourceResolver compressingResolver = new CompressingResourceResolver();
+
+	private ResourceResolverChain resolver;
+
+	private List<Resource> locations;
+
+	private File cacheDirectory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.compressingResolver.setMinContentLength(0);
+
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.compressingResolver);
+		resolvers.add(new PathResourceResolver());
+		this.resolver = new DefaultResourceResolverChain(resolvers);
+
+		this.locations = Collections.singletonList(new ClassPathResource("test/", getClass()));
+		this.cacheDirectory = Files.createTempDirectory("compressed").toFile();
+	}
+
+	@After
+	public void cleanup() {
+		FileSystemUtils.deleteRecursively(this.cacheDirectory);
+	}
+
+
+	@Test
+	public void resolveCompressed() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		Resource resolved = this.resolver.resolveResource(request, "js/foo.js", this.locations);
+
+		assertThat(resolved).isInstanceOf(HttpResource.class);
+		assertThat(resolved.getFilename()).isEqualTo("foo.js");
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo("Accept-Encoding");
+		assertThat(decompress(resolved)).isEqualTo(getContent("js/foo.js"));
+		assertThat(resolved.contentLength()).isEqualTo(this.compressingResolver.getMemorySize());
+
+		long memorySize = this.compressingResolver.getMemorySize();
+		resolved = this.resolver.resolveResource(request, "js/foo.js", this.locations);
+		assertThat(decompress(resolved)).isEqualTo(getContent("js/foo.js"));
+		assertThat(this.compressingResolver.getMemorySize()).isEqualTo(memorySize);
+	}
+
+	@Test
+	public void resolveUncompressedWithVary() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		Resource resolved = this.resolver.resolveResource(request, "js/foo.js", this.locations);
+
+		assertThat(resolved).isInstanceOf(HttpResource.class);
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo("Accept-Encoding");
+		assertThat(FileCopyUtils.copyToByteArray(resolved.getInputStream())).isEqualTo(getContent("js/foo.js"));
+		assertThat(this.compressingResolver.getMemorySize()).isEqualTo(0);
+	}
+
+	@Test
+	public void resolveNotCompressible() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+
+		this.compressingResolver.setMinContentLength(1024);
+		Resource resolved = this.resolver.resolveResource(request, "js/foo.js", this.locations);
+		assertThat(resolved).isNotInstanceOf(HttpResource.class);
+
+		this.compressingResolver.setMinContentLength(0);
+		resolved = this.resolver.resolveResource(request, "images/image.png", this.locations);
+		assertThat(resolved).isNotInstanceOf(HttpResource.class);
+	}
+
+	@Test
+	public void resolveWithCacheDirectory() throws IOException {
+		this.compressingResolver.setMaxMemorySize(1);
+		this.compressingResolver.setCacheDirectory(this.cacheDirectory);
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+		Resource resolved = this.resolver.resolveResource(request, "js/foo.js", this.locations);
+
+		assertThat(this.compressingResolver.getMemorySize()).isEqualTo(0);
+		assertThat(this.cacheDirectory.list()).hasSize(1);
+		assertThat(decompress(resolved)).isEqualTo(getContent("js/foo.js"));
+	}
+
+	@Test
+	public void resolveEvictsLeastRecentlyUsed() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+		Resource first = this.resolver.resolveResource(request, "js/foo.js", this.locations);
+		this.compressingResolver.setMaxMemorySize(first.contentLength());
+
+		Resource second = this.resolver.resolveResource(request, "foo.css", this.locations);
+		assertThat(this.compressingResolver.getMemorySize()).isEqualTo(second.contentLength());
+		assertThat(decompress(second)).isEqualTo(getContent("foo.css"));
+
+		// Evicted content is compressed again when read
+		assertThat(decompress(first)).isEqualTo(getContent("js/foo.js"));
+	}
+
+	@Test
+	public void resolveConcurrentlyCompressesOnce() throws Exception {
+		AtomicInteger readCount = new AtomicInteger();
+		Resource resource = new ClassPathResource("test/js/foo.js", getClass()) {
+			@Override
+			public InputStream getInputStream() throws IOException {
+				readCount.incrementAndGet();
+				try {
+					Thread.sleep(100);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getInputStream();
+			}
+		};
+		ResourceResolverChain chain = new DefaultResourceResolverChain(Arrays.asList(this.compressingResolver,
+				new AbstractResourceResolver() {
+					@Override
+					protected Resource resolveResourceInternal(@Nullable HttpServletRequest request,
+							String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+						return resource;
+					}
+					@Override
+					protected String resolveUrlPathInternal(String resourceUrlPath,
+							List<? extends Resource> locations, ResourceResolverChain chain) {
+						return resourceUrlPath;
+					}
+				}));
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Resource>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(() -> chain.resolveResource(request, "js/foo.js", this.locations)));
+			}
+			for (Future<Resource> future : futures) {
+				assertThat(decompress(future.get())).isEqualTo(getContent("js/foo.js"));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(readCount.get()).isEqualTo(1);
+	}
+
+
+	private byte[] getContent(String path) throws IOException {
+		return FileCopyUtils.copyToByteArray(new ClassPathResource("test/" + path, getClass()).getInputStream());
+	}
+
+	private static byte[] decompress(Resource resource) throws IOException {
+		return FileCopyUtils.copyToByteArray(new GZIPInputStream(resource.getInputStream()));
+	}
+
+}